@@ -0,0 +1,81 @@
+package com.nutriscan.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pools de threads dédiés aux traitements parallèles (génération IA, streaming).
+ * Chaque pool est borné pour ne pas saturer les quotas des APIs externes.
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Exécute les segments de génération de plan de repas (un appel Gemini par segment).
+     * Le nombre de threads borne le parallélisme global vers Gemini.
+     */
+    @Bean(name = "mealPlanChunkExecutor")
+    public ThreadPoolTaskExecutor mealPlanChunkExecutor(
+            @Value("${mealplan.generation.parallelism:14}") int parallelism,
+            @Value("${mealplan.generation.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("meal-plan-chunk-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pilote les générations diffusées en SSE : chaque thread attend la fin des segments
+     * d'un plan, il ne doit donc jamais partager le pool des segments (risque d'interblocage).
+     */
+    @Bean(name = "mealPlanStreamExecutor")
+    public ThreadPoolTaskExecutor mealPlanStreamExecutor(
+            @Value("${mealplan.stream.max-concurrent:8}") int maxConcurrent) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("meal-plan-stream-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Partitions du batch analytique nocturne (une tâche par plage d'utilisateurs).
+     */
+    @Bean(name = "analyticsBatchExecutor")
+    public ThreadPoolTaskExecutor analyticsBatchExecutor(
+            @Value("${analytics.batch.parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(Integer.MAX_VALUE);
+        executor.setThreadNamePrefix("analytics-batch-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Écrit les exports (WebAsyncTask de ExportController) : un thread par export en cours,
+     * borné pour limiter les connexions JDBC occupées par des curseurs longs.
+     */
+    @Bean(name = "exportStreamExecutor")
+    public ThreadPoolTaskExecutor exportStreamExecutor(
+            @Value("${export.max-concurrent:4}") int maxConcurrent,
+            @Value("${export.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("export-stream-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,13 @@
+package com.nutriscan.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Active le cache Spring (Caffeine, configuré via spring.cache.*).
+ * Caches : "user-goals" (objectifs journaliers par utilisateur).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
@@ -32,6 +32,8 @@ public class CorsConfig {
         // Exposer les headers d'autorisation dans les réponses
         configuration.addExposedHeader("Authorization");
         configuration.addExposedHeader("Content-Type");
+        configuration.addExposedHeader("ETag");
+        configuration.addExposedHeader("Idempotent-Replayed");
 
         // Durée de cache pour les requêtes preflight
         configuration.setMaxAge(3600L);
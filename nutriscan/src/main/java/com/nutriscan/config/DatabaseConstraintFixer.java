@@ -9,7 +9,8 @@ import org.springframework.stereotype.Component;
 
 /**
  * Component to fix database constraints on application startup.
- * This ensures the meals_source_check constraint includes all valid MealSource values.
+ * This ensures the meals_source_check and recommendations_log_type_check constraints
+ * include all valid MealSource / RecommendationType values.
  */
 @Component
 @Order(1)
@@ -22,6 +23,20 @@ public class DatabaseConstraintFixer implements CommandLineRunner {
     @Override
     public void run(String... args) {
         fixMealsSourceConstraint();
+        fixRecommendationTypeConstraint();
+    }
+
+    private void fixRecommendationTypeConstraint() {
+        try {
+            jdbcTemplate.execute("ALTER TABLE recommendations_log DROP CONSTRAINT IF EXISTS recommendations_log_type_check");
+            jdbcTemplate.execute("""
+                ALTER TABLE recommendations_log ADD CONSTRAINT recommendations_log_type_check
+                CHECK (type IN ('DAILY_SUMMARY', 'MEAL', 'PATTERN'))
+                """);
+            log.info("✅ recommendations_log_type_check includes PATTERN");
+        } catch (Exception e) {
+            log.debug("Could not update recommendations_log_type_check: {}", e.getMessage());
+        }
     }
 
     private void fixMealsSourceConstraint() {
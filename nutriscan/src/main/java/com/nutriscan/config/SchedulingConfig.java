@@ -0,0 +1,12 @@
+package com.nutriscan.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les tâches planifiées (@Scheduled) : batch analytique nocturne, maintenance.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,26 @@
+package com.nutriscan.config;
+
+import com.nutriscan.resilience.RateLimitInterceptor;
+import com.nutriscan.web.ETagInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration MVC : limitation de débit des endpoints {@code @RateLimited}, ETag / 304 sur les GET annotés
+ * {@code @ConditionalGet}. Les exports fixent leur propre pool et leur propre délai (WebAsyncTask).
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final ETagInterceptor etagInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(etagInterceptor).addPathPatterns("/api/**");
+    }
+}
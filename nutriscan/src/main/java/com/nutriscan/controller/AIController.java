@@ -1,6 +1,8 @@
 package com.nutriscan.controller;
 
 import com.nutriscan.dto.response.RecipeResponse;
+import com.nutriscan.resilience.RateLimitClass;
+import com.nutriscan.resilience.RateLimited;
 import com.nutriscan.security.CustomUserDetails;
 import com.nutriscan.service.GeminiAIService;
 import com.nutriscan.service.GeminiAIService.*;
@@ -81,6 +83,7 @@ public class AIController {
      * Analyser une image de repas
      */
     @PostMapping("/analyze/image")
+    @RateLimited(RateLimitClass.VISION)
     public ResponseEntity<ImageAnalysisResult> analyzeImage(
             @AuthenticationPrincipal CustomUserDetails currentUser,
             @RequestBody Map<String, String> request
@@ -116,6 +119,7 @@ public class AIController {
      * Chat avec l'assistant nutritionnel
      */
     @PostMapping("/chat")
+    @RateLimited(RateLimitClass.AI_CHAT)
     public ResponseEntity<Map<String, String>> chat(
             @AuthenticationPrincipal CustomUserDetails currentUser,
             @RequestBody Map<String, Object> request
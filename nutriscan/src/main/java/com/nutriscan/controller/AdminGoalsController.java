@@ -0,0 +1,36 @@
+package com.nutriscan.controller;
+
+import com.nutriscan.dto.response.GoalsRecalculationResponse;
+import com.nutriscan.service.GoalsBulkRecalculationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/goals")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminGoalsController {
+
+    private final GoalsBulkRecalculationService goalsBulkRecalculationService;
+
+    /**
+     * Recalculate the daily targets of every user (e.g. after a macro policy change).
+     * With dryRun=true nothing is written: the status reports how many users would change, with sample diffs.
+     * Runs in the background; poll GET /recalculate for progress.
+     */
+    @PostMapping("/recalculate")
+    public ResponseEntity<GoalsRecalculationResponse> recalculate(
+            @RequestParam(defaultValue = "false") boolean dryRun
+    ) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(goalsBulkRecalculationService.start(dryRun));
+    }
+
+    @GetMapping("/recalculate")
+    public ResponseEntity<GoalsRecalculationResponse> status() {
+        GoalsRecalculationResponse status = goalsBulkRecalculationService.status();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.nutriscan.controller;
+
+import com.nutriscan.security.CustomUserDetails;
+import com.nutriscan.service.export.MealExportService;
+import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+@Slf4j
+public class ExportController {
+
+    private final MealExportService mealExportService;
+
+    // Pool et délai propres aux exports : les autres requêtes asynchrones gardent ceux par défaut
+    @Qualifier("exportStreamExecutor")
+    private final AsyncTaskExecutor exportStreamExecutor;
+
+    @Value("${export.timeout-ms:600000}")
+    private long streamTimeoutMs;
+
+    /**
+     * Stream the user's full meal history, one row per meal item.
+     * format: ndjson (default) or csv. Optional from/to (yyyy-MM-dd).
+     */
+    @GetMapping("/meals")
+    public WebAsyncTask<Void> exportMeals(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            HttpServletResponse response,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        MealExportService.Format exportFormat = MealExportService.parseFormat(format);
+        Long userId = currentUser.getId();
+
+        boolean csv = exportFormat == MealExportService.Format.CSV;
+        response.setContentType((csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : MediaType.APPLICATION_NDJSON).toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"meals." + (csv ? "csv" : "ndjson") + "\"");
+
+        return new WebAsyncTask<>(streamTimeoutMs, exportStreamExecutor, () -> {
+            try {
+                mealExportService.export(userId, from, to, exportFormat, response.getOutputStream());
+                response.flushBuffer();
+            } catch (IOException e) {
+                log.debug("Export client disconnected: {}", e.getMessage());
+            }
+            return null;
+        });
+    }
+}
@@ -1,7 +1,9 @@
 package com.nutriscan.controller;
 
 import com.nutriscan.dto.response.FoodResponse;
+import com.nutriscan.dto.response.FoodSearchResponse;
 import com.nutriscan.dto.response.OffProductResponse;
+import com.nutriscan.service.FederatedFoodSearchService;
 import com.nutriscan.service.FoodService;
 import com.nutriscan.service.OpenFoodFactsService;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +19,7 @@ public class FoodController {
 
     private final FoodService foodService;
     private final OpenFoodFactsService openFoodFactsService;
+    private final FederatedFoodSearchService federatedFoodSearchService;
 
     @GetMapping("/{id}")
     public ResponseEntity<FoodResponse> getFoodById(@PathVariable Long id) {
@@ -43,6 +46,18 @@ public class FoodController {
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Search local database, Edamam and OpenFoodFacts in parallel, merged and deduplicated,
+     * with the status of each source at the deadline
+     */
+    @GetMapping("/search/all")
+    public ResponseEntity<FoodSearchResponse> searchAllSources(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "10") Integer limit
+    ) {
+        return ResponseEntity.ok(federatedFoodSearchService.searchAll(query, limit));
+    }
+
     @GetMapping
     public ResponseEntity<List<FoodResponse>> getAllFoods() {
         return ResponseEntity.ok(foodService.getAllFoods());
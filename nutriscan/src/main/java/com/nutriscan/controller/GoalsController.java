@@ -4,6 +4,8 @@ import com.nutriscan.dto.request.UpdateGoalsRequest;
 import com.nutriscan.dto.response.GoalsResponse;
 import com.nutriscan.security.CustomUserDetails;
 import com.nutriscan.service.GoalsService;
+import com.nutriscan.web.ConditionalGet;
+import com.nutriscan.web.ETagResource;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +24,7 @@ public class GoalsController {
      * If no targets exist yet, they are calculated from the profile.
      */
     @GetMapping
+    @ConditionalGet(ETagResource.GOALS)
     public ResponseEntity<GoalsResponse> getGoals(
             @AuthenticationPrincipal CustomUserDetails currentUser
     ) {
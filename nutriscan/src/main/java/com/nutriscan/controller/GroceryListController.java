@@ -1,8 +1,11 @@
 package com.nutriscan.controller;
 
 import com.nutriscan.dto.response.GroceryListResponse;
+import com.nutriscan.dto.response.PageResponse;
 import com.nutriscan.security.CustomUserDetails;
 import com.nutriscan.service.GroceryListService;
+import com.nutriscan.web.ConditionalGet;
+import com.nutriscan.web.ETagResource;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -59,10 +62,24 @@ public class GroceryListController {
         return ResponseEntity.ok(lists);
     }
 
+    /**
+     * Get grocery lists page by page (most recent first).
+     * Pass the returned nextCursor as ?cursor= to fetch the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<PageResponse<GroceryListResponse>> getGroceryListPage(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(groceryListService.getGroceryListPage(currentUser.getId(), cursor, limit));
+    }
+
     /**
      * Get the latest/most recent grocery list for current user
      */
     @GetMapping("/latest")
+    @ConditionalGet(ETagResource.LATEST_GROCERY_LIST)
     public ResponseEntity<GroceryListResponse> getLatestGroceryList(
             @AuthenticationPrincipal CustomUserDetails currentUser
     ) {
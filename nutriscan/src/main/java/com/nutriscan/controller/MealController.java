@@ -5,6 +5,8 @@ import com.nutriscan.dto.response.DailySummaryResponse;
 import com.nutriscan.dto.response.MealResponse;
 import com.nutriscan.security.CustomUserDetails;
 import com.nutriscan.service.MealService;
+import com.nutriscan.web.ConditionalGet;
+import com.nutriscan.web.ETagResource;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -51,6 +53,7 @@ public class MealController {
      * Get daily nutrition summary.
      */
     @GetMapping("/summary")
+    @ConditionalGet(ETagResource.MEALS_SUMMARY)
     public ResponseEntity<DailySummaryResponse> getDailySummary(
             @AuthenticationPrincipal CustomUserDetails currentUser,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
@@ -2,28 +2,48 @@ package com.nutriscan.controller;
 
 import com.nutriscan.dto.request.GenerateMealPlanRequest;
 import com.nutriscan.dto.response.MealPlanResponse;
+import com.nutriscan.dto.response.PageResponse;
 import com.nutriscan.dto.response.RecipeResponse;
+import com.nutriscan.exception.BusinessException;
 import com.nutriscan.security.CustomUserDetails;
-import com.nutriscan.service.EdamamRecipeService;
 import com.nutriscan.service.MealPlanService;
+import com.nutriscan.service.RecipeCatalogService;
+import com.nutriscan.web.ConditionalGet;
+import com.nutriscan.web.ETagResource;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/meal-planner")
 @RequiredArgsConstructor
+@Slf4j
 public class MealPlannerController {
 
     private final MealPlanService mealPlanService;
-    private final EdamamRecipeService recipeService;
+    private final RecipeCatalogService recipeCatalogService;
+
+    @Qualifier("mealPlanStreamExecutor")
+    private final TaskExecutor mealPlanStreamExecutor;
+
+    @Value("${mealplan.stream.timeout-ms:180000}")
+    private long streamTimeoutMs;
 
     /**
-     * Search recipes
+     * Search recipes (served from the local recipe catalog when the same search was done recently)
      */
     @GetMapping("/recipes/search")
     public ResponseEntity<List<RecipeResponse>> searchRecipes(
@@ -36,7 +56,7 @@ public class MealPlannerController {
             @RequestParam(required = false) Integer calories,
             @RequestParam(defaultValue = "10") Integer limit
     ) {
-        List<RecipeResponse> recipes = recipeService.searchRecipes(
+        List<RecipeResponse> recipes = recipeCatalogService.searchRecipes(
                 query, diet, health, cuisineType, mealType, calories, limit
         );
         return ResponseEntity.ok(recipes);
@@ -54,6 +74,47 @@ public class MealPlannerController {
         return ResponseEntity.status(201).body(response);
     }
 
+    /**
+     * Generate meal plan with streamed progress (Server-Sent Events).
+     * Events: "progress" (one per generated chunk of days), then "complete" with the saved plan,
+     * or "error" if the generation failed.
+     */
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter generateMealPlanStream(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @Valid @RequestBody GenerateMealPlanRequest request
+    ) {
+        Long userId = currentUser.getId();
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+
+        try {
+            mealPlanStreamExecutor.execute(() -> {
+                try {
+                    MealPlanResponse response = mealPlanService.generateMealPlan(userId, request,
+                            progress -> sendEvent(emitter, "progress", progress));
+                    sendEvent(emitter, "complete", response);
+                    emitter.complete();
+                } catch (Exception e) {
+                    log.error("❌ Streamed meal plan generation failed for user {}: {}", userId, e.getMessage());
+                    sendEvent(emitter, "error", Map.of("message", e.getMessage() != null ? e.getMessage() : "Generation failed"));
+                    emitter.complete();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            throw new BusinessException("Too many meal plans are being generated, please retry in a moment");
+        }
+
+        return emitter;
+    }
+
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("SSE client disconnected: {}", e.getMessage());
+        }
+    }
+
     /**
      * Get all meal plans for current user
      */
@@ -65,10 +126,24 @@ public class MealPlannerController {
         return ResponseEntity.ok(plans);
     }
 
+    /**
+     * Get meal plans page by page (most recent first).
+     * Pass the returned nextCursor as ?cursor= to fetch the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<PageResponse<MealPlanResponse>> getMealPlanPage(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(mealPlanService.getMealPlanPage(currentUser.getId(), cursor, limit));
+    }
+
     /**
      * Get the latest/most recent meal plan for current user
      */
     @GetMapping("/latest")
+    @ConditionalGet(ETagResource.LATEST_MEAL_PLAN)
     public ResponseEntity<MealPlanResponse> getLatestMealPlan(
             @AuthenticationPrincipal CustomUserDetails currentUser
     ) {
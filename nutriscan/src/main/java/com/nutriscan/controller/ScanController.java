@@ -2,6 +2,8 @@ package com.nutriscan.controller;
 
 import com.nutriscan.dto.request.MealScanRequest;
 import com.nutriscan.dto.response.MealScanResponse;
+import com.nutriscan.resilience.RateLimitClass;
+import com.nutriscan.resilience.RateLimited;
 import com.nutriscan.security.CustomUserDetails;
 import com.nutriscan.service.MealScanService;
 import jakarta.validation.Valid;
@@ -85,6 +87,7 @@ public class ScanController {
      * - mealType: BREAKFAST | LUNCH | DINNER | SNACK (optionnel)
      */
     @PostMapping(value = "/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @RateLimited(RateLimitClass.VISION)
     public ResponseEntity<MealScanResponse> scanImage(
             @AuthenticationPrincipal CustomUserDetails currentUser,
             @RequestParam("file") MultipartFile file,
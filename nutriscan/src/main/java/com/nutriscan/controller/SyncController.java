@@ -0,0 +1,30 @@
+package com.nutriscan.controller;
+
+import com.nutriscan.dto.response.SyncResponse;
+import com.nutriscan.security.CustomUserDetails;
+import com.nutriscan.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+
+    /**
+     * Changes (meals, meal plans, grocery lists, weight entries, goals, deletions) since the given cursor.
+     * Without a cursor, or with an expired one, returns fullResync=true and a fresh cursor.
+     * Store the returned cursor and send it back as ?since= on the next call.
+     */
+    @GetMapping
+    public ResponseEntity<SyncResponse> sync(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @RequestParam(required = false) String since
+    ) {
+        return ResponseEntity.ok(syncService.changesSince(currentUser.getId(), since));
+    }
+}
@@ -1,6 +1,7 @@
 package com.nutriscan.controller;
 
 import com.nutriscan.dto.request.WeightEntryRequest;
+import com.nutriscan.dto.response.PageResponse;
 import com.nutriscan.dto.response.WeightHistoryResponse;
 import com.nutriscan.security.CustomUserDetails;
 import com.nutriscan.service.TrackingService;
@@ -52,8 +53,23 @@ public class TrackingController {
         return ResponseEntity.ok(history);
     }
 
+    /**
+     * Get weight history page by page (most recent first).
+     * Pass the returned nextCursor as ?cursor= to fetch the next page.
+     */
+    @GetMapping("/weight/page")
+    public ResponseEntity<PageResponse<WeightHistoryResponse>> getWeightHistoryPage(
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(trackingService.getWeightHistoryPage(currentUser.getId(), cursor, limit));
+    }
+
     /**
      * Get weight history - alias endpoint (weight-history instead of weight).
+     * Optional: points (downsample to that many entries, method=lttb|minmax; at least 3, or 4 for minmax)
+     * and smoothing (EMA trend over that many days, returned as trendKg).
      */
     @GetMapping("/weight-history")
     public ResponseEntity<List<WeightHistoryResponse>> getWeightHistoryAlias(
@@ -61,10 +77,13 @@ public class TrackingController {
             @RequestParam(required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false)
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer points,
+            @RequestParam(required = false) Double smoothing,
+            @RequestParam(required = false) String method
     ) {
-        List<WeightHistoryResponse> history =
-                trackingService.getWeightHistory(currentUser.getId(), startDate, endDate);
+        List<WeightHistoryResponse> history = trackingService.getWeightHistory(
+                currentUser.getId(), startDate, endDate, points, smoothing, method);
         return ResponseEntity.ok(history);
     }
 }
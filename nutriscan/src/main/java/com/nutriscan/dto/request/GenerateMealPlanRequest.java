@@ -1,6 +1,7 @@
 package com.nutriscan.dto.request;
 
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -28,5 +29,8 @@ public class GenerateMealPlanRequest {
     private List<String> excludedIngredients; // allergies or dislikes
 
     private String cuisine; // italian, french, asian, etc. (optional)
+
+    @Pattern(regexp = "(?i)AI|LOCAL", message = "strategy must be AI or LOCAL")
+    private String strategy; // AI (Gemini) or LOCAL (instant local planner). Default: mealplan.default-strategy
 }
 
@@ -0,0 +1,56 @@
+package com.nutriscan.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Recherche d'aliments fédérée (base locale, Edamam, OpenFoodFacts) : résultats fusionnés et dédoublonnés,
+ * plus l'état de chaque source à l'échéance.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodSearchResponse {
+    private String query;
+    private Long tookMs;
+    private List<SourceStatus> sources;
+    private List<Item> items;
+
+    @Getter
+    @Setter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SourceStatus {
+        private String source;          // LOCAL, EDAMAM, OPEN_FOOD_FACTS
+        private String status;          // OK, TIMEOUT, UNAVAILABLE, FAILED
+        private Integer count;          // résultats reçus (avant dédoublonnage)
+        private Long tookMs;            // null si la source n'a pas répondu à temps
+    }
+
+    @Getter
+    @Setter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String source;
+        private Long foodId;            // aliment local uniquement
+        private String barcode;         // OpenFoodFacts uniquement
+        private String name;
+        private String brand;
+        private String imageUrl;
+        private String nutriScore;
+
+        // Par portion (servingSize servingUnit) pour la base locale, pour 100 g sinon
+        private Double servingSize;
+        private String servingUnit;
+        private Double calories;
+        private Double protein;
+        private Double carbs;
+        private Double fat;
+    }
+}
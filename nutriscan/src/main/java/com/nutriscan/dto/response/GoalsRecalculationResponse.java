@@ -0,0 +1,46 @@
+package com.nutriscan.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Avancement (ou résultat) d'un recalcul en masse des objectifs journaliers.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GoalsRecalculationResponse {
+    private Boolean dryRun;
+    private String status;          // RUNNING, DONE, FAILED
+    private String error;
+    private Long totalUsers;
+    private Long processedUsers;
+    private Long changedUsers;      // objectifs différents (ou absents) après recalcul
+    private Long newTargets;        // utilisateurs sans objectifs jusqu'ici
+    private Double meanCalorieDelta; // écart moyen en kcal sur les objectifs existants modifiés
+    private Long usersPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private List<Diff> sampleDiffs;  // premiers changements rencontrés (ancienne valeur null = pas d'objectifs)
+
+    @Getter
+    @Setter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Diff {
+        private Long userId;
+        private Double oldTargetCalories;
+        private Double newTargetCalories;
+        private Double oldProteinGr;
+        private Double newProteinGr;
+        private Double oldCarbsGr;
+        private Double newCarbsGr;
+        private Double oldFatGr;
+        private Double newFatGr;
+    }
+}
@@ -0,0 +1,22 @@
+package com.nutriscan.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Événement de progression envoyé (SSE) pendant la génération d'un plan de repas.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealPlanProgressResponse {
+    private Integer completedDays;
+    private Integer totalDays;
+    private LocalDate chunkStart;
+    private LocalDate chunkEnd;
+    private Boolean aiGenerated; // false si le segment a échoué et sera complété par des recettes par défaut
+    private Boolean timedOut; // true si le segment a dépassé generation.timeout-seconds (aiGenerated est alors false)
+}
@@ -0,0 +1,22 @@
+package com.nutriscan.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page d'un historique paginé par curseur (keyset).
+ * {@code nextCursor} est à renvoyer tel quel dans {@code ?cursor=} pour obtenir la page suivante ; null en fin de liste.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,37 @@
+package com.nutriscan.dto.response;
+
+import com.nutriscan.model.enums.SyncEntityType;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Changements depuis le curseur du client. Les lignes peuvent revenir d'une synchro à l'autre
+ * (marge de recouvrement) : le client les applique par id, comme des upserts.
+ * Si {@code fullResync} est vrai, le client doit tout recharger via les endpoints classiques.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponse {
+    private String cursor;
+    private boolean fullResync;
+    private List<MealResponse> meals;
+    private List<MealPlanResponse> mealPlans;
+    private List<GroceryListResponse> groceryLists;
+    private List<WeightHistoryResponse> weightEntries;
+    private GoalsResponse goals; // null si inchangés
+    private List<Deletion> deleted;
+
+    @Getter
+    @Setter
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Deletion {
+        private SyncEntityType type;
+        private Long id;
+    }
+}
@@ -15,4 +15,7 @@ public class WeightHistoryResponse {
     private LocalDate date;
     private Double weightKg;
     private Double bmi;
+
+    // Tendance lissée (EMA), seulement si smoothing est demandé
+    private Double trendKg;
 }
@@ -0,0 +1,54 @@
+package com.nutriscan.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Partition d'une exécution du batch : plage d'ids utilisateurs [fromUserId, toUserId[
+ * avec point de reprise (dernier utilisateur entièrement traité et persisté).
+ */
+@Entity
+@Table(name = "analytics_batch_partitions",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"run_id", "partition_index"}))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsBatchPartition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "partition_index", nullable = false)
+    private Integer partitionIndex;
+
+    @Column(nullable = false)
+    private Long fromUserId;
+
+    @Column(nullable = false)
+    private Long toUserId; // exclusif
+
+    private Long lastUserId; // checkpoint, null si rien de traité
+
+    @Column(nullable = false, length = 20)
+    private String status; // PENDING, RUNNING, DONE, FAILED
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long usersProcessed = 0L;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,41 @@
+package com.nutriscan.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Exécution du batch analytique nocturne pour une journée (une seule par date, reprise si interrompue).
+ */
+@Entity
+@Table(name = "analytics_batch_runs")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsBatchRun {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private LocalDate runDate; // journée analysée
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    private Long usersProcessed;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
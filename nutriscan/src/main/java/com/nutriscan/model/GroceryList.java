@@ -9,7 +9,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "grocery_lists")
+@Table(name = "grocery_lists",
+        indexes = @Index(name = "idx_grocery_lists_user_created", columnList = "user_id, created_at DESC, id DESC"))
 @Getter
 @Setter
 @Builder
@@ -5,12 +5,14 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "meals")
+@Table(name = "meals",
+        indexes = @Index(name = "idx_meals_user_date", columnList = "user_id, date"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,6 +20,7 @@ import java.util.List;
 @Builder
 public class Meal {
 
+    // Partitioned table (V9): the database key is (id, date), id alone is unique through its sequence
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -46,4 +49,13 @@ public class Meal {
     @OneToMany(mappedBy = "meal", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<MealItem> items = new ArrayList<>();
+
+    // Last change, read by /api/sync
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
 }
@@ -3,6 +3,8 @@ package com.nutriscan.model;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDate;
+
 @Entity
 @Table(name = "meal_items")
 @Getter
@@ -21,6 +23,10 @@ public class MealItem {
     @JoinColumn(name = "meal_id")
     private Meal meal;
 
+    // Copy of the parent meal's date: meal_items is partitioned by month like meals (see V9)
+    @Column(name = "meal_date")
+    private LocalDate mealDate;
+
     // Food reference
     // NOTE: Can be NULL for API foods (Edamam, OpenFoodFacts)
     // Only populated for local database foods
@@ -43,4 +49,12 @@ public class MealItem {
     private Double protein;
     private Double carbs;
     private Double fat;
+
+    @PrePersist
+    @PreUpdate
+    void syncMealDate() {
+        if (meal != null) {
+            mealDate = meal.getDate();
+        }
+    }
 }
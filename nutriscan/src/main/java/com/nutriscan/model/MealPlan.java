@@ -9,7 +9,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "meal_plans")
+@Table(name = "meal_plans",
+        indexes = @Index(name = "idx_meal_plans_user_created", columnList = "user_id, created_at DESC, id DESC"))
 @Getter
 @Setter
 @Builder
@@ -0,0 +1,85 @@
+package com.nutriscan.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recette connue (Edamam ou générée par l'IA), conservée pour servir les recherches répétées
+ * sans rappeler l'API.
+ */
+@Entity
+@Table(name = "recipes")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Recipe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 500)
+    private String uri;
+
+    @Column(nullable = false)
+    private String label;
+
+    @Column(length = 1000)
+    private String image;
+
+    private String source;
+
+    @Column(length = 1000)
+    private String url;
+
+    private Integer servings;
+    private Double calories;
+    private Double totalTime;
+
+    // Macros dénormalisées (recette entière) pour le planificateur local
+    private Double protein;
+    private Double carbs;
+    private Double fat;
+
+    @Column(length = 20)
+    private String mealType; // BREAKFAST, LUNCH, DINNER, SNACK (si connu)
+
+    @Column(columnDefinition = "TEXT")
+    private String dietLabels; // JSON array stored as text
+
+    @Column(columnDefinition = "TEXT")
+    private String healthLabels; // JSON array stored as text
+
+    @Column(columnDefinition = "TEXT")
+    private String nutrition; // RecipeResponse.NutritionInfo as JSON
+
+    @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("position ASC")
+    @BatchSize(size = 50)
+    @Builder.Default
+    private List<RecipeIngredient> ingredients = new ArrayList<>();
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,28 @@
+package com.nutriscan.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "recipe_ingredients")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeIngredient {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "recipe_id", nullable = false)
+    private Recipe recipe;
+
+    @Column(nullable = false)
+    private Integer position;
+
+    @Column(nullable = false, length = 500)
+    private String text; // ligne d'origine, ex: "200g poulet grillé"
+}
@@ -0,0 +1,47 @@
+package com.nutriscan.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résultat mis en cache d'une recherche de recettes, indexé par la requête normalisée + filtres.
+ */
+@Entity
+@Table(name = "recipe_search_cache")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeSearchCache {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String cacheKey; // SHA-256 de la requête normalisée
+
+    @Column(nullable = false, length = 1000)
+    private String normalizedQuery;
+
+    @ManyToMany
+    @JoinTable(
+            name = "recipe_search_cache_results",
+            joinColumns = @JoinColumn(name = "cache_id"),
+            inverseJoinColumns = @JoinColumn(name = "recipe_id")
+    )
+    @OrderColumn(name = "position")
+    @Builder.Default
+    private List<Recipe> recipes = new ArrayList<>();
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,51 @@
+package com.nutriscan.model;
+
+import com.nutriscan.model.enums.RecommendationType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Résumé des lignes de recommendations_log compactées pour un (utilisateur, type, jour) :
+ * seules les dernières lignes de chaque jour sont gardées en détail, le reste est cumulé ici.
+ */
+@Entity
+@Table(name = "recommendations_daily_aggregates",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "type", "date"}))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationsDailyAggregate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private RecommendationType type;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    /**
+     * Nombre de lignes compactées (avec ou sans score).
+     */
+    @Column(nullable = false)
+    private Long rowCount;
+
+    private Long scoreCount;
+    private Double scoreSum;
+    private Double minScore;
+    private Double maxScore;
+
+    private LocalDateTime firstCreatedAt;
+    private LocalDateTime lastCreatedAt;
+}
@@ -8,7 +8,12 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "recommendations_log")
+@Table(name = "recommendations_log", indexes = {
+        @Index(name = "idx_recommendations_log_user_type_created",
+                columnList = "user_id, type, created_at DESC, id DESC"),
+        @Index(name = "idx_recommendations_log_user_type_date_created",
+                columnList = "user_id, type, date, created_at DESC, id DESC")
+})
 @Getter
 @Setter
 @NoArgsConstructor
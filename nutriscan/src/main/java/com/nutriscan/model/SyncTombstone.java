@@ -0,0 +1,47 @@
+package com.nutriscan.model;
+
+import com.nutriscan.model.enums.SyncEntityType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trace d'une suppression, pour que /api/sync puisse la transmettre aux clients mobiles
+ * (une ligne supprimée n'a plus de updated_at). Purgée après sync.tombstones.retention-days.
+ */
+@Entity
+@Table(name = "sync_tombstones")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private SyncEntityType entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+
+    public static SyncTombstone of(Long userId, SyncEntityType type, Long entityId) {
+        return SyncTombstone.builder()
+                .userId(userId)
+                .entityType(type)
+                .entityId(entityId)
+                .deletedAt(LocalDateTime.now())
+                .build();
+    }
+}
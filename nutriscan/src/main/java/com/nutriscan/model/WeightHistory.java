@@ -4,9 +4,11 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "weight_history")
+@Table(name = "weight_history",
+        indexes = @Index(name = "idx_weight_history_user_date", columnList = "user_id, date, id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -38,4 +40,15 @@ public class WeightHistory {
      * BMI (IMC) at that moment. Optional if height missing.
      */
     private Double bmi;
+
+    /**
+     * Last change, read by /api/sync
+     */
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
 }
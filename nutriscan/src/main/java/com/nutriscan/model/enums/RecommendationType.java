@@ -2,5 +2,6 @@ package com.nutriscan.model.enums;
 
 public enum RecommendationType {
     DAILY_SUMMARY,
-    MEAL
+    MEAL,
+    PATTERN
 }
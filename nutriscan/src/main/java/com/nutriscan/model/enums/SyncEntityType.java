@@ -0,0 +1,9 @@
+package com.nutriscan.model.enums;
+
+public enum SyncEntityType {
+    MEAL,
+    MEAL_PLAN,
+    GROCERY_LIST,
+    WEIGHT_ENTRY,
+    GOALS
+}
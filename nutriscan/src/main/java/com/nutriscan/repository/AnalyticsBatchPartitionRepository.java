@@ -0,0 +1,21 @@
+package com.nutriscan.repository;
+
+import com.nutriscan.model.AnalyticsBatchPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AnalyticsBatchPartitionRepository extends JpaRepository<AnalyticsBatchPartition, Long> {
+
+    List<AnalyticsBatchPartition> findByRunIdOrderByPartitionIndex(Long runId);
+
+    @Modifying
+    @Query("UPDATE AnalyticsBatchPartition p SET p.lastUserId = :lastUserId, " +
+           "p.usersProcessed = p.usersProcessed + :users, p.status = :status, p.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE p.id = :id")
+    int checkpoint(@Param("id") Long id, @Param("lastUserId") Long lastUserId,
+                   @Param("users") long users, @Param("status") String status);
+}
@@ -0,0 +1,15 @@
+package com.nutriscan.repository;
+
+import com.nutriscan.model.AnalyticsBatchRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface AnalyticsBatchRunRepository extends JpaRepository<AnalyticsBatchRun, Long> {
+
+    Optional<AnalyticsBatchRun> findByRunDate(LocalDate runDate);
+
+    List<AnalyticsBatchRun> findByStatusNotOrderByRunDate(String status);
+}
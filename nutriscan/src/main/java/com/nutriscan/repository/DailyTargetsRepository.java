@@ -2,12 +2,20 @@ package com.nutriscan.repository;
 
 import com.nutriscan.model.DailyTargets;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface DailyTargetsRepository extends JpaRepository<DailyTargets, Long> {
 
-    Optional<DailyTargets> findByUserId(Long userId);
+    @Query("SELECT t FROM DailyTargets t JOIN FETCH t.user WHERE t.user.id = :userId")
+    Optional<DailyTargets> findByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT CASE WHEN count(t) > 0 THEN true ELSE false END FROM DailyTargets t " +
+           "WHERE t.user.id = :userId AND t.updatedAt > :since")
+    boolean existsChangedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
 
     void deleteByUserId(Long userId);
 }
@@ -1,12 +1,14 @@
 package com.nutriscan.repository;
 
 import com.nutriscan.model.GroceryList;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,10 +18,31 @@ public interface GroceryListRepository extends JpaRepository<GroceryList, Long>
     @Query("SELECT gl FROM GroceryList gl WHERE gl.user.id = :userId ORDER BY gl.createdAt DESC, gl.id DESC")
     List<GroceryList> findByUserId(@Param("userId") Long userId);
 
+    Optional<GroceryList> findFirstByUserIdOrderByCreatedAtDescIdDesc(Long userId);
+
+    /**
+     * Première page de l'historique, plus récentes d'abord (index grocery_lists(user_id, created_at DESC, id DESC)).
+     */
+    @Query("SELECT gl FROM GroceryList gl WHERE gl.user.id = :userId ORDER BY gl.createdAt DESC, gl.id DESC")
+    List<GroceryList> findPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Page suivante : listes strictement après le curseur (createdAt, id) dans l'ordre décroissant.
+     */
+    @Query("SELECT gl FROM GroceryList gl WHERE gl.user.id = :userId " +
+           "AND (gl.createdAt < :createdAt OR (gl.createdAt = :createdAt AND gl.id < :id)) " +
+           "ORDER BY gl.createdAt DESC, gl.id DESC")
+    List<GroceryList> findPageByUserIdBefore(@Param("userId") Long userId,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+
     @Query("SELECT gl FROM GroceryList gl WHERE gl.user.id = :userId AND gl.generatedDate = :date")
     Optional<GroceryList> findByUserIdAndDate(@Param("userId") Long userId, @Param("date") LocalDate date);
 
     @Query("SELECT gl FROM GroceryList gl WHERE gl.mealPlan.id = :mealPlanId")
     Optional<GroceryList> findByMealPlanId(@Param("mealPlanId") Long mealPlanId);
-}
 
+    @Query("SELECT gl FROM GroceryList gl WHERE gl.user.id = :userId AND gl.updatedAt > :since ORDER BY gl.updatedAt, gl.id")
+    List<GroceryList> findChangedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since, Pageable pageable);
+}
@@ -1,13 +1,16 @@
 package com.nutriscan.repository;
 
 import com.nutriscan.model.MealPlan;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MealPlanRepository extends JpaRepository<MealPlan, Long> {
@@ -15,12 +18,40 @@ public interface MealPlanRepository extends JpaRepository<MealPlan, Long> {
     @Query("SELECT mp FROM MealPlan mp WHERE mp.user.id = :userId ORDER BY mp.createdAt DESC, mp.id DESC")
     List<MealPlan> findByUserId(@Param("userId") Long userId);
 
+    Optional<MealPlan> findFirstByUserIdOrderByCreatedAtDescIdDesc(Long userId);
+
+    /**
+     * Première page de l'historique, plus récents d'abord (index meal_plans(user_id, created_at DESC, id DESC)).
+     */
+    @Query("SELECT mp FROM MealPlan mp WHERE mp.user.id = :userId ORDER BY mp.createdAt DESC, mp.id DESC")
+    List<MealPlan> findPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Page suivante : plans strictement après le curseur (createdAt, id) dans l'ordre décroissant.
+     */
+    @Query("SELECT mp FROM MealPlan mp WHERE mp.user.id = :userId " +
+           "AND (mp.createdAt < :createdAt OR (mp.createdAt = :createdAt AND mp.id < :id)) " +
+           "ORDER BY mp.createdAt DESC, mp.id DESC")
+    List<MealPlan> findPageByUserIdBefore(@Param("userId") Long userId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
     @Query("SELECT mp FROM MealPlan mp WHERE mp.user.id = :userId AND mp.startDate <= :date AND mp.endDate >= :date ORDER BY mp.createdAt DESC")
     List<MealPlan> findByUserIdAndDateRange(@Param("userId") Long userId, @Param("date") LocalDate date);
 
+    @Query("SELECT DISTINCT mp FROM MealPlan mp LEFT JOIN FETCH mp.plannedMeals " +
+           "WHERE mp.user.id = :userId AND mp.startDate <= :endDate AND mp.endDate >= :startDate " +
+           "ORDER BY mp.createdAt DESC, mp.id DESC")
+    List<MealPlan> findOverlappingWithMeals(@Param("userId") Long userId,
+                                            @Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate);
+
     @Query("SELECT mp FROM MealPlan mp WHERE mp.user.id = :userId AND mp.startDate >= :startDate AND mp.endDate <= :endDate")
     List<MealPlan> findByUserIdAndDateBetween(@Param("userId") Long userId,
                                                 @Param("startDate") LocalDate startDate,
                                                 @Param("endDate") LocalDate endDate);
-}
 
+    @Query("SELECT mp FROM MealPlan mp WHERE mp.user.id = :userId AND mp.updatedAt > :since ORDER BY mp.updatedAt, mp.id")
+    List<MealPlan> findChangedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since, Pageable pageable);
+}
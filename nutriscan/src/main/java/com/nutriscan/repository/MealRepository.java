@@ -1,18 +1,65 @@
 package com.nutriscan.repository;
 
 import com.nutriscan.model.Meal;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+/**
+ * meals est partitionnée par mois sur date en production (V9) : les requêtes de liste gardent
+ * toujours un filtre sur m.date pour que PostgreSQL ne parcoure que les partitions concernées.
+ */
 public interface MealRepository extends JpaRepository<Meal, Long> {
 
     @Query("SELECT m FROM Meal m WHERE m.user.id = :userId AND m.date = :date ORDER BY m.time")
     List<Meal> findByUserIdAndDate(@Param("userId") Long userId, @Param("date") LocalDate date);
 
+    /**
+     * Repas d'une journée avec leurs items et aliments en une seule requête (journal, résumé, scores).
+     */
+    @Query("SELECT DISTINCT m FROM Meal m LEFT JOIN FETCH m.items i LEFT JOIN FETCH i.food " +
+           "WHERE m.user.id = :userId AND m.date = :date ORDER BY m.time")
+    List<Meal> findWithItemsByUserIdAndDate(@Param("userId") Long userId, @Param("date") LocalDate date);
+
     @Query("SELECT m FROM Meal m WHERE m.user.id = :userId AND m.date BETWEEN :startDate AND :endDate ORDER BY m.date, m.time")
     List<Meal> findByUserIdAndDateBetween(@Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT DISTINCT m FROM Meal m LEFT JOIN FETCH m.items i LEFT JOIN FETCH i.food " +
+           "WHERE m.user.id = :userId AND m.date BETWEEN :startDate AND :endDate ORDER BY m.date, m.time")
+    List<Meal> findWithItemsByUserIdAndDateBetween(@Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Un repas de la période a-t-il été créé ou modifié après {@code since} (validité des résultats précalculés) ?
+     */
+    @Query("SELECT CASE WHEN count(m) > 0 THEN true ELSE false END FROM Meal m " +
+           "WHERE m.user.id = :userId AND m.date BETWEEN :from AND :to AND m.updatedAt > :since")
+    boolean existsChangedSince(@Param("userId") Long userId, @Param("from") LocalDate from,
+                               @Param("to") LocalDate to, @Param("since") LocalDateTime since);
+
+    /**
+     * Ids et dates des repas modifiés depuis {@code since} (flux /api/sync), paginés avant de charger les items.
+     */
+    @Query("SELECT m.id AS id, m.date AS date FROM Meal m " +
+           "WHERE m.user.id = :userId AND m.updatedAt > :since ORDER BY m.updatedAt, m.id")
+    List<MealKey> findIdsChangedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since, Pageable pageable);
+
+    /**
+     * Repas par ids, bornés aux dates min/max de la page pour ne lire que les partitions concernées.
+     */
+    @Query("SELECT DISTINCT m FROM Meal m LEFT JOIN FETCH m.items i LEFT JOIN FETCH i.food " +
+           "WHERE m.id IN :ids AND m.date BETWEEN :startDate AND :endDate ORDER BY m.updatedAt, m.id")
+    List<Meal> findWithItemsByIdIn(@Param("ids") Collection<Long> ids,
+                                   @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    interface MealKey {
+        Long getId();
+
+        LocalDate getDate();
+    }
 }
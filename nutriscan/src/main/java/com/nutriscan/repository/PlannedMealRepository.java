@@ -0,0 +1,18 @@
+package com.nutriscan.repository;
+
+import com.nutriscan.model.PlannedMeal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PlannedMealRepository extends JpaRepository<PlannedMeal, Long> {
+
+    @Query("SELECT pm FROM PlannedMeal pm WHERE pm.mealPlan.user.id = :userId AND pm.calories IS NOT NULL " +
+           "ORDER BY pm.createdAt DESC, pm.id DESC")
+    List<PlannedMeal> findRecentByUserId(@Param("userId") Long userId, Pageable pageable);
+}
@@ -0,0 +1,22 @@
+package com.nutriscan.repository;
+
+import com.nutriscan.model.Recipe;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RecipeRepository extends JpaRepository<Recipe, Long> {
+
+    Optional<Recipe> findByUri(String uri);
+
+    List<Recipe> findByUriIn(Collection<String> uris);
+
+    @Query("SELECT r FROM Recipe r WHERE r.mealType IS NOT NULL AND r.calories IS NOT NULL ORDER BY r.updatedAt DESC")
+    List<Recipe> findRecentWithMealType(Pageable pageable);
+}
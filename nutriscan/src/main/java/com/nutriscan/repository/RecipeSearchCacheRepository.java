@@ -0,0 +1,16 @@
+package com.nutriscan.repository;
+
+import com.nutriscan.model.RecipeSearchCache;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RecipeSearchCacheRepository extends JpaRepository<RecipeSearchCache, Long> {
+
+    @Query("SELECT c FROM RecipeSearchCache c LEFT JOIN FETCH c.recipes WHERE c.cacheKey = :cacheKey")
+    Optional<RecipeSearchCache> findByCacheKeyWithRecipes(@Param("cacheKey") String cacheKey);
+}
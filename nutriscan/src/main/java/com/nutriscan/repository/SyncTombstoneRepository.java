@@ -0,0 +1,31 @@
+package com.nutriscan.repository;
+
+import com.nutriscan.model.SyncTombstone;
+import com.nutriscan.model.enums.SyncEntityType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    @Query("SELECT t FROM SyncTombstone t WHERE t.userId = :userId AND t.deletedAt > :since ORDER BY t.deletedAt, t.id")
+    List<SyncTombstone> findChangedSince(@Param("userId") Long userId,
+                                         @Param("since") LocalDateTime since,
+                                         Pageable pageable);
+
+    @Query("SELECT CASE WHEN count(t) > 0 THEN true ELSE false END FROM SyncTombstone t " +
+           "WHERE t.userId = :userId AND t.entityType IN :types AND t.deletedAt > :since")
+    boolean existsDeletedSince(@Param("userId") Long userId,
+                               @Param("types") Collection<SyncEntityType> types,
+                               @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM SyncTombstone t WHERE t.deletedAt < :before")
+    int purgeBefore(@Param("before") LocalDateTime before);
+}
@@ -1,9 +1,13 @@
 package com.nutriscan.repository;
 
 import com.nutriscan.model.WeightHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface WeightHistoryRepository extends JpaRepository<WeightHistory, Long> {
@@ -15,4 +19,24 @@ public interface WeightHistoryRepository extends JpaRepository<WeightHistory, Lo
             LocalDate from,
             LocalDate to
     );
+
+    /**
+     * Première page de l'historique de poids, plus récentes d'abord (index weight_history(user_id, date, id)).
+     */
+    @Query("SELECT w FROM WeightHistory w WHERE w.user.id = :userId ORDER BY w.date DESC, w.id DESC")
+    List<WeightHistory> findPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Page suivante : mesures strictement après le curseur (date, id) dans l'ordre décroissant.
+     */
+    @Query("SELECT w FROM WeightHistory w WHERE w.user.id = :userId " +
+           "AND (w.date < :date OR (w.date = :date AND w.id < :id)) " +
+           "ORDER BY w.date DESC, w.id DESC")
+    List<WeightHistory> findPageByUserIdBefore(@Param("userId") Long userId,
+                                               @Param("date") LocalDate date,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+
+    @Query("SELECT w FROM WeightHistory w WHERE w.user.id = :userId AND w.updatedAt > :since ORDER BY w.updatedAt, w.id")
+    List<WeightHistory> findChangedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since, Pageable pageable);
 }
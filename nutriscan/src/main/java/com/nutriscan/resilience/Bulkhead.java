@@ -0,0 +1,43 @@
+package com.nutriscan.resilience;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cloison d'une dépendance : nombre borné d'appels simultanés, attente bornée pour obtenir une place.
+ * Une panne lente d'un upstream n'immobilise ainsi que ses propres places, pas les threads des autres requêtes.
+ */
+public final class Bulkhead {
+
+    private final int maxConcurrent;
+    private final long maxWaitMs;
+    private final Semaphore permits;
+
+    public Bulkhead(int maxConcurrent, long maxWaitMs) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMs = maxWaitMs;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    public boolean tryEnter() {
+        if (maxWaitMs <= 0) return permits.tryAcquire();
+        try {
+            return permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    public int maxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+}
@@ -0,0 +1,128 @@
+package com.nutriscan.resilience;
+
+/**
+ * Disjoncteur d'une dépendance, sur fenêtre glissante des window-size derniers appels.
+ *
+ * FERMÉ : les appels passent ; dès minimum-calls appels dans la fenêtre, un taux d'échecs ou d'appels lents
+ * au-dessus du seuil l'OUVRE. OUVERT : aucun appel pendant open-duration-ms, repli immédiat.
+ * SEMI-OUVERT : half-open-probes appels d'essai ; tous réussis et rapides = FERMÉ (fenêtre remise à zéro),
+ * sinon de nouveau OUVERT. Sections critiques courtes sous le moniteur de l'instance.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte OK = 0;
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+
+    // Fenêtre circulaire des derniers résultats
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openUntilNanos;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, long slowCallNanos, long openDurationNanos, int halfOpenProbes) {
+        this.outcomes = new byte[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, outcomes.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.openDurationNanos = openDurationNanos;
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+    }
+
+    /**
+     * @return true si l'appel peut être tenté ; il faut alors appeler {@link #onResult} ou {@link #release}
+     */
+    public synchronized boolean tryAcquire(long nowNanos) {
+        if (state == State.OPEN) {
+            if (nowNanos - openUntilNanos < 0) return false;
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight + probesSucceeded >= halfOpenProbes) return false;
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * Rend une autorisation sans résultat (appel finalement non tenté, ex. bulkhead plein).
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && probesInFlight > 0) probesInFlight--;
+    }
+
+    public synchronized void onResult(boolean failed, long durationNanos, long nowNanos) {
+        boolean slow = !failed && durationNanos >= slowCallNanos;
+        switch (state) {
+            case HALF_OPEN -> {
+                if (probesInFlight > 0) probesInFlight--;
+                if (failed || slow) {
+                    open(nowNanos);
+                } else if (++probesSucceeded >= halfOpenProbes) {
+                    close();
+                }
+            }
+            case CLOSED -> {
+                record(failed ? FAILED : slow ? SLOW : OK);
+                if (recorded >= minimumCalls
+                        && (failures * 100.0 / recorded >= failureRateThreshold
+                        || slowCalls * 100.0 / recorded >= slowCallRateThreshold)) {
+                    open(nowNanos);
+                }
+            }
+            case OPEN -> {
+                // Résultat d'un appel parti avant l'ouverture : sans effet
+            }
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private void record(byte outcome) {
+        if (recorded == outcomes.length) {
+            byte evicted = outcomes[next];
+            if (evicted == FAILED) failures--;
+            else if (evicted == SLOW) slowCalls--;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+        if (outcome == FAILED) failures++;
+        else if (outcome == SLOW) slowCalls++;
+    }
+
+    private void open(long nowNanos) {
+        state = State.OPEN;
+        openUntilNanos = nowNanos + openDurationNanos;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
@@ -0,0 +1,17 @@
+package com.nutriscan.resilience;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Classe d'endpoint pour la limitation de débit : chaque utilisateur a un seau par classe,
+ * et chaque classe consomme aussi le seau global de son upstream.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum RateLimitClass {
+    AI_CHAT(Upstream.GEMINI_TEXT),
+    VISION(Upstream.GEMINI_VISION);
+
+    private final Upstream upstream;
+}
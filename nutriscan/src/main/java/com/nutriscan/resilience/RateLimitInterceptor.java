@@ -0,0 +1,103 @@
+package com.nutriscan.resilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutriscan.dto.response.ErrorResponse;
+import com.nutriscan.security.CustomUserDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitation de débit des endpoints {@link RateLimited}, avant le contrôleur donc avant tout appel upstream :
+ * un jeton du seau de l'utilisateur pour la classe, puis un jeton du seau global de l'upstream
+ * (rendu à l'utilisateur si c'est l'upstream qui refuse). Refus : 429 avec Retry-After en secondes.
+ * Métrique : ratelimit.requests{class, result=allowed|user_limited|upstream_limited}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String METRIC = "ratelimit.requests";
+
+    private final RateLimiterRegistry registry;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!properties.isEnabled() || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        RateLimited rateLimited = method.getMethodAnnotation(RateLimited.class);
+        Long userId = currentUserId();
+        if (rateLimited == null || userId == null) {
+            return true;
+        }
+
+        RateLimitClass rateLimitClass = rateLimited.value();
+        long now = System.nanoTime();
+        long wait = registry.tryAcquireUser(userId, rateLimitClass, now);
+        if (wait > 0) {
+            reject(request, response, rateLimitClass, "user_limited", wait,
+                    "Too many requests, please retry later");
+            return false;
+        }
+
+        wait = registry.tryAcquireUpstream(rateLimitClass.getUpstream(), now);
+        if (wait > 0) {
+            registry.refundUser(userId, rateLimitClass, now);
+            reject(request, response, rateLimitClass, "upstream_limited", wait,
+                    "The AI service is busy, please retry later");
+            return false;
+        }
+
+        count(rateLimitClass, "allowed");
+        return true;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, RateLimitClass rateLimitClass,
+                        String result, long waitNanos, String message) throws IOException {
+        count(rateLimitClass, result);
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        log.debug("Rate limited {} on {} ({}), retry after {}s", request.getRequestURI(), rateLimitClass, result, retryAfter);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.builder()
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .errorType("TOO_MANY_REQUESTS")
+                .message(message)
+                .timestamp(LocalDateTime.now())
+                .path(request.getRequestURI())
+                .build());
+    }
+
+    private void count(RateLimitClass rateLimitClass, String result) {
+        meterRegistry.counter(METRIC, "class", rateLimitClass.name(), "result", result).increment();
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
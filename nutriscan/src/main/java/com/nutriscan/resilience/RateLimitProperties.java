@@ -0,0 +1,38 @@
+package com.nutriscan.resilience;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Limites de débit (préfixe ratelimit) : par utilisateur et classe d'endpoint, et globales par upstream
+ * (dimensionnées sur le quota de la clé API partagée).
+ */
+@Component
+@ConfigurationProperties(prefix = "ratelimit")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /** Nombre de segments du registre (puissance de 2) */
+    private int stripes = 64;
+
+    /** Seaux utilisateur gardés en mémoire au plus (les moins récemment utilisés sont oubliés) */
+    private int maxUserBuckets = 100_000;
+
+    private Map<RateLimitClass, Limit> user = new EnumMap<>(RateLimitClass.class);
+    private Map<Upstream, Limit> upstream = new EnumMap<>(Upstream.class);
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private int capacity;
+        private double perMinute;
+    }
+}
@@ -0,0 +1,16 @@
+package com.nutriscan.resilience;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marque un endpoint coûteux (appel Gemini) : {@link RateLimitInterceptor} répond 429 avec Retry-After
+ * avant le contrôleur si le seau de l'utilisateur pour cette classe, ou celui de l'upstream, est vide.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+    RateLimitClass value();
+}
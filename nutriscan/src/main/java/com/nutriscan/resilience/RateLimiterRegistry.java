@@ -0,0 +1,99 @@
+package com.nutriscan.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Seaux à jetons par (utilisateur, classe d'endpoint) et par upstream.
+ *
+ * Les seaux utilisateur sont répartis sur des segments (verrou par segment, le temps de la recherche seulement :
+ * la prise de jeton elle-même est sans verrou). Chaque segment est un LRU borné : au-delà de max-user-buckets
+ * au total, les seaux les moins récemment utilisés sont oubliés (un seau oublié repart plein).
+ */
+@Component
+@Slf4j
+public class RateLimiterRegistry {
+
+    private static final int CLASSES = RateLimitClass.values().length;
+
+    private final RateLimitProperties properties;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final Map<Upstream, TokenBucket> upstreamBuckets = new EnumMap<>(Upstream.class);
+
+    public RateLimiterRegistry(RateLimitProperties properties) {
+        this.properties = properties;
+        int count = Integer.highestOneBit(Math.max(1, properties.getStripes()));
+        int perStripe = Math.max(16, properties.getMaxUserBuckets() / count);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) stripes[i] = new Stripe(perStripe);
+        this.stripeMask = count - 1;
+
+        long now = System.nanoTime();
+        properties.getUpstream().forEach((upstream, limit) ->
+                upstreamBuckets.put(upstream, new TokenBucket(limit.getCapacity(), limit.getPerMinute(), now)));
+        log.info("🚦 Rate limits: user {} / upstream {}", properties.getUser().keySet(), upstreamBuckets.keySet());
+    }
+
+    /**
+     * Prend un jeton dans le seau de l'utilisateur pour cette classe.
+     *
+     * @return 0 si accepté, sinon le délai d'attente en nanosecondes (aucun seau configuré = illimité)
+     */
+    public long tryAcquireUser(long userId, RateLimitClass rateLimitClass, long nowNanos) {
+        TokenBucket bucket = userBucket(userId, rateLimitClass, nowNanos);
+        return bucket != null ? bucket.tryAcquire(nowNanos) : 0;
+    }
+
+    public void refundUser(long userId, RateLimitClass rateLimitClass, long nowNanos) {
+        TokenBucket bucket = userBucket(userId, rateLimitClass, nowNanos);
+        if (bucket != null) bucket.refund();
+    }
+
+    public long tryAcquireUpstream(Upstream upstream, long nowNanos) {
+        TokenBucket bucket = upstreamBuckets.get(upstream);
+        return bucket != null ? bucket.tryAcquire(nowNanos) : 0;
+    }
+
+    private TokenBucket userBucket(long userId, RateLimitClass rateLimitClass, long nowNanos) {
+        RateLimitProperties.Limit limit = properties.getUser().get(rateLimitClass);
+        if (limit == null) return null;
+
+        long key = userId * CLASSES + rateLimitClass.ordinal();
+        Stripe stripe = stripes[spread(key) & stripeMask];
+        synchronized (stripe) {
+            TokenBucket bucket = stripe.get(key);
+            if (bucket == null) {
+                bucket = new TokenBucket(limit.getCapacity(), limit.getPerMinute(), nowNanos);
+                stripe.put(key, bucket);
+            }
+            return bucket;
+        }
+    }
+
+    private static int spread(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Segment LRU borné ; accès protégé par le moniteur du segment.
+     */
+    private static final class Stripe extends LinkedHashMap<Long, TokenBucket> {
+        private final int maxEntries;
+
+        Stripe(int maxEntries) {
+            super(64, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, TokenBucket> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.nutriscan.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seau à jetons sans verrou, sous forme GCRA : l'état tient dans un seul long, l'instant théorique
+ * où le seau sera de nouveau plein. Prendre un jeton repousse cet instant d'un intervalle ;
+ * c'est refusé si cela le place à plus de capacity intervalles dans le futur. Une seule CAS par appel.
+ */
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param capacity  rafale maximale (jetons disponibles quand le seau est plein)
+     * @param perMinute jetons regagnés par minute
+     */
+    public TokenBucket(int capacity, double perMinute, long nowNanos) {
+        if (capacity < 1 || perMinute <= 0) {
+            throw new IllegalArgumentException("Token bucket needs capacity >= 1 and a positive refill rate");
+        }
+        this.intervalNanos = Math.max(1, Math.round(60_000_000_000.0 / perMinute));
+        this.burstNanos = capacity * intervalNanos;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0 si un jeton a été pris, sinon le délai en nanosecondes avant qu'un jeton soit disponible
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long excess = next - nowNanos - burstNanos;
+            if (excess > 0) return excess;
+            if (fullAt.compareAndSet(current, next)) return 0;
+        }
+    }
+
+    /**
+     * Rend un jeton pris (requête finalement refusée plus loin).
+     */
+    public void refund() {
+        fullAt.addAndGet(-intervalNanos);
+    }
+
+    /**
+     * Seau plein : l'oublier ne change rien pour l'utilisateur.
+     */
+    public boolean isFull(long nowNanos) {
+        return fullAt.get() <= nowNanos;
+    }
+}
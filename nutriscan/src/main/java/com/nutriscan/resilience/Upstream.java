@@ -0,0 +1,13 @@
+package com.nutriscan.resilience;
+
+/**
+ * Dépendances externes appelées par l'application, chacune avec son quota et ses protections.
+ */
+public enum Upstream {
+    GEMINI_TEXT,
+    GEMINI_VISION,
+    EDAMAM_FOOD_DB,
+    EDAMAM_RECIPES,
+    EDAMAM_NUTRITION,
+    OPEN_FOOD_FACTS
+}
@@ -0,0 +1,125 @@
+package com.nutriscan.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Point de passage unique des appels vers les dépendances externes (Gemini, Edamam, OpenFoodFacts).
+ *
+ * Chaque upstream a son disjoncteur puis son bulkhead : circuit ouvert, ou toutes les places prises au-delà
+ * de max-wait-ms, l'appel n'est pas tenté et {@link UpstreamUnavailableException} est levée, que les services
+ * attrapent déjà pour servir leur repli (résultats mock, recettes par défaut, analyse basique).
+ * Une exception de l'appel (hors erreur 4xx du client, sauf 429) compte comme échec pour le disjoncteur,
+ * un appel plus long que slow-call-ms comme appel lent.
+ * Métriques : upstream.bulkhead.active / upstream.bulkhead.max (jauges), upstream.bulkhead.calls{result},
+ * upstream.circuit.state (jauge : 0 fermé, 1 semi-ouvert, 2 ouvert) et upstream.circuit.calls{result}.
+ */
+@Component
+@Slf4j
+public class UpstreamGuard {
+
+    private final Map<Upstream, Bulkhead> bulkheads = new EnumMap<>(Upstream.class);
+    private final Map<Upstream, CircuitBreaker> breakers = new EnumMap<>(Upstream.class);
+    private final Map<Upstream, Counter> permitted = new EnumMap<>(Upstream.class);
+    private final Map<Upstream, Counter> rejected = new EnumMap<>(Upstream.class);
+    private final Map<Upstream, Counter> shortCircuited = new EnumMap<>(Upstream.class);
+    private final Map<Upstream, Counter> succeeded = new EnumMap<>(Upstream.class);
+    private final Map<Upstream, Counter> failed = new EnumMap<>(Upstream.class);
+
+    public UpstreamGuard(UpstreamProperties properties, MeterRegistry meterRegistry) {
+        for (Upstream upstream : Upstream.values()) {
+            UpstreamProperties.Settings settings = properties.settingsFor(upstream);
+            Bulkhead bulkhead = new Bulkhead(settings.getMaxConcurrent(), settings.getMaxWaitMs());
+            bulkheads.put(upstream, bulkhead);
+            CircuitBreaker breaker = new CircuitBreaker(settings.getWindowSize(), settings.getMinimumCalls(),
+                    settings.getFailureRateThreshold(), settings.getSlowCallRateThreshold(),
+                    TimeUnit.MILLISECONDS.toNanos(settings.getSlowCallMs()),
+                    TimeUnit.MILLISECONDS.toNanos(settings.getOpenDurationMs()), settings.getHalfOpenProbes());
+            breakers.put(upstream, breaker);
+
+            String tag = upstream.name();
+            Gauge.builder("upstream.bulkhead.active", bulkhead, Bulkhead::active).tag("upstream", tag).register(meterRegistry);
+            Gauge.builder("upstream.bulkhead.max", bulkhead, Bulkhead::maxConcurrent).tag("upstream", tag).register(meterRegistry);
+            Gauge.builder("upstream.circuit.state", breaker, b -> stateValue(b.state())).tag("upstream", tag).register(meterRegistry);
+            permitted.put(upstream, meterRegistry.counter("upstream.bulkhead.calls", "upstream", tag, "result", "permitted"));
+            rejected.put(upstream, meterRegistry.counter("upstream.bulkhead.calls", "upstream", tag, "result", "rejected"));
+            shortCircuited.put(upstream, meterRegistry.counter("upstream.circuit.calls", "upstream", tag, "result", "short_circuited"));
+            succeeded.put(upstream, meterRegistry.counter("upstream.circuit.calls", "upstream", tag, "result", "success"));
+            failed.put(upstream, meterRegistry.counter("upstream.circuit.calls", "upstream", tag, "result", "failure"));
+        }
+    }
+
+    /**
+     * Exécute l'appel derrière le disjoncteur et dans le bulkhead de l'upstream.
+     *
+     * @throws UpstreamUnavailableException si le circuit est ouvert ou si aucune place ne s'est libérée à temps
+     */
+    public <T> T call(Upstream upstream, Supplier<T> call) {
+        CircuitBreaker breaker = breakers.get(upstream);
+        if (!breaker.tryAcquire(System.nanoTime())) {
+            shortCircuited.get(upstream).increment();
+            log.debug("⚡ {} circuit open, using fallback", upstream);
+            throw new UpstreamUnavailableException(upstream, "circuit open");
+        }
+
+        Bulkhead bulkhead = bulkheads.get(upstream);
+        if (!bulkhead.tryEnter()) {
+            breaker.release();
+            rejected.get(upstream).increment();
+            log.warn("🧱 {} bulkhead full ({} calls in flight), using fallback", upstream, bulkhead.active());
+            throw new UpstreamUnavailableException(upstream, "too many concurrent calls");
+        }
+        permitted.get(upstream).increment();
+
+        long start = System.nanoTime();
+        boolean failure = false;
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            failure = countsAsFailure(e);
+            throw e;
+        } finally {
+            bulkhead.exit();
+            long end = System.nanoTime();
+            CircuitBreaker.State before = breaker.state();
+            breaker.onResult(failure, end - start, end);
+            (failure ? failed : succeeded).get(upstream).increment();
+            CircuitBreaker.State after = breaker.state();
+            if (before != after) {
+                log.warn("⚡ {} circuit {} -> {}", upstream, before, after);
+            }
+        }
+    }
+
+    public CircuitBreaker.State circuitState(Upstream upstream) {
+        return breakers.get(upstream).state();
+    }
+
+    /**
+     * Une requête refusée par l'upstream (400, 404...) prouve qu'il répond : seul 429 signale une saturation.
+     */
+    private static boolean countsAsFailure(RuntimeException e) {
+        if (e instanceof HttpClientErrorException clientError) {
+            return clientError.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+        }
+        return true;
+    }
+
+    private static double stateValue(CircuitBreaker.State state) {
+        return switch (state) {
+            case CLOSED -> 0;
+            case HALF_OPEN -> 1;
+            case OPEN -> 2;
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.nutriscan.resilience;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Protections par dépendance externe (préfixe upstream.guards, ex. upstream.guards.edamam-food-db.max-concurrent).
+ * Une dépendance non configurée garde les valeurs par défaut de {@link Settings}.
+ */
+@Component
+@ConfigurationProperties(prefix = "upstream")
+@Getter
+@Setter
+public class UpstreamProperties {
+
+    private Map<Upstream, Settings> guards = new EnumMap<>(Upstream.class);
+
+    public Settings settingsFor(Upstream upstream) {
+        return guards.getOrDefault(upstream, new Settings());
+    }
+
+    @Getter
+    @Setter
+    public static class Settings {
+        /** Appels simultanés au plus (bulkhead) */
+        private int maxConcurrent = 10;
+        /** Attente maximale d'une place libre avant de se replier ; 0 = refus immédiat */
+        private long maxWaitMs = 0;
+
+        /** Disjoncteur : taille de la fenêtre glissante (derniers appels) */
+        private int windowSize = 20;
+        /** Appels minimum dans la fenêtre avant de pouvoir ouvrir */
+        private int minimumCalls = 10;
+        /** Taux d'échecs (%) qui ouvre le circuit */
+        private double failureRateThreshold = 50;
+        /** Un appel plus long que ce seuil compte comme lent */
+        private long slowCallMs = 5000;
+        /** Taux d'appels lents (%) qui ouvre le circuit */
+        private double slowCallRateThreshold = 80;
+        /** Durée d'ouverture avant les appels d'essai */
+        private long openDurationMs = 30000;
+        /** Appels d'essai réussis nécessaires pour refermer */
+        private int halfOpenProbes = 3;
+    }
+}
@@ -0,0 +1,17 @@
+package com.nutriscan.resilience;
+
+import lombok.Getter;
+
+/**
+ * Appel upstream refusé sans être tenté (bulkhead saturé) : l'appelant passe directement à son repli.
+ */
+@Getter
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private final Upstream upstream;
+
+    public UpstreamUnavailableException(Upstream upstream, String reason) {
+        super(upstream + " unavailable: " + reason);
+        this.upstream = upstream;
+    }
+}
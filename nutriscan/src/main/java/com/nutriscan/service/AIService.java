@@ -4,6 +4,8 @@ import com.nutriscan.dto.response.AIExplanationResponse;
 import com.nutriscan.dto.response.DailySummaryResponse;
 import com.nutriscan.dto.response.GoalsResponse;
 import com.nutriscan.dto.response.OffProductResponse;
+import com.nutriscan.resilience.Upstream;
+import com.nutriscan.resilience.UpstreamGuard;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
@@ -23,6 +25,7 @@ public class AIService {
     private final MealService mealService;
     private final GoalsService goalsService;
     private final RestTemplate restTemplate;
+    private final UpstreamGuard upstreamGuard;
 
     @Value("${gemini.api.key:}")
     private String geminiApiKey;
@@ -31,11 +34,12 @@ public class AIService {
     private String geminiModel;
 
     public AIService(OpenFoodFactsService openFoodFactsService, MealService mealService, GoalsService goalsService,
-                     RestTemplate restTemplate) {
+                     RestTemplate restTemplate, UpstreamGuard upstreamGuard) {
         this.openFoodFactsService = openFoodFactsService;
         this.mealService = mealService;
         this.goalsService = goalsService;
         this.restTemplate = restTemplate;
+        this.upstreamGuard = upstreamGuard;
     }
 
     public OffProductResponse scanBarcodeAndAnalyze(String barcode) {
@@ -138,7 +142,8 @@ public class AIService {
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
 
             log.debug("Calling Gemini API...");
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, entity, Map.class);
+            ResponseEntity<Map> response = upstreamGuard.call(Upstream.GEMINI_TEXT,
+                    () -> restTemplate.exchange(url, HttpMethod.POST, entity, Map.class));
 
             if (response.getBody() != null) {
                 List<Map<String, Object>> candidates = (List<Map<String, Object>>) response.getBody().get("candidates");
@@ -2,6 +2,8 @@ package com.nutriscan.service;
 
 import com.nutriscan.model.Meal;
 import com.nutriscan.model.MealItem;
+import com.nutriscan.resilience.Upstream;
+import com.nutriscan.resilience.UpstreamGuard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,6 +25,7 @@ import java.util.*;
 public class EdamamNutritionAnalysisService {
 
     private final RestTemplate restTemplate;
+    private final UpstreamGuard upstreamGuard;
 
     @Value("${edamam.nutrition-analysis.app-id}")
     private String appId;
@@ -49,11 +52,8 @@ public class EdamamNutritionAnalysisService {
 
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
 
-            EdamamNutritionAnalysisResponse response = restTemplate.postForObject(
-                    url,
-                    entity,
-                    EdamamNutritionAnalysisResponse.class
-            );
+            EdamamNutritionAnalysisResponse response = upstreamGuard.call(Upstream.EDAMAM_NUTRITION,
+                    () -> restTemplate.postForObject(url, entity, EdamamNutritionAnalysisResponse.class));
 
             return mapToMealAnalysisDTO(response, meal);
 
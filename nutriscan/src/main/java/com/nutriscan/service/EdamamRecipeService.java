@@ -1,16 +1,16 @@
 package com.nutriscan.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nutriscan.dto.response.RecipeResponse;
+import com.nutriscan.resilience.Upstream;
+import com.nutriscan.resilience.UpstreamGuard;
+import com.nutriscan.service.upstream.EdamamRecipeDecoder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -18,8 +18,8 @@ import java.util.List;
 public class EdamamRecipeService {
 
     private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper = new ObjectMapper();
     private final FallbackRecipeService fallbackRecipeService;
+    private final UpstreamGuard upstreamGuard;
 
     @Value("${edamam.recipe.app-id}")
     private String appId;
@@ -30,9 +30,11 @@ public class EdamamRecipeService {
     @Value("${edamam.recipe.base-url}")
     private String baseUrl;
 
-    public EdamamRecipeService(RestTemplate restTemplate, FallbackRecipeService fallbackRecipeService) {
+    public EdamamRecipeService(RestTemplate restTemplate, FallbackRecipeService fallbackRecipeService,
+                               UpstreamGuard upstreamGuard) {
         this.restTemplate = restTemplate;
         this.fallbackRecipeService = fallbackRecipeService;
+        this.upstreamGuard = upstreamGuard;
     }
 
 
@@ -84,21 +86,17 @@ public class EdamamRecipeService {
             log.info("🔍 Calling Edamam Recipe API for query: '{}'", query);
             log.debug("Full URL: {}", url);
 
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            // Les statuts non 2xx lèvent une exception avant décodage et passent par le repli Gemini ci-dessous
+            List<RecipeResponse> recipes = upstreamGuard.call(Upstream.EDAMAM_RECIPES,
+                    () -> restTemplate.execute(url, HttpMethod.GET, null,
+                            response -> EdamamRecipeDecoder.decode(response.getBody())));
+            log.info("✅ Got successful response from Edamam API");
 
-            if (response.getStatusCode().is2xxSuccessful()) {
-                log.info("✅ Got successful response from Edamam API");
-                List<RecipeResponse> recipes = parseRecipeResponse(response.getBody());
-
-                if (!recipes.isEmpty()) {
-                    log.info("🍽️ Found {} recipes from Edamam API for '{}'", recipes.size(), query);
-                    return recipes;
-                } else {
-                    log.warn("⚠️ Edamam API returned 0 recipes for '{}', using Gemini AI fallback", query);
-                    return fallbackRecipeService.searchRecipes(query, mealType, calories, maxResults);
-                }
+            if (recipes != null && !recipes.isEmpty()) {
+                log.info("🍽️ Found {} recipes from Edamam API for '{}'", recipes.size(), query);
+                return recipes;
             } else {
-                log.error("❌ Edamam API returned status {}, using Gemini AI fallback", response.getStatusCode());
+                log.warn("⚠️ Edamam API returned 0 recipes for '{}', using Gemini AI fallback", query);
                 return fallbackRecipeService.searchRecipes(query, mealType, calories, maxResults);
             }
 
@@ -122,129 +120,15 @@ public class EdamamRecipeService {
                     .queryParam("app_key", appKey)
                     .toUriString();
 
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            List<RecipeResponse> recipes = parseRecipeResponse(response.getBody());
+            List<RecipeResponse> recipes = upstreamGuard.call(Upstream.EDAMAM_RECIPES,
+                    () -> restTemplate.execute(url, HttpMethod.GET, null,
+                            response -> EdamamRecipeDecoder.decode(response.getBody())));
 
-            return recipes.isEmpty() ? null : recipes.get(0);
+            return recipes == null || recipes.isEmpty() ? null : recipes.get(0);
 
         } catch (Exception e) {
             log.error("Error getting recipe by URI: {}", e.getMessage(), e);
             return null;
         }
     }
-
-    private List<RecipeResponse> parseRecipeResponse(String jsonResponse) {
-        List<RecipeResponse> recipes = new ArrayList<>();
-        try {
-            log.debug("Parsing recipe response JSON");
-            JsonNode root = objectMapper.readTree(jsonResponse);
-
-            if (!root.has("hits")) {
-                log.warn("No 'hits' field in response. Response keys: {}", root.fieldNames());
-                return recipes;
-            }
-
-            JsonNode hits = root.get("hits");
-            log.info("Found hits array with {} elements", hits.size());
-
-            if (hits != null && hits.isArray()) {
-                for (JsonNode hit : hits) {
-                    JsonNode recipe = hit.get("recipe");
-                    if (recipe != null) {
-                        RecipeResponse recipeResponse = RecipeResponse.builder()
-                                .uri(recipe.has("uri") ? recipe.get("uri").asText() : null)
-                                .label(recipe.has("label") ? recipe.get("label").asText() : null)
-                                .image(recipe.has("image") ? recipe.get("image").asText() : null)
-                                .source(recipe.has("source") ? recipe.get("source").asText() : null)
-                                .url(recipe.has("url") ? recipe.get("url").asText() : null)
-                                .servings(recipe.has("yield") ? recipe.get("yield").asInt() : null)
-                                .calories(recipe.has("calories") ? recipe.get("calories").asDouble() : null)
-                                .totalTime(recipe.has("totalTime") ? recipe.get("totalTime").asDouble() : null)
-                                .dietLabels(parseArrayField(recipe, "dietLabels"))
-                                .healthLabels(parseArrayField(recipe, "healthLabels"))
-                                .ingredientLines(parseArrayField(recipe, "ingredientLines"))
-                                .nutrition(parseNutrition(recipe))
-                                .build();
-
-                        recipes.add(recipeResponse);
-                        log.debug("Added recipe: {}", recipeResponse.getLabel());
-                    } else {
-                        log.warn("Hit does not contain 'recipe' field");
-                    }
-                }
-            }
-            log.info("Successfully parsed {} recipes", recipes.size());
-        } catch (Exception e) {
-            log.error("Error parsing recipe response: {}", e.getMessage(), e);
-        }
-        return recipes;
-    }
-
-    private List<String> parseArrayField(JsonNode recipe, String fieldName) {
-        List<String> values = new ArrayList<>();
-        if (recipe.has(fieldName)) {
-            JsonNode array = recipe.get(fieldName);
-            if (array.isArray()) {
-                array.forEach(node -> values.add(node.asText()));
-            }
-        }
-        return values;
-    }
-
-    private RecipeResponse.NutritionInfo parseNutrition(JsonNode recipe) {
-        if (!recipe.has("totalNutrients")) {
-            return null;
-        }
-
-        JsonNode nutrients = recipe.get("totalNutrients");
-
-        return RecipeResponse.NutritionInfo.builder()
-                // Macronutriments
-                .calories(extractNutrient(nutrients, "ENERC_KCAL"))
-                .protein(extractNutrient(nutrients, "PROCNT"))
-                .fat(extractNutrient(nutrients, "FAT"))
-                .carbs(extractNutrient(nutrients, "CHOCDF"))
-                .fiber(extractNutrient(nutrients, "FIBTG"))
-                .sugar(extractNutrient(nutrients, "SUGAR"))
-                .saturatedFat(extractNutrient(nutrients, "FASAT"))
-                .monounsaturatedFat(extractNutrient(nutrients, "FAMS"))
-                .polyunsaturatedFat(extractNutrient(nutrients, "FAPU"))
-                .transFat(extractNutrient(nutrients, "FATRN"))
-                .cholesterol(extractNutrient(nutrients, "CHOLE"))
-                .sodium(extractNutrient(nutrients, "NA"))
-                // Vitamines
-                .vitaminA(extractNutrient(nutrients, "VITA_RAE"))
-                .vitaminC(extractNutrient(nutrients, "VITC"))
-                .vitaminD(extractNutrient(nutrients, "VITD"))
-                .vitaminE(extractNutrient(nutrients, "TOCPHA"))
-                .vitaminK(extractNutrient(nutrients, "VITK1"))
-                .vitaminB6(extractNutrient(nutrients, "VITB6A"))
-                .vitaminB12(extractNutrient(nutrients, "VITB12"))
-                .folate(extractNutrient(nutrients, "FOLDFE"))
-                .niacin(extractNutrient(nutrients, "NIA"))
-                .riboflavin(extractNutrient(nutrients, "RIBF"))
-                .thiamin(extractNutrient(nutrients, "THIA"))
-                // Minéraux
-                .calcium(extractNutrient(nutrients, "CA"))
-                .iron(extractNutrient(nutrients, "FE"))
-                .magnesium(extractNutrient(nutrients, "MG"))
-                .phosphorus(extractNutrient(nutrients, "P"))
-                .potassium(extractNutrient(nutrients, "K"))
-                .zinc(extractNutrient(nutrients, "ZN"))
-                .selenium(extractNutrient(nutrients, "SE"))
-                // Autres
-                .water(extractNutrient(nutrients, "WATER"))
-                .build();
-    }
-
-    private Double extractNutrient(JsonNode nutrients, String code) {
-        if (nutrients.has(code)) {
-            JsonNode nutrient = nutrients.get(code);
-            if (nutrient.has("quantity")) {
-                return nutrient.get("quantity").asDouble();
-            }
-        }
-        return null;
-    }
 }
-
@@ -3,6 +3,8 @@ package com.nutriscan.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nutriscan.dto.response.RecipeResponse;
+import com.nutriscan.resilience.Upstream;
+import com.nutriscan.resilience.UpstreamGuard;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
@@ -23,6 +25,7 @@ public class FallbackRecipeService {
 
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final UpstreamGuard upstreamGuard;
 
     @Value("${gemini.api.key:}")
     private String geminiApiKey;
@@ -32,9 +35,10 @@ public class FallbackRecipeService {
 
     private static final String GEMINI_API_URL = "https://generativelanguage.googleapis.com/v1beta/models/%s:generateContent?key=%s";
 
-    public FallbackRecipeService(RestTemplate restTemplate) {
+    public FallbackRecipeService(RestTemplate restTemplate, UpstreamGuard upstreamGuard) {
         this.restTemplate = restTemplate;
         this.objectMapper = new ObjectMapper();
+        this.upstreamGuard = upstreamGuard;
     }
 
     /**
@@ -135,7 +139,8 @@ public class FallbackRecipeService {
 
             log.debug("🚀 Calling Gemini API for recipe generation");
 
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, entity, Map.class);
+            ResponseEntity<Map> response = upstreamGuard.call(Upstream.GEMINI_TEXT,
+                    () -> restTemplate.exchange(url, HttpMethod.POST, entity, Map.class));
 
             if (response.getBody() != null) {
                 if (response.getBody().containsKey("error")) {
@@ -237,7 +242,7 @@ public class FallbackRecipeService {
                     .build();
 
             return RecipeResponse.builder()
-                    .uri("gemini:" + name.toLowerCase().replace(" ", "-") + "-" + System.currentTimeMillis())
+                    .uri(recipeUri(name))
                     .label(name)
                     .image(null)
                     .source("NutriScan AI (Gemini)")
@@ -285,7 +290,7 @@ public class FallbackRecipeService {
                             .build();
 
                     RecipeResponse recipe = RecipeResponse.builder()
-                            .uri("gemini:" + name.toLowerCase().replace(" ", "-"))
+                            .uri(recipeUri(name))
                             .label(name)
                             .source("NutriScan AI (Gemini)")
                             .servings(servings)
@@ -305,6 +310,15 @@ public class FallbackRecipeService {
         return recipes;
     }
 
+    /**
+     * Uri stable dérivée du nom : une recette régénérée à chaque expiration du cache de repli met à jour
+     * sa ligne du catalogue (upsert par uri dans RecipeCatalogService) au lieu d'en ajouter une nouvelle.
+     */
+    private static String recipeUri(String name) {
+        String slug = name.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", "-").replaceAll("^-|-$", "");
+        return "gemini:" + slug;
+    }
+
     private String extractJsonStringValue(String json, String key) {
         Pattern pattern = Pattern.compile("\"" + key + "\"\\s*:\\s*\"([^\"]+)\"");
         Matcher matcher = pattern.matcher(json);
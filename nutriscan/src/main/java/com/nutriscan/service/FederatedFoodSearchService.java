@@ -0,0 +1,244 @@
+package com.nutriscan.service;
+
+import com.nutriscan.dto.response.FoodInfoResponse;
+import com.nutriscan.dto.response.FoodResponse;
+import com.nutriscan.dto.response.FoodSearchResponse;
+import com.nutriscan.dto.response.OffProductResponse;
+import com.nutriscan.resilience.UpstreamUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Recherche d'aliments sur toutes les sources en une requête : base locale, Edamam et OpenFoodFacts
+ * sont interrogés en parallèle (threads virtuels) sous une échéance commune de deadline-ms.
+ * La latence totale est celle de l'échéance, pas la somme des trois appels.
+ *
+ * Ce qui est arrivé à temps est fusionné puis dédoublonné (code-barres, sinon nom normalisé) :
+ * à nom égal, l'aliment local l'emporte, et le classement favorise les correspondances exactes puis locales.
+ * Une source en retard est annulée (son appel est interrompu, sa place de bulkhead rendue) et signalée TIMEOUT.
+ * Les appels Edamam/OFF passent par les variantes fetch* qui remontent les erreurs : une panne est signalée
+ * FAILED (ou UNAVAILABLE si le circuit / bulkhead a refusé l'appel), jamais OK avec 0 résultat.
+ */
+@Service
+@Slf4j
+public class FederatedFoodSearchService {
+
+    private static final String LOCAL = "LOCAL";
+    private static final String EDAMAM = "EDAMAM";
+    private static final String OPEN_FOOD_FACTS = "OPEN_FOOD_FACTS";
+
+    private final FoodService foodService;
+    private final NutritionDatabaseService nutritionDatabaseService;
+    private final OpenFoodFactsService openFoodFactsService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${foods.search.deadline-ms:1500}")
+    private long deadlineMs;
+
+    @Value("${foods.search.max-limit:50}")
+    private int maxLimit;
+
+    public FederatedFoodSearchService(FoodService foodService,
+                                      NutritionDatabaseService nutritionDatabaseService,
+                                      OpenFoodFactsService openFoodFactsService) {
+        this.foodService = foodService;
+        this.nutritionDatabaseService = nutritionDatabaseService;
+        this.openFoodFactsService = openFoodFactsService;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public FoodSearchResponse searchAll(String query, int limit) {
+        int perSource = Math.max(1, Math.min(limit, maxLimit));
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+
+        Future<Timed> local = submit(start,
+                () -> foodService.searchByName(query).stream().limit(perSource).map(FederatedFoodSearchService::fromLocal).toList());
+        Future<Timed> edamam = submit(start,
+                () -> nutritionDatabaseService.fetchFoods(query, perSource).stream().map(FederatedFoodSearchService::fromEdamam).toList());
+        Future<Timed> off = submit(start,
+                () -> openFoodFactsService.fetchProducts(query, perSource).stream().map(FederatedFoodSearchService::fromOff).toList());
+
+        List<FoodSearchResponse.SourceStatus> sources = new ArrayList<>(3);
+        List<FoodSearchResponse.Item> candidates = new ArrayList<>();
+        collect(LOCAL, local, deadline, sources, candidates);
+        collect(EDAMAM, edamam, deadline, sources, candidates);
+        collect(OPEN_FOOD_FACTS, off, deadline, sources, candidates);
+
+        List<FoodSearchResponse.Item> items = merge(query, candidates, perSource);
+        long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("🔎 Federated food search '{}': {} item(s) in {} ms ({})", query, items.size(), tookMs,
+                sources.stream().map(s -> s.getSource() + "=" + s.getStatus()).toList());
+
+        return FoodSearchResponse.builder()
+                .query(query)
+                .tookMs(tookMs)
+                .sources(sources)
+                .items(items)
+                .build();
+    }
+
+    private Future<Timed> submit(long start, Callable<List<FoodSearchResponse.Item>> search) {
+        return executor.submit(() -> {
+            List<FoodSearchResponse.Item> items = search.call();
+            return new Timed(items, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        });
+    }
+
+    private void collect(String source, Future<Timed> future, long deadline,
+                         List<FoodSearchResponse.SourceStatus> sources, List<FoodSearchResponse.Item> candidates) {
+        FoodSearchResponse.SourceStatus.SourceStatusBuilder status = FoodSearchResponse.SourceStatus.builder()
+                .source(source)
+                .count(0);
+        try {
+            Timed result = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            candidates.addAll(result.value);
+            status.status("OK")
+                    .count(result.value.size())
+                    .tookMs(result.tookMs);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            status.status("TIMEOUT");
+        } catch (ExecutionException e) {
+            log.warn("⚠️ Federated food search: {} failed: {}", source, e.getCause().getMessage());
+            status.status(e.getCause() instanceof UpstreamUnavailableException ? "UNAVAILABLE" : "FAILED");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            status.status("TIMEOUT");
+        }
+        sources.add(status.build());
+    }
+
+    /**
+     * Dédoublonne dans l'ordre des sources (local, Edamam, OFF), puis classe par qualité de correspondance
+     * du nom : exacte, préfixe, contenue ; le local passe devant à qualité égale (tri stable).
+     */
+    private static List<FoodSearchResponse.Item> merge(String query, List<FoodSearchResponse.Item> candidates, int limit) {
+        Set<String> seenNames = new HashSet<>();
+        Set<String> seenBarcodes = new HashSet<>();
+        List<FoodSearchResponse.Item> unique = new ArrayList<>(candidates.size());
+        for (FoodSearchResponse.Item item : candidates) {
+            String name = normalize(item.getName());
+            if (name.isEmpty()) continue;
+            String barcode = item.getBarcode();
+            boolean newBarcode = barcode == null || seenBarcodes.add(barcode);
+            boolean newName = seenNames.add(name);
+            if (newBarcode && newName) unique.add(item);
+        }
+
+        String normalizedQuery = normalize(query);
+        unique.sort(Comparator.comparingInt((FoodSearchResponse.Item item) -> score(normalizedQuery, item)).reversed());
+        return unique.size() > limit ? new ArrayList<>(unique.subList(0, limit)) : unique;
+    }
+
+    private static int score(String query, FoodSearchResponse.Item item) {
+        String name = normalize(item.getName());
+        int match = name.equals(query) ? 3 : name.startsWith(query) ? 2 : name.contains(query) ? 1 : 0;
+        return match * 2 + (LOCAL.equals(item.getSource()) ? 1 : 0);
+    }
+
+    /**
+     * Minuscules, sans accents ni ponctuation, espaces réduits : "Crème  fraîche," == "creme fraiche".
+     */
+    private static String normalize(String value) {
+        if (value == null) return "";
+        String stripped = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return stripped.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", " ").trim();
+    }
+
+    private static FoodSearchResponse.Item fromLocal(FoodResponse food) {
+        return FoodSearchResponse.Item.builder()
+                .source(LOCAL)
+                .foodId(food.getId())
+                .name(food.getName())
+                .imageUrl(food.getImageUrl())
+                .servingSize(food.getServingSize())
+                .servingUnit(food.getServingUnit())
+                .calories(food.getCaloriesKcal())
+                .protein(food.getProteinGr())
+                .carbs(food.getCarbsGr())
+                .fat(food.getFatGr())
+                .build();
+    }
+
+    private static FoodSearchResponse.Item fromEdamam(FoodInfoResponse food) {
+        return FoodSearchResponse.Item.builder()
+                .source(EDAMAM)
+                .name(food.getName())
+                .brand(food.getBrand())
+                .imageUrl(food.getImageUrl())
+                .servingSize(100.0)
+                .servingUnit("g")
+                .calories(food.getCalories())
+                .protein(food.getProtein())
+                .carbs(food.getCarbs())
+                .fat(food.getFat())
+                .build();
+    }
+
+    private static FoodSearchResponse.Item fromOff(OffProductResponse product) {
+        OffProductResponse.OffProduct p = product.getProduct();
+        Map<String, Object> nutriments = p.getNutriments();
+        return FoodSearchResponse.Item.builder()
+                .source(OPEN_FOOD_FACTS)
+                .barcode(product.getCode())
+                .name(p.getProductName())
+                .brand(p.getBrands())
+                .imageUrl(p.getImageUrl())
+                .nutriScore(p.getNutritionGrades())
+                .servingSize(100.0)
+                .servingUnit("g")
+                .calories(number(nutriments, "energy-kcal_100g"))
+                .protein(number(nutriments, "proteins_100g"))
+                .carbs(number(nutriments, "carbohydrates_100g"))
+                .fat(number(nutriments, "fat_100g"))
+                .build();
+    }
+
+    private static Double number(Map<String, Object> values, String key) {
+        if (values == null) return null;
+        Object value = values.get(key);
+        if (value instanceof Number n) return n.doubleValue();
+        if (value instanceof String s) {
+            try {
+                return Double.parseDouble(s);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static final class Timed {
+        final List<FoodSearchResponse.Item> value;
+        final long tookMs;
+
+        Timed(List<FoodSearchResponse.Item> value, long tookMs) {
+            this.value = value;
+            this.tookMs = tookMs;
+        }
+    }
+}
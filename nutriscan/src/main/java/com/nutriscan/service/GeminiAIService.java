@@ -8,6 +8,9 @@ import com.nutriscan.model.MealItem;
 import com.nutriscan.model.User;
 import com.nutriscan.model.enums.GoalType;
 import com.nutriscan.repository.UserRepository;
+import com.nutriscan.resilience.Upstream;
+import com.nutriscan.resilience.UpstreamGuard;
+import com.nutriscan.service.upstream.GeminiResponseDecoder;
 import lombok.Builder;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +37,7 @@ public class GeminiAIService {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final UserRepository userRepository;
+    private final UpstreamGuard upstreamGuard;
 
     @Value("${gemini.api.key:}")
     private String geminiApiKey;
@@ -41,9 +45,10 @@ public class GeminiAIService {
     @Value("${gemini.model:gemma-3-27b-it}")
     private String modelName;
 
-    public GeminiAIService(RestTemplate restTemplate, UserRepository userRepository) {
+    public GeminiAIService(RestTemplate restTemplate, UserRepository userRepository, UpstreamGuard upstreamGuard) {
         this.restTemplate = restTemplate;
         this.userRepository = userRepository;
+        this.upstreamGuard = upstreamGuard;
     }
 
     // ======================== ANALYSE NUTRITIONNELLE ========================
@@ -149,18 +154,36 @@ public class GeminiAIService {
             return Collections.emptyMap();
         }
 
+        User user = userRepository.findById(userId).orElse(null);
+        return generateMealPlanChunk(user, startDate, 1, days, days, dailyCalories, preferences, allergies);
+    }
+
+    /**
+     * Génère un segment (chunk) d'un plan de repas : les jours [firstDay, firstDay + days[ d'un plan de totalDays jours.
+     * Appelé en parallèle par MealPlanService ; l'utilisateur est passé déjà chargé pour éviter
+     * un accès JPA depuis les threads de génération.
+     */
+    public Map<String, Map<String, RecipeResponse>> generateMealPlanChunk(
+            User user, LocalDate chunkStart, int firstDay, int days, int totalDays, int dailyCalories,
+            List<String> preferences, List<String> allergies) {
+
+        if (!isConfigured()) {
+            log.warn("⚠️ Gemini API not configured");
+            return Collections.emptyMap();
+        }
+
         try {
-            User user = userRepository.findById(userId).orElse(null);
-            log.info("🤖 Generating {} day meal plan with Gemini AI ({} cal/day)", days, dailyCalories);
+            log.info("🤖 Generating meal plan days {}-{} of {} with Gemini AI ({} cal/day)",
+                    firstDay, firstDay + days - 1, totalDays, dailyCalories);
 
-            String prompt = buildMealPlanPrompt(days, dailyCalories, preferences, allergies, user);
+            String prompt = buildMealPlanPrompt(firstDay, days, totalDays, dailyCalories, preferences, allergies, user);
             String response = callGemini(prompt);
 
             if (response == null || response.isEmpty()) {
                 return Collections.emptyMap();
             }
 
-            return parseMealPlanResponse(response, startDate, days);
+            return parseMealPlanResponse(response, chunkStart, days);
         } catch (Exception e) {
             log.error("❌ Error generating meal plan: {}", e.getMessage());
             return Collections.emptyMap();
@@ -336,11 +359,17 @@ public class GeminiAIService {
         return sb.toString();
     }
 
-    private String buildMealPlanPrompt(int days, int dailyCalories, List<String> preferences,
-                                        List<String> allergies, User user) {
+    private String buildMealPlanPrompt(int firstDay, int days, int totalDays, int dailyCalories,
+                                        List<String> preferences, List<String> allergies, User user) {
         StringBuilder p = new StringBuilder();
         p.append("Tu es un chef nutritionniste expert. Génère un plan de repas COMPLET et VARIÉ pour ").append(days);
-        p.append(" jours avec ").append(dailyCalories).append(" calories/jour.\n\n");
+        p.append(" jours avec ").append(dailyCalories).append(" calories/jour.\n");
+        if (totalDays > days) {
+            // Les segments sont générés en parallèle : on indique la position pour varier les recettes
+            p.append("Ces jours correspondent aux jours ").append(firstDay).append(" à ").append(firstDay + days - 1);
+            p.append(" d'un plan de ").append(totalDays).append(" jours : propose des plats différents des jours précédents.\n");
+        }
+        p.append("\n");
 
         if (user != null) {
             if (user.getGoalType() != null) {
@@ -776,15 +805,7 @@ public class GeminiAIService {
                     "generationConfig", Map.of("temperature", 0.4, "maxOutputTokens", 4096)
             );
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, entity, Map.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                return extractText(response.getBody());
-            }
+            return upstreamGuard.call(Upstream.GEMINI_VISION, () -> postForText(url, body));
         } catch (Exception e) {
             log.error("Error calling Gemini with image: {}", e.getMessage());
         }
@@ -801,19 +822,11 @@ public class GeminiAIService {
                     "generationConfig", Map.of("temperature", 0.7, "maxOutputTokens", 8192)
             );
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-
             log.debug("🤖 Calling AI model: {}", model);
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, entity, Map.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                String text = extractText(response.getBody());
-                if (text != null) {
-                    log.debug("✅ Got response from {}", model);
-                    return text;
-                }
+            String text = upstreamGuard.call(Upstream.GEMINI_TEXT, () -> postForText(url, body));
+            if (text != null) {
+                log.debug("✅ Got response from {}", model);
+                return text;
             }
         } catch (Exception e) {
             log.warn("Error calling {}: {}", model, e.getMessage());
@@ -821,23 +834,18 @@ public class GeminiAIService {
         return null;
     }
 
-    @SuppressWarnings("unchecked")
-    private String extractText(Map<String, Object> body) {
-        try {
-            List<Map<String, Object>> candidates = (List<Map<String, Object>>) body.get("candidates");
-            if (candidates != null && !candidates.isEmpty()) {
-                Map<String, Object> content = (Map<String, Object>) candidates.get(0).get("content");
-                if (content != null) {
-                    List<Map<String, Object>> parts = (List<Map<String, Object>>) content.get("parts");
-                    if (parts != null && !parts.isEmpty()) {
-                        return (String) parts.get(0).get("text");
-                    }
-                }
-            }
-        } catch (Exception e) {
-            log.error("Extract text error: {}", e.getMessage());
-        }
-        return null;
+    /**
+     * POST generateContent ; le texte du premier candidat est lu directement dans le flux de réponse.
+     * Un statut non 2xx lève une HttpStatusCodeException avant tout décodage.
+     */
+    private String postForText(String url, Map<String, Object> body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
+
+        return restTemplate.execute(url, HttpMethod.POST, restTemplate.httpEntityCallback(entity),
+                response -> GeminiResponseDecoder.decodeText(response.getBody()));
     }
 
     private String extractJsonObject(String response) {
@@ -6,6 +6,8 @@ import com.nutriscan.dto.response.RecipeResponse;
 import com.nutriscan.model.User;
 import com.nutriscan.model.enums.GoalType;
 import com.nutriscan.repository.UserRepository;
+import com.nutriscan.resilience.Upstream;
+import com.nutriscan.resilience.UpstreamGuard;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
@@ -25,6 +27,7 @@ public class GeminiRecipeService {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final UserRepository userRepository;
+    private final UpstreamGuard upstreamGuard;
 
     @Value("${gemini.api.key:}")
     private String geminiApiKey;
@@ -32,9 +35,10 @@ public class GeminiRecipeService {
     @Value("${gemini.model:gemma-3-27b-it}")
     private String modelName;
 
-    public GeminiRecipeService(RestTemplate restTemplate, UserRepository userRepository) {
+    public GeminiRecipeService(RestTemplate restTemplate, UserRepository userRepository, UpstreamGuard upstreamGuard) {
         this.restTemplate = restTemplate;
         this.userRepository = userRepository;
+        this.upstreamGuard = upstreamGuard;
     }
 
     /**
@@ -280,7 +284,8 @@ public class GeminiRecipeService {
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
 
             log.info("🤖 Calling {}", model);
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, entity, Map.class);
+            ResponseEntity<Map> response = upstreamGuard.call(Upstream.GEMINI_TEXT,
+                    () -> restTemplate.exchange(url, HttpMethod.POST, entity, Map.class));
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 String text = extractText(response.getBody());
@@ -0,0 +1,344 @@
+package com.nutriscan.service;
+
+import com.nutriscan.dto.response.GoalsRecalculationResponse;
+import com.nutriscan.exception.BusinessException;
+import com.nutriscan.model.enums.ActivityLevel;
+import com.nutriscan.model.enums.Gender;
+import com.nutriscan.model.enums.GoalType;
+import com.nutriscan.util.NutritionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Recalcul des objectifs journaliers de tous les utilisateurs (changement de politique de macros).
+ *
+ * Les utilisateurs sont lus par pages keyset (id) avec leurs objectifs actuels, en colonnes primitives ;
+ * les objectifs sont recalculés dans une boucle sans allocation ({@link NutritionUtils#computeTargets})
+ * et seuls ceux qui changent sont réécrits, par lots JDBC (upsert sur daily_targets.user_id).
+ * Mêmes valeurs par défaut et même arrondi que {@link GoalsService#recalculateGoals}.
+ *
+ * En mode simulation (dryRun), rien n'est écrit : on compte les changements et on garde un échantillon de diffs.
+ * Un seul recalcul à la fois ; l'avancement est consultable pendant l'exécution.
+ */
+@Service
+@Slf4j
+public class GoalsBulkRecalculationService {
+
+    private static final String PAGE_SQL = """
+            SELECT u.id, u.gender, u.initial_weight_kg, u.height_cm, u.age, u.activity_level, u.goal_type,
+                   t.id AS targets_id, t.maintenance_calories, t.target_calories, t.protein_gr, t.carbs_gr, t.fat_gr
+            FROM users u
+            LEFT JOIN daily_targets t ON t.user_id = u.id
+            WHERE u.id > ?
+            ORDER BY u.id
+            LIMIT ?
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO daily_targets (user_id, maintenance_calories, target_calories, protein_gr, carbs_gr, fat_gr, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_id) DO UPDATE SET
+                maintenance_calories = EXCLUDED.maintenance_calories,
+                target_calories = EXCLUDED.target_calories,
+                protein_gr = EXCLUDED.protein_gr,
+                carbs_gr = EXCLUDED.carbs_gr,
+                fat_gr = EXCLUDED.fat_gr,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final int SAMPLE_SIZE = 20;
+    private static final int F = NutritionUtils.TARGET_FIELDS;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final AtomicReference<Job> current = new AtomicReference<>();
+
+    @Value("${goals.bulk.page-size:5000}")
+    private int pageSize;
+
+    public GoalsBulkRecalculationService(JdbcTemplate jdbcTemplate,
+                                         PlatformTransactionManager transactionManager,
+                                         CacheManager cacheManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Démarre un recalcul en arrière-plan et renvoie son état initial.
+     */
+    public GoalsRecalculationResponse start(boolean dryRun) {
+        Job job = new Job(dryRun);
+        Job running = current.get();
+        if (running != null && running.finishedAt == null) {
+            throw new BusinessException("A goals recalculation is already running");
+        }
+        if (!current.compareAndSet(running, job)) {
+            throw new BusinessException("A goals recalculation is already running");
+        }
+        Thread.ofVirtual().name("goals-bulk-recalculation").start(() -> run(job));
+        return job.toResponse();
+    }
+
+    public GoalsRecalculationResponse status() {
+        Job job = current.get();
+        return job != null ? job.toResponse() : null;
+    }
+
+    /**
+     * Exécution synchrone (appelée par {@link #start}, ou directement depuis un script d'exploitation).
+     */
+    public void run(Job job) {
+        log.info("🎯 Goals recalculation started (dryRun={})", job.dryRun);
+        try {
+            Long total = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+            job.totalUsers = total != null ? total : 0;
+
+            Page page = new Page(pageSize);
+            long afterId = 0;
+            while (true) {
+                long cursor = afterId;
+                int size = transactionTemplate.execute(status -> processPage(job, page, cursor));
+                if (size == 0) break;
+                afterId = page.userIds[size - 1];
+                if (size < pageSize) break;
+            }
+            job.status = "DONE";
+        } catch (Exception e) {
+            job.status = "FAILED";
+            job.error = e.getMessage();
+            log.error("❌ Goals recalculation failed after {} users: {}", job.processed.get(), e.getMessage(), e);
+        } finally {
+            job.finishedNanos = System.nanoTime();
+            job.finishedAt = LocalDateTime.now();
+        }
+        log.info("🎯 Goals recalculation {}: {} users, {} changed ({} new) in {} ms (dryRun={})",
+                job.status, job.processed.get(), job.changed.get(), job.created.get(), job.elapsedMs(), job.dryRun);
+    }
+
+    /**
+     * Lit, recalcule et écrit une page dans une transaction ; renvoie le nombre d'utilisateurs lus.
+     */
+    private int processPage(Job job, Page page, long afterId) {
+        page.size = 0;
+        jdbcTemplate.query(PAGE_SQL, rs -> { page.read(rs); }, afterId, pageSize);
+        int size = page.size;
+
+        // Boucle de calcul : uniquement des tableaux primitifs
+        int changedCount = 0;
+        for (int i = 0; i < size; i++) {
+            int base = i * F;
+            NutritionUtils.computeTargets(page.gender[i], page.weight[i], page.height[i], page.age[i],
+                    page.activity[i], page.goal[i], page.next, base);
+            for (int f = 0; f < F; f++) {
+                page.next[base + f] = round(page.next[base + f]);
+            }
+            boolean changed = !page.hasTargets[i];
+            for (int f = 0; f < F && !changed; f++) {
+                changed = page.next[base + f] != page.old[base + f];
+            }
+            if (changed) {
+                page.changed[changedCount++] = i;
+            }
+        }
+
+        for (int c = 0; c < changedCount; c++) {
+            int i = page.changed[c];
+            if (!page.hasTargets[i]) job.created.incrementAndGet();
+            job.sample(page, i);
+            job.calorieDeltaSum.addAndGet(page.hasTargets[i]
+                    ? Math.round(Math.abs(page.next[i * F + NutritionUtils.CALORIES] - page.old[i * F + NutritionUtils.CALORIES]))
+                    : 0);
+        }
+
+        if (!job.dryRun && changedCount > 0) {
+            write(page, changedCount);
+            Cache cache = cacheManager.getCache(GoalsService.GOALS_CACHE);
+            if (cache != null) {
+                for (int c = 0; c < changedCount; c++) {
+                    cache.evict(page.userIds[page.changed[c]]);
+                }
+            }
+        }
+
+        job.processed.addAndGet(size);
+        job.changed.addAndGet(changedCount);
+        if (size > 0 && job.processed.get() % (pageSize * 20L) < size) {
+            log.info("🎯 Goals recalculation: {}/{} users, {} changed", job.processed.get(), job.totalUsers, job.changed.get());
+        }
+        return size;
+    }
+
+    private void write(Page page, int changedCount) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int c) throws SQLException {
+                int i = page.changed[c];
+                int base = i * F;
+                ps.setLong(1, page.userIds[i]);
+                ps.setDouble(2, page.next[base + NutritionUtils.TDEE]);
+                ps.setDouble(3, page.next[base + NutritionUtils.CALORIES]);
+                ps.setDouble(4, page.next[base + NutritionUtils.PROTEIN]);
+                ps.setDouble(5, page.next[base + NutritionUtils.CARBS]);
+                ps.setDouble(6, page.next[base + NutritionUtils.FAT]);
+                ps.setTimestamp(7, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return changedCount;
+            }
+        });
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+
+    /**
+     * Colonnes d'une page, réutilisées d'une page à l'autre.
+     */
+    private static final class Page {
+        final long[] userIds;
+        final int[] gender;
+        final double[] weight;
+        final int[] height;
+        final int[] age;
+        final int[] activity;
+        final int[] goal;
+        final boolean[] hasTargets;
+        final double[] old;
+        final double[] next;
+        final int[] changed;
+        int size;
+
+        Page(int capacity) {
+            userIds = new long[capacity];
+            gender = new int[capacity];
+            weight = new double[capacity];
+            height = new int[capacity];
+            age = new int[capacity];
+            activity = new int[capacity];
+            goal = new int[capacity];
+            hasTargets = new boolean[capacity];
+            old = new double[capacity * F];
+            next = new double[capacity * F];
+            changed = new int[capacity];
+        }
+
+        // Valeurs par défaut identiques à GoalsService.recalculateAndSaveTargets
+        void read(ResultSet rs) throws SQLException {
+            int i = size++;
+            userIds[i] = rs.getLong("id");
+            gender[i] = ordinal(rs.getString("gender"), Gender.class, Gender.MALE);
+            double w = rs.getDouble("initial_weight_kg");
+            weight[i] = rs.wasNull() ? 70.0 : w;
+            int h = rs.getInt("height_cm");
+            height[i] = rs.wasNull() ? 170 : h;
+            int a = rs.getInt("age");
+            age[i] = rs.wasNull() ? 30 : a;
+            activity[i] = ordinal(rs.getString("activity_level"), ActivityLevel.class, ActivityLevel.MODERATE);
+            goal[i] = ordinal(rs.getString("goal_type"), GoalType.class, GoalType.MAINTAIN);
+
+            rs.getLong("targets_id");
+            hasTargets[i] = !rs.wasNull();
+            int base = i * F;
+            old[base + NutritionUtils.TDEE] = rs.getDouble("maintenance_calories");
+            old[base + NutritionUtils.CALORIES] = rs.getDouble("target_calories");
+            old[base + NutritionUtils.PROTEIN] = rs.getDouble("protein_gr");
+            old[base + NutritionUtils.CARBS] = rs.getDouble("carbs_gr");
+            old[base + NutritionUtils.FAT] = rs.getDouble("fat_gr");
+        }
+
+        private static <E extends Enum<E>> int ordinal(String value, Class<E> type, E fallback) {
+            if (value == null) return fallback.ordinal();
+            try {
+                return Enum.valueOf(type, value).ordinal();
+            } catch (IllegalArgumentException e) {
+                return fallback.ordinal();
+            }
+        }
+    }
+
+    /**
+     * État d'un recalcul, mis à jour par le thread de calcul et lu par l'endpoint de suivi.
+     */
+    public static final class Job {
+        final boolean dryRun;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startNanos = System.nanoTime();
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong changed = new AtomicLong();
+        final AtomicLong created = new AtomicLong();
+        final AtomicLong calorieDeltaSum = new AtomicLong();
+        final List<GoalsRecalculationResponse.Diff> samples = new ArrayList<>();
+        volatile long totalUsers;
+        volatile String status = "RUNNING";
+        volatile String error;
+        volatile LocalDateTime finishedAt;
+        volatile long finishedNanos;
+
+        Job(boolean dryRun) {
+            this.dryRun = dryRun;
+        }
+
+        synchronized void sample(Page page, int i) {
+            if (samples.size() >= SAMPLE_SIZE) return;
+            int base = i * F;
+            samples.add(GoalsRecalculationResponse.Diff.builder()
+                    .userId(page.userIds[i])
+                    .oldTargetCalories(page.hasTargets[i] ? page.old[base + NutritionUtils.CALORIES] : null)
+                    .newTargetCalories(page.next[base + NutritionUtils.CALORIES])
+                    .oldProteinGr(page.hasTargets[i] ? page.old[base + NutritionUtils.PROTEIN] : null)
+                    .newProteinGr(page.next[base + NutritionUtils.PROTEIN])
+                    .oldCarbsGr(page.hasTargets[i] ? page.old[base + NutritionUtils.CARBS] : null)
+                    .newCarbsGr(page.next[base + NutritionUtils.CARBS])
+                    .oldFatGr(page.hasTargets[i] ? page.old[base + NutritionUtils.FAT] : null)
+                    .newFatGr(page.next[base + NutritionUtils.FAT])
+                    .build());
+        }
+
+        long elapsedMs() {
+            long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+            return Math.max(1, (end - startNanos) / 1_000_000);
+        }
+
+        synchronized GoalsRecalculationResponse toResponse() {
+            long done = processed.get();
+            long updated = changed.get() - created.get();
+            return GoalsRecalculationResponse.builder()
+                    .dryRun(dryRun)
+                    .status(status)
+                    .error(error)
+                    .totalUsers(totalUsers)
+                    .processedUsers(done)
+                    .changedUsers(changed.get())
+                    .newTargets(created.get())
+                    .meanCalorieDelta(updated > 0 ? (double) calorieDeltaSum.get() / updated : 0.0)
+                    .usersPerSecond(done * 1000 / elapsedMs())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .sampleDiffs(List.copyOf(samples))
+                    .build();
+        }
+    }
+}
@@ -3,15 +3,21 @@ package com.nutriscan.service;
 import com.nutriscan.dto.request.UpdateGoalsRequest;
 import com.nutriscan.dto.response.GoalsResponse;
 import com.nutriscan.model.DailyTargets;
+import com.nutriscan.model.SyncTombstone;
 import com.nutriscan.model.User;
 import com.nutriscan.model.enums.ActivityLevel;
 import com.nutriscan.model.enums.Gender;
 import com.nutriscan.model.enums.GoalType;
+import com.nutriscan.model.enums.SyncEntityType;
 import com.nutriscan.repository.DailyTargetsRepository;
+import com.nutriscan.repository.SyncTombstoneRepository;
 import com.nutriscan.repository.UserRepository;
 import com.nutriscan.util.NutritionUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,15 +29,20 @@ import java.time.LocalDateTime;
 @Slf4j
 public class GoalsService {
 
+    /** Objectifs par utilisateur : lus à presque chaque requête, modifiés rarement */
+    public static final String GOALS_CACHE = "user-goals";
+
     private final DailyTargetsRepository dailyTargetsRepository;
     private final UserRepository userRepository;
+    private final SyncTombstoneRepository syncTombstoneRepository;
 
     /**
      * Get current daily targets. If they don't exist yet, we compute and save them.
      */
+    @Cacheable(cacheNames = GOALS_CACHE, key = "#userId")
     public GoalsResponse getGoalsForUser(Long userId) {
         try {
-            log.info("Getting goals for user: {}", userId);
+            log.debug("Loading goals for user: {}", userId);
 
             DailyTargets targets = dailyTargetsRepository.findByUserId(userId)
                     .orElseGet(() -> {
@@ -49,6 +60,7 @@ public class GoalsService {
     /**
      * Force recalculation from user profile (goal type, activity, etc.).
      */
+    @CachePut(cacheNames = GOALS_CACHE, key = "#userId")
     public GoalsResponse recalculateGoals(Long userId) {
         try {
             log.info("Recalculating goals for user: {}", userId);
@@ -64,6 +76,7 @@ public class GoalsService {
      * Manual override of targets.
      * If targets don't exist, create them first.
      */
+    @CachePut(cacheNames = GOALS_CACHE, key = "#userId")
     public GoalsResponse updateGoals(Long userId, UpdateGoalsRequest request) {
         try {
             log.info("Updating goals for user: {}", userId);
@@ -117,9 +130,12 @@ public class GoalsService {
     /**
      * Delete goals - will reset to recalculated values on next access.
      */
+    @CacheEvict(cacheNames = GOALS_CACHE, key = "#userId")
     public void deleteGoals(Long userId) {
         try {
             log.info("Deleting goals for user: {}", userId);
+            dailyTargetsRepository.findByUserId(userId).ifPresent(targets ->
+                    syncTombstoneRepository.save(SyncTombstone.of(userId, SyncEntityType.GOALS, targets.getId())));
             dailyTargetsRepository.deleteByUserId(userId);
             log.info("Goals deleted for user: {}", userId);
         } catch (Exception e) {
@@ -190,9 +206,11 @@ public class GoalsService {
                 throw new IllegalStateException("Daily targets not found");
             }
 
-            // Recharger l'utilisateur pour éviter les problèmes de lazy loading
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new IllegalStateException("User not found for id: " + userId));
+            // L'utilisateur est chargé avec les objectifs (JOIN FETCH) ou vient d'être affecté au recalcul
+            User user = targets.getUser();
+            if (user == null) {
+                throw new IllegalStateException("User not found for id: " + userId);
+            }
 
             // Retourner les valeurs de DailyTargets (qui ont pu être mises à jour)
             return GoalsResponse.builder()
@@ -3,17 +3,24 @@ package com.nutriscan.service;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nutriscan.dto.response.GroceryListResponse;
+import com.nutriscan.dto.response.PageResponse;
 import com.nutriscan.exception.NotFoundException;
 import com.nutriscan.model.*;
+import com.nutriscan.model.enums.SyncEntityType;
 import com.nutriscan.repository.GroceryListRepository;
 import com.nutriscan.repository.MealPlanRepository;
+import com.nutriscan.repository.SyncTombstoneRepository;
 import com.nutriscan.repository.UserRepository;
+import com.nutriscan.util.IngredientAggregator;
+import com.nutriscan.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -23,9 +30,11 @@ import java.util.stream.Collectors;
 public class GroceryListService {
 
     private final GroceryListRepository groceryListRepository;
+    private final SyncTombstoneRepository syncTombstoneRepository;
     private final MealPlanRepository mealPlanRepository;
     private final UserRepository userRepository;
     private final ObjectMapper objectMapper;
+    private final IngredientCategorizer ingredientCategorizer;
 
     @Transactional
     public GroceryListResponse generateGroceryListFromMealPlan(Long userId, Long mealPlanId) {
@@ -56,67 +65,62 @@ public class GroceryListService {
                 .items(new ArrayList<>())
                 .build();
 
-        // Aggregate ingredients from all planned meals
-        Map<String, IngredientAggregate> aggregatedIngredients = new HashMap<>();
-
+        // Aggregate ingredients from all planned meals (unit-aware merge)
+        IngredientAggregator aggregator = new IngredientAggregator();
         for (PlannedMeal plannedMeal : mealPlan.getPlannedMeals()) {
-            if (plannedMeal.getIngredients() != null) {
-                try {
-                    List<String> ingredients = objectMapper.readValue(
-                            plannedMeal.getIngredients(),
-                            new TypeReference<List<String>>() {}
-                    );
-
-                    for (String ingredient : ingredients) {
-                        parseAndAggregateIngredient(ingredient, aggregatedIngredients);
-                    }
-                } catch (Exception e) {
-                    log.error("Error parsing ingredients for meal {}", plannedMeal.getId(), e);
-                }
-            }
-        }
-
-        // Convert aggregated ingredients to grocery items
-        for (Map.Entry<String, IngredientAggregate> entry : aggregatedIngredients.entrySet()) {
-            IngredientAggregate agg = entry.getValue();
-
-            GroceryItem item = GroceryItem.builder()
-                    .groceryList(groceryList)
-                    .name(agg.getName())
-                    .quantity(agg.getQuantity())
-                    .unit(agg.getUnit())
-                    .category(categorizeIngredient(agg.getName()))
-                    .purchased(false)
-                    .build();
-
-            groceryList.getItems().add(item);
+            addIngredients(plannedMeal, aggregator);
         }
 
-        groceryList = groceryListRepository.save(groceryList);
-
-        return mapToResponse(groceryList);
+        return saveAggregatedList(groceryList, aggregator);
     }
 
     @Transactional
     public GroceryListResponse generateGroceryListFromDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
         log.info("Generating grocery list for user {} from {} to {}", userId, startDate, endDate);
 
-        // Find meal plans for this date range (get most recent one)
-        List<MealPlan> mealPlans = mealPlanRepository.findByUserIdAndDateRange(userId, startDate);
+        // All meal plans overlapping the range, most recent first, with their planned meals
+        List<MealPlan> mealPlans = mealPlanRepository.findOverlappingWithMeals(userId, startDate, endDate);
 
         if (mealPlans.isEmpty()) {
             throw new NotFoundException("No meal plan found for the specified date range. Please create a meal plan first.");
         }
 
-        // Use the most recent meal plan (first in list due to ORDER BY createdAt DESC)
-        MealPlan mealPlan = mealPlans.getFirst();
+        // A single plan covering the whole range: reuse the per-plan list
+        MealPlan latest = mealPlans.getFirst();
+        if (mealPlans.size() == 1 && !latest.getStartDate().isAfter(startDate) && !latest.getEndDate().isBefore(endDate)) {
+            return generateGroceryListFromMealPlan(userId, latest.getId());
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("User not found"));
 
-        if (mealPlans.size() > 1) {
-            log.warn("Found {} meal plans for date range, using the most recent one (id: {})",
-                mealPlans.size(), mealPlan.getId());
+        GroceryList groceryList = GroceryList.builder()
+                .user(user)
+                .mealPlan(null)
+                .startDate(startDate)
+                .endDate(endDate)
+                .items(new ArrayList<>())
+                .build();
+
+        // One pass over all plans: each date comes from the most recent plan that covers it
+        Map<LocalDate, Long> planByDate = new HashMap<>();
+        IngredientAggregator aggregator = new IngredientAggregator();
+        int mealCount = 0;
+        for (MealPlan mealPlan : mealPlans) {
+            for (PlannedMeal plannedMeal : mealPlan.getPlannedMeals()) {
+                LocalDate date = plannedMeal.getDate();
+                if (date.isBefore(startDate) || date.isAfter(endDate)) continue;
+
+                Long owner = planByDate.putIfAbsent(date, mealPlan.getId());
+                if (owner != null && !owner.equals(mealPlan.getId())) continue;
+
+                addIngredients(plannedMeal, aggregator);
+                mealCount++;
+            }
         }
+        log.info("Aggregated {} planned meals from {} meal plans for {} days", mealCount, mealPlans.size(), planByDate.size());
 
-        return generateGroceryListFromMealPlan(userId, mealPlan.getId());
+        return saveAggregatedList(groceryList, aggregator);
     }
 
     public List<GroceryListResponse> getUserGroceryLists(Long userId) {
@@ -124,15 +128,35 @@ public class GroceryListService {
         return lists.stream().map(this::mapToResponse).collect(Collectors.toList());
     }
 
-    public GroceryListResponse getLatestGroceryList(Long userId) {
-        List<GroceryList> lists = groceryListRepository.findByUserId(userId);
+    /**
+     * Historique paginé par curseur (createdAt, id), plus récentes d'abord.
+     */
+    public PageResponse<GroceryListResponse> getGroceryListPage(Long userId, String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.clampLimit(limit);
+        List<GroceryList> rows = after == null
+                ? groceryListRepository.findPageByUserId(userId, KeysetCursor.probe(pageSize))
+                : groceryListRepository.findPageByUserIdBefore(userId, after.sortKeyAsDateTime(), after.getId(),
+                        KeysetCursor.probe(pageSize));
+        return KeysetCursor.page(rows, pageSize,
+                list -> KeysetCursor.encode(list.getCreatedAt(), list.getId()),
+                this::mapToResponse);
+    }
 
-        if (lists.isEmpty()) {
-            throw new NotFoundException("No grocery lists found. Please create a grocery list first.");
-        }
+    /**
+     * Listes créées ou modifiées depuis {@code since} (flux /api/sync).
+     */
+    @Transactional(readOnly = true)
+    public List<GroceryListResponse> getGroceryListsChangedSince(Long userId, LocalDateTime since, Pageable pageable) {
+        return groceryListRepository.findChangedSince(userId, since, pageable).stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
 
-        // Assume repository returns ordered by creation date DESC
-        return mapToResponse(lists.get(0));
+    public GroceryListResponse getLatestGroceryList(Long userId) {
+        GroceryList list = groceryListRepository.findFirstByUserIdOrderByCreatedAtDescIdDesc(userId)
+                .orElseThrow(() -> new NotFoundException("No grocery lists found. Please create a grocery list first."));
+        return mapToResponse(list);
     }
 
     public GroceryListResponse getGroceryListById(Long userId, Long listId) {
@@ -161,6 +185,8 @@ public class GroceryListService {
                 .orElseThrow(() -> new NotFoundException("Grocery item not found"));
 
         item.setPurchased(purchased);
+        // Only the item row changes: touch the list so /api/sync and its ETag pick the toggle up
+        list.setUpdatedAt(LocalDateTime.now());
         list = groceryListRepository.save(list);
 
         return mapToResponse(list);
@@ -176,60 +202,43 @@ public class GroceryListService {
         }
 
         groceryListRepository.delete(list);
+        syncTombstoneRepository.save(SyncTombstone.of(userId, SyncEntityType.GROCERY_LIST, listId));
     }
 
-    private void parseAndAggregateIngredient(String ingredientLine, Map<String, IngredientAggregate> aggregated) {
-        // Simple parsing - can be improved with NLP
-        String cleaned = ingredientLine.toLowerCase().trim();
-
-        // Try to extract quantity and unit (simple regex)
-        String name = cleaned;
-        double quantity = 1.0;
-        String unit = "item";
-
-        // Basic pattern matching (e.g., "2 cups flour", "500g chicken")
-        String[] parts = cleaned.split("\\s+");
-        if (parts.length >= 2) {
-            try {
-                // Try to parse first part as number
-                quantity = Double.parseDouble(parts[0].replaceAll("[^0-9.]", ""));
-                unit = parts[1];
-                name = String.join(" ", Arrays.copyOfRange(parts, 2, parts.length));
-            } catch (NumberFormatException e) {
-                // Keep defaults
-                name = cleaned;
+    private void addIngredients(PlannedMeal plannedMeal, IngredientAggregator aggregator) {
+        if (plannedMeal.getIngredients() == null) return;
+        try {
+            List<String> ingredients = objectMapper.readValue(
+                    plannedMeal.getIngredients(),
+                    new TypeReference<List<String>>() {}
+            );
+
+            for (String ingredient : ingredients) {
+                aggregator.add(ingredient);
             }
+        } catch (Exception e) {
+            log.error("Error parsing ingredients for meal {}", plannedMeal.getId(), e);
         }
-
-        // Normalize name (remove common words)
-        name = name.replaceAll("\\b(fresh|organic|chopped|diced|sliced|raw)\\b", "").trim();
-
-        // Aggregate by name
-        final String finalName = name;
-        final String finalUnit = unit;
-        final double finalQuantity = quantity;
-        aggregated.computeIfAbsent(finalName, k -> new IngredientAggregate(finalName, 0.0, finalUnit))
-                .addQuantity(finalQuantity);
     }
 
-    private String categorizeIngredient(String ingredient) {
-        String lower = ingredient.toLowerCase();
-
-        if (lower.matches(".*(tomato|carrot|onion|pepper|lettuce|spinach|broccoli|cucumber|celery).*")) {
-            return "VEGETABLES";
-        } else if (lower.matches(".*(apple|banana|orange|berry|grape|lemon|lime|mango).*")) {
-            return "FRUITS";
-        } else if (lower.matches(".*(chicken|beef|pork|fish|salmon|turkey|egg|tofu).*")) {
-            return "PROTEIN";
-        } else if (lower.matches(".*(milk|cheese|yogurt|butter|cream).*")) {
-            return "DAIRY";
-        } else if (lower.matches(".*(rice|bread|pasta|flour|oat|quinoa|wheat).*")) {
-            return "GRAINS";
-        } else if (lower.matches(".*(oil|vinegar|salt|pepper|spice|herb|sauce).*")) {
-            return "CONDIMENTS";
-        } else {
-            return "OTHER";
+    private GroceryListResponse saveAggregatedList(GroceryList groceryList, IngredientAggregator aggregator) {
+        // Convert aggregated ingredients to grocery items
+        for (IngredientAggregator.AggregatedIngredient agg : aggregator.result()) {
+            GroceryItem item = GroceryItem.builder()
+                    .groceryList(groceryList)
+                    .name(agg.getName())
+                    .quantity(agg.getQuantity())
+                    .unit(agg.getUnit())
+                    .category(ingredientCategorizer.categorize(agg.getName()))
+                    .purchased(false)
+                    .build();
+
+            groceryList.getItems().add(item);
         }
+
+        groceryList = groceryListRepository.save(groceryList);
+
+        return mapToResponse(groceryList);
     }
 
     private GroceryListResponse mapToResponse(GroceryList list) {
@@ -254,17 +263,4 @@ public class GroceryListService {
                 .totalItems(items.size())
                 .build();
     }
-
-    @lombok.Data
-    @lombok.AllArgsConstructor
-    private static class IngredientAggregate {
-        private String name;
-        private Double quantity;
-        private String unit;
-
-        public void addQuantity(Double amount) {
-            this.quantity += amount;
-        }
-    }
 }
-
@@ -0,0 +1,159 @@
+package com.nutriscan.service;
+
+import com.nutriscan.util.AhoCorasick;
+import com.nutriscan.util.TextFolding;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe un ingrédient dans une catégorie de liste de courses (VEGETABLES, FRUITS, PROTEIN, ...).
+ *
+ * Le dictionnaire mots-clés -> catégorie (configurable via {@code grocery.categories.location}) est compilé
+ * une seule fois en automate Aho-Corasick ; chaque ingrédient est ensuite classé en un seul passage,
+ * sans regex ni allocation.
+ */
+@Component
+@Slf4j
+public class IngredientCategorizer {
+
+    public static final String DEFAULT_CATEGORY = "OTHER";
+
+    private final AhoCorasick<Integer> automaton;
+    private final String[] keywordCategory;
+    private final int[] keywordRank;       // longueur puis priorité de catégorie : plus grand = meilleur
+    private final int[] bestKeywordByState;
+
+    public IngredientCategorizer(
+            @Value("${grocery.categories.location:classpath:grocery/ingredient-categories.txt}") Resource dictionary) {
+        this(loadDictionary(dictionary));
+    }
+
+    /**
+     * @param dictionary mot-clé -> catégorie, dans l'ordre de priorité des catégories
+     */
+    public IngredientCategorizer(Map<String, String> dictionary) {
+        List<String> categoryOrder = new ArrayList<>();
+        Map<String, Integer> patterns = new LinkedHashMap<>();
+        List<String> categories = new ArrayList<>();
+        List<Integer> ranks = new ArrayList<>();
+
+        for (Map.Entry<String, String> entry : dictionary.entrySet()) {
+            String pattern = toPattern(entry.getKey());
+            if (pattern.isBlank() || patterns.containsKey(pattern)) continue;
+
+            String category = entry.getValue();
+            if (!categoryOrder.contains(category)) categoryOrder.add(category);
+            int priority = categoryOrder.indexOf(category);
+
+            patterns.put(pattern, categories.size());
+            categories.add(category);
+            // Le motif le plus long l'emporte, puis la catégorie déclarée en premier
+            ranks.add(pattern.length() * 1024 + (1023 - priority));
+        }
+
+        this.automaton = AhoCorasick.build(patterns);
+        this.keywordCategory = categories.toArray(new String[0]);
+        this.keywordRank = ranks.stream().mapToInt(Integer::intValue).toArray();
+
+        // Meilleur mot-clé reconnu dans chaque état (sorties des suffixes incluses)
+        this.bestKeywordByState = new int[automaton.stateCount()];
+        for (int state = 0; state < bestKeywordByState.length; state++) {
+            int best = -1;
+            for (int keyword : automaton.outputs(state)) {
+                if (best < 0 || keywordRank[keyword] > keywordRank[best]) best = keyword;
+            }
+            bestKeywordByState[state] = best;
+        }
+        log.info("🧺 Ingredient categorizer ready: {} keywords, {} categories, {} automaton states",
+                keywordCategory.length, categoryOrder.size(), automaton.stateCount());
+    }
+
+    public String categorize(String ingredient) {
+        if (ingredient == null || ingredient.isEmpty()) return DEFAULT_CATEGORY;
+
+        // Espace initial : permet aux mots-clés "_xxx" de ne reconnaître qu'un début de mot
+        int state = automaton.step(automaton.initialState(), ' ');
+        int best = bestKeywordByState[state];
+
+        for (int i = 0; i < ingredient.length(); i++) {
+            char raw = ingredient.charAt(i);
+            state = automaton.step(state, foldForMatch(raw));
+            best = better(best, bestKeywordByState[state]);
+
+            char tail = TextFolding.ligatureTail(raw);
+            if (tail != 0) {
+                state = automaton.step(state, tail);
+                best = better(best, bestKeywordByState[state]);
+            }
+        }
+        return best >= 0 ? keywordCategory[best] : DEFAULT_CATEGORY;
+    }
+
+    private int better(int current, int candidate) {
+        if (candidate < 0) return current;
+        if (current < 0 || keywordRank[candidate] > keywordRank[current]) return candidate;
+        return current;
+    }
+
+    /**
+     * Ponctuation et séparateurs -> espace, pour que "d'ail" ou "(ail)" reconnaissent "_ail".
+     */
+    private static char foldForMatch(char c) {
+        char folded = TextFolding.fold(c);
+        return Character.isLetterOrDigit(folded) ? folded : ' ';
+    }
+
+    private static String toPattern(String keyword) {
+        String trimmed = keyword.trim();
+        boolean wordStart = trimmed.startsWith("_");
+        if (wordStart) trimmed = trimmed.substring(1);
+
+        StringBuilder sb = new StringBuilder(trimmed.length() + 1);
+        if (wordStart) sb.append(' ');
+        String folded = TextFolding.fold(trimmed);
+        for (int i = 0; i < folded.length(); i++) {
+            sb.append(foldForMatch(folded.charAt(i)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Lignes "CATEGORIE: mot1, mot2" ; '#' pour les commentaires.
+     */
+    static Map<String, String> loadDictionary(Resource resource) {
+        Map<String, String> dictionary = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                int colon = line.indexOf(':');
+                if (colon <= 0) {
+                    log.warn("⚠️ Ignoring malformed ingredient category line: {}", line);
+                    continue;
+                }
+                String category = line.substring(0, colon).trim().toUpperCase();
+                for (String keyword : line.substring(colon + 1).split(",")) {
+                    if (!keyword.isBlank()) dictionary.putIfAbsent(keyword.trim(), category);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load ingredient categories from " + resource, e);
+        }
+        return dictionary;
+    }
+}
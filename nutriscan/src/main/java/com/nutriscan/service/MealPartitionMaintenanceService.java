@@ -0,0 +1,138 @@
+package com.nutriscan.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Entretien des partitions mensuelles de meals / meal_items (migration V9) :
+ * crée les partitions des mois à venir avant qu'on en ait besoin, et détache les mois trop anciens
+ * vers le schéma d'archive (hors des requêtes, des index et du vacuum, mais toujours consultables).
+ *
+ * Actif uniquement avec {@code meals.partitioning.enabled=true} (PostgreSQL migré par Flyway) ;
+ * sans effet si la table meals n'est pas partitionnée (base de dev créée par Hibernate).
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "meals.partitioning.enabled", havingValue = "true")
+public class MealPartitionMaintenanceService {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String IS_PARTITIONED_SQL = """
+            SELECT count(*) FROM pg_partitioned_table pt
+            JOIN pg_class c ON c.oid = pt.partrelid
+            WHERE c.relname = 'meals' AND c.relnamespace = current_schema()::regnamespace
+            """;
+
+    private static final String MONTHLY_PARTITIONS_SQL = """
+            SELECT c.relname FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = 'meals' AND p.relnamespace = current_schema()::regnamespace
+              AND c.relname ~ '^meals_p[0-9]{6}$'
+            ORDER BY c.relname
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${meals.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    /** Mois conservés en ligne (mois courant inclus) ; 0 = jamais d'archivage */
+    @Value("${meals.partitioning.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${meals.partitioning.archive-schema:archive}")
+    private String archiveSchema;
+
+    public MealPartitionMaintenanceService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain();
+    }
+
+    /**
+     * Idempotent : peut tourner tous les jours, ne crée ou ne détache que ce qui manque.
+     */
+    @Scheduled(cron = "${meals.partitioning.cron:0 15 3 * * *}")
+    public void maintain() {
+        try {
+            if (!isPartitioned()) {
+                log.warn("⚠️ meals is not a partitioned table, skipping partition maintenance");
+                return;
+            }
+            createUpcomingPartitions(YearMonth.now());
+            archiveExpiredPartitions(YearMonth.now());
+        } catch (Exception e) {
+            log.error("❌ Meal partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    public int createUpcomingPartitions(YearMonth current) {
+        Integer created = jdbcTemplate.queryForObject("SELECT create_meal_partitions(?, ?)", Integer.class,
+                Date.valueOf(current.atDay(1)), monthsAhead + 1);
+        if (created != null && created > 0) {
+            log.info("🗂️ Created {} monthly meal partition(s) from {}", created, current);
+        }
+        return created != null ? created : 0;
+    }
+
+    /**
+     * Détache et archive les partitions antérieures à la rétention, une par transaction.
+     */
+    public int archiveExpiredPartitions(YearMonth current) {
+        if (retentionMonths <= 0) return 0;
+
+        YearMonth oldestKept = current.minusMonths(retentionMonths - 1L);
+        List<String> partitions = jdbcTemplate.queryForList(MONTHLY_PARTITIONS_SQL, String.class);
+        int archived = 0;
+        for (String partition : partitions) {
+            YearMonth month = YearMonth.parse(partition.substring("meals_p".length()), SUFFIX);
+            if (!month.isBefore(oldestKept)) break;   // triées par nom, donc par mois
+            archive(month);
+            archived++;
+        }
+        return archived;
+    }
+
+    private void archive(YearMonth month) {
+        String suffix = month.format(SUFFIX);
+        String meals = "meals_p" + suffix;
+        String items = "meal_items_p" + suffix;
+
+        // meal_items d'abord : une fois détachée, sa copie de la FK vers meals empêcherait de détacher le mois de meals.
+        // DETACH prend un verrou exclusif sur la table parente, bref ici puisque les vieux mois ne reçoivent plus d'écritures.
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + archiveSchema);
+            jdbcTemplate.execute("ALTER TABLE meal_items DETACH PARTITION " + items);
+            jdbcTemplate.execute("ALTER TABLE " + items + " DROP CONSTRAINT IF EXISTS fk_meal_items_meal");
+            jdbcTemplate.execute("ALTER TABLE meals DETACH PARTITION " + meals);
+            jdbcTemplate.execute("ALTER TABLE " + items + " SET SCHEMA " + archiveSchema);
+            jdbcTemplate.execute("ALTER TABLE " + meals + " SET SCHEMA " + archiveSchema);
+        });
+        log.info("📦 Archived meal partitions for {} into schema {}", month, archiveSchema);
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Integer.class);
+        return count != null && count > 0;
+    }
+}
@@ -3,22 +3,45 @@ package com.nutriscan.service;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nutriscan.dto.request.GenerateMealPlanRequest;
+import com.nutriscan.dto.response.MealPlanProgressResponse;
 import com.nutriscan.dto.response.MealPlanResponse;
+import com.nutriscan.dto.response.PageResponse;
 import com.nutriscan.dto.response.RecipeResponse;
+import com.nutriscan.exception.BadRequestException;
 import com.nutriscan.exception.NotFoundException;
 import com.nutriscan.model.*;
+import com.nutriscan.model.enums.SyncEntityType;
 import com.nutriscan.repository.MealPlanRepository;
+import com.nutriscan.repository.SyncTombstoneRepository;
 import com.nutriscan.repository.UserRepository;
+import com.nutriscan.service.planner.DefaultRecipeCatalog;
+import com.nutriscan.service.planner.LocalMealPlannerService;
+import com.nutriscan.service.planner.PlannerRecipe;
+import com.nutriscan.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,15 +50,46 @@ import java.util.stream.Collectors;
 public class MealPlanService {
 
     private final MealPlanRepository mealPlanRepository;
+    private final SyncTombstoneRepository syncTombstoneRepository;
     private final UserRepository userRepository;
     private final GeminiAIService geminiAIService;  // Utilise le nouveau service AI unifié
     private final GoalsService goalsService;
+    private final LocalMealPlannerService localMealPlannerService;
     private final ObjectMapper objectMapper;
 
-    @Transactional
+    @Qualifier("mealPlanChunkExecutor")
+    private final TaskExecutor mealPlanChunkExecutor;
+
+    @Value("${mealplan.generation.chunk-days:1}")
+    private int chunkDays;
+
+    @Value("${mealplan.generation.timeout-seconds:90}")
+    private long generationTimeoutSeconds;
+
+    @Value("${mealplan.default-strategy:AI}")
+    private String defaultStrategy;
+
     public MealPlanResponse generateMealPlan(Long userId, GenerateMealPlanRequest request) {
+        return generateMealPlan(userId, request, progress -> { });
+    }
+
+    /**
+     * Génère un plan de repas en découpant la période en segments de {@code chunkDays} jours,
+     * générés en parallèle (parallélisme borné par le pool mealPlanChunkExecutor).
+     * Chaque segment terminé est signalé à {@code progressListener}.
+     *
+     * Volontairement hors transaction : l'attente des appels Gemini (jusqu'à generation.timeout-seconds) ne doit pas
+     * garder une connexion JDBC. Les lectures (utilisateur, objectifs, catalogue) et l'enregistrement final
+     * ouvrent chacun leur propre transaction courte.
+     */
+    public MealPlanResponse generateMealPlan(Long userId, GenerateMealPlanRequest request,
+                                             Consumer<MealPlanProgressResponse> progressListener) {
         log.info("Generating meal plan for user {} from {} to {}", userId, request.getStartDate(), request.getEndDate());
 
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new BadRequestException("endDate must be on or after startDate");
+        }
+
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
@@ -59,17 +113,30 @@ public class MealPlanService {
 
         long days = ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate()) + 1;
 
-        // OPTIMISATION: Générer tout le plan en UN SEUL appel à Gemini AI
-        log.info("🚀 Generating full {} day meal plan with Gemini AI...", days);
-
-        Map<String, Map<String, RecipeResponse>> fullPlan = geminiAIService.generateFullMealPlan(
-                userId,
-                request.getStartDate(),
-                (int) days,
-                targetCalories,
-                request.getHealthPreferences(),
-                request.getExcludedIngredients()
-        );
+        String strategy = request.getStrategy() != null ? request.getStrategy() : defaultStrategy;
+        Map<String, Map<String, RecipeResponse>> fullPlan;
+        Map<String, Map<String, RecipeResponse>> localPlan = null;
+
+        if ("LOCAL".equalsIgnoreCase(strategy)) {
+            // Planificateur local : quelques millisecondes, sans appel IA
+            log.info("🧮 Generating {} day meal plan with the local planner...", days);
+            localPlan = localMealPlannerService.planMeals(userId, request.getStartDate(), (int) days,
+                    targetCalories, userGoals, request.getExcludedIngredients());
+            fullPlan = localPlan;
+            notifyProgress(progressListener, MealPlanProgressResponse.builder()
+                    .completedDays((int) days)
+                    .totalDays((int) days)
+                    .chunkStart(request.getStartDate())
+                    .chunkEnd(request.getEndDate())
+                    .aiGenerated(false)
+                    .build());
+        } else {
+            // Génération par segments parallèles : avec des segments d'un jour et un pool d'au moins 14 threads,
+            // un plan de 14 jours prend ~ le temps d'une journée et chaque réponse reste bien en dessous
+            // de maxOutputTokens (plus de troncature)
+            log.info("🚀 Generating {} day meal plan with Gemini AI in chunks of {} day(s)...", days, chunkDays);
+            fullPlan = generateChunksInParallel(user, request, (int) days, targetCalories, progressListener);
+        }
 
         double totalCalories = 0.0;
         double totalProtein = 0.0;
@@ -99,12 +166,17 @@ public class MealPlanService {
                     }
                 }
             }
-            log.info("✅ Generated {} meals from Gemini full plan", mealPlan.getPlannedMeals().size());
+            log.info("✅ Generated {} meals from Gemini chunked plan", mealPlan.getPlannedMeals().size());
         }
 
-        // Si Gemini n'a rien retourné ou retourné partiellement, compléter avec des recettes par défaut
+        // Si Gemini n'a rien retourné ou retourné partiellement, compléter avec le planificateur local
+        // (puis des recettes par défaut si aucun candidat n'existe pour un créneau)
         if (mealPlan.getPlannedMeals().size() < days * 4) {
-            log.info("⚠️ Completing plan with default recipes...");
+            log.info("⚠️ Completing plan with local planner recipes...");
+            if (localPlan == null) {
+                localPlan = localMealPlannerService.planMeals(userId, request.getStartDate(), (int) days,
+                        targetCalories, userGoals, request.getExcludedIngredients());
+            }
             for (int i = 0; i < days; i++) {
                 LocalDate currentDate = request.getStartDate().plusDays(i);
 
@@ -116,9 +188,12 @@ public class MealPlanService {
 
                 for (String mealType : List.of("BREAKFAST", "LUNCH", "DINNER", "SNACK")) {
                     if (!existingMealTypes.contains(mealType)) {
-                        int mealCalories = getMealCalories(targetCalories, mealType);
-                        RecipeResponse defaultRecipe = createDefaultRecipe(mealType, mealCalories);
-                        PlannedMeal meal = createPlannedMealFromRecipe(currentDate, mealType, defaultRecipe, mealPlan);
+                        Map<String, RecipeResponse> localDay = localPlan.get(currentDate.toString());
+                        RecipeResponse recipe = localDay != null ? localDay.get(mealType) : null;
+                        if (recipe == null) {
+                            recipe = createDefaultRecipe(mealType, getMealCalories(targetCalories, mealType));
+                        }
+                        PlannedMeal meal = createPlannedMealFromRecipe(currentDate, mealType, recipe, mealPlan);
                         if (meal != null) {
                             mealPlan.getPlannedMeals().add(meal);
                             totalCalories += meal.getCalories() != null ? meal.getCalories() : 0;
@@ -147,6 +222,97 @@ public class MealPlanService {
         return mapToResponse(mealPlan);
     }
 
+    /**
+     * Lance un appel Gemini par segment de jours et fusionne les résultats dans l'ordre des dates.
+     * Un segment en échec ou hors délai est simplement absent du résultat : ses jours seront
+     * complétés par des recettes par défaut.
+     */
+    private Map<String, Map<String, RecipeResponse>> generateChunksInParallel(
+            User user, GenerateMealPlanRequest request, int days, int targetCalories,
+            Consumer<MealPlanProgressResponse> progressListener) {
+
+        int chunkSize = Math.max(1, chunkDays);
+        int chunkCount = (days + chunkSize - 1) / chunkSize;
+        List<CompletableFuture<Map<String, Map<String, RecipeResponse>>>> futures = new ArrayList<>(chunkCount);
+        AtomicInteger completedDays = new AtomicInteger();
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int offset = chunk * chunkSize;
+            int size = Math.min(chunkSize, days - offset);
+            LocalDate chunkStart = request.getStartDate().plusDays(offset);
+
+            CompletableFuture<Map<String, Map<String, RecipeResponse>>> future;
+            try {
+                future = CompletableFuture
+                        .supplyAsync(() -> geminiAIService.generateMealPlanChunk(
+                                user, chunkStart, offset + 1, size, days, targetCalories,
+                                request.getHealthPreferences(), request.getExcludedIngredients()), mealPlanChunkExecutor)
+                        .exceptionally(e -> {
+                            log.warn("⚠️ Meal plan chunk starting {} failed: {}", chunkStart, e.getMessage());
+                            return Collections.emptyMap();
+                        });
+            } catch (TaskRejectedException e) {
+                log.warn("⚠️ Meal plan chunk pool saturated, chunk starting {} will use default recipes", chunkStart);
+                future = CompletableFuture.completedFuture(Collections.emptyMap());
+            }
+
+            future.thenAccept(result -> notifyProgress(progressListener, MealPlanProgressResponse.builder()
+                    .completedDays(completedDays.addAndGet(size))
+                    .totalDays(days)
+                    .chunkStart(chunkStart)
+                    .chunkEnd(chunkStart.plusDays(size - 1L))
+                    .aiGenerated(!result.isEmpty())
+                    .timedOut(false)
+                    .build()));
+            futures.add(future);
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(generationTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("⚠️ Meal plan generation exceeded {}s, keeping completed chunks only", generationTimeoutSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // exceptionally() convertit déjà les échecs en résultat vide
+            log.warn("⚠️ Unexpected meal plan chunk failure: {}", e.getMessage());
+        }
+
+        // Fusion dans l'ordre des segments (= ordre des dates). cancel() n'interrompt pas un appel HTTP en cours :
+        // le segment abandonné libère son thread au délai de lecture du RestTemplate, sans bloquer cette requête.
+        // Un segment annulé n'atteint jamais son thenAccept : son événement de progression est envoyé ici
+        Map<String, Map<String, RecipeResponse>> merged = new LinkedHashMap<>();
+        for (int chunk = 0; chunk < futures.size(); chunk++) {
+            CompletableFuture<Map<String, Map<String, RecipeResponse>>> future = futures.get(chunk);
+            if (future.isDone() || !future.cancel(true)) {
+                merged.putAll(future.join());
+                continue;
+            }
+            int offset = chunk * chunkSize;
+            int size = Math.min(chunkSize, days - offset);
+            LocalDate chunkStart = request.getStartDate().plusDays(offset);
+            notifyProgress(progressListener, MealPlanProgressResponse.builder()
+                    .completedDays(completedDays.addAndGet(size))
+                    .totalDays(days)
+                    .chunkStart(chunkStart)
+                    .chunkEnd(chunkStart.plusDays(size - 1L))
+                    .aiGenerated(false)
+                    .timedOut(true)
+                    .build());
+        }
+        return merged;
+    }
+
+    private void notifyProgress(Consumer<MealPlanProgressResponse> listener, MealPlanProgressResponse progress) {
+        try {
+            listener.accept(progress);
+        } catch (Exception e) {
+            // Le client SSE a pu se déconnecter : la génération continue quand même
+            log.debug("Progress listener failed: {}", e.getMessage());
+        }
+    }
+
     private int getMealCalories(int dailyTotal, String mealType) {
         return switch (mealType) {
             case "BREAKFAST" -> (int) (dailyTotal * 0.25);
@@ -295,61 +461,15 @@ public class MealPlanService {
      */
     private RecipeResponse createDefaultRecipe(String mealType, int calories) {
         RecipeResponse recipe = new RecipeResponse();
-        java.util.Random random = new java.util.Random();
-
-        switch (mealType.toUpperCase()) {
-            case "BREAKFAST" -> {
-                String[][] breakfasts = {
-                    {"Petit-déjeuner aux œufs", "2 œufs brouillés", "2 tranches de pain complet", "1 orange", "Café ou thé"},
-                    {"Bowl d'avoine aux fruits", "60g flocons d'avoine", "200ml lait", "1 banane", "Myrtilles", "1 c.s. miel"},
-                    {"Tartines avocat œuf", "2 tranches pain complet", "1/2 avocat", "1 œuf poché", "Tomates cerises"},
-                    {"Yaourt granola fruits", "200g yaourt grec", "40g granola", "Fruits de saison", "Noix concassées"},
-                    {"Pancakes protéinés", "2 pancakes", "Sirop d'érable", "Fruits rouges", "1 yaourt"}
-                };
-                int idx = random.nextInt(breakfasts.length);
-                recipe.setLabel(breakfasts[idx][0]);
-                recipe.setIngredientLines(List.of(java.util.Arrays.copyOfRange(breakfasts[idx], 1, breakfasts[idx].length)));
-            }
-            case "LUNCH" -> {
-                String[][] lunches = {
-                    {"Salade César au poulet", "150g poulet grillé", "Salade romaine", "Croûtons", "Parmesan", "Sauce César légère"},
-                    {"Buddha bowl quinoa", "150g quinoa cuit", "Pois chiches rôtis", "Légumes variés", "Sauce tahini"},
-                    {"Wrap poulet avocat", "1 tortilla complète", "120g poulet", "1/2 avocat", "Crudités", "Sauce yaourt"},
-                    {"Pâtes au pesto maison", "80g pâtes complètes", "Pesto basilic", "Tomates cerises", "Mozzarella", "Pignons"},
-                    {"Riz sauté aux légumes", "150g riz", "Légumes wok", "Sauce soja", "Œuf", "Sésame"}
-                };
-                int idx = random.nextInt(lunches.length);
-                recipe.setLabel(lunches[idx][0]);
-                recipe.setIngredientLines(List.of(java.util.Arrays.copyOfRange(lunches[idx], 1, lunches[idx].length)));
-            }
-            case "DINNER" -> {
-                String[][] dinners = {
-                    {"Saumon grillé légumes", "150g pavé de saumon", "Brocolis vapeur", "Riz basmati", "Citron", "Aneth"},
-                    {"Poulet rôti aux herbes", "150g filet de poulet", "Pommes de terre rôties", "Haricots verts", "Thym", "Romarin"},
-                    {"Curry de légumes", "Légumes variés", "Lait de coco", "Pâte de curry", "Riz basmati", "Coriandre"},
-                    {"Steak haricots verts", "150g steak", "200g haricots verts", "Échalotes", "Persil", "Huile d'olive"},
-                    {"Poisson blanc purée", "150g cabillaud", "200g purée maison", "Épinards", "Beurre", "Muscade"}
-                };
-                int idx = random.nextInt(dinners.length);
-                recipe.setLabel(dinners[idx][0]);
-                recipe.setIngredientLines(List.of(java.util.Arrays.copyOfRange(dinners[idx], 1, dinners[idx].length)));
-            }
-            case "SNACK" -> {
-                String[][] snacks = {
-                    {"Fruits secs et noix", "30g amandes", "30g noix de cajou", "Raisins secs"},
-                    {"Smoothie protéiné", "1 banane", "200ml lait", "1 c.s. beurre cacahuète", "Cacao"},
-                    {"Yaourt aux fruits", "150g yaourt grec", "Fruits frais", "1 c.c. miel"},
-                    {"Tartine beurre cacahuète", "1 tranche pain complet", "2 c.s. beurre cacahuète", "1/2 banane"},
-                    {"Fromage et crackers", "30g fromage", "4 crackers complets", "Quelques raisins"}
-                };
-                int idx = random.nextInt(snacks.length);
-                recipe.setLabel(snacks[idx][0]);
-                recipe.setIngredientLines(List.of(java.util.Arrays.copyOfRange(snacks[idx], 1, snacks[idx].length)));
-            }
-            default -> {
-                recipe.setLabel("Repas équilibré");
-                recipe.setIngredientLines(List.of("Protéines au choix", "Féculents complets", "Légumes de saison", "Huile d'olive"));
-            }
+        List<PlannerRecipe> catalog = DefaultRecipeCatalog.forMealType(mealType);
+
+        if (!catalog.isEmpty()) {
+            PlannerRecipe picked = catalog.get(java.util.concurrent.ThreadLocalRandom.current().nextInt(catalog.size()));
+            recipe.setLabel(picked.getLabel());
+            recipe.setIngredientLines(picked.getIngredientLines());
+        } else {
+            recipe.setLabel("Repas équilibré");
+            recipe.setIngredientLines(List.of("Protéines au choix", "Féculents complets", "Légumes de saison", "Huile d'olive"));
         }
 
         recipe.setUri("nutriscan-" + mealType.toLowerCase() + "-" + System.currentTimeMillis());
@@ -374,15 +494,35 @@ public class MealPlanService {
         return plans.stream().map(this::mapToResponse).collect(Collectors.toList());
     }
 
-    public MealPlanResponse getLatestMealPlan(Long userId) {
-        List<MealPlan> plans = mealPlanRepository.findByUserId(userId);
+    /**
+     * Historique paginé par curseur (createdAt, id), plus récents d'abord.
+     */
+    public PageResponse<MealPlanResponse> getMealPlanPage(Long userId, String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.clampLimit(limit);
+        List<MealPlan> rows = after == null
+                ? mealPlanRepository.findPageByUserId(userId, KeysetCursor.probe(pageSize))
+                : mealPlanRepository.findPageByUserIdBefore(userId, after.sortKeyAsDateTime(), after.getId(),
+                        KeysetCursor.probe(pageSize));
+        return KeysetCursor.page(rows, pageSize,
+                plan -> KeysetCursor.encode(plan.getCreatedAt(), plan.getId()),
+                this::mapToResponse);
+    }
 
-        if (plans.isEmpty()) {
-            throw new NotFoundException("No meal plans found. Please create a meal plan first.");
-        }
+    /**
+     * Plans créés ou modifiés depuis {@code since} (flux /api/sync).
+     */
+    @Transactional(readOnly = true)
+    public List<MealPlanResponse> getMealPlansChangedSince(Long userId, LocalDateTime since, Pageable pageable) {
+        return mealPlanRepository.findChangedSince(userId, since, pageable).stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
 
-        // findByUserId already orders by startDate DESC, so first one is the latest
-        return mapToResponse(plans.get(0));
+    public MealPlanResponse getLatestMealPlan(Long userId) {
+        MealPlan plan = mealPlanRepository.findFirstByUserIdOrderByCreatedAtDescIdDesc(userId)
+                .orElseThrow(() -> new NotFoundException("No meal plans found. Please create a meal plan first."));
+        return mapToResponse(plan);
     }
 
     public MealPlanResponse getMealPlanById(Long userId, Long planId) {
@@ -406,6 +546,7 @@ public class MealPlanService {
         }
 
         mealPlanRepository.delete(plan);
+        syncTombstoneRepository.save(SyncTombstone.of(userId, SyncEntityType.MEAL_PLAN, planId));
     }
 
     private MealPlanResponse mapToResponse(MealPlan plan) {
@@ -507,6 +648,8 @@ public class MealPlanService {
         plan.setTotalProtein(plan.getTotalProtein() + protein);
         plan.setTotalCarbs(plan.getTotalCarbs() + carbs);
         plan.setTotalFat(plan.getTotalFat() + fat);
+        // The plannedMeals collection is mappedBy: touch the plan so /api/sync and its ETag see the change
+        plan.setUpdatedAt(LocalDateTime.now());
 
         mealPlanRepository.save(plan);
         log.info("✅ Added recipe '{}' to plan {} for {}", recipeName, planId, date);
@@ -538,6 +681,7 @@ public class MealPlanService {
         plan.setTotalFat(plan.getTotalFat() - (mealToRemove.getFat() != null ? mealToRemove.getFat() : 0));
 
         plan.getPlannedMeals().remove(mealToRemove);
+        plan.setUpdatedAt(LocalDateTime.now());
         mealPlanRepository.save(plan);
 
         log.info("🗑️ Removed meal '{}' from plan {}", mealToRemove.getRecipeName(), planId);
@@ -10,6 +10,9 @@ import com.nutriscan.dto.response.OffProductResponse;
 import com.nutriscan.model.Food;
 import com.nutriscan.model.enums.GoalType;
 import com.nutriscan.repository.FoodRepository;
+import com.nutriscan.resilience.Upstream;
+import com.nutriscan.resilience.UpstreamGuard;
+import com.nutriscan.resilience.UpstreamUnavailableException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
@@ -32,6 +35,7 @@ public class MealScanService {
     private final FoodRepository foodRepository;
     private final GoalsService goalsService;
     private final RestTemplate restTemplate;
+    private final UpstreamGuard upstreamGuard;
     private final ObjectMapper objectMapper;
 
     @Value("${gemini.api.key:}")
@@ -52,11 +56,13 @@ public class MealScanService {
     public MealScanService(OpenFoodFactsService openFoodFactsService,
                           FoodRepository foodRepository,
                           GoalsService goalsService,
-                          RestTemplate restTemplate) {
+                          RestTemplate restTemplate,
+                          UpstreamGuard upstreamGuard) {
         this.openFoodFactsService = openFoodFactsService;
         this.foodRepository = foodRepository;
         this.goalsService = goalsService;
         this.restTemplate = restTemplate;
+        this.upstreamGuard = upstreamGuard;
         this.objectMapper = new ObjectMapper();
     }
 
@@ -203,6 +209,9 @@ public class MealScanService {
                     .mealScore(mealScore)
                     .build();
 
+        } catch (UpstreamUnavailableException e) {
+            log.warn("Gemini Vision unavailable, using fallback: {}", e.getMessage());
+            return buildFallbackImageResponse(request);
         } catch (Exception e) {
             log.error("Error analyzing image with Gemini", e);
             return MealScanResponse.builder()
@@ -302,7 +311,8 @@ public class MealScanService {
         HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
 
         log.debug("Calling Gemini Vision API");
-        ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
+        ResponseEntity<String> response = upstreamGuard.call(Upstream.GEMINI_VISION,
+                () -> restTemplate.exchange(url, HttpMethod.POST, entity, String.class));
 
         if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
             // Extraire le texte de la réponse Gemini
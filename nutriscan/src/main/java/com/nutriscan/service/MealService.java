@@ -6,17 +6,24 @@ import com.nutriscan.dto.response.MealResponse;
 import com.nutriscan.model.Food;
 import com.nutriscan.model.Meal;
 import com.nutriscan.model.MealItem;
+import com.nutriscan.model.SyncTombstone;
 import com.nutriscan.model.User;
+import com.nutriscan.model.enums.SyncEntityType;
 import com.nutriscan.repository.FoodRepository;
 import com.nutriscan.repository.MealRepository;
+import com.nutriscan.repository.SyncTombstoneRepository;
 import com.nutriscan.repository.UserRepository;
+import com.nutriscan.service.analysis.RollingWindowService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
@@ -28,6 +35,8 @@ public class MealService {
     private final MealRepository mealRepository;
     private final FoodRepository foodRepository;
     private final UserRepository userRepository;
+    private final RollingWindowService rollingWindowService;
+    private final SyncTombstoneRepository syncTombstoneRepository;
 
     public MealResponse createMeal(Long userId, CreateMealRequest request) {
         try {
@@ -154,6 +163,7 @@ public class MealService {
                 items.size(), totalCalories, totalProtein, totalCarbs, totalFat);
 
             Meal saved = mealRepository.save(meal);
+            rollingWindowService.onMealSaved(saved);
 
             log.info("Meal created successfully with ID: {}", saved.getId());
 
@@ -167,15 +177,30 @@ public class MealService {
 
     @Transactional(readOnly = true)
     public List<MealResponse> getMealsForDate(Long userId, LocalDate date) {
-        List<Meal> meals = mealRepository.findByUserIdAndDate(userId, date);
+        List<Meal> meals = mealRepository.findWithItemsByUserIdAndDate(userId, date);
         return meals.stream()
                 .map(this::mapToMealResponse)
                 .toList();
     }
 
+    /**
+     * Repas créés ou modifiés depuis {@code since}, items inclus (flux /api/sync).
+     */
+    @Transactional(readOnly = true)
+    public List<MealResponse> getMealsChangedSince(Long userId, LocalDateTime since, Pageable pageable) {
+        List<MealRepository.MealKey> keys = mealRepository.findIdsChangedSince(userId, since, pageable);
+        if (keys.isEmpty()) return List.of();
+        List<Long> ids = keys.stream().map(MealRepository.MealKey::getId).toList();
+        LocalDate from = keys.stream().map(MealRepository.MealKey::getDate).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate to = keys.stream().map(MealRepository.MealKey::getDate).max(Comparator.naturalOrder()).orElseThrow();
+        return mealRepository.findWithItemsByIdIn(ids, from, to).stream()
+                .map(this::mapToMealResponse)
+                .toList();
+    }
+
     @Transactional(readOnly = true)
     public DailySummaryResponse getDailySummary(Long userId, LocalDate date) {
-        List<Meal> meals = mealRepository.findByUserIdAndDate(userId, date);
+        List<Meal> meals = mealRepository.findWithItemsByUserIdAndDate(userId, date);
 
         // Macronutriments
         double totalCalories = 0.0;
@@ -372,6 +397,8 @@ public class MealService {
         meal.setTime(request.getTime());
         meal.setMealType(request.getMealType());
         meal.setSource(request.getSource() != null ? request.getSource() : com.nutriscan.model.enums.MealSource.MANUAL);
+        // Items-only edits leave the meal row clean: touch it so /api/sync picks the change up
+        meal.setUpdatedAt(LocalDateTime.now());
 
         // Clear old items
         meal.getItems().clear();
@@ -459,6 +486,7 @@ public class MealService {
         meal.setTotalFat(totalFat);
 
         Meal updated = mealRepository.save(meal);
+        rollingWindowService.onMealSaved(updated);
         return mapToMealResponse(updated);
     }
 
@@ -479,6 +507,8 @@ public class MealService {
         }
 
         mealRepository.deleteById(mealId);
+        syncTombstoneRepository.save(SyncTombstone.of(userId, SyncEntityType.MEAL, mealId));
+        rollingWindowService.onMealDeleted(userId, mealId);
     }
 
     private MealResponse mapToMealResponse(Meal meal) {
@@ -0,0 +1,67 @@
+package com.nutriscan.service;
+
+import com.nutriscan.util.RotatingBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Codes-barres récemment absents d'OpenFoodFacts, pour ne pas refaire à chaque scan un aller-retour
+ * qui finira en "product not found".
+ *
+ * Filtre de Bloom tourné toutes les rotation-ms : un produit ajouté entre-temps sur OFF redevient visible
+ * après au plus deux rotations. Un faux positif (taux cible false-positive-rate) fait répondre "introuvable"
+ * pour un produit existant ; ce taux et la mémoire occupée sont publiés en jauges (off.missing.barcodes.*),
+ * les appels évités dans off.missing.barcodes.skipped.
+ */
+@Component
+@Slf4j
+public class MissingBarcodeFilter {
+
+    private final boolean enabled;
+    private final RotatingBloomFilter filter;
+    private final Counter skipped;
+
+    public MissingBarcodeFilter(MeterRegistry meterRegistry,
+                                @Value("${off.missing-barcodes.enabled:true}") boolean enabled,
+                                @Value("${off.missing-barcodes.expected-insertions:200000}") int expectedInsertions,
+                                @Value("${off.missing-barcodes.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.enabled = enabled;
+        this.filter = new RotatingBloomFilter(expectedInsertions, falsePositiveRate);
+
+        this.skipped = meterRegistry.counter("off.missing.barcodes.skipped");
+        Gauge.builder("off.missing.barcodes.memory", filter, RotatingBloomFilter::memoryBytes)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("off.missing.barcodes.insertions", filter, RotatingBloomFilter::insertions).register(meterRegistry);
+        Gauge.builder("off.missing.barcodes.false.positive.rate", filter, RotatingBloomFilter::estimatedFalsePositiveRate)
+                .register(meterRegistry);
+        log.info("🧮 Missing barcode filter: {} KB, {} hash(es), target false positive rate {}",
+                filter.memoryBytes() / 1024, filter.numHashes(), falsePositiveRate);
+    }
+
+    /**
+     * @return true si le code-barres a très probablement déjà été cherché sans succès
+     */
+    public boolean isKnownMissing(String barcode) {
+        if (!enabled || !filter.mightContain(barcode)) return false;
+        skipped.increment();
+        return true;
+    }
+
+    public void markMissing(String barcode) {
+        if (enabled) filter.put(barcode);
+    }
+
+    @Scheduled(fixedDelayString = "${off.missing-barcodes.rotation-ms:43200000}",
+            initialDelayString = "${off.missing-barcodes.rotation-ms:43200000}")
+    public void rotate() {
+        long insertions = filter.insertions();
+        filter.rotate();
+        log.info("🔄 Missing barcode filter rotated ({} insertion(s) before rotation, {} rotation(s) total)",
+                insertions, filter.rotations());
+    }
+}
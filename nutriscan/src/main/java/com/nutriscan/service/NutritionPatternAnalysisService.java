@@ -5,13 +5,15 @@ import com.nutriscan.dto.response.MealScoreResponse;
 import com.nutriscan.model.Meal;
 import com.nutriscan.model.MealItem;
 import com.nutriscan.repository.MealRepository;
+import com.nutriscan.service.analysis.PrecomputedAnalysisService;
+import com.nutriscan.service.analysis.RollingNutritionWindow;
+import com.nutriscan.service.analysis.RollingWindowService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.*;
 
 @Service
@@ -22,32 +24,39 @@ public class NutritionPatternAnalysisService {
 
     private final MealRepository mealRepository;
     private final GoalsService goalsService;
+    private final RollingWindowService rollingWindowService;
+    private final PrecomputedAnalysisService precomputedAnalysisService;
 
     /**
-     * Détecte les patterns nutritionnels sur les 7 derniers jours
+     * Détecte les patterns nutritionnels sur les 7 derniers jours : résultat du batch nocturne tant que
+     * l'utilisateur n'a rien changé depuis, sinon lecture des accumulateurs en mémoire (sans relire les repas)
      */
     public List<PatternDetectionResponse> detectPatterns(Long userId) {
-        LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusDays(6); // 7 derniers jours
+        return precomputedAnalysisService.findPatterns(userId)
+                .orElseGet(() -> detectPatterns(rollingWindowService.getStats(userId)));
+    }
 
-        List<Meal> meals = mealRepository.findByUserIdAndDateBetween(userId, startDate, endDate);
+    /**
+     * Patterns à partir des statistiques d'une fenêtre de 7 jours (calcul pur, sans transaction)
+     */
+    public static List<PatternDetectionResponse> detectPatterns(RollingNutritionWindow.Stats stats) {
         List<PatternDetectionResponse> patterns = new ArrayList<>();
 
-        if (meals.isEmpty()) {
+        if (stats.getTotalMeals() == 0) {
             return patterns;
         }
 
         // Détection : sucres élevés le soir
-        detectHighSugarEvening(meals, patterns);
+        detectHighSugarEvening(stats, patterns);
 
         // Détection : protéines basses au petit-déjeuner
-        detectLowProteinBreakfast(meals, userId, patterns);
+        detectLowProteinBreakfast(stats, patterns);
 
         // Détection : repas très tard le soir
-        detectLateMeals(meals, patterns);
+        detectLateMeals(stats, patterns);
 
         // Détection : calories très instables d'un jour à l'autre
-        detectCalorieInstability(meals, patterns);
+        detectCalorieInstability(stats, patterns);
 
         return patterns;
     }
@@ -56,7 +65,7 @@ public class NutritionPatternAnalysisService {
      * Génère un score personnalisé pour chaque repas de la journée
      */
     public List<MealScoreResponse> generateMealScores(Long userId, LocalDate date) {
-        List<Meal> meals = mealRepository.findByUserIdAndDate(userId, date);
+        List<Meal> meals = mealRepository.findWithItemsByUserIdAndDate(userId, date);
         List<MealScoreResponse> scores = new ArrayList<>();
 
         if (meals.isEmpty()) {
@@ -156,55 +165,24 @@ public class NutritionPatternAnalysisService {
 
     // ---------- Pattern detection helpers ----------
 
-    private void detectHighSugarEvening(List<Meal> meals, List<PatternDetectionResponse> patterns) {
-        LocalTime eveningStart = LocalTime.of(19, 0);
-
-        meals.stream()
-                .filter(m -> m.getTime() != null && m.getTime().isAfter(eveningStart))
-                .forEach(meal -> {
-                    double totalCarbs = meal.getItems().stream()
-                            .mapToDouble(item -> {
-                                if (item.getCarbs() != null) {
-                                    return item.getCarbs();
-                                } else if (item.getFood() != null && item.getQuantity() != null) {
-                                    return item.getQuantity() * item.getFood().getCarbsGr() / 100;
-                                }
-                                return 0;
-                            })
-                            .sum();
-
-                    if (totalCarbs > 80) {
-                        patterns.add(PatternDetectionResponse.builder()
-                                .patternType("HIGH_CARBS_EVENING")
-                                .description("Apport élevé en glucides en fin de soirée (" + Math.round(totalCarbs) + "g)")
-                                .recommendation("Les glucides élevés le soir peuvent impacter le sommeil. Préfère des aliments moins énergétiques en soirée.")
-                                .severity(2)
-                                .build());
-                    }
-                });
+    private static void detectHighSugarEvening(RollingNutritionWindow.Stats stats, List<PatternDetectionResponse> patterns) {
+        int count = stats.getEveningHighCarbMeals();
+        if (count == 0) {
+            return;
+        }
+
+        long averageCarbs = Math.round(stats.getEveningHighCarbGrams() / count);
+        String detail = count == 1 ? averageCarbs + "g" : count + " fois, en moyenne " + averageCarbs + "g";
+        patterns.add(PatternDetectionResponse.builder()
+                .patternType("HIGH_CARBS_EVENING")
+                .description("Apport élevé en glucides en fin de soirée (" + detail + ")")
+                .recommendation("Les glucides élevés le soir peuvent impacter le sommeil. Préfère des aliments moins énergétiques en soirée.")
+                .severity(2)
+                .build());
     }
 
-    private void detectLowProteinBreakfast(List<Meal> meals, Long userId, List<PatternDetectionResponse> patterns) {
-        LocalTime morningEnd = LocalTime.of(11, 0);
-
-        long breakfastWithLowProtein = meals.stream()
-                .filter(m -> m.getTime() != null && m.getTime().isBefore(morningEnd))
-                .filter(m -> {
-                    double protein = m.getItems().stream()
-                            .mapToDouble(item -> {
-                                if (item.getProtein() != null) {
-                                    return item.getProtein();
-                                } else if (item.getFood() != null && item.getQuantity() != null) {
-                                    return item.getQuantity() * item.getFood().getProteinGr() / 100;
-                                }
-                                return 0;
-                            })
-                            .sum();
-                    return protein < 10; // Moins de 10g de protéines
-                })
-                .count();
-
-        if (breakfastWithLowProtein > 0) {
+    private static void detectLowProteinBreakfast(RollingNutritionWindow.Stats stats, List<PatternDetectionResponse> patterns) {
+        if (stats.getLowProteinBreakfasts() > 0) {
             patterns.add(PatternDetectionResponse.builder()
                     .patternType("LOW_PROTEIN_BREAKFAST")
                     .description("Petit-déjeuners souvent pauvres en protéines")
@@ -214,12 +192,8 @@ public class NutritionPatternAnalysisService {
         }
     }
 
-    private void detectLateMeals(List<Meal> meals, List<PatternDetectionResponse> patterns) {
-        LocalTime veryLateTime = LocalTime.of(22, 0);
-
-        long lateMeals = meals.stream()
-                .filter(m -> m.getTime() != null && m.getTime().isAfter(veryLateTime))
-                .count();
+    private static void detectLateMeals(RollingNutritionWindow.Stats stats, List<PatternDetectionResponse> patterns) {
+        int lateMeals = stats.getLateMeals();
 
         if (lateMeals > 0) {
             patterns.add(PatternDetectionResponse.builder()
@@ -231,33 +205,12 @@ public class NutritionPatternAnalysisService {
         }
     }
 
-    private void detectCalorieInstability(List<Meal> meals, List<PatternDetectionResponse> patterns) {
-        // Grouper par date
-        Map<LocalDate, Double> dailyCalories = new LinkedHashMap<>();
-        for (Meal meal : meals) {
-            double calories = meal.getItems().stream()
-                    .mapToDouble(item -> {
-                        if (item.getCalories() != null) {
-                            return item.getCalories();
-                        } else if (item.getFood() != null && item.getQuantity() != null) {
-                            return item.getQuantity() * item.getFood().getCaloriesKcal() / 100;
-                        }
-                        return 0;
-                    })
-                    .sum();
-            dailyCalories.put(meal.getDate(), dailyCalories.getOrDefault(meal.getDate(), 0.0) + calories);
-        }
-
-        if (dailyCalories.size() < 3) {
+    private static void detectCalorieInstability(RollingNutritionWindow.Stats stats, List<PatternDetectionResponse> patterns) {
+        if (stats.getActiveDays() < 3) {
             return; // Besoin d'au moins 3 jours
         }
 
-        double avg = dailyCalories.values().stream().mapToDouble(Double::doubleValue).average().orElse(0);
-        double maxDeviation = dailyCalories.values().stream()
-                .mapToDouble(cal -> avg > 0 ? Math.abs(cal - avg) / avg : 0)
-                .max()
-                .orElse(0);
-
+        double maxDeviation = stats.getMaxDailyDeviation();
         if (maxDeviation > 0.40) { // Plus de 40% de déviation
             patterns.add(PatternDetectionResponse.builder()
                     .patternType("CALORIE_INSTABILITY")
@@ -268,4 +221,3 @@ public class NutritionPatternAnalysisService {
         }
     }
 }
-
@@ -1,15 +1,18 @@
 package com.nutriscan.service;
 
 import com.nutriscan.dto.response.OffProductResponse;
+import com.nutriscan.resilience.Upstream;
+import com.nutriscan.resilience.UpstreamGuard;
+import com.nutriscan.service.upstream.OffSearchDecoder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -17,35 +20,49 @@ import java.util.Map;
 public class OpenFoodFactsService {
 
     private final RestTemplate restTemplate;
+    private final UpstreamGuard upstreamGuard;
+    private final MissingBarcodeFilter missingBarcodeFilter;
 
     private static final String BASE_URL = "https://world.openfoodfacts.net/api/v2";
     private static final String SEARCH_BASE_URL = "https://world.openfoodfacts.net/cgi/search.pl";
+    // Champs lus par OffSearchDecoder : OFF n'envoie pas le reste des fiches produit
+    private static final String SEARCH_FIELDS =
+            "code,product_name,brands,image_url,nutrition_grades,nutrition_grade,nutriments,"
+                    + "energy_value,carbohydrates_value,proteins_value,fat_value";
 
     /**
      * Get product by barcode
      */
     public OffProductResponse getProductByBarcode(String barcode) {
+        if (barcode != null && missingBarcodeFilter.isKnownMissing(barcode)) {
+            log.info("Barcode {} recently not found on OpenFoodFacts, skipping lookup", barcode);
+            return notFound(barcode);
+        }
+
         try {
             String fields = "product_name,brands,nutriments,nutrition_grades,image_url";
             String url = BASE_URL + "/product/" + barcode + "?fields=" + fields;
 
             log.info("Getting product by barcode from OpenFoodFacts: {}", url);
 
-            OffProductResponse response = restTemplate.getForObject(url, OffProductResponse.class);
+            OffProductResponse response = upstreamGuard.call(Upstream.OPEN_FOOD_FACTS,
+                    () -> restTemplate.getForObject(url, OffProductResponse.class));
 
             if (response == null || response.getStatus() == 0 || response.getProduct() == null) {
                 log.warn("Product not found for barcode: {}", barcode);
+                missingBarcodeFilter.markMissing(barcode);
                 // Retourner une réponse vide au lieu de lancer une exception
-                OffProductResponse emptyResponse = new OffProductResponse();
-                emptyResponse.setStatus(0); // 0 = not found
-                emptyResponse.setCode(barcode);
-                emptyResponse.setStatusVerbose("product not found");
-                return emptyResponse;
+                return notFound(barcode);
             }
 
             log.info("Successfully fetched product for barcode: {}", barcode);
             return response;
 
+        } catch (HttpClientErrorException.NotFound e) {
+            // L'API v2 répond 404 pour un code-barres inconnu
+            log.warn("Product not found for barcode: {}", barcode);
+            missingBarcodeFilter.markMissing(barcode);
+            return notFound(barcode);
         } catch (Exception e) {
             log.error("Failed to fetch product from OpenFoodFacts for barcode {}: {}", barcode, e.getMessage());
             // Retourner une réponse d'erreur au lieu de propager l'exception
@@ -57,143 +74,60 @@ public class OpenFoodFactsService {
         }
     }
 
+    private OffProductResponse notFound(String barcode) {
+        OffProductResponse emptyResponse = new OffProductResponse();
+        emptyResponse.setStatus(0); // 0 = not found
+        emptyResponse.setCode(barcode);
+        emptyResponse.setStatusVerbose("product not found");
+        return emptyResponse;
+    }
+
     /**
      * Search for products by query (text search)
      * This uses the search.pl endpoint which returns a list of products
      */
     public List<OffProductResponse> searchProducts(String query, int pageSize) {
-        List<OffProductResponse> results = new ArrayList<>();
-
         try {
-            // OpenFoodFacts search endpoint - use search.pl
-            String encodedQuery = query.replace(" ", "%20");
-            String url = String.format(
-                    "%s?search_terms=%s&page_size=%d&json=1&action=process",
-                    SEARCH_BASE_URL,
-                    encodedQuery,
-                    pageSize
-            );
-
-            log.info("Searching products from OpenFoodFacts: {}", url);
-
-            try {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-
-                if (response == null) {
-                    log.warn("Null response from OpenFoodFacts search for query: {}", query);
-                    return results;
-                }
-
-                log.debug("API Response keys: {}", response.keySet());
-
-                // Check for error in response
-                if (response.containsKey("error")) {
-                    log.error("API Error: {}", response.get("error"));
-                    return results;
-                }
-
-                // OpenFoodFacts returns "products" array
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> products = (List<Map<String, Object>>) response.get("products");
-
-                if (products == null) {
-                    log.warn("No 'products' key in response. Available keys: {}", response.keySet());
-                    return results;
-                }
-
-                if (products.isEmpty()) {
-                    log.warn("Empty products list for query: {}", query);
-                    return results;
-                }
-
-                log.info("Found {} products for query: {}", products.size(), query);
-
-                // Convert each product to OffProductResponse
-                for (Map<String, Object> product : products) {
-                    try {
-                        OffProductResponse offResponse = convertToOffProductResponse(product);
-                        if (offResponse != null && offResponse.getProduct() != null) {
-                            results.add(offResponse);
-                            log.debug("Added product: {}", product.get("product_name"));
-                        }
-                    } catch (Exception e) {
-                        log.warn("Could not convert product: {}", e.getMessage());
-                    }
-                }
-
-                log.info("Returning {} products for query: {}", results.size(), query);
-
-            } catch (org.springframework.web.client.HttpClientErrorException e) {
-                log.error("HTTP Error calling OpenFoodFacts: {} - {}", e.getStatusCode(), e.getMessage());
-            } catch (org.springframework.web.client.HttpServerErrorException e) {
-                log.error("OpenFoodFacts Server Error: {} - {}", e.getStatusCode(), e.getMessage());
-            } catch (Exception e) {
-                log.error("Error parsing response: {}", e.getMessage(), e);
+            List<OffProductResponse> products = fetchProducts(query, pageSize);
+
+            if (products.isEmpty()) {
+                log.warn("Empty products list for query: {}", query);
+            } else {
+                log.info("Returning {} products for query: {}", products.size(), query);
             }
+            return products;
 
+        } catch (org.springframework.web.client.HttpClientErrorException e) {
+            log.error("HTTP Error calling OpenFoodFacts: {} - {}", e.getStatusCode(), e.getMessage());
+        } catch (org.springframework.web.client.HttpServerErrorException e) {
+            log.error("OpenFoodFacts Server Error: {} - {}", e.getStatusCode(), e.getMessage());
         } catch (Exception e) {
             log.error("Failed to search products: {}", e.getMessage(), e);
         }
 
-        return results;
+        return new ArrayList<>();
     }
 
     /**
-     * Convert OpenFoodFacts product data to OffProductResponse format
+     * Same search as searchProducts without swallowing errors: an empty list means no product matched,
+     * a failed or refused call throws (UpstreamUnavailableException, RestClientException).
      */
-    private OffProductResponse convertToOffProductResponse(Map<String, Object> product) {
-        try {
-            OffProductResponse response = new OffProductResponse();
-
-            Object code = product.get("code");
-            if (code != null) {
-                response.setCode(code.toString());
-            }
-            response.setStatus(1); // 1 = found
-
-            OffProductResponse.OffProduct offProduct = new OffProductResponse.OffProduct();
-            offProduct.setProductName((String) product.get("product_name"));
-            offProduct.setBrands((String) product.get("brands"));
-            offProduct.setImageUrl((String) product.get("image_url"));
-
-            String nutritionGrades = (String) product.get("nutrition_grades");
-            if (nutritionGrades == null) {
-                nutritionGrades = (String) product.get("nutrition_grade");
-            }
-            offProduct.setNutritionGrades(nutritionGrades);
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> nutriments = (Map<String, Object>) product.get("nutriments");
-            if (nutriments != null) {
-                offProduct.setNutriments(nutriments);
-            } else {
-                // Try to extract basic nutrient values
-                Map<String, Object> basicNutrients = new HashMap<>();
-                if (product.containsKey("energy_value")) {
-                    basicNutrients.put("energy", product.get("energy_value"));
-                }
-                if (product.containsKey("carbohydrates_value")) {
-                    basicNutrients.put("carbs", product.get("carbohydrates_value"));
-                }
-                if (product.containsKey("proteins_value")) {
-                    basicNutrients.put("protein", product.get("proteins_value"));
-                }
-                if (product.containsKey("fat_value")) {
-                    basicNutrients.put("fat", product.get("fat_value"));
-                }
-                if (!basicNutrients.isEmpty()) {
-                    offProduct.setNutriments(basicNutrients);
-                }
-            }
-
-            response.setProduct(offProduct);
-            return response;
-
-        } catch (Exception e) {
-            log.warn("Error converting product: {}", e.getMessage(), e);
-            return null;
-        }
+    public List<OffProductResponse> fetchProducts(String query, int pageSize) {
+        // OpenFoodFacts search endpoint - use search.pl
+        String encodedQuery = query.replace(" ", "%20");
+        String url = String.format(
+                "%s?search_terms=%s&page_size=%d&json=1&action=process&fields=%s",
+                SEARCH_BASE_URL,
+                encodedQuery,
+                pageSize,
+                SEARCH_FIELDS
+        );
+
+        log.info("Searching products from OpenFoodFacts: {}", url);
+
+        List<OffProductResponse> products = upstreamGuard.call(Upstream.OPEN_FOOD_FACTS,
+                () -> restTemplate.execute(url, HttpMethod.GET, null,
+                        response -> OffSearchDecoder.decode(response.getBody())));
+        return products != null ? new ArrayList<>(products) : new ArrayList<>();
     }
 }
-
@@ -0,0 +1,317 @@
+package com.nutriscan.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutriscan.dto.response.RecipeResponse;
+import com.nutriscan.model.Recipe;
+import com.nutriscan.model.RecipeIngredient;
+import com.nutriscan.model.RecipeSearchCache;
+import com.nutriscan.repository.RecipeRepository;
+import com.nutriscan.repository.RecipeSearchCacheRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Catalogue de recettes persistant avec cache "read-through" :
+ * - recherche : clé = requête normalisée + filtres, servie depuis la base tant que l'entrée n'a pas expiré
+ * - recette : clé = uri, servie depuis la base si déjà connue
+ * Les appels HTTP (Edamam / Gemini) sont faits hors transaction.
+ */
+@Service
+@Slf4j
+public class RecipeCatalogService {
+
+    public static final String EDAMAM_RECIPE_URI_PREFIX = "http://www.edamam.com/ontologies/edamam.owl#recipe_";
+
+    private final RecipeRepository recipeRepository;
+    private final RecipeSearchCacheRepository searchCacheRepository;
+    private final EdamamRecipeService edamamRecipeService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    @Value("${recipes.cache.ttl-hours:168}")
+    private long cacheTtlHours;
+
+    @Value("${recipes.cache.fallback-ttl-hours:6}")
+    private long fallbackCacheTtlHours;
+
+    public RecipeCatalogService(RecipeRepository recipeRepository,
+                                RecipeSearchCacheRepository searchCacheRepository,
+                                EdamamRecipeService edamamRecipeService,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.recipeRepository = recipeRepository;
+        this.searchCacheRepository = searchCacheRepository;
+        this.edamamRecipeService = edamamRecipeService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Recherche de recettes : cache local d'abord, puis Edamam (avec repli Gemini) en cas d'absence.
+     */
+    public List<RecipeResponse> searchRecipes(String query, List<String> diet, List<String> health,
+                                              String cuisineType, String mealType, Integer calories,
+                                              Integer maxResults) {
+        String normalizedQuery = normalizeSearch(query, diet, health, cuisineType, mealType, calories, maxResults);
+        String cacheKey = sha256(normalizedQuery);
+
+        List<RecipeResponse> cached = readOnlyTransactionTemplate.execute(status ->
+                searchCacheRepository.findByCacheKeyWithRecipes(cacheKey)
+                        .filter(entry -> entry.getExpiresAt().isAfter(LocalDateTime.now()))
+                        .map(entry -> entry.getRecipes().stream().map(this::mapToResponse).toList())
+                        .orElse(null));
+
+        if (cached != null) {
+            log.info("📦 Recipe search served from catalog for '{}' ({} recipes)", query, cached.size());
+            return cached;
+        }
+
+        List<RecipeResponse> fetched = edamamRecipeService.searchRecipes(
+                query, diet, health, cuisineType, mealType, calories, maxResults);
+
+        if (fetched != null && !fetched.isEmpty()) {
+            try {
+                storeWithRetry(() -> storeSearchResult(cacheKey, normalizedQuery, fetched, toSlot(mealType)));
+            } catch (Exception e) {
+                log.warn("⚠️ Could not store recipe search in catalog: {}", e.getMessage());
+            }
+        }
+        return fetched;
+    }
+
+    /**
+     * Recette par uri (uri complète ou identifiant Edamam) : base locale d'abord, puis Edamam.
+     */
+    public RecipeResponse getRecipeByUri(String recipeUri) {
+        String fullUri = recipeUri.contains(":") ? recipeUri : EDAMAM_RECIPE_URI_PREFIX + recipeUri;
+
+        RecipeResponse local = readOnlyTransactionTemplate.execute(status ->
+                recipeRepository.findByUri(fullUri).map(this::mapToResponse).orElse(null));
+        if (local != null) {
+            return local;
+        }
+
+        String recipeId = fullUri.startsWith(EDAMAM_RECIPE_URI_PREFIX)
+                ? fullUri.substring(EDAMAM_RECIPE_URI_PREFIX.length())
+                : recipeUri;
+        RecipeResponse fetched = edamamRecipeService.getRecipeByUri(recipeId);
+        if (fetched != null && fetched.getUri() != null) {
+            try {
+                storeWithRetry(() -> upsertRecipes(List.of(fetched), null));
+            } catch (Exception e) {
+                log.warn("⚠️ Could not store recipe {} in catalog: {}", fetched.getUri(), e.getMessage());
+            }
+        }
+        return fetched;
+    }
+
+    /**
+     * Recettes récentes dont le type de repas est connu (pool du planificateur local).
+     */
+    public List<Recipe> findRecentPlannableRecipes(int limit) {
+        return recipeRepository.findRecentWithMealType(PageRequest.of(0, limit));
+    }
+
+    /**
+     * Une recette (uri) ou une recherche (clé) peut être insérée en parallèle par une autre requête, y compris
+     * une recherche différente qui partage des recettes. La transaction échoue alors sur la contrainte unique :
+     * une seconde tentative, dans une nouvelle transaction, relit les lignes par uri / clé et s'y rattache.
+     */
+    private void storeWithRetry(Runnable store) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> store.run());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Concurrent recipe catalog insert, retrying once: {}", e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> store.run());
+        }
+    }
+
+    private void storeSearchResult(String cacheKey, String normalizedQuery, List<RecipeResponse> fetched,
+                                   String mealType) {
+        List<Recipe> recipes = upsertRecipes(fetched, mealType);
+
+        RecipeSearchCache entry = searchCacheRepository.findByCacheKeyWithRecipes(cacheKey)
+                .orElseGet(() -> RecipeSearchCache.builder()
+                        .cacheKey(cacheKey)
+                        .normalizedQuery(truncate(normalizedQuery, 1000))
+                        .build());
+        entry.getRecipes().clear();
+        entry.getRecipes().addAll(recipes);
+        entry.setCreatedAt(LocalDateTime.now());
+        // Résultats de repli IA (Edamam indisponible) : TTL court pour retenter Edamam rapidement
+        boolean fromFallback = fetched.stream().noneMatch(r -> r.getUri() != null && r.getUri().startsWith(EDAMAM_RECIPE_URI_PREFIX));
+        entry.setExpiresAt(LocalDateTime.now().plusHours(fromFallback ? fallbackCacheTtlHours : cacheTtlHours));
+        searchCacheRepository.save(entry);
+    }
+
+    /**
+     * Insère ou met à jour les recettes par uri, en conservant l'ordre de la liste reçue.
+     */
+    private List<Recipe> upsertRecipes(List<RecipeResponse> responses, String mealType) {
+        Set<String> uris = responses.stream()
+                .map(RecipeResponse::getUri)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Recipe> existing = recipeRepository.findByUriIn(uris).stream()
+                .collect(Collectors.toMap(Recipe::getUri, Function.identity()));
+
+        List<Recipe> result = new ArrayList<>();
+        Set<String> added = new HashSet<>();
+        for (RecipeResponse response : responses) {
+            if (response.getUri() == null || response.getLabel() == null || !added.add(response.getUri())) {
+                continue;
+            }
+            Recipe recipe = existing.get(response.getUri());
+            if (recipe == null) {
+                recipe = Recipe.builder().build();
+            }
+            applyResponse(recipe, response, mealType);
+            result.add(recipeRepository.save(recipe));
+        }
+        return result;
+    }
+
+    private void applyResponse(Recipe recipe, RecipeResponse response, String mealType) {
+        recipe.setUri(response.getUri());
+        recipe.setLabel(truncate(response.getLabel(), 255));
+        recipe.setImage(truncate(response.getImage(), 1000));
+        recipe.setSource(truncate(response.getSource(), 255));
+        recipe.setUrl(truncate(response.getUrl(), 1000));
+        recipe.setServings(response.getServings());
+        recipe.setCalories(response.getCalories());
+        recipe.setTotalTime(response.getTotalTime());
+        if (mealType != null) {
+            recipe.setMealType(mealType);
+        }
+
+        RecipeResponse.NutritionInfo nutrition = response.getNutrition();
+        recipe.setProtein(nutrition != null ? nutrition.getProtein() : null);
+        recipe.setCarbs(nutrition != null ? nutrition.getCarbs() : null);
+        recipe.setFat(nutrition != null ? nutrition.getFat() : null);
+        recipe.setNutrition(writeJson(nutrition));
+        recipe.setDietLabels(writeJson(response.getDietLabels()));
+        recipe.setHealthLabels(writeJson(response.getHealthLabels()));
+
+        recipe.getIngredients().clear();
+        if (response.getIngredientLines() != null) {
+            int position = 0;
+            for (String line : response.getIngredientLines()) {
+                if (line == null || line.isBlank()) continue;
+                recipe.getIngredients().add(RecipeIngredient.builder()
+                        .recipe(recipe)
+                        .position(position++)
+                        .text(truncate(line.trim(), 500))
+                        .build());
+            }
+        }
+    }
+
+    public RecipeResponse mapToResponse(Recipe recipe) {
+        return RecipeResponse.builder()
+                .uri(recipe.getUri())
+                .label(recipe.getLabel())
+                .image(recipe.getImage())
+                .source(recipe.getSource())
+                .url(recipe.getUrl())
+                .servings(recipe.getServings())
+                .calories(recipe.getCalories())
+                .totalTime(recipe.getTotalTime())
+                .dietLabels(readJson(recipe.getDietLabels(), new TypeReference<List<String>>() {}))
+                .healthLabels(readJson(recipe.getHealthLabels(), new TypeReference<List<String>>() {}))
+                .ingredientLines(recipe.getIngredients().stream().map(RecipeIngredient::getText).toList())
+                .nutrition(readJson(recipe.getNutrition(), new TypeReference<RecipeResponse.NutritionInfo>() {}))
+                .build();
+    }
+
+    /**
+     * Clé de cache : requête en minuscules sans espaces superflus, filtres triés.
+     * "Poulet  Curry" + health=[Vegan, dairy-free] == "poulet curry" + health=[dairy-free, vegan]
+     */
+    static String normalizeSearch(String query, List<String> diet, List<String> health, String cuisineType,
+                                  String mealType, Integer calories, Integer maxResults) {
+        return "q=" + normalizeText(query)
+                + "|diet=" + normalizeList(diet)
+                + "|health=" + normalizeList(health)
+                + "|cuisine=" + normalizeText(cuisineType)
+                + "|mealType=" + normalizeText(mealType)
+                + "|calories=" + (calories != null ? calories : "")
+                + "|limit=" + (maxResults != null ? maxResults : "");
+    }
+
+    private static String normalizeText(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static String normalizeList(List<String> values) {
+        if (values == null) return "";
+        return values.stream()
+                .map(RecipeCatalogService::normalizeText)
+                .filter(v -> !v.isEmpty())
+                .sorted()
+                .distinct()
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Type de repas Edamam ("breakfast", "lunch", "dinner", "snack", "teatime") -> créneau du plan.
+     */
+    private static String toSlot(String mealType) {
+        if (mealType == null) return null;
+        String value = mealType.toLowerCase(Locale.ROOT);
+        if (value.contains("breakfast") || value.contains("brunch")) return "BREAKFAST";
+        if (value.contains("lunch")) return "LUNCH";
+        if (value.contains("dinner")) return "DINNER";
+        if (value.contains("snack") || value.contains("teatime")) return "SNACK";
+        return null;
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String writeJson(Object value) {
+        if (value == null) return null;
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            log.error("Error serializing recipe field", e);
+            return null;
+        }
+    }
+
+    private <T> T readJson(String json, TypeReference<T> type) {
+        if (json == null) return null;
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (Exception e) {
+            log.error("Error deserializing recipe field", e);
+            return null;
+        }
+    }
+
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+}
@@ -0,0 +1,228 @@
+package com.nutriscan.service;
+
+import com.nutriscan.model.enums.RecommendationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écriture différée de recommendations_log : la requête dépose la ligne dans une file bornée et repart,
+ * un thread dédié l'insère plus tard par lots JDBC (dès que le lot est plein, ou après flush-interval-ms).
+ *
+ * Ce journal est de la télémétrie : si la file est pleine, on attend au plus offer-timeout-ms puis la ligne
+ * est abandonnée (et comptée) plutôt que de ralentir l'utilisateur. À l'arrêt, la file est vidée avant la fermeture
+ * du pool de connexions.
+ *
+ * Un lot est inséré dans une transaction : si une ligne est refusée (utilisateur supprimé entre-temps, valeur hors
+ * contrainte), le lot est annulé puis réinséré ligne par ligne, et seule la ligne fautive est perdue.
+ */
+@Service
+@Slf4j
+public class RecommendationLogWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO recommendations_log (user_id, date, type, score, details, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String METRIC = "recommendations.log.rows";
+    private static final long POLL_MAX_MS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Entry> queue;
+    private final Counter enqueued;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+
+    @Value("${recommendations.log.batch-size:200}")
+    private int batchSize;
+
+    @Value("${recommendations.log.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${recommendations.log.offer-timeout-ms:5}")
+    private long offerTimeoutMs;
+
+    @Value("${recommendations.log.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private volatile boolean running = true;
+    private Thread flusher;
+
+    public RecommendationLogWriter(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${recommendations.log.queue-capacity:10000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.enqueued = meterRegistry.counter(METRIC, "result", "enqueued");
+        this.dropped = meterRegistry.counter(METRIC, "result", "dropped");
+        this.written = meterRegistry.counter(METRIC, "result", "written");
+        this.failed = meterRegistry.counter(METRIC, "result", "failed");
+        meterRegistry.gauge("recommendations.log.queue.size", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    void start() {
+        flusher = Thread.ofPlatform().name("recommendations-log-writer").daemon().start(this::flushLoop);
+    }
+
+    /**
+     * Dépose une ligne à écrire ; ne fait jamais d'aller-retour en base.
+     *
+     * @return false si la ligne a été abandonnée (file pleine ou arrêt en cours)
+     */
+    public boolean write(Long userId, LocalDate date, RecommendationType type, Double score, String details) {
+        return write(userId, date, type, score, details, LocalDateTime.now());
+    }
+
+    /**
+     * @param createdAt instant où les données source ont été lues : une modification ultérieure rend la ligne périmée
+     */
+    public boolean write(Long userId, LocalDate date, RecommendationType type, Double score, String details,
+                         LocalDateTime createdAt) {
+        Entry entry = new Entry(userId, date, type, score, details, createdAt);
+        boolean accepted = false;
+        if (running) {
+            try {
+                accepted = queue.offer(entry, offerTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        (accepted ? enqueued : dropped).increment();
+        return accepted;
+    }
+
+    /**
+     * Vide la file avant que le DataSource ne soit fermé (ce bean en dépend, il est donc détruit avant lui).
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        if (flusher == null) return;
+        flusher.join(shutdownTimeoutMs);
+        if (flusher.isAlive()) {
+            log.warn("⚠️ Recommendation log writer did not drain in {} ms, {} row(s) lost", shutdownTimeoutMs, queue.size());
+        }
+    }
+
+    private void flushLoop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running || !queue.isEmpty()) {
+            try {
+                // Attente plafonnée : l'arrêt (running = false) est vu en moins de POLL_MAX_MS même avec un long flush-interval-ms
+                long wait = Math.min(deadline - System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(POLL_MAX_MS));
+                Entry first = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                if (batch.size() >= batchSize || System.nanoTime() - deadline >= 0 || !running) {
+                    flush(batch);
+                    deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                // Pas d'arrêt sur interruption : seule la sortie de running termine la boucle, après la vidange
+                Thread.interrupted();
+            }
+        }
+        flush(batch);
+        log.info("🛑 Recommendation log writer stopped");
+    }
+
+    private void flush(List<Entry> batch) {
+        if (batch.isEmpty()) return;
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            bind(ps, batch.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }));
+            written.increment(batch.size());
+        } catch (Exception e) {
+            log.warn("⚠️ Recommendation log batch of {} row(s) failed, retrying row by row: {}", batch.size(), e.getMessage());
+            flushRowByRow(batch);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void flushRowByRow(List<Entry> batch) {
+        int rejected = 0;
+        for (Entry entry : batch) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, entry));
+                written.increment();
+            } catch (Exception e) {
+                // Télémétrie : pas de nouvelle tentative, la ligne est perdue mais le thread continue
+                failed.increment();
+                rejected++;
+                log.debug("Recommendation log row for user {} rejected: {}", entry.userId, e.getMessage());
+            }
+        }
+        if (rejected > 0) {
+            log.error("❌ Failed to write {} of {} recommendation log row(s)", rejected, batch.size());
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Entry e) throws SQLException {
+        ps.setLong(1, e.userId);
+        ps.setDate(2, Date.valueOf(e.date));
+        ps.setString(3, e.type.name());
+        if (e.score != null) ps.setDouble(4, e.score);
+        else ps.setNull(4, Types.DOUBLE);
+        ps.setString(5, e.details);
+        ps.setTimestamp(6, Timestamp.valueOf(e.createdAt));
+    }
+
+    private static final class Entry {
+        final Long userId;
+        final LocalDate date;
+        final RecommendationType type;
+        final Double score;
+        final String details;
+        final LocalDateTime createdAt;
+
+        Entry(Long userId, LocalDate date, RecommendationType type, Double score, String details, LocalDateTime createdAt) {
+            this.userId = userId;
+            this.date = date;
+            this.type = type;
+            this.score = score;
+            this.details = details;
+            this.createdAt = createdAt;
+        }
+    }
+}
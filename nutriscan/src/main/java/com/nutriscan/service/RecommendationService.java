@@ -3,11 +3,8 @@ package com.nutriscan.service;
 import com.nutriscan.dto.response.DailySummaryResponse;
 import com.nutriscan.dto.response.GoalsResponse;
 import com.nutriscan.dto.response.RecommendationResponse;
-import com.nutriscan.model.RecommendationsLog;
-import com.nutriscan.model.User;
 import com.nutriscan.model.enums.RecommendationType;
-import com.nutriscan.repository.RecommendationsLogRepository;
-import com.nutriscan.repository.UserRepository;
+import com.nutriscan.service.analysis.PrecomputedAnalysisService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,6 +13,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -24,12 +22,22 @@ public class RecommendationService {
 
     private final MealService mealService;
     private final GoalsService goalsService;
-    private final UserRepository userRepository;
-    private final RecommendationsLogRepository recommendationsLogRepository;
+    private final RecommendationLogWriter recommendationLogWriter;
+    private final PrecomputedAnalysisService precomputedAnalysisService;
 
+    /**
+     * Résumé déjà calculé (batch nocturne pour la veille, ou requête précédente) s'il est encore à jour,
+     * sinon calcul à partir des repas et des objectifs.
+     */
     public RecommendationResponse getDailyRecommendation(Long userId, LocalDate date) {
         LocalDate targetDate = (date != null) ? date : LocalDate.now();
 
+        Optional<RecommendationResponse> precomputed = precomputedAnalysisService.findDailySummary(userId, targetDate);
+        if (precomputed.isPresent()) {
+            return precomputed.get();
+        }
+        LocalDateTime readAt = LocalDateTime.now();
+
         // 1) Daily intake
         DailySummaryResponse summary = mealService.getDailySummary(userId, targetDate);
 
@@ -42,13 +50,26 @@ public class RecommendationService {
                     .messages(List.of("Aucun repas enregistré pour ce jour. Pense à scanner ou saisir tes repas."))
                     .build();
 
-            logRecommendation(userId, targetDate, null, response.getMessages());
+            logRecommendation(userId, targetDate, readAt, response);
             return response;
         }
 
         // 2) Goals
         GoalsResponse goals = goalsService.getGoalsForUser(userId);
 
+        RecommendationResponse response = evaluateDay(targetDate, safe(summary.getTotalCalories()),
+                safe(summary.getTotalProtein()), safe(summary.getTotalCarbs()), safe(summary.getTotalFat()), goals);
+
+        logRecommendation(userId, targetDate, readAt, response);
+        return response;
+    }
+
+    /**
+     * Score et messages d'une journée à partir de ses totaux et des objectifs
+     * (calcul pur, sans accès base ni transaction : réutilisé par le batch nocturne).
+     */
+    public static RecommendationResponse evaluateDay(LocalDate targetDate, double totalCalories, double totalProtein,
+                                                     double totalCarbs, double totalFat, GoalsResponse goals) {
         Double targetCalories = goals.getTargetCalories();
         Double targetProtein = goals.getProteinGr();
         Double targetCarbs = goals.getCarbsGr();
@@ -58,11 +79,6 @@ public class RecommendationService {
             throw new IllegalStateException("Daily targets not defined for this user");
         }
 
-        double totalCalories = safe(summary.getTotalCalories());
-        double totalProtein = safe(summary.getTotalProtein());
-        double totalCarbs = safe(summary.getTotalCarbs());
-        double totalFat = safe(summary.getTotalFat());
-
         // 3) Compute score & messages
         List<String> messages = new ArrayList<>();
         double score = 100.0;
@@ -120,7 +136,7 @@ public class RecommendationService {
         if (score < 0) score = 0;
         if (score > 100) score = 100;
 
-        RecommendationResponse response = RecommendationResponse.builder()
+        return RecommendationResponse.builder()
                 .date(targetDate)
                 .score(round(score))
                 .totalCalories(round(totalCalories))
@@ -136,36 +152,24 @@ public class RecommendationService {
                 .fatOk(fatOk)
                 .messages(messages)
                 .build();
-
-        logRecommendation(userId, targetDate, response.getScore(), messages);
-        return response;
     }
 
     // ---------- helpers ----------
 
-    private void logRecommendation(Long userId, LocalDate date, Double score, List<String> messages) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
-
-        String joined = String.join("\n", messages != null ? messages : List.of());
-
-        RecommendationsLog log = RecommendationsLog.builder()
-                .user(user)
-                .date(date)
-                .type(RecommendationType.DAILY_SUMMARY)
-                .score(score)
-                .details(joined)
-                .createdAt(LocalDateTime.now())
-                .build();
-
-        recommendationsLogRepository.save(log);
+    /**
+     * Télémétrie : écriture différée et par lots, hors du temps de réponse de la requête.
+     * La réponse est gardée en JSON pour être resservie tant que la journée ne change pas.
+     */
+    private void logRecommendation(Long userId, LocalDate date, LocalDateTime readAt, RecommendationResponse response) {
+        recommendationLogWriter.write(userId, date, RecommendationType.DAILY_SUMMARY, response.getScore(),
+                precomputedAnalysisService.details(response), readAt);
     }
 
     private double safe(Double value) {
         return value != null ? value : 0.0;
     }
 
-    private double round(double value) {
+    private static double round(double value) {
         return Math.round(value * 10.0) / 10.0;
     }
 }
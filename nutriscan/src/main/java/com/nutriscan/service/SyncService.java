@@ -0,0 +1,131 @@
+package com.nutriscan.service;
+
+import com.nutriscan.dto.response.SyncResponse;
+import com.nutriscan.exception.BadRequestException;
+import com.nutriscan.model.DailyTargets;
+import com.nutriscan.repository.DailyTargetsRepository;
+import com.nutriscan.repository.SyncTombstoneRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Flux de changements pour le client mobile : tout ce qui a été créé, modifié ou supprimé depuis le curseur,
+ * à partir des colonnes updated_at et de la table sync_tombstones.
+ *
+ * Le curseur est l'heure serveur prise avant la lecture. Une transaction encore ouverte à ce moment peut
+ * valider plus tard une ligne horodatée avant le curseur : on relit donc avec une marge de recouvrement
+ * (sync.overlap-seconds), le client dédoublonne par id.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncService {
+
+    private final MealService mealService;
+    private final MealPlanService mealPlanService;
+    private final GroceryListService groceryListService;
+    private final TrackingService trackingService;
+    private final GoalsService goalsService;
+    private final DailyTargetsRepository dailyTargetsRepository;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+
+    @Value("${sync.overlap-seconds:5}")
+    private long overlapSeconds;
+
+    /** Au-delà, la synchro incrémentale coûterait plus qu'un rechargement complet */
+    @Value("${sync.max-changes:500}")
+    private int maxChanges;
+
+    @Value("${sync.tombstones.retention-days:30}")
+    private int tombstoneRetentionDays;
+
+    @Transactional(readOnly = true)
+    public SyncResponse changesSince(Long userId, String cursor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = decode(cursor);
+
+        // Pas de curseur, ou plus ancien que les tombstones conservés : suppressions perdues, tout recharger
+        if (since == null || since.isBefore(now.minusDays(tombstoneRetentionDays))) {
+            return fullResync(now);
+        }
+
+        LocalDateTime from = since.minusSeconds(overlapSeconds);
+        Pageable probe = PageRequest.of(0, maxChanges + 1);
+
+        SyncResponse response = SyncResponse.builder()
+                .cursor(encode(now))
+                .meals(mealService.getMealsChangedSince(userId, from, probe))
+                .mealPlans(mealPlanService.getMealPlansChangedSince(userId, from, probe))
+                .groceryLists(groceryListService.getGroceryListsChangedSince(userId, from, probe))
+                .weightEntries(trackingService.getWeightEntriesChangedSince(userId, from, probe))
+                .deleted(syncTombstoneRepository.findChangedSince(userId, from, probe).stream()
+                        .map(t -> new SyncResponse.Deletion(t.getEntityType(), t.getEntityId()))
+                        .toList())
+                .build();
+
+        if (tooMany(response.getMeals()) || tooMany(response.getMealPlans()) || tooMany(response.getGroceryLists())
+                || tooMany(response.getWeightEntries()) || tooMany(response.getDeleted())) {
+            log.info("🔄 Too many changes since {} for user {}, asking for a full resync", since, userId);
+            return fullResync(now);
+        }
+
+        DailyTargets targets = dailyTargetsRepository.findByUserId(userId).orElse(null);
+        if (targets != null && targets.getUpdatedAt() != null && targets.getUpdatedAt().isAfter(from)) {
+            response.setGoals(goalsService.getGoalsForUser(userId));
+        }
+        return response;
+    }
+
+    /**
+     * Purge quotidienne des tombstones ; un client plus ancien reçoit fullResync.
+     */
+    @Scheduled(cron = "${sync.tombstones.purge-cron:0 45 3 * * *}")
+    @Transactional
+    public void purgeTombstones() {
+        int purged = syncTombstoneRepository.purgeBefore(LocalDateTime.now().minusDays(tombstoneRetentionDays));
+        if (purged > 0) {
+            log.info("🧹 Purged {} sync tombstones", purged);
+        }
+    }
+
+    private boolean tooMany(List<?> changes) {
+        return changes.size() > maxChanges;
+    }
+
+    private SyncResponse fullResync(LocalDateTime now) {
+        return SyncResponse.builder()
+                .cursor(encode(now))
+                .fullResync(true)
+                .meals(List.of())
+                .mealPlans(List.of())
+                .groceryLists(List.of())
+                .weightEntries(List.of())
+                .deleted(List.of())
+                .build();
+    }
+
+    private static String encode(LocalDateTime time) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(time.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static LocalDateTime decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            return LocalDateTime.parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid sync cursor", e);
+        }
+    }
+}
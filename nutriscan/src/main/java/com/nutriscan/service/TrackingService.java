@@ -1,18 +1,26 @@
 package com.nutriscan.service;
 
 import com.nutriscan.dto.request.WeightEntryRequest;
+import com.nutriscan.dto.response.PageResponse;
 import com.nutriscan.dto.response.WeightHistoryResponse;
+import com.nutriscan.exception.BadRequestException;
 import com.nutriscan.model.User;
 import com.nutriscan.model.WeightHistory;
 import com.nutriscan.repository.UserRepository;
 import com.nutriscan.repository.WeightHistoryRepository;
+import com.nutriscan.util.KeysetCursor;
 import com.nutriscan.util.NutritionUtils;
+import com.nutriscan.util.SeriesDownsampler;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
@@ -59,6 +67,91 @@ public class TrackingService {
                 .toList();
     }
 
+    /**
+     * Historique réduit à {@code points} mesures (LTTB ou min/max) avec, si {@code smoothing} est fourni,
+     * une tendance EMA sur ce nombre de jours calculée sur toutes les mesures avant réduction.
+     */
+    public List<WeightHistoryResponse> getWeightHistory(Long userId, LocalDate from, LocalDate to,
+                                                        Integer points, Double smoothing, String method) {
+        if (points == null && smoothing == null) {
+            return getWeightHistory(userId, from, to);
+        }
+        SeriesDownsampler.Method downsampling = parseMethod(method);
+        // min/max garde deux points par bucket en plus des extrémités : en dessous de 4, il ne réduirait rien
+        int minPoints = downsampling == SeriesDownsampler.Method.MINMAX ? 4 : 3;
+        if (points != null && points < minPoints) {
+            throw new BadRequestException("points must be at least " + minPoints + " for "
+                    + downsampling.name().toLowerCase(Locale.ROOT));
+        }
+        if (smoothing != null && smoothing < 1) {
+            throw new BadRequestException("smoothing must be at least 1 (days)");
+        }
+
+        List<WeightHistory> list = from != null && to != null
+                ? weightHistoryRepository.findByUserIdAndDateBetweenOrderByDateAsc(userId, from, to)
+                : weightHistoryRepository.findByUserIdOrderByDateAsc(userId);
+
+        int n = list.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = list.get(i).getDate().toEpochDay();
+            y[i] = list.get(i).getWeightKg();
+        }
+
+        double[] trend = smoothing != null ? SeriesDownsampler.ema(x, y, smoothing) : null;
+        int[] kept = points == null ? null
+                : downsampling == SeriesDownsampler.Method.MINMAX
+                ? SeriesDownsampler.minMax(y, points)
+                : SeriesDownsampler.lttb(x, y, points);
+
+        int size = kept != null ? kept.length : n;
+        List<WeightHistoryResponse> result = new ArrayList<>(size);
+        for (int k = 0; k < size; k++) {
+            int i = kept != null ? kept[k] : k;
+            WeightHistoryResponse response = mapToResponse(list.get(i));
+            if (trend != null) {
+                response.setTrendKg(round(trend[i]));
+            }
+            result.add(response);
+        }
+        return result;
+    }
+
+    private SeriesDownsampler.Method parseMethod(String method) {
+        if (method == null || method.isBlank()) return SeriesDownsampler.Method.LTTB;
+        try {
+            return SeriesDownsampler.Method.valueOf(method.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown downsampling method: " + method + " (expected lttb or minmax)");
+        }
+    }
+
+    /**
+     * Historique de poids paginé par curseur (date, id), plus récentes d'abord.
+     */
+    public PageResponse<WeightHistoryResponse> getWeightHistoryPage(Long userId, String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = KeysetCursor.clampLimit(limit);
+        List<WeightHistory> rows = after == null
+                ? weightHistoryRepository.findPageByUserId(userId, KeysetCursor.probe(pageSize))
+                : weightHistoryRepository.findPageByUserIdBefore(userId, after.sortKeyAsDate(), after.getId(),
+                        KeysetCursor.probe(pageSize));
+        return KeysetCursor.page(rows, pageSize,
+                entry -> KeysetCursor.encode(entry.getDate(), entry.getId()),
+                this::mapToResponse);
+    }
+
+    /**
+     * Pesées créées ou modifiées depuis {@code since} (flux /api/sync).
+     */
+    @Transactional(readOnly = true)
+    public List<WeightHistoryResponse> getWeightEntriesChangedSince(Long userId, LocalDateTime since, Pageable pageable) {
+        return weightHistoryRepository.findChangedSince(userId, since, pageable).stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
     // ---------- helpers ----------
 
     private WeightHistoryResponse mapToResponse(WeightHistory entity) {
@@ -7,6 +7,7 @@ import com.nutriscan.repository.UserRepository;
 import com.nutriscan.security.CustomUserDetails;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -38,6 +39,10 @@ public class UserService implements UserDetailsService {
         return new CustomUserDetails(user);
     }
 
+    /**
+     * Le profil (poids, activité, objectif) détermine les objectifs : on invalide leur cache.
+     */
+    @CacheEvict(cacheNames = GoalsService.GOALS_CACHE, key = "#userId")
     public UserProfileResponse updateProfile(Long userId, UpdateProfileRequest request) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
@@ -2,6 +2,8 @@ package com.nutriscan.service;
 
 import com.nutriscan.dto.request.VisionAnalysisRequest;
 import com.nutriscan.dto.response.VisionAnalysisResponse;
+import com.nutriscan.resilience.Upstream;
+import com.nutriscan.resilience.UpstreamGuard;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
@@ -19,6 +21,7 @@ import java.util.regex.Pattern;
 public class VisionService {
 
     private final RestTemplate restTemplate;
+    private final UpstreamGuard upstreamGuard;
 
     @Value("${gemini.api.key:}")
     private String geminiApiKey;
@@ -26,8 +29,9 @@ public class VisionService {
     @Value("${gemini.model:gemma-3-27b-it}")
     private String modelName;
 
-    public VisionService(RestTemplate restTemplate) {
+    public VisionService(RestTemplate restTemplate, UpstreamGuard upstreamGuard) {
         this.restTemplate = restTemplate;
+        this.upstreamGuard = upstreamGuard;
     }
 
     /**
@@ -128,7 +132,8 @@ public class VisionService {
             log.info("🚀 Calling Gemini Vision API with model: {}", modelName);
             log.info("📍 API URL: https://generativelanguage.googleapis.com/v1beta/models/{}", modelName);
 
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, entity, Map.class);
+            ResponseEntity<Map> response = upstreamGuard.call(Upstream.GEMINI_VISION,
+                    () -> restTemplate.exchange(url, HttpMethod.POST, entity, Map.class));
 
             log.info("📥 Gemini response status: {}", response.getStatusCode());
 
@@ -0,0 +1,73 @@
+package com.nutriscan.service.analysis;
+
+import com.nutriscan.model.Meal;
+import com.nutriscan.model.MealItem;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Empreinte d'un repas dans la fenêtre glissante : jour, totaux et indicateurs des patterns.
+ * Conservée par id de repas pour pouvoir retirer/remplacer sa contribution lors d'une modification.
+ */
+@Getter
+@AllArgsConstructor
+public class MealContribution {
+
+    static final LocalTime EVENING_START = LocalTime.of(19, 0);
+    static final LocalTime MORNING_END = LocalTime.of(11, 0);
+    static final LocalTime VERY_LATE = LocalTime.of(22, 0);
+    static final double HIGH_CARBS_EVENING_GR = 80;
+    static final double LOW_PROTEIN_BREAKFAST_GR = 10;
+
+    private final long epochDay;
+    private final double calories;
+    private final double protein;
+    private final double carbs;
+    private final boolean eveningHighCarbs;
+    private final boolean lowProteinBreakfast;
+    private final boolean late;
+
+    public static MealContribution of(Meal meal) {
+        double calories = 0;
+        double protein = 0;
+        double carbs = 0;
+
+        if (meal.getItems() != null && !meal.getItems().isEmpty()) {
+            for (MealItem item : meal.getItems()) {
+                calories += nutrient(item.getCalories(), item,
+                        item.getFood() != null ? item.getFood().getCaloriesKcal() : null);
+                protein += nutrient(item.getProtein(), item,
+                        item.getFood() != null ? item.getFood().getProteinGr() : null);
+                carbs += nutrient(item.getCarbs(), item,
+                        item.getFood() != null ? item.getFood().getCarbsGr() : null);
+            }
+        } else {
+            calories = meal.getTotalCalories() != null ? meal.getTotalCalories() : 0;
+            protein = meal.getTotalProtein() != null ? meal.getTotalProtein() : 0;
+            carbs = meal.getTotalCarbs() != null ? meal.getTotalCarbs() : 0;
+        }
+
+        return of(meal.getDate(), meal.getTime(), calories, protein, carbs);
+    }
+
+    public static MealContribution of(LocalDate date, LocalTime time, double calories, double protein, double carbs) {
+        return new MealContribution(
+                date.toEpochDay(),
+                calories, protein, carbs,
+                time != null && time.isAfter(EVENING_START) && carbs > HIGH_CARBS_EVENING_GR,
+                time != null && time.isBefore(MORNING_END) && protein < LOW_PROTEIN_BREAKFAST_GR,
+                time != null && time.isAfter(VERY_LATE));
+    }
+
+    /**
+     * Valeur précalculée de l'item, sinon quantité x valeur pour 100 g de l'aliment.
+     */
+    private static double nutrient(Double precomputed, MealItem item, Double per100g) {
+        if (precomputed != null) return precomputed;
+        if (per100g != null && item.getQuantity() != null) return item.getQuantity() * per100g / 100;
+        return 0;
+    }
+}
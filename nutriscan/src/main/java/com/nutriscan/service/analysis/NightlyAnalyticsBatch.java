@@ -0,0 +1,382 @@
+package com.nutriscan.service.analysis;
+
+import com.nutriscan.dto.response.GoalsResponse;
+import com.nutriscan.dto.response.PatternDetectionResponse;
+import com.nutriscan.dto.response.RecommendationResponse;
+import com.nutriscan.model.AnalyticsBatchPartition;
+import com.nutriscan.model.AnalyticsBatchRun;
+import com.nutriscan.model.enums.RecommendationType;
+import com.nutriscan.repository.AnalyticsBatchPartitionRepository;
+import com.nutriscan.repository.AnalyticsBatchRunRepository;
+import com.nutriscan.service.NutritionPatternAnalysisService;
+import com.nutriscan.service.RecommendationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batch nocturne : pour chaque utilisateur ayant des repas sur les 7 derniers jours, calcule les patterns
+ * et la recommandation de la veille, et les enregistre dans recommendations_log (types PATTERN et DAILY_SUMMARY,
+ * réponses en JSON) : le trafic du matin les relit via PrecomputedAnalysisService au lieu de recalculer.
+ *
+ * Les utilisateurs sont répartis par plages d'ids en partitions traitées en parallèle sur un pool borné ;
+ * chaque partition lit les repas par pagination keyset (user_id, id) et enregistre un point de reprise
+ * dans la même transaction que ses résultats : après un arrêt brutal, l'exécution reprend là où elle s'était arrêtée.
+ */
+@Service
+@Slf4j
+public class NightlyAnalyticsBatch {
+
+    private static final String MEALS_PAGE_SQL = """
+            SELECT m.id, m.user_id, m.date, m.time, m.total_calories, m.total_protein, m.total_carbs, m.total_fat,
+                   t.target_calories, t.protein_gr, t.carbs_gr, t.fat_gr
+            FROM meals m
+            LEFT JOIN daily_targets t ON t.user_id = m.user_id
+            WHERE m.user_id >= ? AND m.user_id < ? AND m.date BETWEEN ? AND ?
+              AND (m.user_id > ? OR (m.user_id = ? AND m.id > ?))
+            ORDER BY m.user_id, m.id
+            LIMIT ?
+            """;
+
+    private static final String INSERT_LOG_SQL = """
+            INSERT INTO recommendations_log (user_id, date, type, score, details, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AnalyticsBatchRunRepository runRepository;
+    private final AnalyticsBatchPartitionRepository partitionRepository;
+    private final PrecomputedAnalysisService precomputedAnalysisService;
+    private final TaskExecutor executor;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${analytics.batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.batch.partitions:16}")
+    private int partitionCount;
+
+    @Value("${analytics.batch.page-size:2000}")
+    private int pageSize;
+
+    public NightlyAnalyticsBatch(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 AnalyticsBatchRunRepository runRepository,
+                                 AnalyticsBatchPartitionRepository partitionRepository,
+                                 PrecomputedAnalysisService precomputedAnalysisService,
+                                 @Qualifier("analyticsBatchExecutor") TaskExecutor executor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.runRepository = runRepository;
+        this.partitionRepository = partitionRepository;
+        this.precomputedAnalysisService = precomputedAnalysisService;
+        this.executor = executor;
+    }
+
+    /**
+     * Analyse la veille (journée complète) chaque nuit.
+     */
+    @Scheduled(cron = "${analytics.batch.cron:0 30 2 * * *}")
+    public void runNightly() {
+        if (!enabled) return;
+        resumeUnfinishedRuns();
+        run(LocalDate.now().minusDays(1));
+    }
+
+    /**
+     * Reprend au démarrage une exécution interrompue (crash, redéploiement).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        if (!enabled) return;
+        // Thread dédié : l'orchestration attend les partitions, elle ne doit pas occuper le pool du batch
+        Thread.ofVirtual().name("analytics-batch-resume").start(this::resumeUnfinishedRuns);
+    }
+
+    public void resumeUnfinishedRuns() {
+        for (AnalyticsBatchRun run : runRepository.findByStatusNotOrderByRunDate(AnalyticsBatchRun.DONE)) {
+            log.info("🔁 Resuming analytics batch for {}", run.getRunDate());
+            run(run.getRunDate());
+        }
+    }
+
+    /**
+     * Exécute (ou reprend) le batch pour une journée ; sans effet si elle est déjà terminée ou en cours.
+     */
+    public void run(LocalDate day) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("⚠️ Analytics batch already running, skipping {}", day);
+            return;
+        }
+        try {
+            AnalyticsBatchRun run = runRepository.findByRunDate(day).orElseGet(() -> createRun(day));
+            if (AnalyticsBatchRun.DONE.equals(run.getStatus())) {
+                log.info("Analytics batch for {} already done", day);
+                return;
+            }
+            execute(run);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private AnalyticsBatchRun createRun(LocalDate day) {
+        return transactionTemplate.execute(status -> {
+            AnalyticsBatchRun run = runRepository.save(AnalyticsBatchRun.builder()
+                    .runDate(day)
+                    .status(AnalyticsBatchRun.RUNNING)
+                    .usersProcessed(0L)
+                    .startedAt(LocalDateTime.now())
+                    .build());
+
+            Long minId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM users", Long.class);
+            long from = minId != null ? minId : 0;
+            long to = (maxId != null ? maxId : 0) + 1;
+            int partitions = (int) Math.max(1, Math.min(partitionCount, to - from));
+            long width = (to - from + partitions - 1) / partitions;
+
+            for (int i = 0; i < partitions; i++) {
+                long start = from + i * width;
+                partitionRepository.save(AnalyticsBatchPartition.builder()
+                        .runId(run.getId())
+                        .partitionIndex(i)
+                        .fromUserId(start)
+                        .toUserId(i == partitions - 1 ? to : Math.min(to, start + width))
+                        .status("PENDING")
+                        .build());
+            }
+            return run;
+        });
+    }
+
+    private void execute(AnalyticsBatchRun run) {
+        LocalDate day = run.getRunDate();
+        List<AnalyticsBatchPartition> partitions = partitionRepository.findByRunIdOrderByPartitionIndex(run.getId());
+        AtomicLong users = new AtomicLong();
+        long startNanos = System.nanoTime();
+
+        log.info("🌙 Analytics batch for {}: {} partitions", day, partitions.size());
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (AnalyticsBatchPartition partition : partitions) {
+            if ("DONE".equals(partition.getStatus())) continue;
+            futures.add(CompletableFuture.runAsync(
+                    () -> users.addAndGet(processPartition(partition, day, partitions.size())), executor));
+        }
+
+        boolean failed = false;
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (Exception e) {
+                failed = true;
+                log.error("❌ Analytics partition failed: {}", e.getMessage(), e);
+            }
+        }
+
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long processed = users.get();
+        String finalStatus = failed ? AnalyticsBatchRun.FAILED : AnalyticsBatchRun.DONE;
+        transactionTemplate.executeWithoutResult(status -> {
+            AnalyticsBatchRun current = runRepository.findById(run.getId()).orElseThrow();
+            current.setStatus(finalStatus);
+            current.setUsersProcessed((current.getUsersProcessed() != null ? current.getUsersProcessed() : 0) + processed);
+            current.setFinishedAt(AnalyticsBatchRun.DONE.equals(finalStatus) ? LocalDateTime.now() : null);
+            runRepository.save(current);
+        });
+
+        log.info("🏁 Analytics batch for {} {}: {} users in {}s ({} users/s)", day, finalStatus, processed,
+                String.format("%.1f", seconds), String.format("%.1f", seconds > 0 ? processed / seconds : processed));
+    }
+
+    /**
+     * Parcourt les repas de la partition par pages keyset ; les résultats des utilisateurs terminés
+     * et le point de reprise sont écrits ensemble à la fin de chaque page.
+     *
+     * @return nombre d'utilisateurs traités
+     */
+    private long processPartition(AnalyticsBatchPartition partition, LocalDate day, int partitionTotal) {
+        LocalDate windowStart = day.minusDays(RollingWindowService.WINDOW_DAYS - 1);
+        long resumeAfter = partition.getLastUserId() != null ? partition.getLastUserId() : partition.getFromUserId() - 1;
+        long span = Math.max(1, partition.getToUserId() - partition.getFromUserId());
+
+        long cursorUser = resumeAfter;
+        long cursorMeal = Long.MAX_VALUE;   // (resumeAfter, +inf) : reprise au premier utilisateur suivant
+        long processed = 0;
+        UserAccumulator current = null;
+        transactionTemplate.executeWithoutResult(status ->
+                partitionRepository.checkpoint(partition.getId(), partition.getLastUserId(), 0, "RUNNING"));
+
+        while (true) {
+            // Avant la lecture : un repas modifié pendant le traitement rendra la ligne périmée
+            LocalDateTime readAt = LocalDateTime.now();
+            List<MealRow> page = jdbcTemplate.query(MEALS_PAGE_SQL, (rs, i) -> new MealRow(
+                            rs.getLong("id"), rs.getLong("user_id"), rs.getDate("date").toLocalDate(),
+                            rs.getTime("time") != null ? rs.getTime("time").toLocalTime() : null,
+                            rs.getDouble("total_calories"), rs.getDouble("total_protein"),
+                            rs.getDouble("total_carbs"), rs.getDouble("total_fat"),
+                            rs.getObject("target_calories", Double.class), rs.getObject("protein_gr", Double.class),
+                            rs.getObject("carbs_gr", Double.class), rs.getObject("fat_gr", Double.class)),
+                    partition.getFromUserId(), partition.getToUserId(), Date.valueOf(windowStart), Date.valueOf(day),
+                    cursorUser, cursorUser, cursorMeal, pageSize);
+
+            List<Object[]> rows = new ArrayList<>();
+            long finishedUsers = 0;
+            Long lastFinishedUser = null;
+            for (MealRow meal : page) {
+                if (current != null && current.userId != meal.userId) {
+                    rows.addAll(evaluate(current, day));
+                    lastFinishedUser = current.userId;
+                    finishedUsers++;
+                    current = null;
+                }
+                if (current == null) current = new UserAccumulator(meal, readAt);
+                current.add(meal, day);
+            }
+
+            boolean lastPage = page.size() < pageSize;
+            if (lastPage && current != null) {
+                rows.addAll(evaluate(current, day));
+                lastFinishedUser = current.userId;
+                finishedUsers++;
+                current = null;
+            }
+
+            persist(partition, rows, lastFinishedUser, finishedUsers, lastPage);
+            processed += finishedUsers;
+
+            if (lastPage) break;
+            MealRow last = page.getLast();
+            cursorUser = last.userId;
+            cursorMeal = last.id;
+            if (lastFinishedUser != null) {
+                log.debug("Analytics partition {}/{}: {} users, ~{}%", partition.getPartitionIndex() + 1,
+                        partitionTotal, processed, (lastFinishedUser - partition.getFromUserId()) * 100 / span);
+            }
+        }
+
+        log.info("✅ Analytics partition {}/{} done: {} users", partition.getPartitionIndex() + 1, partitionTotal, processed);
+        return processed;
+    }
+
+    private void persist(AnalyticsBatchPartition partition, List<Object[]> rows, Long lastFinishedUser,
+                         long finishedUsers, boolean done) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_LOG_SQL, rows);
+            }
+            Long checkpoint = lastFinishedUser != null ? lastFinishedUser : partition.getLastUserId();
+            partitionRepository.checkpoint(partition.getId(), checkpoint, finishedUsers, done ? "DONE" : "RUNNING");
+            if (lastFinishedUser != null) partition.setLastUserId(lastFinishedUser);
+        });
+    }
+
+    /**
+     * Lignes recommendations_log d'un utilisateur : un PATTERN avec la liste des patterns détectés (éventuellement vide),
+     * un DAILY_SUMMARY si la journée analysée contient des repas et que les objectifs sont définis
+     * (sinon la première requête calculera et créera les objectifs).
+     */
+    private List<Object[]> evaluate(UserAccumulator user, LocalDate day) {
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp readAt = Timestamp.valueOf(user.readAt);
+        Date date = Date.valueOf(day);
+
+        RollingNutritionWindow.Stats stats = user.window.stats(day.toEpochDay());
+        List<PatternDetectionResponse> patterns = NutritionPatternAnalysisService.detectPatterns(stats);
+        rows.add(new Object[]{user.userId, date, RecommendationType.PATTERN.name(), null,
+                precomputedAnalysisService.details(patterns), readAt});
+
+        if (user.dayCalories > 0 && user.goals != null) {
+            RecommendationResponse recommendation = RecommendationService.evaluateDay(day,
+                    user.dayCalories, user.dayProtein, user.dayCarbs, user.dayFat, user.goals);
+            rows.add(new Object[]{user.userId, date, RecommendationType.DAILY_SUMMARY.name(),
+                    recommendation.getScore(), precomputedAnalysisService.details(recommendation), readAt});
+        }
+        return rows;
+    }
+
+    private static final class MealRow {
+        final long id;
+        final long userId;
+        final LocalDate date;
+        final LocalTime time;
+        final double calories, protein, carbs, fat;
+        final Double targetCalories, targetProtein, targetCarbs, targetFat;
+
+        MealRow(long id, long userId, LocalDate date, LocalTime time,
+                double calories, double protein, double carbs, double fat,
+                Double targetCalories, Double targetProtein, Double targetCarbs, Double targetFat) {
+            this.id = id;
+            this.userId = userId;
+            this.date = date;
+            this.time = time;
+            this.calories = calories;
+            this.protein = protein;
+            this.carbs = carbs;
+            this.fat = fat;
+            this.targetCalories = targetCalories;
+            this.targetProtein = targetProtein;
+            this.targetCarbs = targetCarbs;
+            this.targetFat = targetFat;
+        }
+    }
+
+    /**
+     * Fenêtre de 7 jours + totaux de la journée analysée pour l'utilisateur en cours de lecture,
+     * avec ses objectifs (lus dans la même requête) et l'instant de lecture de sa première page.
+     */
+    private static final class UserAccumulator {
+        final long userId;
+        final GoalsResponse goals;
+        final LocalDateTime readAt;
+        final RollingNutritionWindow window = new RollingNutritionWindow(RollingWindowService.WINDOW_DAYS);
+        double dayCalories, dayProtein, dayCarbs, dayFat;
+
+        UserAccumulator(MealRow first, LocalDateTime readAt) {
+            this.userId = first.userId;
+            this.readAt = readAt;
+            this.goals = first.targetCalories != null && first.targetProtein != null
+                    && first.targetCarbs != null && first.targetFat != null
+                    ? GoalsResponse.builder()
+                            .targetCalories(first.targetCalories)
+                            .proteinGr(first.targetProtein)
+                            .carbsGr(first.targetCarbs)
+                            .fatGr(first.targetFat)
+                            .build()
+                    : null;
+        }
+
+        void add(MealRow meal, LocalDate day) {
+            window.upsert(meal.id, MealContribution.of(meal.date, meal.time, meal.calories, meal.protein, meal.carbs),
+                    day.toEpochDay());
+            if (meal.date.equals(day)) {
+                dayCalories += meal.calories;
+                dayProtein += meal.protein;
+                dayCarbs += meal.carbs;
+                dayFat += meal.fat;
+            }
+        }
+    }
+}
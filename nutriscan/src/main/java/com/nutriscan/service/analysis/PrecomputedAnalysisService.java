@@ -0,0 +1,109 @@
+package com.nutriscan.service.analysis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutriscan.dto.response.PatternDetectionResponse;
+import com.nutriscan.dto.response.RecommendationResponse;
+import com.nutriscan.model.RecommendationsLog;
+import com.nutriscan.model.enums.RecommendationType;
+import com.nutriscan.model.enums.SyncEntityType;
+import com.nutriscan.repository.DailyTargetsRepository;
+import com.nutriscan.repository.MealRepository;
+import com.nutriscan.repository.RecommendationsLogRepository;
+import com.nutriscan.repository.SyncTombstoneRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Résultats déjà calculés, relus dans recommendations_log : patterns et résumé du jour écrits par le batch nocturne
+ * (ou par un calcul précédent du même résumé). Le champ details contient la réponse sérialisée en JSON.
+ *
+ * Une ligne n'est servie que si rien de ce dont elle dépend n'a changé depuis son écriture (repas de la période,
+ * suppressions, objectifs pour le résumé) ; sinon l'appelant recalcule.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PrecomputedAnalysisService {
+
+    private static final TypeReference<RecommendationResponse> RECOMMENDATION = new TypeReference<>() {};
+    private static final TypeReference<List<PatternDetectionResponse>> PATTERNS = new TypeReference<>() {};
+
+    private final RecommendationsLogRepository recommendationsLogRepository;
+    private final MealRepository mealRepository;
+    private final DailyTargetsRepository dailyTargetsRepository;
+    private final SyncTombstoneRepository syncTombstoneRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Résumé de la journée {@code date} déjà calculé, s'il est encore à jour.
+     */
+    @Transactional(readOnly = true)
+    public Optional<RecommendationResponse> findDailySummary(Long userId, LocalDate date) {
+        return latest(userId, RecommendationType.DAILY_SUMMARY, date)
+                .filter(row -> unchangedSince(userId, date, date, row.getCreatedAt(),
+                        List.of(SyncEntityType.MEAL, SyncEntityType.GOALS)))
+                .filter(row -> !dailyTargetsRepository.existsChangedSince(userId, row.getCreatedAt()))
+                .flatMap(row -> parse(row, RECOMMENDATION));
+    }
+
+    /**
+     * Patterns de la fenêtre de 7 jours finissant hier (batch nocturne), servis tant que l'utilisateur
+     * n'a modifié aucun repas de cette fenêtre ni enregistré de repas aujourd'hui.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<PatternDetectionResponse>> findPatterns(Long userId) {
+        LocalDate today = LocalDate.now();
+        LocalDate day = today.minusDays(1);
+        return latest(userId, RecommendationType.PATTERN, day)
+                .filter(row -> unchangedSince(userId, day.minusDays(RollingWindowService.WINDOW_DAYS - 1), today,
+                        row.getCreatedAt(), List.of(SyncEntityType.MEAL)))
+                .flatMap(row -> parse(row, PATTERNS));
+    }
+
+    /**
+     * Valeur de details d'une ligne relisible par ce service ; null si la sérialisation échoue.
+     * Sans transaction : appelé par le batch pour chaque utilisateur.
+     */
+    public String details(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize recommendation details: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Optional<RecommendationsLog> latest(Long userId, RecommendationType type, LocalDate date) {
+        return recommendationsLogRepository.findByUserIdAndTypeAndDateOrderByCreatedAtDesc(userId, type, date)
+                .stream()
+                .findFirst();
+    }
+
+    private boolean unchangedSince(Long userId, LocalDate from, LocalDate to, LocalDateTime since,
+                                   List<SyncEntityType> deletions) {
+        return !mealRepository.existsChangedSince(userId, from, to, since)
+                && !syncTombstoneRepository.existsDeletedSince(userId, deletions, since);
+    }
+
+    /**
+     * Lignes antérieures (texte brut) ou illisibles : ignorées, l'appelant recalcule.
+     */
+    private <T> Optional<T> parse(RecommendationsLog row, TypeReference<T> type) {
+        if (row.getDetails() == null) return Optional.empty();
+        try {
+            return Optional.ofNullable(objectMapper.readValue(row.getDetails(), type));
+        } catch (JsonProcessingException e) {
+            log.debug("Recommendation log {} is not reusable: {}", row.getId(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.nutriscan.service.analysis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rétention de recommendations_log : pour chaque (utilisateur, type, jour) plus ancien que min-age-days,
+ * garde les keep-per-day lignes les plus récentes et cumule les autres dans recommendations_daily_aggregates.
+ *
+ * Le travail est découpé en tranches d'utilisateurs (keyset sur users.id) ; dans une tranche, chaque requête
+ * déplace au plus rows-per-statement lignes, dans sa propre transaction, et la tranche est répétée jusqu'à ce qu'il
+ * ne reste rien à compacter. Suppression et agrégation se font dans la même requête, donc une ligne n'est jamais
+ * perdue ni comptée deux fois. Le débit est plafonné (lignes compactées par seconde + pause entre requêtes)
+ * pour ne pas concurrencer le trafic, même lors du premier passage sur des années d'historique.
+ * Idempotent : une exécution interrompue est simplement terminée par la suivante.
+ */
+@Service
+@Slf4j
+public class RecommendationsLogRetentionJob {
+
+    private static final String USERS_PAGE_SQL = "SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String COMPACT_SQL = """
+            WITH ranked AS (
+                SELECT id, row_number() OVER (PARTITION BY user_id, type, date ORDER BY created_at DESC, id DESC) AS rn
+                FROM recommendations_log
+                WHERE user_id > ? AND user_id <= ? AND date < ?
+            ), batch AS (
+                SELECT id FROM ranked WHERE rn > ? ORDER BY id LIMIT ?
+            ), moved AS (
+                DELETE FROM recommendations_log l
+                USING batch b
+                WHERE l.id = b.id
+                RETURNING l.user_id, l.type, l.date, l.score, l.created_at
+            ), compacted AS (
+                INSERT INTO recommendations_daily_aggregates AS a
+                    (user_id, type, date, row_count, score_count, score_sum, min_score, max_score,
+                     first_created_at, last_created_at)
+                SELECT user_id, type, date, count(*), count(score), sum(score), min(score), max(score),
+                       min(created_at), max(created_at)
+                FROM moved
+                GROUP BY user_id, type, date
+                ON CONFLICT (user_id, type, date) DO UPDATE SET
+                    row_count = a.row_count + EXCLUDED.row_count,
+                    score_count = COALESCE(a.score_count, 0) + COALESCE(EXCLUDED.score_count, 0),
+                    score_sum = COALESCE(a.score_sum, 0) + COALESCE(EXCLUDED.score_sum, 0),
+                    min_score = LEAST(a.min_score, EXCLUDED.min_score),
+                    max_score = GREATEST(a.max_score, EXCLUDED.max_score),
+                    first_created_at = LEAST(a.first_created_at, EXCLUDED.first_created_at),
+                    last_created_at = GREATEST(a.last_created_at, EXCLUDED.last_created_at)
+            )
+            SELECT count(*) FROM moved
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${recommendations.retention.enabled:true}")
+    private boolean enabled;
+
+    /** Lignes gardées en détail par (utilisateur, type, jour) */
+    @Value("${recommendations.retention.keep-per-day:3}")
+    private int keepPerDay;
+
+    /** Les jours plus récents ne sont jamais compactés */
+    @Value("${recommendations.retention.min-age-days:7}")
+    private int minAgeDays;
+
+    @Value("${recommendations.retention.users-per-chunk:500}")
+    private int usersPerChunk;
+
+    /** Lignes déplacées au plus par requête (et donc par transaction) */
+    @Value("${recommendations.retention.rows-per-statement:1000}")
+    private int rowsPerStatement;
+
+    /** Plafond de lignes compactées par seconde ; 0 = pas de plafond */
+    @Value("${recommendations.retention.max-rows-per-second:5000}")
+    private long maxRowsPerSecond;
+
+    @Value("${recommendations.retention.pause-ms:50}")
+    private long pauseMs;
+
+    public RecommendationsLogRetentionJob(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${recommendations.retention.cron:0 0 4 * * *}")
+    public void runNightly() {
+        if (!enabled) return;
+        try {
+            run(LocalDate.now().minusDays(minAgeDays));
+        } catch (Exception e) {
+            log.error("❌ Recommendations log retention failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Compacte les jours strictement antérieurs à {@code before} ; sans effet si une exécution est en cours.
+     *
+     * @return nombre de lignes compactées
+     */
+    public long run(LocalDate before) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("⚠️ Recommendations log retention already running, skipping");
+            return 0;
+        }
+        try {
+            long startNanos = System.nanoTime();
+            long compacted = 0;
+            int chunks = 0;
+            int statements = 0;
+            long afterUserId = 0;
+
+            while (true) {
+                List<Long> userIds = jdbcTemplate.queryForList(USERS_PAGE_SQL, Long.class, afterUserId, usersPerChunk);
+                if (userIds.isEmpty()) break;
+
+                long from = afterUserId;
+                long to = userIds.getLast();
+                long rows;
+                do {
+                    long statementStart = System.nanoTime();
+                    Long moved = transactionTemplate.execute(status -> jdbcTemplate.queryForObject(COMPACT_SQL,
+                            Long.class, from, to, Date.valueOf(before), keepPerDay, rowsPerStatement));
+                    rows = moved != null ? moved : 0;
+                    compacted += rows;
+                    statements++;
+                    if (rows > 0) throttle(rows, System.nanoTime() - statementStart);
+                } while (rows > 0);
+                chunks++;
+                afterUserId = to;
+
+                if (userIds.size() < usersPerChunk) break;
+            }
+
+            log.info("🧹 Recommendations log retention: {} row(s) compacted before {} in {} chunk(s), {} statement(s), {} ms",
+                    compacted, before, chunks, statements,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            return compacted;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Attend assez pour que la requête respecte max-rows-per-second, et au moins pause-ms.
+     */
+    private void throttle(long rows, long elapsedNanos) {
+        long budgetNanos = maxRowsPerSecond > 0 ? rows * TimeUnit.SECONDS.toNanos(1) / maxRowsPerSecond : 0;
+        long sleepMs = Math.max(pauseMs, TimeUnit.NANOSECONDS.toMillis(budgetNanos - elapsedNanos));
+        if (sleepMs <= 0) return;
+        try {
+            Thread.sleep(sleepMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.nutriscan.service.analysis;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Accumulateurs d'un utilisateur sur une fenêtre glissante de N jours (anneau indexé par epochDay).
+ *
+ * Chaque case contient les sommes et compteurs d'un jour ; les contributions sont gardées par id de repas
+ * pour que création, modification et suppression se fassent en O(1). Une case dont le jour est sorti
+ * de la fenêtre est remise à zéro au premier accès. Les lectures ({@link #stats(long)}) sont en O(N).
+ *
+ * Classe pure (sans Spring ni JPA), thread-safe par synchronisation sur l'instance.
+ */
+public class RollingNutritionWindow {
+
+    private final int days;
+    private final long[] dayTag;
+    private final double[] calories;
+    private final int[] meals;
+    private final int[] eveningHighCarbMeals;
+    private final double[] eveningHighCarbGrams;
+    private final int[] lowProteinBreakfasts;
+    private final int[] lateMeals;
+
+    private final Map<Long, MealContribution> contributions = new HashMap<>();
+
+    public RollingNutritionWindow(int days) {
+        this.days = days;
+        this.dayTag = new long[days];
+        this.calories = new double[days];
+        this.meals = new int[days];
+        this.eveningHighCarbMeals = new int[days];
+        this.eveningHighCarbGrams = new double[days];
+        this.lowProteinBreakfasts = new int[days];
+        this.lateMeals = new int[days];
+        java.util.Arrays.fill(dayTag, Long.MIN_VALUE);
+    }
+
+    /**
+     * Ajoute ou remplace la contribution d'un repas (idempotent).
+     */
+    public synchronized void upsert(long mealId, MealContribution contribution, long today) {
+        advance(today);
+        MealContribution previous = contributions.put(mealId, contribution);
+        if (previous != null) apply(previous, -1, today);
+        apply(contribution, 1, today);
+    }
+
+    public synchronized void remove(long mealId, long today) {
+        advance(today);
+        MealContribution previous = contributions.remove(mealId);
+        if (previous != null) apply(previous, -1, today);
+    }
+
+    public synchronized Stats stats(long today) {
+        advance(today);
+
+        int activeDays = 0;
+        int totalMeals = 0;
+        int highCarbEvenings = 0;
+        double highCarbGrams = 0;
+        int lowProtein = 0;
+        int late = 0;
+        double sum = 0;
+        for (int i = 0; i < days; i++) {
+            totalMeals += meals[i];
+            highCarbEvenings += eveningHighCarbMeals[i];
+            highCarbGrams += eveningHighCarbGrams[i];
+            lowProtein += lowProteinBreakfasts[i];
+            late += lateMeals[i];
+            if (meals[i] > 0) {
+                activeDays++;
+                sum += calories[i];
+            }
+        }
+
+        double mean = activeDays > 0 ? sum / activeDays : 0;
+        double maxDeviation = 0;
+        if (mean > 0) {
+            for (int i = 0; i < days; i++) {
+                if (meals[i] > 0) maxDeviation = Math.max(maxDeviation, Math.abs(calories[i] - mean) / mean);
+            }
+        }
+        return new Stats(activeDays, totalMeals, highCarbEvenings, highCarbGrams, lowProtein, late, mean, maxDeviation);
+    }
+
+    public synchronized int trackedMeals() {
+        return contributions.size();
+    }
+
+    /**
+     * Fait avancer l'anneau jusqu'à {@code today} : les cases périmées sont vidées puis reconstruites
+     * à partir des contributions datées de leur nouveau jour (repas saisis à l'avance).
+     */
+    private void advance(long today) {
+        long oldest = today - days + 1;
+        boolean reset = false;
+        for (long day = oldest; day <= today; day++) {
+            int slot = slot(day);
+            if (dayTag[slot] == day) continue;
+
+            dayTag[slot] = day;
+            calories[slot] = 0;
+            meals[slot] = 0;
+            eveningHighCarbMeals[slot] = 0;
+            eveningHighCarbGrams[slot] = 0;
+            lowProteinBreakfasts[slot] = 0;
+            lateMeals[slot] = 0;
+            for (MealContribution c : contributions.values()) {
+                if (c.getEpochDay() == day) add(slot, c, 1);
+            }
+            reset = true;
+        }
+        if (reset) {
+            // Les repas sortis de la fenêtre n'ont plus de contribution à retirer
+            Iterator<MealContribution> it = contributions.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().getEpochDay() < oldest) it.remove();
+            }
+        }
+    }
+
+    private void apply(MealContribution c, int sign, long today) {
+        if (c.getEpochDay() > today || c.getEpochDay() <= today - days) return;
+        add(slot(c.getEpochDay()), c, sign);
+    }
+
+    private void add(int slot, MealContribution c, int sign) {
+        calories[slot] += sign * c.getCalories();
+        meals[slot] += sign;
+        if (c.isEveningHighCarbs()) {
+            eveningHighCarbMeals[slot] += sign;
+            eveningHighCarbGrams[slot] += sign * c.getCarbs();
+        }
+        if (c.isLowProteinBreakfast()) lowProteinBreakfasts[slot] += sign;
+        if (c.isLate()) lateMeals[slot] += sign;
+    }
+
+    private int slot(long day) {
+        return (int) Math.floorMod(day, (long) days);
+    }
+
+    /**
+     * Lecture agrégée de la fenêtre.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Stats {
+        private final int activeDays;
+        private final int totalMeals;
+        private final int eveningHighCarbMeals;
+        private final double eveningHighCarbGrams;
+        private final int lowProteinBreakfasts;
+        private final int lateMeals;
+        /** Moyenne des calories journalières sur les jours avec au moins un repas */
+        private final double meanDailyCalories;
+        /** Plus grand écart relatif d'un jour à la moyenne (0.4 = 40 %) */
+        private final double maxDailyDeviation;
+    }
+}
@@ -0,0 +1,100 @@
+package com.nutriscan.service.analysis;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nutriscan.model.Meal;
+import com.nutriscan.repository.MealRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Fenêtres glissantes de 7 jours par utilisateur, gardées en mémoire.
+ *
+ * Une fenêtre est hydratée depuis la base au premier accès, puis tenue à jour par MealService
+ * après chaque commit (création, modification, suppression de repas) : la détection de patterns
+ * ne relit plus la table meals. Le nombre d'utilisateurs suivis est borné par un cache Caffeine.
+ */
+@Service
+@Slf4j
+public class RollingWindowService {
+
+    public static final int WINDOW_DAYS = 7;
+
+    private final MealRepository mealRepository;
+
+    private final Cache<Long, RollingNutritionWindow> windows;
+
+    public RollingWindowService(MealRepository mealRepository,
+                                @Value("${analysis.window.max-users:10000}") long maxUsers) {
+        this.mealRepository = mealRepository;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .build();
+    }
+
+    /**
+     * Statistiques des 7 derniers jours (aujourd'hui inclus).
+     */
+    public RollingNutritionWindow.Stats getStats(Long userId) {
+        long today = LocalDate.now().toEpochDay();
+        return windows.get(userId, this::hydrate).stats(today);
+    }
+
+    public void onMealSaved(Meal meal) {
+        Long userId = meal.getUser().getId();
+        Long mealId = meal.getId();
+        MealContribution contribution = MealContribution.of(meal);
+        afterCommit(() -> update(userId, window -> window.upsert(mealId, contribution, LocalDate.now().toEpochDay())));
+    }
+
+    public void onMealDeleted(Long userId, Long mealId) {
+        afterCommit(() -> update(userId, window -> window.remove(mealId, LocalDate.now().toEpochDay())));
+    }
+
+    public long trackedUsers() {
+        return windows.estimatedSize();
+    }
+
+    /**
+     * compute verrouille la clé : une hydratation en cours pour cet utilisateur se termine d'abord, puis la mise à jour
+     * s'applique (upsert idempotent par id de repas, donc jamais compté deux fois). Pas computeIfPresent, dont le
+     * chemin rapide sans verrou ne voit pas une entrée encore en cours de calcul.
+     * Utilisateur pas encore suivi : rien à faire, l'hydratation lira la version commitée.
+     */
+    private void update(Long userId, Consumer<RollingNutritionWindow> change) {
+        windows.asMap().compute(userId, (id, window) -> {
+            if (window != null) change.accept(window);
+            return window;
+        });
+    }
+
+    private RollingNutritionWindow hydrate(Long userId) {
+        LocalDate today = LocalDate.now();
+        RollingNutritionWindow window = new RollingNutritionWindow(WINDOW_DAYS);
+        for (Meal meal : mealRepository.findWithItemsByUserIdAndDateBetween(
+                userId, today.minusDays(WINDOW_DAYS - 1), today)) {
+            window.upsert(meal.getId(), MealContribution.of(meal), today.toEpochDay());
+        }
+        log.debug("📈 Rolling window hydrated for user {} ({} meals)", userId, window.trackedMeals());
+        return window;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.nutriscan.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CSV RFC 4180 (séparateur virgule, guillemets doublés), une ligne par item de repas.
+ */
+public class CsvMealExportWriter implements MealExportWriter {
+
+    static final String HEADER =
+            "meal_id,date,time,meal_type,source,item_id,food_name,quantity,serving_unit,calories,protein,carbs,fat";
+
+    private final Writer writer;
+
+    public CsvMealExportWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+    }
+
+    @Override
+    public void start() throws IOException {
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(MealExportRow row) throws IOException {
+        writer.write(Long.toString(row.getMealId()));
+        writer.write(',');
+        text(row.getDate());
+        writer.write(',');
+        text(row.getTime());
+        writer.write(',');
+        text(row.getMealType());
+        writer.write(',');
+        text(row.getSource());
+        writer.write(',');
+        if (row.isHasItem()) {
+            writer.write(Long.toString(row.getItemId()));
+            writer.write(',');
+            text(row.getFoodName());
+            writer.write(',');
+            number(row.getQuantity());
+            writer.write(',');
+            text(row.getServingUnit());
+            writer.write(',');
+            number(row.getCalories());
+            writer.write(',');
+            number(row.getProtein());
+            writer.write(',');
+            number(row.getCarbs());
+            writer.write(',');
+            number(row.getFat());
+        } else {
+            writer.write(",,,,,,,");
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void number(Double value) throws IOException {
+        if (value != null) writer.write(Double.toString(value));
+    }
+
+    private void text(String value) throws IOException {
+        if (value == null) return;
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') writer.write('"');
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,74 @@
+package com.nutriscan.service.export;
+
+import lombok.Getter;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+
+/**
+ * Une ligne d'export (un item de repas, ou un repas sans item). Une seule instance est réutilisée
+ * pour tout l'export : pas d'entité ni d'objet par ligne, la mémoire reste constante.
+ * Les valeurs nutritionnelles restent null quand la colonne l'est (champ vide en CSV, null en NDJSON), jamais 0.
+ */
+@Getter
+public final class MealExportRow {
+
+    private long mealId;
+    private String date;
+    private String time;
+    private String mealType;
+    private String source;
+    private Long itemId;
+    private String foodName;
+    private Double quantity;
+    private String servingUnit;
+    private Double calories;
+    private Double protein;
+    private Double carbs;
+    private Double fat;
+    private boolean hasItem;
+
+    void readFrom(ResultSet rs) throws SQLException {
+        mealId = rs.getLong("meal_id");
+        Date d = rs.getDate("date");
+        date = d != null ? d.toString() : null;
+        Time t = rs.getTime("time");
+        time = t != null ? t.toString() : null;
+        mealType = rs.getString("meal_type");
+        source = rs.getString("source");
+        long item = rs.getLong("item_id");
+        hasItem = !rs.wasNull();
+        itemId = hasItem ? item : null;
+        foodName = rs.getString("food_name");
+        quantity = rs.getObject("quantity", Double.class);
+        servingUnit = rs.getString("serving_unit");
+        calories = rs.getObject("calories", Double.class);
+        protein = rs.getObject("protein", Double.class);
+        carbs = rs.getObject("carbs", Double.class);
+        fat = rs.getObject("fat", Double.class);
+    }
+
+    /**
+     * Remplissage direct (benchmarks, tests).
+     */
+    public void set(long mealId, String date, String time, String mealType, String source, Long itemId,
+                    String foodName, Double quantity, String servingUnit,
+                    Double calories, Double protein, Double carbs, Double fat) {
+        this.mealId = mealId;
+        this.date = date;
+        this.time = time;
+        this.mealType = mealType;
+        this.source = source;
+        this.itemId = itemId;
+        this.hasItem = itemId != null;
+        this.foodName = foodName;
+        this.quantity = quantity;
+        this.servingUnit = servingUnit;
+        this.calories = calories;
+        this.protein = protein;
+        this.carbs = carbs;
+        this.fat = fat;
+    }
+}
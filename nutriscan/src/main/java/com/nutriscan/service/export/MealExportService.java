@@ -0,0 +1,101 @@
+package com.nutriscan.service.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutriscan.exception.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Export complet de l'historique alimentaire d'un utilisateur, lu par un curseur JDBC en avant seulement
+ * (fetch size, transaction en lecture seule : PostgreSQL ne matérialise pas le résultat côté client)
+ * et écrit ligne par ligne dans le flux HTTP. Aucune entité n'est chargée, la mémoire ne dépend pas du volume.
+ */
+@Service
+@Slf4j
+public class MealExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String EXPORT_SQL = """
+            SELECT m.id AS meal_id, m.date, m.time, m.meal_type, m.source,
+                   i.id AS item_id, COALESCE(f.name, i.food_name) AS food_name, i.quantity, i.serving_unit,
+                   i.calories, i.protein, i.carbs, i.fat
+            FROM meals m
+            LEFT JOIN meal_items i ON i.meal_id = m.id
+            LEFT JOIN foods f ON f.id = i.food_id
+            WHERE m.user_id = ? AND m.date BETWEEN ? AND ?
+            ORDER BY m.date, m.time NULLS FIRST, m.id, i.id
+            """;
+
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public MealExportService(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public static Format parseFormat(String format) {
+        if (format == null || format.isBlank()) return Format.NDJSON;
+        try {
+            return Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown export format: " + format + " (expected ndjson or csv)");
+        }
+    }
+
+    /**
+     * Écrit l'export dans {@code out} ; from/to null = tout l'historique. Renvoie le nombre de lignes.
+     */
+    public long export(Long userId, LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        MealExportWriter writer = format == Format.CSV
+                ? new CsvMealExportWriter(out)
+                : new NdjsonMealExportWriter(objectMapper.getFactory(), out);
+        MealExportRow row = new MealExportRow();
+        long[] count = {0};
+        long start = System.nanoTime();
+
+        writer.start();
+        try {
+            // Transaction : autocommit désactivé, sans quoi le pilote PostgreSQL ignore le fetch size
+            readOnlyTransaction.executeWithoutResult(status ->
+                    cursorTemplate.query(EXPORT_SQL, rs -> {
+                        row.readFrom(rs);
+                        try {
+                            writer.write(row);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        count[0]++;
+                    }, userId, Date.valueOf(from != null ? from : LocalDate.of(1900, 1, 1)),
+                            Date.valueOf(to != null ? to : LocalDate.of(9999, 12, 31))));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();   // client parti : on arrête de lire
+        }
+        writer.finish();
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("📤 Exported {} rows ({}) for user {} in {} ms ({} rows/s)",
+                count[0], format, userId, elapsedMs, count[0] * 1000 / elapsedMs);
+        return count[0];
+    }
+}
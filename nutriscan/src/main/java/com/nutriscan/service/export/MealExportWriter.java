@@ -0,0 +1,15 @@
+package com.nutriscan.service.export;
+
+import java.io.IOException;
+
+/**
+ * Sérialise les lignes d'export au fil de l'eau ; {@link #finish()} vide les tampons sans fermer le flux.
+ */
+public interface MealExportWriter {
+
+    void start() throws IOException;
+
+    void write(MealExportRow row) throws IOException;
+
+    void finish() throws IOException;
+}
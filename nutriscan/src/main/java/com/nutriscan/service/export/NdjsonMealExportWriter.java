@@ -0,0 +1,63 @@
+package com.nutriscan.service.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Un objet JSON par ligne (application/x-ndjson), écrit directement par le JsonGenerator de Jackson.
+ */
+public class NdjsonMealExportWriter implements MealExportWriter {
+
+    private final JsonGenerator generator;
+    private boolean written;
+
+    public NdjsonMealExportWriter(JsonFactory factory, OutputStream out) throws IOException {
+        this.generator = factory.createGenerator(out);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.generator.setRootValueSeparator(new SerializedString("\n"));
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void write(MealExportRow row) throws IOException {
+        written = true;
+        generator.writeStartObject();
+        generator.writeNumberField("mealId", row.getMealId());
+        generator.writeStringField("date", row.getDate());
+        generator.writeStringField("time", row.getTime());
+        generator.writeStringField("mealType", row.getMealType());
+        generator.writeStringField("source", row.getSource());
+        if (row.isHasItem()) {
+            generator.writeNumberField("itemId", row.getItemId());
+            generator.writeStringField("foodName", row.getFoodName());
+            number("quantity", row.getQuantity());
+            generator.writeStringField("servingUnit", row.getServingUnit());
+            number("calories", row.getCalories());
+            number("protein", row.getProtein());
+            number("carbs", row.getCarbs());
+            number("fat", row.getFat());
+        }
+        generator.writeEndObject();
+    }
+
+    private void number(String field, Double value) throws IOException {
+        if (value != null) {
+            generator.writeNumberField(field, value.doubleValue());
+        } else {
+            generator.writeNullField(field);
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (written) generator.writeRaw('\n');
+        generator.flush();
+    }
+}
@@ -0,0 +1,87 @@
+package com.nutriscan.service.planner;
+
+import java.util.List;
+
+/**
+ * Catalogue intégré de recettes simples (valeurs estimées par portion).
+ * Sert de base au planificateur local et aux recettes de secours quand aucune API ne répond.
+ */
+public final class DefaultRecipeCatalog {
+
+    private static final String SOURCE = "NutriScan";
+
+    private static final List<PlannerRecipe> RECIPES = List.of(
+            // Petits-déjeuners
+            recipe("BREAKFAST", "Petit-déjeuner aux œufs", 360, 21, 44, 12,
+                    "2 œufs brouillés", "2 tranches de pain complet", "1 orange", "Café ou thé"),
+            recipe("BREAKFAST", "Bowl d'avoine aux fruits", 520, 16, 100, 8,
+                    "60g flocons d'avoine", "200ml lait", "1 banane", "Myrtilles", "1 c.s. miel"),
+            recipe("BREAKFAST", "Tartines avocat œuf", 365, 17, 37, 18,
+                    "2 tranches pain complet", "1/2 avocat", "1 œuf poché", "Tomates cerises"),
+            recipe("BREAKFAST", "Yaourt granola fruits", 495, 25, 50, 24,
+                    "200g yaourt grec", "40g granola", "Fruits de saison", "Noix concassées"),
+            recipe("BREAKFAST", "Pancakes protéinés", 520, 26, 80, 10,
+                    "2 pancakes", "Sirop d'érable", "Fruits rouges", "1 yaourt"),
+            // Déjeuners
+            recipe("LUNCH", "Salade César au poulet", 535, 57, 21, 23,
+                    "150g poulet grillé", "Salade romaine", "Croûtons", "Parmesan", "Sauce César légère"),
+            recipe("LUNCH", "Buddha bowl quinoa", 490, 20, 69, 16,
+                    "150g quinoa cuit", "Pois chiches rôtis", "Légumes variés", "Sauce tahini"),
+            recipe("LUNCH", "Wrap poulet avocat", 580, 48, 47, 23,
+                    "1 tortilla complète", "120g poulet", "1/2 avocat", "Crudités", "Sauce yaourt"),
+            recipe("LUNCH", "Pâtes au pesto maison", 655, 27, 64, 34,
+                    "80g pâtes complètes", "Pesto basilic", "Tomates cerises", "Mozzarella", "Pignons"),
+            recipe("LUNCH", "Riz sauté aux légumes", 425, 14, 57, 15,
+                    "150g riz", "Légumes wok", "Sauce soja", "Œuf", "Sésame"),
+            // Dîners
+            recipe("DINNER", "Saumon grillé légumes", 520, 38, 43, 21,
+                    "150g pavé de saumon", "Brocolis vapeur", "Riz basmati", "Citron", "Aneth"),
+            recipe("DINNER", "Poulet rôti aux herbes", 500, 52, 47, 10,
+                    "150g filet de poulet", "Pommes de terre rôties", "Haricots verts", "Thym", "Romarin"),
+            recipe("DINNER", "Curry de légumes", 470, 10, 61, 21,
+                    "Légumes variés", "Lait de coco", "Pâte de curry", "Riz basmati", "Coriandre"),
+            recipe("DINNER", "Steak haricots verts", 555, 43, 19, 34,
+                    "150g steak", "200g haricots verts", "Échalotes", "Persil", "Huile d'olive"),
+            recipe("DINNER", "Poisson blanc purée", 450, 34, 35, 19,
+                    "150g cabillaud", "200g purée maison", "Épinards", "Beurre", "Muscade"),
+            // Collations
+            recipe("SNACK", "Fruits secs et noix", 400, 12, 31, 28,
+                    "30g amandes", "30g noix de cajou", "Raisins secs"),
+            recipe("SNACK", "Smoothie protéiné", 310, 13, 41, 13,
+                    "1 banane", "200ml lait", "1 c.s. beurre cacahuète", "Cacao"),
+            recipe("SNACK", "Yaourt aux fruits", 225, 14, 27, 8,
+                    "150g yaourt grec", "Fruits frais", "1 c.c. miel"),
+            recipe("SNACK", "Tartine beurre cacahuète", 320, 13, 34, 17,
+                    "1 tranche pain complet", "2 c.s. beurre cacahuète", "1/2 banane"),
+            recipe("SNACK", "Fromage et crackers", 230, 10, 20, 13,
+                    "30g fromage", "4 crackers complets", "Quelques raisins")
+    );
+
+    private DefaultRecipeCatalog() {
+    }
+
+    public static List<PlannerRecipe> all() {
+        return RECIPES;
+    }
+
+    public static List<PlannerRecipe> forMealType(String mealType) {
+        return RECIPES.stream()
+                .filter(r -> r.getMealType().equalsIgnoreCase(mealType))
+                .toList();
+    }
+
+    private static PlannerRecipe recipe(String mealType, String label, double calories, double protein,
+                                        double carbs, double fat, String... ingredients) {
+        return PlannerRecipe.builder()
+                .mealType(mealType)
+                .label(label)
+                .calories(calories)
+                .protein(protein)
+                .carbs(carbs)
+                .fat(fat)
+                .ingredientLines(List.of(ingredients))
+                .uri("nutriscan-catalog-" + mealType.toLowerCase() + "-" + Math.abs(label.hashCode()))
+                .source(SOURCE)
+                .build();
+    }
+}
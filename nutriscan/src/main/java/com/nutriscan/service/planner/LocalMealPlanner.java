@@ -0,0 +1,321 @@
+package com.nutriscan.service.planner;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Planificateur de repas local (sans appel IA) : choisit une recette par créneau
+ * (petit-déjeuner, déjeuner, dîner, collation) et par jour pour approcher les cibles
+ * journalières de calories et de macros, en pénalisant les répétitions.
+ *
+ * Heuristique : initialisation gloutonne puis recherche locale par recuit simulé
+ * (réaffectation d'un créneau), avec calcul incrémental du coût sur des tableaux primitifs.
+ * Un plan de 14 jours se résout en quelques millisecondes.
+ */
+public final class LocalMealPlanner {
+
+    public static final String[] SLOTS = {"BREAKFAST", "LUNCH", "DINNER", "SNACK"};
+    private static final double[] SLOT_SHARE = {0.25, 0.35, 0.30, 0.10};
+
+    // Poids de la fonction objectif (écarts relatifs au carré)
+    private static final double W_CALORIES = 4.0;
+    private static final double W_PROTEIN = 1.5;
+    private static final double W_CARBS = 1.0;
+    private static final double W_FAT = 1.0;
+    private static final double W_SLOT = 0.3;      // garde chaque repas proche de sa part de la journée
+    private static final double W_REPEAT = 0.05;   // par utilisation supplémentaire (quadratique)
+    private static final double W_ADJACENT = 0.2;  // même recette, même créneau, jours consécutifs
+
+    private static final double INITIAL_TEMPERATURE = 0.05;
+
+    private LocalMealPlanner() {
+    }
+
+    /**
+     * @param candidatesBySlot recettes candidates pour chaque créneau, dans l'ordre de {@link #SLOTS}
+     */
+    public static Result solve(List<List<PlannerRecipe>> candidatesBySlot, int days, Targets targets, Options options) {
+        long startNanos = System.nanoTime();
+        int slots = SLOTS.length;
+
+        // Aplatir les recettes en tableaux primitifs (index global)
+        Map<PlannerRecipe, Integer> indexOf = new IdentityHashMap<>();
+        List<PlannerRecipe> recipes = new ArrayList<>();
+        int[][] slotCandidates = new int[slots][];
+        for (int s = 0; s < slots; s++) {
+            List<PlannerRecipe> list = s < candidatesBySlot.size() ? candidatesBySlot.get(s) : List.of();
+            slotCandidates[s] = new int[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                PlannerRecipe recipe = list.get(i);
+                Integer idx = indexOf.get(recipe);
+                if (idx == null) {
+                    idx = recipes.size();
+                    indexOf.put(recipe, idx);
+                    recipes.add(recipe);
+                }
+                slotCandidates[s][i] = idx;
+            }
+        }
+
+        int n = recipes.size();
+        double[] cal = new double[n];
+        double[] pro = new double[n];
+        double[] carb = new double[n];
+        double[] fat = new double[n];
+        for (int i = 0; i < n; i++) {
+            PlannerRecipe r = recipes.get(i);
+            cal[i] = r.getCalories();
+            pro[i] = r.getProtein();
+            carb[i] = r.getCarbs();
+            fat[i] = r.getFat();
+        }
+
+        Problem p = new Problem(days, slots, slotCandidates, cal, pro, carb, fat, targets);
+        SplittableRandom random = new SplittableRandom(options.getSeed());
+
+        p.greedyInit();
+        double cost = p.totalCost();
+        int[] best = p.assignment.clone();
+        double bestCost = cost;
+
+        long deadline = startNanos + options.getTimeBudgetNanos();
+        int movableSlots = 0;
+        for (int[] c : slotCandidates) {
+            if (c.length > 1) movableSlots++;
+        }
+
+        int iterations = 0;
+        if (movableSlots > 0 && days > 0) {
+            while (iterations < options.getMaxIterations()) {
+                if ((iterations & 255) == 0 && System.nanoTime() > deadline) break;
+                iterations++;
+
+                int d = random.nextInt(days);
+                int s = random.nextInt(slots);
+                int[] candidates = slotCandidates[s];
+                if (candidates.length < 2) continue;
+
+                int current = p.assignment[d * slots + s];
+                int next = candidates[random.nextInt(candidates.length)];
+                if (next == current) continue;
+
+                double delta = p.moveDelta(d, s, next);
+                double progress = (double) iterations / options.getMaxIterations();
+                double temperature = INITIAL_TEMPERATURE * (1.0 - progress);
+                if (delta < 0 || (temperature > 0 && random.nextDouble() < Math.exp(-delta / temperature))) {
+                    p.apply(d, s, next);
+                    cost += delta;
+                    if (cost < bestCost - 1e-12) {
+                        bestCost = cost;
+                        System.arraycopy(p.assignment, 0, best, 0, best.length);
+                    }
+                }
+            }
+        }
+
+        // Reconstruire la meilleure solution et ses statistiques
+        p.load(best);
+        PlannerRecipe[][] plan = new PlannerRecipe[days][slots];
+        double calorieDeviation = 0;
+        for (int d = 0; d < days; d++) {
+            for (int s = 0; s < slots; s++) {
+                int idx = best[d * slots + s];
+                plan[d][s] = idx >= 0 ? recipes.get(idx) : null;
+            }
+            calorieDeviation += Math.abs(p.dayCal[d] - targets.getCalories()) / targets.getCalories();
+        }
+
+        return new Result(plan, p.totalCost(), days > 0 ? calorieDeviation / days : 0,
+                iterations, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * État mutable de la recherche : affectation + totaux journaliers + compteurs d'utilisation.
+     */
+    private static final class Problem {
+        final int days;
+        final int slots;
+        final int[][] slotCandidates;
+        final double[] cal, pro, carb, fat;
+        final double tCal, tPro, tCarb, tFat;
+
+        final int[] assignment;
+        final int[] uses;
+        final double[] dayCal, dayPro, dayCarb, dayFat;
+
+        Problem(int days, int slots, int[][] slotCandidates, double[] cal, double[] pro, double[] carb,
+                double[] fat, Targets targets) {
+            this.days = days;
+            this.slots = slots;
+            this.slotCandidates = slotCandidates;
+            this.cal = cal;
+            this.pro = pro;
+            this.carb = carb;
+            this.fat = fat;
+            this.tCal = Math.max(1, targets.getCalories());
+            this.tPro = Math.max(1, targets.getProtein());
+            this.tCarb = Math.max(1, targets.getCarbs());
+            this.tFat = Math.max(1, targets.getFat());
+            this.assignment = new int[days * slots];
+            this.uses = new int[cal.length];
+            this.dayCal = new double[days];
+            this.dayPro = new double[days];
+            this.dayCarb = new double[days];
+            this.dayFat = new double[days];
+        }
+
+        void greedyInit() {
+            java.util.Arrays.fill(assignment, -1);
+            for (int d = 0; d < days; d++) {
+                for (int s = 0; s < slots; s++) {
+                    int bestIdx = -1;
+                    double bestScore = Double.MAX_VALUE;
+                    for (int idx : slotCandidates[s]) {
+                        double score = slotCost(s, idx) + repeatDelta(idx, 1) + adjacentCost(d, s, idx);
+                        if (score < bestScore) {
+                            bestScore = score;
+                            bestIdx = idx;
+                        }
+                    }
+                    if (bestIdx >= 0) apply(d, s, bestIdx);
+                }
+            }
+        }
+
+        void load(int[] solution) {
+            java.util.Arrays.fill(assignment, -1);
+            java.util.Arrays.fill(uses, 0);
+            java.util.Arrays.fill(dayCal, 0);
+            java.util.Arrays.fill(dayPro, 0);
+            java.util.Arrays.fill(dayCarb, 0);
+            java.util.Arrays.fill(dayFat, 0);
+            for (int d = 0; d < days; d++) {
+                for (int s = 0; s < slots; s++) {
+                    int idx = solution[d * slots + s];
+                    if (idx >= 0) apply(d, s, idx);
+                }
+            }
+        }
+
+        void apply(int d, int s, int next) {
+            int pos = d * slots + s;
+            int current = assignment[pos];
+            if (current >= 0) {
+                uses[current]--;
+                dayCal[d] -= cal[current];
+                dayPro[d] -= pro[current];
+                dayCarb[d] -= carb[current];
+                dayFat[d] -= fat[current];
+            }
+            assignment[pos] = next;
+            uses[next]++;
+            dayCal[d] += cal[next];
+            dayPro[d] += pro[next];
+            dayCarb[d] += carb[next];
+            dayFat[d] += fat[next];
+        }
+
+        double moveDelta(int d, int s, int next) {
+            int current = assignment[d * slots + s];
+            double before = dayCost(dayCal[d], dayPro[d], dayCarb[d], dayFat[d])
+                    + slotCost(s, current) + adjacentCost(d, s, current);
+            double after = dayCost(dayCal[d] - cal[current] + cal[next],
+                    dayPro[d] - pro[current] + pro[next],
+                    dayCarb[d] - carb[current] + carb[next],
+                    dayFat[d] - fat[current] + fat[next])
+                    + slotCost(s, next) + adjacentCost(d, s, next);
+            // Retirer current puis ajouter next
+            double repeat = repeatDelta(current, -1);
+            uses[current]--;
+            repeat += repeatDelta(next, 1);
+            uses[current]++;
+            return after - before + repeat;
+        }
+
+        double totalCost() {
+            double total = 0;
+            for (int d = 0; d < days; d++) {
+                total += dayCost(dayCal[d], dayPro[d], dayCarb[d], dayFat[d]);
+                for (int s = 0; s < slots; s++) {
+                    int idx = assignment[d * slots + s];
+                    if (idx < 0) continue;
+                    total += slotCost(s, idx);
+                    // chaque paire adjacente n'est comptée qu'une fois (avec le jour précédent)
+                    if (d > 0 && assignment[(d - 1) * slots + s] == idx) total += W_ADJACENT;
+                }
+            }
+            for (int u : uses) {
+                if (u > 1) total += W_REPEAT * (u - 1) * (u - 1);
+            }
+            return total;
+        }
+
+        private double dayCost(double c, double p, double cb, double f) {
+            return W_CALORIES * sq((c - tCal) / tCal)
+                    + W_PROTEIN * sq((p - tPro) / tPro)
+                    + W_CARBS * sq((cb - tCarb) / tCarb)
+                    + W_FAT * sq((f - tFat) / tFat);
+        }
+
+        private double slotCost(int s, int idx) {
+            if (idx < 0) return 0;
+            double share = tCal * SLOT_SHARE[s];
+            return W_SLOT * sq((cal[idx] - share) / share);
+        }
+
+        /** Variation de la pénalité de répétition si l'on ajoute (+1) ou retire (-1) une utilisation. */
+        private double repeatDelta(int idx, int change) {
+            if (idx < 0) return 0;
+            int before = Math.max(0, uses[idx] - 1);
+            int after = Math.max(0, uses[idx] + change - 1);
+            return W_REPEAT * (after * after - before * before);
+        }
+
+        private double adjacentCost(int d, int s, int idx) {
+            if (idx < 0) return 0;
+            double cost = 0;
+            if (d > 0 && assignment[(d - 1) * slots + s] == idx) cost += W_ADJACENT;
+            if (d + 1 < days && assignment[(d + 1) * slots + s] == idx) cost += W_ADJACENT;
+            return cost;
+        }
+
+        private static double sq(double x) {
+            return x * x;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Targets {
+        private final double calories;
+        private final double protein;
+        private final double carbs;
+        private final double fat;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Options {
+        private final long timeBudgetNanos;
+        private final int maxIterations;
+        private final long seed;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        /** plan[jour][créneau], null si aucun candidat pour le créneau */
+        private final PlannerRecipe[][] plan;
+        private final double cost;
+        /** Écart calorique moyen par jour, relatif à la cible (0.05 = 5 %) */
+        private final double meanCalorieDeviation;
+        private final int iterations;
+        private final long elapsedNanos;
+    }
+}
@@ -0,0 +1,212 @@
+package com.nutriscan.service.planner;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutriscan.dto.response.GoalsResponse;
+import com.nutriscan.dto.response.RecipeResponse;
+import com.nutriscan.model.PlannedMeal;
+import com.nutriscan.model.Recipe;
+import com.nutriscan.model.RecipeIngredient;
+import com.nutriscan.repository.PlannedMealRepository;
+import com.nutriscan.service.RecipeCatalogService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Génère un plan de repas en quelques millisecondes à partir d'un pool de recettes déjà connues
+ * (repas planifiés de l'utilisateur, catalogue de recettes en cache, catalogue intégré), via {@link LocalMealPlanner}.
+ * Utilisé comme stratégie principale ("LOCAL") ou pour compléter un plan IA incomplet.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LocalMealPlannerService {
+
+    private final PlannedMealRepository plannedMealRepository;
+    private final RecipeCatalogService recipeCatalogService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${mealplan.local.pool-size:300}")
+    private int historyPoolSize;
+
+    @Value("${mealplan.local.catalog-pool-size:500}")
+    private int catalogPoolSize;
+
+    @Value("${mealplan.local.time-budget-ms:50}")
+    private long timeBudgetMs;
+
+    @Value("${mealplan.local.max-iterations:200000}")
+    private int maxIterations;
+
+    /**
+     * @return même format que GeminiAIService : date ISO -> (type de repas -> recette)
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Map<String, RecipeResponse>> planMeals(Long userId, LocalDate startDate, int days,
+                                                              int targetCalories, GoalsResponse goals,
+                                                              List<String> excludedIngredients) {
+        List<List<PlannerRecipe>> candidates = buildCandidatePool(userId, excludedIngredients);
+        LocalMealPlanner.Targets targets = buildTargets(targetCalories, goals);
+        LocalMealPlanner.Options options = new LocalMealPlanner.Options(
+                timeBudgetMs * 1_000_000L, maxIterations, userId * 31 + startDate.toEpochDay());
+
+        LocalMealPlanner.Result result = LocalMealPlanner.solve(candidates, days, targets, options);
+        log.info("🧮 Local planner: {} days, cost {}, mean calorie deviation {}%, {} iterations in {} ms",
+                days, String.format("%.4f", result.getCost()),
+                String.format("%.1f", result.getMeanCalorieDeviation() * 100),
+                result.getIterations(), result.getElapsedNanos() / 1_000_000);
+
+        Map<String, Map<String, RecipeResponse>> plan = new LinkedHashMap<>();
+        for (int d = 0; d < days; d++) {
+            Map<String, RecipeResponse> dayMeals = new HashMap<>();
+            for (int s = 0; s < LocalMealPlanner.SLOTS.length; s++) {
+                PlannerRecipe recipe = result.getPlan()[d][s];
+                if (recipe != null) {
+                    dayMeals.put(LocalMealPlanner.SLOTS[s], recipe.toRecipeResponse());
+                }
+            }
+            plan.put(startDate.plusDays(d).toString(), dayMeals);
+        }
+        return plan;
+    }
+
+    /**
+     * Cibles journalières : macros des objectifs utilisateur, mises à l'échelle si la requête
+     * impose un autre total calorique ; sinon répartition 20/50/30.
+     */
+    private LocalMealPlanner.Targets buildTargets(int targetCalories, GoalsResponse goals) {
+        if (goals != null && goals.getTargetCalories() != null && goals.getTargetCalories() > 0
+                && goals.getProteinGr() != null && goals.getCarbsGr() != null && goals.getFatGr() != null) {
+            double scale = targetCalories / goals.getTargetCalories();
+            return new LocalMealPlanner.Targets(targetCalories,
+                    goals.getProteinGr() * scale, goals.getCarbsGr() * scale, goals.getFatGr() * scale);
+        }
+        return new LocalMealPlanner.Targets(targetCalories,
+                targetCalories * 0.20 / 4, targetCalories * 0.50 / 4, targetCalories * 0.30 / 9);
+    }
+
+    /**
+     * Pool de candidats par créneau : historique de l'utilisateur (dédoublonné par nom), recettes du catalogue
+     * dont le type de repas est connu, puis catalogue intégré,
+     * en excluant toute recette qui mentionne un ingrédient exclu.
+     */
+    private List<List<PlannerRecipe>> buildCandidatePool(Long userId, List<String> excludedIngredients) {
+        List<String> excluded = excludedIngredients == null ? List.of() : excludedIngredients.stream()
+                .filter(Objects::nonNull)
+                .map(LocalMealPlannerService::normalize)
+                .filter(s -> !s.isBlank())
+                .toList();
+
+        Map<String, List<PlannerRecipe>> bySlot = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+
+        for (PlannedMeal meal : plannedMealRepository.findRecentByUserId(userId, PageRequest.of(0, historyPoolSize))) {
+            PlannerRecipe recipe = fromPlannedMeal(meal);
+            addCandidate(recipe, excluded, seen, bySlot);
+        }
+        for (Recipe recipe : recipeCatalogService.findRecentPlannableRecipes(catalogPoolSize)) {
+            addCandidate(fromCatalogRecipe(recipe), excluded, seen, bySlot);
+        }
+        for (PlannerRecipe recipe : DefaultRecipeCatalog.all()) {
+            addCandidate(recipe, excluded, seen, bySlot);
+        }
+
+        List<List<PlannerRecipe>> candidates = new ArrayList<>();
+        for (String slot : LocalMealPlanner.SLOTS) {
+            candidates.add(bySlot.getOrDefault(slot, List.of()));
+        }
+        return candidates;
+    }
+
+    private void addCandidate(PlannerRecipe recipe, List<String> excluded, Set<String> seen,
+                              Map<String, List<PlannerRecipe>> bySlot) {
+        if (recipe == null || recipe.getMealType() == null || recipe.getCalories() <= 0) return;
+        String key = recipe.getMealType() + "|" + normalize(recipe.getLabel());
+        if (!seen.add(key)) return;
+        if (isExcluded(recipe, excluded)) return;
+        bySlot.computeIfAbsent(recipe.getMealType(), k -> new ArrayList<>()).add(recipe);
+    }
+
+    private boolean isExcluded(PlannerRecipe recipe, List<String> excluded) {
+        if (excluded.isEmpty()) return false;
+        StringBuilder text = new StringBuilder(normalize(recipe.getLabel()));
+        if (recipe.getIngredientLines() != null) {
+            for (String line : recipe.getIngredientLines()) {
+                text.append(' ').append(normalize(line));
+            }
+        }
+        String haystack = text.toString();
+        for (String term : excluded) {
+            if (haystack.contains(term)) return true;
+        }
+        return false;
+    }
+
+    private PlannerRecipe fromPlannedMeal(PlannedMeal meal) {
+        if (meal.getRecipeName() == null || meal.getCalories() == null) return null;
+
+        List<String> ingredients = List.of();
+        if (meal.getIngredients() != null) {
+            try {
+                ingredients = objectMapper.readValue(meal.getIngredients(), new TypeReference<>() {});
+            } catch (Exception e) {
+                log.debug("Unreadable ingredients for planned meal {}", meal.getId());
+            }
+        }
+
+        double calories = meal.getCalories();
+        return PlannerRecipe.builder()
+                .label(meal.getRecipeName())
+                .mealType(meal.getMealType() != null ? meal.getMealType().toUpperCase() : null)
+                .calories(calories)
+                .protein(meal.getProtein() != null ? meal.getProtein() : calories * 0.20 / 4)
+                .carbs(meal.getCarbs() != null ? meal.getCarbs() : calories * 0.50 / 4)
+                .fat(meal.getFat() != null ? meal.getFat() : calories * 0.30 / 9)
+                .ingredientLines(ingredients)
+                .uri(meal.getRecipeUri())
+                .image(meal.getRecipeImage())
+                .url(meal.getRecipeUrl())
+                .source("NutriScan")
+                .build();
+    }
+
+    /**
+     * Les recettes Edamam donnent les valeurs pour la recette entière : on ramène à une portion.
+     */
+    private PlannerRecipe fromCatalogRecipe(Recipe recipe) {
+        if (recipe.getCalories() == null) return null;
+        boolean wholeRecipe = recipe.getUri().startsWith(RecipeCatalogService.EDAMAM_RECIPE_URI_PREFIX);
+        double portions = wholeRecipe && recipe.getServings() != null && recipe.getServings() > 1
+                ? recipe.getServings() : 1.0;
+        double calories = recipe.getCalories() / portions;
+
+        return PlannerRecipe.builder()
+                .label(recipe.getLabel())
+                .mealType(recipe.getMealType())
+                .calories(calories)
+                .protein(recipe.getProtein() != null ? recipe.getProtein() / portions : calories * 0.20 / 4)
+                .carbs(recipe.getCarbs() != null ? recipe.getCarbs() / portions : calories * 0.50 / 4)
+                .fat(recipe.getFat() != null ? recipe.getFat() / portions : calories * 0.30 / 9)
+                .ingredientLines(recipe.getIngredients().stream().map(RecipeIngredient::getText).toList())
+                .uri(recipe.getUri())
+                .image(recipe.getImage())
+                .url(recipe.getUrl())
+                .source(recipe.getSource())
+                .build();
+    }
+
+    static String normalize(String value) {
+        if (value == null) return "";
+        String stripped = Normalizer.normalize(value.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+        return stripped.replace("œ", "oe").trim();
+    }
+}
@@ -0,0 +1,48 @@
+package com.nutriscan.service.planner;
+
+import com.nutriscan.dto.response.RecipeResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Recette candidate pour le planificateur local : valeurs nutritionnelles pour UNE portion.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class PlannerRecipe {
+
+    private final String label;
+    private final String mealType; // BREAKFAST, LUNCH, DINNER, SNACK
+    private final double calories;
+    private final double protein;
+    private final double carbs;
+    private final double fat;
+    private final List<String> ingredientLines;
+    private final String uri;
+    private final String image;
+    private final String url;
+    private final String source;
+
+    public RecipeResponse toRecipeResponse() {
+        return RecipeResponse.builder()
+                .uri(uri)
+                .label(label)
+                .image(image)
+                .url(url)
+                .source(source)
+                .servings(1)
+                .calories(calories)
+                .ingredientLines(ingredientLines)
+                .nutrition(RecipeResponse.NutritionInfo.builder()
+                        .calories(calories)
+                        .protein(protein)
+                        .carbs(carbs)
+                        .fat(fat)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.nutriscan.service.upstream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.nutriscan.dto.response.FoodInfoResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.nutriscan.util.JsonStreams.*;
+
+/**
+ * Réponse du parser de l'Edamam Food Database lue en flux : pour chaque hint, seuls food.label, food.image
+ * et les nutriments ENERC_KCAL / PROCNT / CHOCDF / FAT sont lus. "parsed", "measures" et "_links" sont sautés,
+ * comme les hints au-delà de maxResults.
+ */
+@Slf4j
+public final class EdamamFoodDecoder {
+
+    private EdamamFoodDecoder() {
+    }
+
+    /**
+     * @return les aliments trouvés, liste vide si la réponse porte "error" ou "message"
+     */
+    public static List<FoodInfoResponse> decode(InputStream in, int maxResults) throws IOException {
+        List<FoodInfoResponse> results = new ArrayList<>();
+        boolean error = false;
+
+        try (JsonParser p = parser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return results;
+            while (nextField(p)) {
+                switch (p.currentName()) {
+                    case "error", "message" -> {
+                        log.error("API Error: {}", readText(p));
+                        error = true;
+                    }
+                    case "hints" -> readHints(p, results, maxResults);
+                    default -> p.skipChildren();
+                }
+            }
+        }
+        return error ? new ArrayList<>() : results;
+    }
+
+    private static void readHints(JsonParser p, List<FoodInfoResponse> results, int maxResults) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return;
+        }
+        while (nextElement(p)) {
+            if (results.size() >= maxResults || p.currentToken() != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            FoodInfoResponse food = readHint(p);
+            if (food != null && food.getName() != null) {
+                results.add(food);
+            }
+        }
+    }
+
+    private static FoodInfoResponse readHint(JsonParser p) throws IOException {
+        FoodInfoResponse food = null;
+        while (nextField(p)) {
+            if ("food".equals(p.currentName()) && p.currentToken() == JsonToken.START_OBJECT) {
+                food = readFood(p);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return food;
+    }
+
+    private static FoodInfoResponse readFood(JsonParser p) throws IOException {
+        FoodInfoResponse.FoodInfoResponseBuilder food = FoodInfoResponse.builder()
+                .nutriScore(null)
+                .source("EDAMAM_NATURAL_FOODS");
+
+        while (nextField(p)) {
+            switch (p.currentName()) {
+                case "label" -> food.name(readText(p));
+                case "image" -> food.imageUrl(readText(p));
+                case "nutrients" -> readNutrients(p, food);
+                default -> p.skipChildren();
+            }
+        }
+        return food.build();
+    }
+
+    private static void readNutrients(JsonParser p, FoodInfoResponse.FoodInfoResponseBuilder food) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return;
+        }
+        // Edamam uses ENERC_KCAL for calories, PROCNT for protein, CHOCDF for carbs, FAT for fat
+        while (nextField(p)) {
+            switch (p.currentName()) {
+                case "ENERC_KCAL" -> food.calories(readDouble(p));
+                case "PROCNT" -> food.protein(readDouble(p));
+                case "CHOCDF" -> food.carbs(readDouble(p));
+                case "FAT" -> food.fat(readDouble(p));
+                default -> p.skipChildren();
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.nutriscan.service.upstream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.nutriscan.dto.response.RecipeResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.nutriscan.util.JsonStreams.*;
+
+/**
+ * Réponse de l'Edamam Recipe Search lue en flux. Une réponse de 20 recettes pèse plusieurs centaines de Ko,
+ * surtout à cause de "digest", "totalDaily", "ingredients" et "images" : ces blocs sont sautés sans être matérialisés,
+ * seuls les champs de {@link RecipeResponse} et les quantités de totalNutrients sont lus.
+ */
+@Slf4j
+public final class EdamamRecipeDecoder {
+
+    private EdamamRecipeDecoder() {
+    }
+
+    public static List<RecipeResponse> decode(InputStream in) throws IOException {
+        List<RecipeResponse> recipes = new ArrayList<>();
+        try (JsonParser p = parser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return recipes;
+            boolean hasHits = false;
+            while (nextField(p)) {
+                if ("hits".equals(p.currentName())) {
+                    hasHits = true;
+                    readHits(p, recipes);
+                } else {
+                    p.skipChildren();
+                }
+            }
+            if (!hasHits) {
+                log.warn("No 'hits' field in recipe response");
+            }
+        }
+        return recipes;
+    }
+
+    private static void readHits(JsonParser p, List<RecipeResponse> recipes) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return;
+        }
+        while (nextElement(p)) {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            RecipeResponse recipe = null;
+            while (nextField(p)) {
+                if ("recipe".equals(p.currentName()) && p.currentToken() == JsonToken.START_OBJECT) {
+                    recipe = readRecipe(p);
+                } else {
+                    p.skipChildren();
+                }
+            }
+            if (recipe != null) {
+                recipes.add(recipe);
+            } else {
+                log.warn("Hit does not contain 'recipe' field");
+            }
+        }
+    }
+
+    private static RecipeResponse readRecipe(JsonParser p) throws IOException {
+        RecipeResponse.RecipeResponseBuilder recipe = RecipeResponse.builder()
+                .dietLabels(new ArrayList<>())
+                .healthLabels(new ArrayList<>())
+                .ingredientLines(new ArrayList<>());
+
+        while (nextField(p)) {
+            switch (p.currentName()) {
+                case "uri" -> recipe.uri(readText(p));
+                case "label" -> recipe.label(readText(p));
+                case "image" -> recipe.image(readText(p));
+                case "source" -> recipe.source(readText(p));
+                case "url" -> recipe.url(readText(p));
+                case "yield" -> recipe.servings(readInt(p));
+                case "calories" -> recipe.calories(readDouble(p));
+                case "totalTime" -> recipe.totalTime(readDouble(p));
+                case "dietLabels" -> recipe.dietLabels(readStringList(p));
+                case "healthLabels" -> recipe.healthLabels(readStringList(p));
+                case "ingredientLines" -> recipe.ingredientLines(readStringList(p));
+                case "totalNutrients" -> recipe.nutrition(readNutrition(p));
+                default -> p.skipChildren();
+            }
+        }
+        return recipe.build();
+    }
+
+    private static RecipeResponse.NutritionInfo readNutrition(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        RecipeResponse.NutritionInfo.NutritionInfoBuilder nutrition = RecipeResponse.NutritionInfo.builder();
+        while (nextField(p)) {
+            String code = p.currentName();
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            Double quantity = null;
+            while (nextField(p)) {
+                if ("quantity".equals(p.currentName())) {
+                    quantity = readDouble(p);
+                } else {
+                    p.skipChildren();
+                }
+            }
+            if (quantity != null) {
+                applyNutrient(nutrition, code, quantity);
+            }
+        }
+        return nutrition.build();
+    }
+
+    private static void applyNutrient(RecipeResponse.NutritionInfo.NutritionInfoBuilder n, String code, Double quantity) {
+        switch (code) {
+            // Macronutriments
+            case "ENERC_KCAL" -> n.calories(quantity);
+            case "PROCNT" -> n.protein(quantity);
+            case "FAT" -> n.fat(quantity);
+            case "CHOCDF" -> n.carbs(quantity);
+            case "FIBTG" -> n.fiber(quantity);
+            case "SUGAR" -> n.sugar(quantity);
+            case "FASAT" -> n.saturatedFat(quantity);
+            case "FAMS" -> n.monounsaturatedFat(quantity);
+            case "FAPU" -> n.polyunsaturatedFat(quantity);
+            case "FATRN" -> n.transFat(quantity);
+            case "CHOLE" -> n.cholesterol(quantity);
+            case "NA" -> n.sodium(quantity);
+            // Vitamines
+            case "VITA_RAE" -> n.vitaminA(quantity);
+            case "VITC" -> n.vitaminC(quantity);
+            case "VITD" -> n.vitaminD(quantity);
+            case "TOCPHA" -> n.vitaminE(quantity);
+            case "VITK1" -> n.vitaminK(quantity);
+            case "VITB6A" -> n.vitaminB6(quantity);
+            case "VITB12" -> n.vitaminB12(quantity);
+            case "FOLDFE" -> n.folate(quantity);
+            case "NIA" -> n.niacin(quantity);
+            case "RIBF" -> n.riboflavin(quantity);
+            case "THIA" -> n.thiamin(quantity);
+            // Minéraux
+            case "CA" -> n.calcium(quantity);
+            case "FE" -> n.iron(quantity);
+            case "MG" -> n.magnesium(quantity);
+            case "P" -> n.phosphorus(quantity);
+            case "K" -> n.potassium(quantity);
+            case "ZN" -> n.zinc(quantity);
+            case "SE" -> n.selenium(quantity);
+            // Autres
+            case "WATER" -> n.water(quantity);
+            default -> {
+            }
+        }
+    }
+}
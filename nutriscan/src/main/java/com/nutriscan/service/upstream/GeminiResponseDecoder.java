@@ -0,0 +1,83 @@
+package com.nutriscan.service.upstream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.nutriscan.util.JsonStreams.*;
+
+/**
+ * Réponse generateContent de Gemini lue en flux : seul candidates[0].content.parts[0].text est lu,
+ * usageMetadata, safetyRatings et les candidats suivants sont sautés.
+ */
+public final class GeminiResponseDecoder {
+
+    private GeminiResponseDecoder() {
+    }
+
+    /**
+     * @return le texte du premier candidat, null s'il n'y en a pas
+     */
+    public static String decodeText(InputStream in) throws IOException {
+        String text = null;
+        try (JsonParser p = parser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return null;
+            while (nextField(p)) {
+                if ("candidates".equals(p.currentName()) && p.currentToken() == JsonToken.START_ARRAY) {
+                    text = readFirstCandidate(p);
+                } else {
+                    p.skipChildren();
+                }
+            }
+        }
+        return text;
+    }
+
+    private static String readFirstCandidate(JsonParser p) throws IOException {
+        String text = null;
+        boolean first = true;
+        while (nextElement(p)) {
+            if (first && p.currentToken() == JsonToken.START_OBJECT) {
+                while (nextField(p)) {
+                    if ("content".equals(p.currentName()) && p.currentToken() == JsonToken.START_OBJECT) {
+                        text = readContent(p);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } else {
+                p.skipChildren();
+            }
+            first = false;
+        }
+        return text;
+    }
+
+    private static String readContent(JsonParser p) throws IOException {
+        String text = null;
+        while (nextField(p)) {
+            if ("parts".equals(p.currentName()) && p.currentToken() == JsonToken.START_ARRAY) {
+                boolean first = true;
+                while (nextElement(p)) {
+                    if (first && p.currentToken() == JsonToken.START_OBJECT) {
+                        while (nextField(p)) {
+                            if ("text".equals(p.currentName())) {
+                                text = readText(p);
+                            } else {
+                                p.skipChildren();
+                            }
+                        }
+                    } else {
+                        p.skipChildren();
+                    }
+                    first = false;
+                }
+            } else {
+                p.skipChildren();
+            }
+        }
+        return text;
+    }
+}
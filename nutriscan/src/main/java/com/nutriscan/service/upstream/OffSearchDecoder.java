@@ -0,0 +1,123 @@
+package com.nutriscan.service.upstream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.nutriscan.dto.response.OffProductResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.nutriscan.util.JsonStreams.*;
+
+/**
+ * Réponse de l'endpoint search.pl d'OpenFoodFacts, lue en flux : seuls code, product_name, brands, image_url,
+ * nutrition_grade(s), nutriments (valeurs scalaires) et les *_value de repli sont lus, le reste des produits est sauté.
+ */
+@Slf4j
+public final class OffSearchDecoder {
+
+    private OffSearchDecoder() {
+    }
+
+    public static List<OffProductResponse> decode(InputStream in) throws IOException {
+        List<OffProductResponse> results = new ArrayList<>();
+        boolean error = false;
+
+        try (JsonParser p = parser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return results;
+            while (nextField(p)) {
+                switch (p.currentName()) {
+                    case "error" -> {
+                        log.error("API Error: {}", readText(p));
+                        error = true;
+                    }
+                    case "products" -> readProducts(p, results);
+                    default -> p.skipChildren();
+                }
+            }
+        }
+        // Même comportement que l'ancienne lecture en Map : une réponse portant "error" ne donne aucun produit
+        return error ? new ArrayList<>() : results;
+    }
+
+    private static void readProducts(JsonParser p, List<OffProductResponse> results) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return;
+        }
+        while (nextElement(p)) {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                p.skipChildren();
+                continue;
+            }
+            results.add(readProduct(p));
+        }
+    }
+
+    private static OffProductResponse readProduct(JsonParser p) throws IOException {
+        OffProductResponse response = new OffProductResponse();
+        response.setStatus(1); // 1 = found
+        OffProductResponse.OffProduct product = new OffProductResponse.OffProduct();
+
+        String nutritionGrade = null;
+        Map<String, Object> basicNutrients = null;
+
+        while (nextField(p)) {
+            String field = p.currentName();
+            switch (field) {
+                case "code" -> response.setCode(readText(p));
+                case "product_name" -> product.setProductName(readText(p));
+                case "brands" -> product.setBrands(readText(p));
+                case "image_url" -> product.setImageUrl(readText(p));
+                case "nutrition_grades" -> product.setNutritionGrades(readText(p));
+                case "nutrition_grade" -> nutritionGrade = readText(p);
+                case "nutriments" -> product.setNutriments(readNutriments(p));
+                case "energy_value", "carbohydrates_value", "proteins_value", "fat_value" -> {
+                    Object value = readScalar(p);
+                    if (value != null) {
+                        if (basicNutrients == null) basicNutrients = new HashMap<>();
+                        basicNutrients.put(basicNutrientKey(field), value);
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+
+        if (product.getNutritionGrades() == null) {
+            product.setNutritionGrades(nutritionGrade);
+        }
+        if (product.getNutriments() == null && basicNutrients != null) {
+            product.setNutriments(basicNutrients);
+        }
+        response.setProduct(product);
+        return response;
+    }
+
+    private static Map<String, Object> readNutriments(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return null;
+        }
+        Map<String, Object> nutriments = new HashMap<>();
+        while (nextField(p)) {
+            String key = p.currentName();
+            Object value = readScalar(p);
+            if (value != null) nutriments.put(key, value);
+        }
+        return nutriments;
+    }
+
+    private static String basicNutrientKey(String field) {
+        return switch (field) {
+            case "energy_value" -> "energy";
+            case "carbohydrates_value" -> "carbs";
+            case "proteins_value" -> "protein";
+            default -> "fat";
+        };
+    }
+}
@@ -0,0 +1,154 @@
+package com.nutriscan.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Automate Aho-Corasick compilé en table de transitions (DFA) : recherche simultanée de tous les
+ * mots-clés en un seul passage sur le texte, une lecture de tableau par caractère.
+ *
+ * Les motifs sont comparés tels quels : l'appelant replie le texte et les motifs de la même façon
+ * (voir {@link TextFolding}).
+ */
+public final class AhoCorasick<V> {
+
+    private final short[] charClass;        // caractère -> classe (0 = hors alphabet)
+    private final int classCount;
+    private final int[] delta;              // état * classCount + classe -> état suivant
+    private final List<List<V>> outputs;    // valeurs reconnues en arrivant dans l'état (suffixes inclus)
+
+    private AhoCorasick(short[] charClass, int classCount, int[] delta, List<List<V>> outputs) {
+        this.charClass = charClass;
+        this.classCount = classCount;
+        this.delta = delta;
+        this.outputs = outputs;
+    }
+
+    public static <V> AhoCorasick<V> build(Map<String, V> patterns) {
+        // 1. Alphabet compact
+        short[] charClass = new short[Character.MAX_VALUE + 1];
+        int classCount = 1;
+        for (String pattern : patterns.keySet()) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (charClass[c] == 0) {
+                    if (classCount == Short.MAX_VALUE) {
+                        throw new IllegalArgumentException("Alphabet too large for keyword automaton");
+                    }
+                    charClass[c] = (short) classCount++;
+                }
+            }
+        }
+
+        // 2. Trie
+        List<Map<Integer, Integer>> trie = new ArrayList<>();
+        List<List<V>> outputs = new ArrayList<>();
+        trie.add(new HashMap<>());
+        outputs.add(new ArrayList<>());
+        for (Map.Entry<String, V> entry : patterns.entrySet()) {
+            String pattern = entry.getKey();
+            if (pattern.isEmpty()) continue;
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int cls = charClass[pattern.charAt(i)];
+                Integer next = trie.get(state).get(cls);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new HashMap<>());
+                    outputs.add(new ArrayList<>());
+                    trie.get(state).put(cls, next);
+                }
+                state = next;
+            }
+            outputs.get(state).add(entry.getValue());
+        }
+
+        // 3. Liens d'échec (BFS) et table de transitions complète
+        int states = trie.size();
+        int[] delta = new int[states * classCount];
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+        for (int cls = 1; cls < classCount; cls++) {
+            Integer next = trie.get(0).get(cls);
+            if (next != null) {
+                delta[cls] = next;
+                fail[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            // Les sorties du lien d'échec (suffixes) sont héritées
+            if (!outputs.get(fail[state]).isEmpty()) {
+                outputs.get(state).addAll(outputs.get(fail[state]));
+            }
+            for (int cls = 1; cls < classCount; cls++) {
+                Integer next = trie.get(state).get(cls);
+                if (next != null) {
+                    fail[next] = delta[fail[state] * classCount + cls];
+                    delta[state * classCount + cls] = next;
+                    queue.add(next);
+                } else {
+                    delta[state * classCount + cls] = delta[fail[state] * classCount + cls];
+                }
+            }
+        }
+
+        List<List<V>> frozen = new ArrayList<>(states);
+        for (List<V> out : outputs) {
+            frozen.add(out.isEmpty() ? Collections.emptyList() : List.copyOf(out));
+        }
+        return new AhoCorasick<>(charClass, classCount, delta, frozen);
+    }
+
+    public int initialState() {
+        return 0;
+    }
+
+    public int stateCount() {
+        return outputs.size();
+    }
+
+    /**
+     * Transition : état courant + caractère -> état suivant.
+     */
+    public int step(int state, char c) {
+        int cls = charClass[c];
+        return cls == 0 ? 0 : delta[state * classCount + cls];
+    }
+
+    /**
+     * Valeurs des motifs se terminant dans cet état (liste vide si aucun).
+     */
+    public List<V> outputs(int state) {
+        return outputs.get(state);
+    }
+
+    /**
+     * Parcourt {@code text} et signale chaque motif reconnu ; le parcours s'arrête si le handler renvoie false.
+     */
+    public void forEachMatch(CharSequence text, MatchHandler<V> handler) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i));
+            List<V> out = outputs.get(state);
+            for (int k = 0; k < out.size(); k++) {
+                if (!handler.onMatch(out.get(k), i)) return;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface MatchHandler<V> {
+        /**
+         * @param endIndex index (inclus) du dernier caractère du motif dans le texte
+         * @return false pour arrêter le parcours
+         */
+        boolean onMatch(V value, int endIndex);
+    }
+}
@@ -0,0 +1,152 @@
+package com.nutriscan.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agrège des lignes d'ingrédients en quantités fusionnées pour une liste de courses.
+ *
+ * Les lignes sont regroupées par nom canonique ({@link #canonicalName(String)}) puis par dimension :
+ * "200 g poulet" + "0,5 kg de poulet" -> 700 g ; "2 cups milk" + "500 ml milk" -> 980 ml.
+ * Quand la masse volumique de l'ingrédient est connue, les volumes sont convertis en masse
+ * s'il apparaît aussi en masse. Les unités de comptage (gousse, boîte, ...) ne fusionnent qu'entre elles.
+ */
+public final class IngredientAggregator {
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public void add(String ingredientLine) {
+        add(IngredientLineParser.parse(ingredientLine));
+    }
+
+    public void add(IngredientLineParser.ParsedIngredient parsed) {
+        if (parsed.getName().isEmpty()) return;
+
+        String canonical = canonicalName(parsed.getName());
+        if (canonical.isEmpty()) return;
+
+        UnitConverter.Dimension dimension = UnitConverter.dimensionOf(parsed.getUnit());
+        // Les unités de comptage ne se convertissent pas entre elles : elles font partie de la clé
+        String key = dimension == UnitConverter.Dimension.COUNT
+                ? canonical + '|' + parsed.getUnit()
+                : canonical + '|' + dimension;
+
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(parsed.getName(), canonical, dimension, parsed.getUnit());
+            entries.put(key, entry);
+        }
+        entry.add(UnitConverter.toBase(parsed.getQuantity(), parsed.getUnit()), parsed.getUnit());
+    }
+
+    /**
+     * Résultat fusionné, dans l'ordre de première apparition.
+     */
+    public List<AggregatedIngredient> result() {
+        mergeVolumesIntoMass();
+
+        List<AggregatedIngredient> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            if (entry.merged) continue;
+            result.add(entry.toAggregated());
+        }
+        return result;
+    }
+
+    /**
+     * Volume -> masse via la masse volumique, seulement si l'ingrédient existe aussi en masse.
+     */
+    private void mergeVolumesIntoMass() {
+        for (Entry volume : entries.values()) {
+            if (volume.dimension != UnitConverter.Dimension.VOLUME || volume.merged) continue;
+            Entry mass = entries.get(volume.canonicalName + '|' + UnitConverter.Dimension.MASS);
+            if (mass == null) continue;
+
+            double density = UnitConverter.densityOf(volume.canonicalName);
+            if (Double.isNaN(density)) continue;
+
+            mass.add(volume.baseQuantity * density, "g");
+            volume.merged = true;
+        }
+    }
+
+    /**
+     * Nom canonique : replié (minuscules, sans accents), ponctuation -> espace, mots au singulier.
+     * "Pommes de terre" -> "pomme de terre", "tomatoes" -> "tomato", "huile d'olive" -> "huile d olive".
+     */
+    public static String canonicalName(String name) {
+        String folded = TextFolding.fold(name);
+        StringBuilder out = new StringBuilder(folded.length());
+        int i = 0;
+        while (i < folded.length()) {
+            while (i < folded.length() && !Character.isLetterOrDigit(folded.charAt(i))) i++;
+            int start = i;
+            while (i < folded.length() && Character.isLetterOrDigit(folded.charAt(i))) i++;
+            if (i > start) {
+                if (!out.isEmpty()) out.append(' ');
+                appendSingular(out, folded, start, i);
+            }
+        }
+        return out.toString();
+    }
+
+    private static void appendSingular(StringBuilder out, String s, int start, int end) {
+        int length = end - start;
+        if (length > 4 && s.startsWith("ies", end - 3)) {
+            out.append(s, start, end - 3).append('y');        // berries -> berry
+        } else if (length > 4 && s.startsWith("oes", end - 3)) {
+            out.append(s, start, end - 2);                    // tomatoes -> tomato
+        } else if (length > 3 && (s.charAt(end - 1) == 's' || s.charAt(end - 1) == 'x')
+                && s.charAt(end - 2) != 's') {
+            out.append(s, start, end - 1);                    // pommes -> pomme, choux -> chou
+        } else {
+            out.append(s, start, end);
+        }
+    }
+
+    private static final class Entry {
+        final String displayName;
+        final String canonicalName;
+        final UnitConverter.Dimension dimension;
+        String sourceUnit;          // unité commune à toutes les lignes, null si plusieurs
+        double baseQuantity;
+        boolean merged;
+
+        Entry(String displayName, String canonicalName, UnitConverter.Dimension dimension, String unit) {
+            this.displayName = displayName;
+            this.canonicalName = canonicalName;
+            this.dimension = dimension;
+            this.sourceUnit = unit;
+        }
+
+        void add(double base, String unit) {
+            baseQuantity += base;
+            if (sourceUnit != null && !sourceUnit.equals(unit)) sourceUnit = null;
+        }
+
+        AggregatedIngredient toAggregated() {
+            // Une seule unité d'origine : on la garde ("3 tbsp" plutôt que "45 ml")
+            String unit = sourceUnit != null ? sourceUnit : UnitConverter.displayUnit(dimension, baseQuantity);
+            double quantity = UnitConverter.fromBase(baseQuantity, unit);
+            return new AggregatedIngredient(displayName, round(quantity), unit, dimension);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class AggregatedIngredient {
+        private final String name;
+        private final double quantity;
+        private final String unit;
+        private final UnitConverter.Dimension dimension;
+    }
+}
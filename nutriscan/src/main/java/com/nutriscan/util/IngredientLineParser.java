@@ -0,0 +1,388 @@
+package com.nutriscan.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Découpe une ligne d'ingrédient ("2 1/2 cuillères à soupe d'huile d'olive, bio") en quantité, unité et nom,
+ * en un seul passage et sans regex.
+ *
+ * Gère les décimales ("1,5" / "1.5"), fractions ("1/2", "½", "1 ½"), intervalles ("2-3", "2 à 3" : borne haute),
+ * unités collées ("500g"), unités françaises sur plusieurs mots ("cuillère à soupe", "c.s."),
+ * liaisons (de, d', of) et mots vides (fresh, bio, haché...). Le nom s'arrête à la première virgule ou parenthèse.
+ */
+public final class IngredientLineParser {
+
+    public static final String DEFAULT_UNIT = "item";
+
+    /** Unité (repliée, sans ponctuation, au singulier) -> unité canonique */
+    private static final Map<String, String> UNITS = new HashMap<>();
+    private static final int MAX_UNIT_WORDS = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "fresh", "organic", "chopped", "diced", "sliced", "raw", "minced", "large", "small", "medium",
+            "frais", "fraiche", "fraiches", "bio", "hache", "hachee", "haches", "hachees", "emince", "emincee",
+            "eminces", "emincees", "coupe", "coupee", "coupes", "coupees", "cru", "crue", "crus", "crues");
+
+    private static final Set<String> CONNECTORS = Set.of("de", "d", "du", "des", "of");
+
+    static {
+        unit("g", "g", "gr", "gramme", "gram");
+        unit("kg", "kg", "kilo", "kilogramme", "kilogram");
+        unit("mg", "mg", "milligramme", "milligram");
+        unit("ml", "ml", "millilitre", "milliliter");
+        unit("cl", "cl", "centilitre");
+        unit("dl", "dl", "decilitre");
+        unit("l", "l", "litre", "liter");
+        unit("oz", "oz", "ounce");
+        unit("lb", "lb", "pound", "livre");
+        unit("cup", "cup", "tasse");
+        unit("tbsp", "tbsp", "tablespoon", "cs", "cas", "cuillere a soupe", "cuilleres a soupe",
+                "c a soupe", "cuil a soupe");
+        unit("tsp", "tsp", "teaspoon", "cc", "cac", "cuillere a cafe", "cuilleres a cafe",
+                "c a cafe", "cuil a cafe");
+        unit("glass", "glass", "verre");
+        unit("pinch", "pinch", "pincee");
+        unit("clove", "clove", "gousse");
+        unit("slice", "slice", "tranche");
+        unit("can", "can", "boite", "conserve");
+        unit("packet", "packet", "sachet");
+        unit("bunch", "bunch", "botte", "bouquet");
+        unit("piece", "piece", "morceau");
+    }
+
+    private IngredientLineParser() {
+    }
+
+    private static void unit(String canonical, String... aliases) {
+        for (String alias : aliases) {
+            UNITS.put(alias, canonical);
+        }
+    }
+
+    public static ParsedIngredient parse(String line) {
+        if (line == null) return new ParsedIngredient(1.0, DEFAULT_UNIT, "");
+        Cursor cursor = new Cursor(line);
+
+        // 1. Quantité (éventuellement intervalle : on garde la borne haute)
+        cursor.skipSpaces();
+        double quantity = cursor.readQuantity();
+        boolean hasQuantity = !Double.isNaN(quantity);
+        if (hasQuantity) {
+            int mark = cursor.pos;
+            cursor.skipSpaces();
+            if (cursor.consumeRangeSeparator()) {
+                cursor.skipSpaces();
+                double upper = cursor.readQuantity();
+                if (!Double.isNaN(upper)) {
+                    quantity = Math.max(quantity, upper);
+                } else {
+                    cursor.pos = mark;
+                }
+            } else {
+                cursor.pos = mark;
+            }
+        }
+
+        // 2. Unité (collée "500g" ou mot(s) suivant(s)), seulement après une quantité
+        String unit = null;
+        if (hasQuantity) {
+            cursor.skipSpaces();
+            unit = cursor.readUnit();
+        }
+
+        // 3. Nom : liaisons en tête et mots vides retirés, coupé à la première virgule/parenthèse
+        String name = cursor.readName();
+
+        return new ParsedIngredient(
+                hasQuantity && quantity > 0 ? quantity : 1.0,
+                unit != null ? unit : DEFAULT_UNIT,
+                name);
+    }
+
+    /**
+     * Position de lecture sur la ligne ; les mots sont lus sans sous-chaînes intermédiaires.
+     */
+    private static final class Cursor {
+        final String s;
+        final int end;
+        int pos;
+
+        Cursor(String s) {
+            this.s = s;
+            int stop = s.length();
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == ',' && !(i > 0 && isDigit(s.charAt(i - 1)) && i + 1 < s.length() && isDigit(s.charAt(i + 1)))
+                        || c == '(' || c == ';') {
+                    stop = i;
+                    break;
+                }
+            }
+            this.end = stop;
+        }
+
+        void skipSpaces() {
+            while (pos < end && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+
+        /**
+         * Nombre entier/décimal, fraction "a/b", fraction unicode, ou nombre mixte "1 1/2" / "1½".
+         *
+         * @return NaN si aucune quantité à cette position
+         */
+        double readQuantity() {
+            double value = readSimpleNumber();
+            if (Double.isNaN(value)) return value;
+
+            // Nombre mixte : "1 1/2" ou "1 ½"
+            int mark = pos;
+            skipSpaces();
+            if (pos < end && unicodeFraction(s.charAt(pos)) > 0) {
+                value += unicodeFraction(s.charAt(pos++));
+            } else if (pos > mark && pos < end && isDigit(s.charAt(pos))) {
+                double next = readNumberOrFraction(true);
+                if (!Double.isNaN(next) && next < 1) {
+                    value += next;
+                } else {
+                    pos = mark;
+                }
+            } else {
+                pos = mark;
+            }
+            return value;
+        }
+
+        private double readSimpleNumber() {
+            if (pos >= end) return Double.NaN;
+            char c = s.charAt(pos);
+            double fraction = unicodeFraction(c);
+            if (fraction > 0) {
+                pos++;
+                return fraction;
+            }
+            return readNumberOrFraction(false);
+        }
+
+        /**
+         * @param fractionOnly n'accepte que "a/b" (partie fractionnaire d'un nombre mixte)
+         */
+        private double readNumberOrFraction(boolean fractionOnly) {
+            int start = pos;
+            double numerator = readDecimal();
+            if (Double.isNaN(numerator)) return numerator;
+
+            if (pos + 1 < end && (s.charAt(pos) == '/' || s.charAt(pos) == '⁄') && isDigit(s.charAt(pos + 1))) {
+                pos++;
+                double denominator = readDecimal();
+                return denominator > 0 ? numerator / denominator : Double.NaN;
+            }
+            if (fractionOnly) {
+                pos = start;
+                return Double.NaN;
+            }
+            // "1½"
+            if (pos < end && unicodeFraction(s.charAt(pos)) > 0) {
+                numerator += unicodeFraction(s.charAt(pos++));
+            }
+            return numerator;
+        }
+
+        private double readDecimal() {
+            if (pos >= end || !isDigit(s.charAt(pos))) return Double.NaN;
+            long integer = 0;
+            while (pos < end && isDigit(s.charAt(pos))) {
+                integer = integer * 10 + (s.charAt(pos++) - '0');
+            }
+            double value = integer;
+            if (pos + 1 < end && (s.charAt(pos) == '.' || s.charAt(pos) == ',') && isDigit(s.charAt(pos + 1))) {
+                pos++;
+                double scale = 0.1;
+                while (pos < end && isDigit(s.charAt(pos))) {
+                    value += (s.charAt(pos++) - '0') * scale;
+                    scale /= 10;
+                }
+            }
+            return value;
+        }
+
+        /**
+         * "-", "–", "à", "a", "to", "ou", "or" entre deux quantités.
+         */
+        boolean consumeRangeSeparator() {
+            if (pos >= end) return false;
+            char c = s.charAt(pos);
+            if (c == '-' || c == '–' || c == '—') {
+                pos++;
+                return true;
+            }
+            int wordEnd = wordEnd(pos);
+            int length = wordEnd - pos;
+            if (length == 0 || length > 2) return false;
+            if (matchesFolded(pos, wordEnd, "a") || matchesFolded(pos, wordEnd, "to")
+                    || matchesFolded(pos, wordEnd, "ou") || matchesFolded(pos, wordEnd, "or")) {
+                pos = wordEnd;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Unité la plus longue (jusqu'à {@value #MAX_UNIT_WORDS} mots) ; ne consomme rien si aucune unité.
+         */
+        String readUnit() {
+            StringBuilder key = new StringBuilder(24);
+            String best = null;
+            int bestEnd = pos;
+            int p = pos;
+
+            for (int words = 0; words < MAX_UNIT_WORDS && p < end; words++) {
+                int wordEnd = wordEnd(p);
+                if (wordEnd == p) break;
+                if (words > 0) key.append(' ');
+                appendFoldedLetters(key, p, wordEnd);
+
+                String canonical = lookupUnit(key);
+                // "g." / "c.s." : le point final fait partie de l'abréviation
+                int after = wordEnd;
+                if (after < end && s.charAt(after) == '.') after++;
+                if (canonical != null) {
+                    best = canonical;
+                    bestEnd = after;
+                }
+                p = after;
+                while (p < end && Character.isWhitespace(s.charAt(p))) p++;
+            }
+
+            if (best != null) pos = bestEnd;
+            return best;
+        }
+
+        private String lookupUnit(StringBuilder key) {
+            String candidate = key.toString();
+            String canonical = UNITS.get(candidate);
+            if (canonical == null && candidate.length() > 2 && candidate.charAt(candidate.length() - 1) == 's') {
+                canonical = UNITS.get(candidate.substring(0, candidate.length() - 1));
+            }
+            if (canonical == null && candidate.indexOf("s a ") > 0) {
+                canonical = UNITS.get(candidate.replace("s a ", " a "));
+            }
+            return canonical;
+        }
+
+        /**
+         * Reste de la ligne : minuscules, espaces normalisés, liaisons en tête et mots vides retirés.
+         */
+        String readName() {
+            StringBuilder name = new StringBuilder(end - pos);
+            StringBuilder folded = new StringBuilder(16);
+            boolean leading = true;
+
+            while (pos < end) {
+                while (pos < end && !isWordChar(s.charAt(pos))) pos++;
+                if (pos >= end) break;
+                int start = pos;
+                while (pos < end && isWordChar(s.charAt(pos))) pos++;
+                int wordEnd = pos;
+                // "d'huile" : l'apostrophe sépare la liaison du mot
+                int apostrophe = indexOfApostrophe(start, wordEnd);
+
+                folded.setLength(0);
+                appendFoldedLetters(folded, start, apostrophe >= 0 ? apostrophe : wordEnd);
+                String word = folded.toString();
+
+                if (leading && CONNECTORS.contains(word)) {
+                    if (apostrophe >= 0) {
+                        pos = apostrophe + 1;
+                    }
+                    continue;
+                }
+                if (apostrophe < 0 && STOP_WORDS.contains(word)) continue;
+
+                leading = false;
+                if (!name.isEmpty()) name.append(' ');
+                for (int i = start; i < wordEnd; i++) {
+                    char c = s.charAt(i);
+                    name.append(c == '’' ? '\'' : Character.toLowerCase(c));
+                }
+            }
+            return name.toString();
+        }
+
+        private int indexOfApostrophe(int from, int to) {
+            for (int i = from; i < to; i++) {
+                char c = s.charAt(i);
+                if (c == '\'' || c == '’') return i;
+            }
+            return -1;
+        }
+
+        /** Fin du mot (lettres, chiffres, points internes d'une abréviation) commençant à {@code from}. */
+        private int wordEnd(int from) {
+            int p = from;
+            while (p < end) {
+                char c = s.charAt(p);
+                if (Character.isLetter(c)) {
+                    p++;
+                } else if (c == '.' && p + 1 < end && Character.isLetter(s.charAt(p + 1)) && p > from) {
+                    p++;
+                } else {
+                    break;
+                }
+            }
+            return p;
+        }
+
+        private void appendFoldedLetters(StringBuilder target, int from, int to) {
+            for (int i = from; i < to; i++) {
+                char c = s.charAt(i);
+                if (!Character.isLetter(c)) continue;
+                target.append(TextFolding.fold(c));
+                char tail = TextFolding.ligatureTail(c);
+                if (tail != 0) target.append(tail);
+            }
+        }
+
+        private boolean matchesFolded(int from, int to, String expected) {
+            if (to - from != expected.length()) return false;
+            for (int i = 0; i < expected.length(); i++) {
+                if (TextFolding.fold(s.charAt(from + i)) != expected.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        private static boolean isWordChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '\'' || c == '’' || c == '-';
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static double unicodeFraction(char c) {
+            return switch (c) {
+                case '½' -> 0.5;
+                case '¼' -> 0.25;
+                case '¾' -> 0.75;
+                case '⅓' -> 1.0 / 3;
+                case '⅔' -> 2.0 / 3;
+                case '⅛' -> 0.125;
+                default -> 0;
+            };
+        }
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class ParsedIngredient {
+        private final double quantity;
+        private final String unit;
+        private final String name;
+    }
+}
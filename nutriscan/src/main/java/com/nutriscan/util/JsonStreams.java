@@ -0,0 +1,112 @@
+package com.nutriscan.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture en flux (JsonParser) des réponses upstream : on lit les champs utiles au fil des tokens
+ * et on saute le reste avec {@link JsonParser#skipChildren()}, sans construire d'arbre ni de Map.
+ *
+ * Toutes les méthodes read* attendent le parser positionné sur la valeur (après le FIELD_NAME)
+ * et le laissent sur son dernier token ; une valeur du mauvais type est sautée et vaut null.
+ */
+public final class JsonStreams {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private JsonStreams() {
+    }
+
+    public static JsonParser parser(InputStream in) throws IOException {
+        return FACTORY.createParser(in);
+    }
+
+    /**
+     * Avance sur le FIELD_NAME suivant de l'objet courant.
+     *
+     * @return false sur END_OBJECT (ou fin de flux)
+     */
+    public static boolean nextField(JsonParser p) throws IOException {
+        JsonToken token = p.nextToken();
+        if (token != JsonToken.FIELD_NAME) return false;
+        p.nextToken();
+        return true;
+    }
+
+    /**
+     * Avance sur l'élément suivant du tableau courant.
+     *
+     * @return false sur END_ARRAY (ou fin de flux)
+     */
+    public static boolean nextElement(JsonParser p) throws IOException {
+        JsonToken token = p.nextToken();
+        return token != null && token != JsonToken.END_ARRAY;
+    }
+
+    public static String readText(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == null || token == JsonToken.VALUE_NULL) return null;
+        if (token.isScalarValue()) return p.getText();
+        p.skipChildren();
+        return null;
+    }
+
+    public static Double readDouble(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return p.getDoubleValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Double.parseDouble(p.getText().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        p.skipChildren();
+        return null;
+    }
+
+    public static Integer readInt(JsonParser p) throws IOException {
+        Double value = readDouble(p);
+        return value != null ? value.intValue() : null;
+    }
+
+    /**
+     * Valeur scalaire sous la forme que donnerait un ObjectMapper vers Map (Integer/Long/Double, String, Boolean).
+     */
+    public static Object readScalar(JsonParser p) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == null) return null;
+        return switch (token) {
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> p.getNumberValue();
+            case VALUE_STRING -> p.getText();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case START_OBJECT, START_ARRAY -> {
+                p.skipChildren();
+                yield null;
+            }
+            default -> null;
+        };
+    }
+
+    public static List<String> readStringList(JsonParser p) throws IOException {
+        List<String> values = new ArrayList<>();
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return values;
+        }
+        while (nextElement(p)) {
+            String value = readText(p);
+            if (value != null) values.add(value);
+        }
+        return values;
+    }
+}
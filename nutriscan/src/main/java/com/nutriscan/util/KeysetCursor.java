@@ -0,0 +1,97 @@
+package com.nutriscan.util;
+
+import com.nutriscan.dto.response.PageResponse;
+import com.nutriscan.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Curseur opaque de pagination keyset : la clé de tri et l'id de la dernière ligne renvoyée,
+ * encodés en base64 url-safe ("2025-03-01T10:15:30|42").
+ *
+ * Contrairement à OFFSET, la page suivante est un simple parcours d'index à partir de (clé, id),
+ * quel que soit le nombre de lignes déjà lues.
+ */
+@Getter
+@AllArgsConstructor
+public final class KeysetCursor {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private final String sortKey;
+    private final long id;
+
+    public static String encode(Object sortKey, Long id) {
+        String raw = sortKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode un curseur reçu du client ; null ou vide -> null (première page).
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator <= 0) throw new BadRequestException("Invalid cursor");
+            return new KeysetCursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+
+    public LocalDateTime sortKeyAsDateTime() {
+        try {
+            return LocalDateTime.parse(sortKey);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+
+    public LocalDate sortKeyAsDate() {
+        try {
+            return LocalDate.parse(sortKey);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Limite bornée à [1, MAX_LIMIT] ; on lit une ligne de plus pour savoir s'il reste une page.
+     */
+    public static int clampLimit(Integer limit) {
+        if (limit == null) return DEFAULT_LIMIT;
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public static Pageable probe(int limit) {
+        return PageRequest.of(0, limit + 1);
+    }
+
+    /**
+     * Construit la page à partir des {@code limit + 1} lignes lues.
+     */
+    public static <E, R> PageResponse<R> page(List<E> rows, int limit,
+                                              Function<E, String> cursorOf,
+                                              Function<E, R> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<E> visible = hasMore ? rows.subList(0, limit) : rows;
+        return PageResponse.<R>builder()
+                .items(visible.stream().map(mapper).toList())
+                .nextCursor(hasMore ? cursorOf.apply(visible.get(visible.size() - 1)) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+}
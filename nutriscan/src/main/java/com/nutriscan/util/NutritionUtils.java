@@ -8,6 +8,40 @@ import lombok.Getter;
 
 public final class NutritionUtils {
 
+    // Tables indexées par ordinal d'enum : une seule source pour le calcul unitaire et le recalcul en masse
+    private static final double[] BMR_GENDER_OFFSET = new double[Gender.values().length];
+    private static final double[] ACTIVITY_FACTOR = new double[ActivityLevel.values().length];
+    private static final double[] GOAL_CALORIE_DELTA = new double[GoalType.values().length];
+    private static final double[] GOAL_PROTEIN_PER_KG = new double[GoalType.values().length];
+
+    static {
+        for (Gender gender : Gender.values()) {
+            // Assume MALE as default for others
+            BMR_GENDER_OFFSET[gender.ordinal()] = gender == Gender.FEMALE ? -161 : 5;
+        }
+        ACTIVITY_FACTOR[ActivityLevel.SEDENTARY.ordinal()] = 1.2;
+        ACTIVITY_FACTOR[ActivityLevel.LIGHT.ordinal()] = 1.375;
+        ACTIVITY_FACTOR[ActivityLevel.MODERATE.ordinal()] = 1.55;
+        ACTIVITY_FACTOR[ActivityLevel.ACTIVE.ordinal()] = 1.725;
+        ACTIVITY_FACTOR[ActivityLevel.VERY_ACTIVE.ordinal()] = 1.9;
+
+        GOAL_CALORIE_DELTA[GoalType.LOSE_WEIGHT.ordinal()] = -400;   // ~ -400 kcal
+        GOAL_CALORIE_DELTA[GoalType.MAINTAIN.ordinal()] = 0;
+        GOAL_CALORIE_DELTA[GoalType.GAIN_WEIGHT.ordinal()] = 300;    // ~ +300 kcal
+
+        GOAL_PROTEIN_PER_KG[GoalType.LOSE_WEIGHT.ordinal()] = 1.8;
+        GOAL_PROTEIN_PER_KG[GoalType.MAINTAIN.ordinal()] = 1.6;
+        GOAL_PROTEIN_PER_KG[GoalType.GAIN_WEIGHT.ordinal()] = 2.0;   // more for gain/sport
+    }
+
+    /** Indices du tableau rempli par {@link #computeTargets} */
+    public static final int TDEE = 0;
+    public static final int CALORIES = 1;
+    public static final int PROTEIN = 2;
+    public static final int CARBS = 3;
+    public static final int FAT = 4;
+    public static final int TARGET_FIELDS = 5;
+
     private NutritionUtils() {
     }
 
@@ -16,26 +50,11 @@ public final class NutritionUtils {
      * weightKg, heightCm, ageYears
      */
     public static double calculateBmr(Gender gender, double weightKg, int heightCm, int ageYears) {
-        double bmr = 10 * weightKg + 6.25 * heightCm - 5 * ageYears;
-        if (gender == Gender.FEMALE) {
-            bmr -= 161;
-        } else {
-            // Assume MALE as default for others
-            bmr += 5;
-        }
-        return bmr;
+        return bmr(gender != null ? gender.ordinal() : Gender.MALE.ordinal(), weightKg, heightCm, ageYears);
     }
 
     public static double getActivityFactor(ActivityLevel level) {
-        if (level == null) return 1.2;
-
-        return switch (level) {
-            case SEDENTARY -> 1.2;
-            case LIGHT -> 1.375;
-            case MODERATE -> 1.55;
-            case ACTIVE -> 1.725;
-            case VERY_ACTIVE -> 1.9;
-        };
+        return ACTIVITY_FACTOR[level != null ? level.ordinal() : ActivityLevel.SEDENTARY.ordinal()];
     }
 
     /**
@@ -58,12 +77,7 @@ public final class NutritionUtils {
      */
     public static double adjustCaloriesForGoal(double tdee, GoalType goalType) {
         if (goalType == null) return tdee;
-
-        return switch (goalType) {
-            case LOSE_WEIGHT -> tdee - 400;    // ~ -400 kcal
-            case MAINTAIN -> tdee;
-            case GAIN_WEIGHT -> tdee + 300;    // ~ +300 kcal
-        };
+        return tdee + GOAL_CALORIE_DELTA[goalType.ordinal()];
     }
 
     /**
@@ -73,31 +87,50 @@ public final class NutritionUtils {
      * - Carbs: remaining calories
      */
     public static MacroTargets calculateMacroTargets(double targetCalories, double weightKg, GoalType goalType) {
-        double proteinPerKg;
-
-        if (goalType == null) {
-            proteinPerKg = 1.6;
-        } else {
-            switch (goalType) {
-                case LOSE_WEIGHT -> proteinPerKg = 1.8;
-                case MAINTAIN -> proteinPerKg = 1.6;
-                case GAIN_WEIGHT -> proteinPerKg = 2.0; // more for gain/sport
-                default -> proteinPerKg = 1.6;
-            }
-        }
-
+        double proteinPerKg = GOAL_PROTEIN_PER_KG[goalType != null ? goalType.ordinal() : GoalType.MAINTAIN.ordinal()];
         double proteinGr = proteinPerKg * weightKg;
+        double fatGr = fatGrams(targetCalories);
+        double carbsGr = carbsGrams(targetCalories, proteinGr);
 
-        double fatCalories = targetCalories * 0.25;
-        double fatGr = fatCalories / 9.0;
+        return new MacroTargets(targetCalories, proteinGr, carbsGr, fatGr);
+    }
 
-        double proteinCalories = proteinGr * 4.0;
-        double remainingCalories = targetCalories - proteinCalories - fatCalories;
-        if (remainingCalories < 0) remainingCalories = 0;
+    /**
+     * Chemin rapide du recalcul en masse : même calcul que calculateTdee + adjustCaloriesForGoal
+     * + calculateMacroTargets, sur des ordinaux d'enum, sans allocation. Résultats dans
+     * {@code out[offset + TDEE .. offset + FAT]}.
+     */
+    public static void computeTargets(int genderOrdinal, double weightKg, int heightCm, int ageYears,
+                                      int activityOrdinal, int goalOrdinal, double[] out, int offset) {
+        double tdee = bmr(genderOrdinal, weightKg, heightCm, ageYears) * ACTIVITY_FACTOR[activityOrdinal];
+        double calories = tdee + GOAL_CALORIE_DELTA[goalOrdinal];
+        double proteinGr = GOAL_PROTEIN_PER_KG[goalOrdinal] * weightKg;
+
+        out[offset + TDEE] = tdee;
+        out[offset + CALORIES] = calories;
+        out[offset + PROTEIN] = proteinGr;
+        out[offset + CARBS] = carbsGrams(calories, proteinGr);
+        out[offset + FAT] = fatGrams(calories);
+    }
 
-        double carbsGr = remainingCalories / 4.0;
+    private static double bmr(int genderOrdinal, double weightKg, int heightCm, int ageYears) {
+        return 10 * weightKg + 6.25 * heightCm - 5 * ageYears + BMR_GENDER_OFFSET[genderOrdinal];
+    }
 
-        return new MacroTargets(targetCalories, proteinGr, carbsGr, fatGr);
+    /**
+     * Fat: 25% of calories
+     */
+    private static double fatGrams(double targetCalories) {
+        return targetCalories * 0.25 / 9.0;
+    }
+
+    /**
+     * Carbs: remaining calories after protein and fat
+     */
+    private static double carbsGrams(double targetCalories, double proteinGr) {
+        double remainingCalories = targetCalories - proteinGr * 4.0 - targetCalories * 0.25;
+        if (remainingCalories < 0) remainingCalories = 0;
+        return remainingCalories / 4.0;
     }
 
     /**
@@ -0,0 +1,138 @@
+package com.nutriscan.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre de Bloom à deux générations, sans verrou (bits dans un AtomicLongArray).
+ *
+ * On insère dans la génération courante et on interroge les deux : {@link #rotate()} jette la plus ancienne,
+ * une clé est donc oubliée après une à deux rotations. La génération courante est aussi tournée d'elle-même
+ * quand elle atteint sa capacité, pour que le taux de faux positifs reste proche de la cible.
+ * Taille : m = -n ln(p) / ln(2)² bits et k = m/n ln(2) fonctions de hachage par génération.
+ */
+public final class RotatingBloomFilter {
+
+    private final int expectedInsertions;
+    private final int numBits;
+    private final int numHashes;
+    private final AtomicLong rotations = new AtomicLong();
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    public RotatingBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) throw new IllegalArgumentException("expectedInsertions must be > 0");
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        this.expectedInsertions = expectedInsertions;
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.min(Math.max(64, bits), Integer.MAX_VALUE - 63);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.current = new Generation(numBits);
+        this.previous = new Generation(numBits);
+    }
+
+    public void put(String key) {
+        Generation generation = current;
+        long h1 = hash(key, 0x9E3779B97F4A7C15L);
+        long h2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            generation.set(index(h1 + i * h2));
+        }
+        if (generation.insertions.incrementAndGet() == expectedInsertions) {
+            rotate();
+        }
+    }
+
+    /**
+     * @return false si la clé n'a certainement pas été insérée (depuis l'avant-dernière rotation)
+     */
+    public boolean mightContain(String key) {
+        long h1 = hash(key, 0x9E3779B97F4A7C15L);
+        long h2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1;
+        return contains(current, h1, h2) || contains(previous, h1, h2);
+    }
+
+    public synchronized void rotate() {
+        previous = current;
+        current = new Generation(numBits);
+        rotations.incrementAndGet();
+    }
+
+    /** Taux de faux positifs estimé d'après le remplissage réel des deux générations */
+    public double estimatedFalsePositiveRate() {
+        double a = fpp(current.insertions.get());
+        double b = fpp(previous.insertions.get());
+        return 1 - (1 - a) * (1 - b);
+    }
+
+    public long memoryBytes() {
+        return 2L * ((numBits + 63) / 64) * Long.BYTES;
+    }
+
+    public int numHashes() {
+        return numHashes;
+    }
+
+    public long insertions() {
+        return current.insertions.get() + previous.insertions.get();
+    }
+
+    public long rotations() {
+        return rotations.get();
+    }
+
+    private double fpp(long insertions) {
+        return Math.pow(1 - Math.exp(-(double) numHashes * insertions / numBits), numHashes);
+    }
+
+    private boolean contains(Generation generation, long h1, long h2) {
+        for (int i = 0; i < numHashes; i++) {
+            if (!generation.get(index(h1 + i * h2))) return false;
+        }
+        return true;
+    }
+
+    private int index(long combined) {
+        return (int) Math.floorMod(combined, (long) numBits);
+    }
+
+    /**
+     * FNV-1a 64 bits sur les octets UTF-8, graine mélangée puis finalisée (splitmix64) pour décorréler h1 et h2.
+     */
+    private static long hash(String key, long seed) {
+        long h = 0xCBF29CE484222325L ^ seed;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001B3L;
+        }
+        h ^= h >>> 30;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 27;
+        h *= 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    private static final class Generation {
+        final AtomicLongArray words;
+        final AtomicLong insertions = new AtomicLong();
+
+        Generation(int numBits) {
+            this.words = new AtomicLongArray((numBits + 63) / 64);
+        }
+
+        void set(int bit) {
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long value = words.get(word);
+            while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                value = words.get(word);
+            }
+        }
+
+        boolean get(int bit) {
+            return (words.get(bit >>> 6) & (1L << bit)) != 0;
+        }
+    }
+}
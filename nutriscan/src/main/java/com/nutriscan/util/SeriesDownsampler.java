@@ -0,0 +1,122 @@
+package com.nutriscan.util;
+
+import java.util.Arrays;
+
+/**
+ * Réduction et lissage de séries temporelles (historique de poids) sur tableaux primitifs.
+ *
+ * Les méthodes de réduction renvoient les indices des points conservés, croissants, premier et dernier inclus :
+ * l'appelant garde ainsi ses objets d'origine. x doit être croissant (jours epoch par exemple).
+ */
+public final class SeriesDownsampler {
+
+    public enum Method { LTTB, MINMAX }
+
+    private SeriesDownsampler() {
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets : un point par bucket, celui qui forme le plus grand triangle
+     * avec le point retenu précédent et la moyenne du bucket suivant. Conserve bien la forme visuelle.
+     */
+    public static int[] lttb(double[] x, double[] y, int threshold) {
+        int n = x.length;
+        if (threshold >= n || threshold < 3) return identity(n);
+
+        int[] sampled = new int[threshold];
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        sampled[0] = 0;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += x[j];
+                avgY += y[j];
+            }
+            int avgCount = avgEnd - avgStart;
+            avgX /= avgCount;
+            avgY /= avgCount;
+
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((x[a] - avgX) * (y[j] - y[a]) - (x[a] - x[j]) * (avgY - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled[i + 1] = next;
+            a = next;
+        }
+
+        sampled[threshold - 1] = n - 1;
+        return sampled;
+    }
+
+    /**
+     * Min/max par bucket : le minimum et le maximum de chaque bucket, dans l'ordre d'origine.
+     * Moins lisse que LTTB mais ne perd jamais un extrême (pesée anormale, pic de rétention d'eau).
+     */
+    public static int[] minMax(double[] y, int threshold) {
+        int n = y.length;
+        if (threshold >= n || threshold < 4) return identity(n);
+
+        // Premier et dernier points à part, deux points par bucket pour le reste
+        int buckets = (threshold - 2) / 2;
+        int[] sampled = new int[threshold];
+        int count = 0;
+        sampled[count++] = 0;
+
+        double every = (double) (n - 2) / buckets;
+        for (int b = 0; b < buckets; b++) {
+            int start = (int) Math.floor(b * every) + 1;
+            int end = Math.min((int) Math.floor((b + 1) * every) + 1, n - 1);
+            if (start >= end) continue;
+
+            int min = start;
+            int max = start;
+            for (int j = start + 1; j < end; j++) {
+                if (y[j] < y[min]) min = j;
+                if (y[j] > y[max]) max = j;
+            }
+            sampled[count++] = Math.min(min, max);
+            if (min != max) sampled[count++] = Math.max(min, max);
+        }
+
+        sampled[count++] = n - 1;
+        return count == threshold ? sampled : Arrays.copyOf(sampled, count);
+    }
+
+    /**
+     * Moyenne mobile exponentielle sur {@code spanDays} jours (alpha = 2 / (span + 1) par jour),
+     * ajustée à l'écart réel entre deux mesures : deux pesées à 3 jours d'intervalle pèsent comme 3 jours.
+     * Un seul passage, sur la série complète (avant réduction) pour que la tendance ne dépende pas de points.
+     */
+    public static double[] ema(double[] x, double[] y, double spanDays) {
+        int n = y.length;
+        double[] trend = new double[n];
+        if (n == 0) return trend;
+
+        double keepPerDay = 1 - 2 / (spanDays + 1);
+        trend[0] = y[0];
+        for (int i = 1; i < n; i++) {
+            double gap = Math.max(0, x[i] - x[i - 1]);
+            double alpha = 1 - Math.pow(keepPerDay, gap);
+            trend[i] = trend[i - 1] + alpha * (y[i] - trend[i - 1]);
+        }
+        return trend;
+    }
+
+    private static int[] identity(int n) {
+        int[] all = new int[n];
+        for (int i = 0; i < n; i++) all[i] = i;
+        return all;
+    }
+}
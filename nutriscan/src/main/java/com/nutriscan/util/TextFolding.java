@@ -0,0 +1,63 @@
+package com.nutriscan.util;
+
+/**
+ * Repliement de texte sans allocation pour les comparaisons d'ingrédients :
+ * minuscules + suppression des accents latins (é -> e, ç -> c), œ -> oe, æ -> ae.
+ */
+public final class TextFolding {
+
+    private static final char[] LATIN1_FOLD = new char[256];
+
+    static {
+        for (int c = 0; c < 256; c++) {
+            LATIN1_FOLD[c] = Character.toLowerCase((char) c);
+        }
+        map("ÀÁÂÃÄÅàáâãäå", 'a');
+        map("Çç", 'c');
+        map("ÈÉÊËèéêë", 'e');
+        map("ÌÍÎÏìíîï", 'i');
+        map("Ññ", 'n');
+        map("ÒÓÔÕÖØòóôõöø", 'o');
+        map("ÙÚÛÜùúûü", 'u');
+        map("Ýýÿ", 'y');
+    }
+
+    private TextFolding() {
+    }
+
+    private static void map(String chars, char target) {
+        for (int i = 0; i < chars.length(); i++) {
+            LATIN1_FOLD[chars.charAt(i)] = target;
+        }
+    }
+
+    /**
+     * Replie un caractère simple. Les ligatures (œ, æ) doivent passer par {@link #ligatureTail(char)}.
+     */
+    public static char fold(char c) {
+        if (c < 256) return LATIN1_FOLD[c];
+        if (c == 'œ' || c == 'Œ') return 'o';
+        if (c == 'æ' || c == 'Æ') return 'a';
+        if (c == '’') return '\'';
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * Second caractère d'une ligature (œ -> 'e'), ou 0 si {@code c} n'est pas une ligature.
+     */
+    public static char ligatureTail(char c) {
+        return (c == 'œ' || c == 'Œ' || c == 'æ' || c == 'Æ') ? 'e' : 0;
+    }
+
+    public static String fold(CharSequence text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length() + 4);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            sb.append(fold(c));
+            char tail = ligatureTail(c);
+            if (tail != 0) sb.append(tail);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package com.nutriscan.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Table de conversion des unités de cuisine vers une unité de base par dimension :
+ * masse -> grammes, volume -> millilitres, comptage -> unité d'origine (pas de conversion entre "gousse" et "boîte").
+ *
+ * Les unités attendues sont les unités canoniques de {@link IngredientLineParser} (g, kg, tbsp, cup, ...).
+ */
+public final class UnitConverter {
+
+    public enum Dimension { MASS, VOLUME, COUNT }
+
+    private static final Map<String, Dimension> DIMENSIONS = new HashMap<>();
+    private static final Map<String, Double> TO_BASE = new HashMap<>();
+
+    /** Masse volumique (g/ml) des ingrédients courants, indexée par mot-clé de nom canonique */
+    private static final Map<String, Double> DENSITIES = new HashMap<>();
+
+    static {
+        mass("g", 1);
+        mass("kg", 1000);
+        mass("mg", 0.001);
+        mass("oz", 28.3495);
+        mass("lb", 453.592);
+
+        volume("ml", 1);
+        volume("cl", 10);
+        volume("dl", 100);
+        volume("l", 1000);
+        volume("cup", 240);
+        volume("tbsp", 15);
+        volume("tsp", 5);
+        volume("glass", 200);
+        volume("pinch", 0.3);
+
+        density(0.53, "flour", "farine");
+        density(0.85, "sugar", "sucre");
+        density(0.85, "rice", "riz");
+        density(1.03, "milk", "lait");
+        density(1.0, "water", "eau");
+        density(0.92, "oil", "huile");
+        density(0.91, "butter", "beurre");
+        density(1.42, "honey", "miel");
+    }
+
+    private UnitConverter() {
+    }
+
+    private static void mass(String unit, double grams) {
+        DIMENSIONS.put(unit, Dimension.MASS);
+        TO_BASE.put(unit, grams);
+    }
+
+    private static void volume(String unit, double millilitres) {
+        DIMENSIONS.put(unit, Dimension.VOLUME);
+        TO_BASE.put(unit, millilitres);
+    }
+
+    private static void density(double gramsPerMl, String... keywords) {
+        for (String keyword : keywords) {
+            DENSITIES.put(keyword, gramsPerMl);
+        }
+    }
+
+    public static Dimension dimensionOf(String unit) {
+        return unit == null ? Dimension.COUNT : DIMENSIONS.getOrDefault(unit, Dimension.COUNT);
+    }
+
+    /**
+     * Quantité exprimée dans l'unité de base de sa dimension (g, ml ; inchangée pour le comptage).
+     */
+    public static double toBase(double quantity, String unit) {
+        return quantity * TO_BASE.getOrDefault(unit, 1.0);
+    }
+
+    public static double fromBase(double baseQuantity, String unit) {
+        return baseQuantity / TO_BASE.getOrDefault(unit, 1.0);
+    }
+
+    /**
+     * Masse volumique connue pour un nom canonique (mot par mot : "huile d olive" -> huile), ou NaN.
+     */
+    public static double densityOf(String canonicalName) {
+        if (canonicalName == null) return Double.NaN;
+        int start = 0;
+        for (int i = 0; i <= canonicalName.length(); i++) {
+            if (i == canonicalName.length() || canonicalName.charAt(i) == ' ') {
+                if (i > start) {
+                    Double density = DENSITIES.get(canonicalName.substring(start, i));
+                    if (density != null) return density;
+                }
+                start = i + 1;
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Unité d'affichage pour une quantité de base : kg/l au-delà de 1000, sinon g/ml.
+     */
+    public static String displayUnit(Dimension dimension, double baseQuantity) {
+        return switch (dimension) {
+            case MASS -> baseQuantity >= 1000 ? "kg" : "g";
+            case VOLUME -> baseQuantity >= 1000 ? "l" : "ml";
+            case COUNT -> IngredientLineParser.DEFAULT_UNIT;
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.nutriscan.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marque un GET servi avec un ETag fort calculé depuis la version en base de la ressource.
+ * Si le client renvoie ce même ETag (If-None-Match), {@link ETagInterceptor} répond 304
+ * sans appeler le contrôleur.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+    ETagResource value();
+}
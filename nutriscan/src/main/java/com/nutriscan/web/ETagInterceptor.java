@@ -0,0 +1,104 @@
+package com.nutriscan.web;
+
+import com.nutriscan.security.CustomUserDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Requêtes conditionnelles pour les endpoints {@link ConditionalGet} : calcule l'ETag depuis la version en base
+ * avant le contrôleur, répond 304 si le client a déjà cette version, sinon ajoute l'ETag à la réponse.
+ *
+ * Contrairement à ShallowEtagHeaderFilter (hash du corps), le service n'est jamais appelé pour un 304.
+ * Métrique : http.conditional.requests{resource, result=not_modified|modified|untracked}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ETagInterceptor implements HandlerInterceptor {
+
+    private static final String METRIC = "http.conditional.requests";
+
+    private final ETagVersionService versionService;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method) || !HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        ConditionalGet conditional = method.getMethodAnnotation(ConditionalGet.class);
+        Long userId = currentUserId();
+        if (conditional == null || userId == null) {
+            return true;
+        }
+
+        ETagResource resource = conditional.value();
+        String version;
+        try {
+            version = versionService.versionOf(resource, userId, request);
+        } catch (Exception e) {
+            // Pas de version, pas d'ETag : la requête est servie normalement
+            log.warn("⚠️ Could not compute ETag version for {}: {}", resource, e.getMessage());
+            version = null;
+        }
+        if (version == null) {
+            count(resource, "untracked");
+            return true;
+        }
+
+        String etag = etag(resource, userId, version);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            count(resource, "not_modified");
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        count(resource, "modified");
+        return true;
+    }
+
+    static String etag(ETagResource resource, Long userId, String version) {
+        String raw = resource.name() + '|' + userId + '|' + version;
+        return '"' + DigestUtils.md5DigestAsHex(raw.getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+
+    /**
+     * If-None-Match : liste d'ETags ou "*", comparaison faible (préfixe W/ ignoré) comme le veut la RFC 9110.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private void count(ETagResource resource, String result) {
+        meterRegistry.counter(METRIC, "resource", resource.name(), "result", result).increment();
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
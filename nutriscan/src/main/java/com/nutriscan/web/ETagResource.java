@@ -0,0 +1,11 @@
+package com.nutriscan.web;
+
+/**
+ * Ressources lues en boucle par l'application mobile, dont la version se calcule sans construire la réponse.
+ */
+public enum ETagResource {
+    MEALS_SUMMARY,
+    GOALS,
+    LATEST_MEAL_PLAN,
+    LATEST_GROCERY_LIST
+}
@@ -0,0 +1,82 @@
+package com.nutriscan.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Version courante d'une ressource pour un utilisateur : une requête indexée qui ne lit que
+ * des identifiants et des horodatages. null si la ressource n'existe pas (pas d'ETag).
+ */
+@Component
+@RequiredArgsConstructor
+public class ETagVersionService {
+
+    // count + somme des ids : un repas supprimé ou remplacé change la version même si max(updated_at) ne bouge pas
+    private static final String MEALS_SUMMARY_SQL = """
+            SELECT count(*) || ':' || coalesce(sum(id), 0) || ':' || coalesce(max(updated_at)::text, '-')
+            FROM meals WHERE user_id = ? AND date = ?
+            """;
+
+    // La réponse reprend goal_type et activity_level du profil
+    private static final String GOALS_SQL = """
+            SELECT t.id || ':' || coalesce(t.updated_at::text, '-') || ':'
+                   || coalesce(u.goal_type, '-') || ':' || coalesce(u.activity_level, '-')
+            FROM daily_targets t JOIN users u ON u.id = t.user_id
+            WHERE t.user_id = ?
+            """;
+
+    // Le plan est touché à chaque ajout/retrait, mais count + somme des ids couvre aussi un repas remplacé dans la même milliseconde
+    private static final String LATEST_MEAL_PLAN_SQL = """
+            SELECT mp.id || ':' || coalesce(mp.updated_at::text, '-') || ':'
+                   || (SELECT count(*) || ':' || coalesce(sum(pm.id), 0)
+                       FROM planned_meals pm WHERE pm.meal_plan_id = mp.id)
+            FROM meal_plans mp WHERE mp.user_id = ?
+            ORDER BY mp.created_at DESC, mp.id DESC LIMIT 1
+            """;
+
+    // grocery_items n'a pas d'updated_at : la somme des ids achetés change à chaque case cochée ou décochée
+    private static final String LATEST_GROCERY_LIST_SQL = """
+            SELECT gl.id || ':' || coalesce(gl.updated_at::text, '-') || ':'
+                   || (SELECT count(*) || ':' || coalesce(sum(CASE WHEN gi.purchased THEN gi.id ELSE 0 END), 0)
+                       FROM grocery_items gi WHERE gi.grocery_list_id = gl.id)
+            FROM grocery_lists gl WHERE gl.user_id = ?
+            ORDER BY gl.created_at DESC, gl.id DESC LIMIT 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public String versionOf(ETagResource resource, Long userId, HttpServletRequest request) {
+        return switch (resource) {
+            case MEALS_SUMMARY -> {
+                LocalDate date = dateParam(request);
+                yield date == null ? null : single(MEALS_SUMMARY_SQL, userId, Date.valueOf(date));
+            }
+            case GOALS -> single(GOALS_SQL, userId);
+            case LATEST_MEAL_PLAN -> single(LATEST_MEAL_PLAN_SQL, userId);
+            case LATEST_GROCERY_LIST -> single(LATEST_GROCERY_LIST_SQL, userId);
+        };
+    }
+
+    private String single(String sql, Object... args) {
+        List<String> rows = jdbcTemplate.queryForList(sql, String.class, args);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // Paramètre invalide : pas d'ETag, le contrôleur produira l'erreur habituelle
+    private static LocalDate dateParam(HttpServletRequest request) {
+        String date = request.getParameter("date");
+        if (date == null) return null;
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
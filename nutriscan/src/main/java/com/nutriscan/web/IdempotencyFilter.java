@@ -0,0 +1,320 @@
+package com.nutriscan.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutriscan.dto.response.ErrorResponse;
+import com.nutriscan.security.CustomUserDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * En-tête {@code Idempotency-Key} sur les POST coûteux ou non idempotents (scan d'image, création de repas) :
+ * une requête répétée avec la même clé (même utilisateur, même endpoint) reçoit la réponse enregistrée
+ * au lieu de relancer Gemini ou de créer un second repas. Si la première est encore en cours, la répétition
+ * attend son résultat (coalescence) au lieu de s'exécuter en parallèle.
+ *
+ * Seules les réponses définitives sont enregistrées : ni les erreurs serveur, ni les refus temporaires
+ * (408, 409, 429, ou toute réponse portant Retry-After, comme celles du rate limiter) ; la même clé relance alors l'exécution.
+ * Sans en-tête, ou sans utilisateur authentifié, la requête passe telle quelle.
+ * Filtre servlet enregistré après la chaîne Spring Security : l'utilisateur est déjà authentifié et autorisé.
+ * Métrique : idempotency.requests{result=executed|replayed|coalesced|mismatch|timeout}.
+ */
+@Component
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String METRIC = "idempotency.requests";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${idempotency.paths:/api/v1/scan/image,/api/meals}")
+    private List<String> paths;
+
+    @Value("${idempotency.wait-timeout-ms:60000}")
+    private long waitTimeoutMs;
+
+    @Value("${idempotency.max-body-bytes:262144}")
+    private int maxBodyBytes;
+
+    public IdempotencyFilter(IdempotencyStore store, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER).trim();
+        Long userId = currentUserId();
+        if (userId == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            error(request, response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        String key = userId + "|" + request.getRequestURI() + "|" + idempotencyKey;
+        HttpServletRequest target = request;
+        String fingerprint;
+        if (isMultipart(request)) {
+            try {
+                fingerprint = multipartFingerprint(request);
+            } catch (ServletException | IllegalStateException e) {
+                // Multipart illisible (taille max, ...) : la chaîne normale produit l'erreur
+                chain.doFilter(request, response);
+                return;
+            }
+        } else {
+            // Corps lu une fois pour l'empreinte puis resservi à la chaîne
+            byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+            target = new CachedBodyRequest(request, body);
+            MessageDigest digest = sha256();
+            digest.update(body);
+            fingerprint = baseType(request) + "|" + HexFormat.of().formatHex(digest.digest());
+        }
+
+        // Deux tours : si l'exécution attendue est abandonnée, la clé est libre et on la reprend
+        claiming:
+        for (int attempt = 0; attempt < 2; attempt++) {
+            IdempotencyStore.Claim claim = store.claim(key, fingerprint);
+            switch (claim.getStatus()) {
+                case ACQUIRED -> {
+                    execute(key, target, response, chain);
+                    return;
+                }
+                case COMPLETED -> {
+                    replay(response, claim.getResponse(), "replayed");
+                    return;
+                }
+                case MISMATCH -> {
+                    count("mismatch");
+                    error(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                            "Idempotency-Key already used for a different request");
+                    return;
+                }
+                case IN_FLIGHT -> {
+                    StoredResponse stored;
+                    try {
+                        stored = store.await(key, Duration.ofMillis(waitTimeoutMs));
+                    } catch (TimeoutException | InterruptedException e) {
+                        if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                        break claiming;
+                    }
+                    if (stored != null) {
+                        replay(response, stored, "coalesced");
+                        return;
+                    }
+                }
+            }
+        }
+        count("timeout");
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        error(request, response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+    }
+
+    private void execute(String key, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(request, wrapper);
+            int status = wrapper.getStatus();
+            if (isReplayable(status, wrapper) && wrapper.getContentSize() <= maxBodyBytes) {
+                store.complete(key, new StoredResponse(status, wrapper.getContentType(), wrapper.getContentAsByteArray()));
+                stored = true;
+            }
+            count("executed");
+        } finally {
+            if (!stored) store.release(key);
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Une réponse qui demande de réessayer plus tard ne doit pas être rejouée pendant tout le ttl de la clé.
+     */
+    private static boolean isReplayable(int status, HttpServletResponse response) {
+        if (status >= 500) return false;
+        if (status == HttpStatus.REQUEST_TIMEOUT.value()
+                || status == HttpStatus.CONFLICT.value()
+                || status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return false;
+        }
+        return response.getHeader(HttpHeaders.RETRY_AFTER) == null;
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored, String result) throws IOException {
+        count(result);
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) response.setContentType(stored.getContentType());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    /**
+     * SHA-256 des parts (nom puis contenu, lu en flux depuis le stockage du conteneur) : une autre photo
+     * sous la même clé donne une autre empreinte. Les parts restent disponibles pour le MultipartResolver.
+     */
+    private static String multipartFingerprint(HttpServletRequest request) throws IOException, ServletException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[8192];
+        for (Part part : request.getParts()) {
+            digest.update(part.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (InputStream in = part.getInputStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            digest.update((byte) 0);
+        }
+        return baseType(request) + "|" + HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static boolean isMultipart(HttpServletRequest request) {
+        return baseType(request).startsWith("multipart/");
+    }
+
+    private static String baseType(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null ? contentType.split(";")[0].trim().toLowerCase() : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void error(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.builder()
+                .status(status.value())
+                .errorType(status.name())
+                .message(message)
+                .timestamp(LocalDateTime.now())
+                .path(request.getRequestURI())
+                .build());
+    }
+
+    private void count(String result) {
+        meterRegistry.counter(METRIC, "result", result).increment();
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    /**
+     * Requête dont le corps, déjà lu pour l'empreinte, est resservi depuis la mémoire.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
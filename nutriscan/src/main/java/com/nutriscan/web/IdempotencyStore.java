@@ -0,0 +1,77 @@
+package com.nutriscan.web;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Stockage des clés d'idempotence et des réponses associées, utilisé par {@link IdempotencyFilter}.
+ *
+ * Implémentation par défaut : {@link InMemoryIdempotencyStore} (locale à l'instance, bornée).
+ * Une implémentation partagée (Redis, base) peut la remplacer avec {@code idempotency.store=<autre>}
+ * et son propre bean.
+ */
+public interface IdempotencyStore {
+
+    enum Status {
+        /** Clé réservée pour cette requête : l'appelant exécute puis appelle complete ou release */
+        ACQUIRED,
+        /** Même clé en cours d'exécution par une autre requête : attendre avec await */
+        IN_FLIGHT,
+        /** Réponse déjà enregistrée : la rejouer */
+        COMPLETED,
+        /** Clé déjà utilisée pour une requête différente */
+        MISMATCH
+    }
+
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    final class Claim {
+        private static final Claim ACQUIRED = new Claim(Status.ACQUIRED, null);
+        private static final Claim IN_FLIGHT = new Claim(Status.IN_FLIGHT, null);
+        private static final Claim MISMATCH = new Claim(Status.MISMATCH, null);
+
+        private final Status status;
+        private final StoredResponse response;
+
+        public static Claim acquired() {
+            return ACQUIRED;
+        }
+
+        public static Claim inFlight() {
+            return IN_FLIGHT;
+        }
+
+        public static Claim mismatch() {
+            return MISMATCH;
+        }
+
+        public static Claim completed(StoredResponse response) {
+            return new Claim(Status.COMPLETED, response);
+        }
+    }
+
+    /**
+     * Réserve atomiquement la clé, ou décrit l'état de la réservation existante.
+     *
+     * @param fingerprint empreinte de la requête, comparée à celle de la première requête
+     */
+    Claim claim(String key, String fingerprint);
+
+    /**
+     * Attend la fin d'une exécution en cours.
+     *
+     * @return la réponse enregistrée, ou null si l'exécution a été abandonnée (release) : la clé est alors libre
+     */
+    StoredResponse await(String key, Duration timeout) throws InterruptedException, TimeoutException;
+
+    void complete(String key, StoredResponse response);
+
+    /**
+     * Libère la clé sans réponse (échec, réponse non rejouable) : la prochaine requête sera exécutée.
+     */
+    void release(String key);
+}
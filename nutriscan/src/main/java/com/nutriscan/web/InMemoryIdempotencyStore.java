@@ -0,0 +1,102 @@
+package com.nutriscan.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Store d'idempotence local : cache Caffeine borné en nombre de réponses enregistrées, expiration après ttl.
+ * Chaque entrée porte un CompletableFuture que les requêtes concurrentes attendent (coalescence).
+ * Les entrées en cours pèsent 0 : l'éviction par taille ne touche que des réponses terminées, jamais une exécution en cours.
+ * Suffit pour une instance ; derrière un load balancer sans affinité, utiliser un store partagé.
+ */
+@Component
+@ConditionalOnProperty(name = "idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, Slot> slots;
+    /** Exécutions en cours : même si le cache évince leur entrée, complete/release retrouvent le future attendu */
+    private final Map<String, Slot> inFlight = new ConcurrentHashMap<>();
+
+    public InMemoryIdempotencyStore(@Value("${idempotency.max-entries:50000}") long maxEntries,
+                                    @Value("${idempotency.ttl-minutes:1440}") long ttlMinutes) {
+        this.slots = Caffeine.newBuilder()
+                .maximumWeight(maxEntries)
+                .weigher((String key, Slot slot) -> slot.result.isDone() ? 1 : 0)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    @Override
+    public Claim claim(String key, String fingerprint) {
+        Slot fresh = new Slot(fingerprint);
+        while (true) {
+            // Une exécution en cours reste propriétaire de la clé, même si son entrée a quitté le cache (ttl)
+            Slot running = inFlight.get(key);
+            if (running != null) return running.fingerprint.equals(fingerprint) ? Claim.inFlight() : Claim.mismatch();
+
+            Slot existing = slots.asMap().putIfAbsent(key, fresh);
+            if (existing == null) {
+                Slot raced = inFlight.putIfAbsent(key, fresh);
+                if (raced == null) return Claim.acquired();
+                slots.asMap().remove(key, fresh);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) return Claim.mismatch();
+            if (!existing.result.isDone()) return Claim.inFlight();
+
+            StoredResponse response = existing.result.join();
+            if (response != null) return Claim.completed(response);
+            // Libérée entre-temps : on retente de prendre la place
+            slots.asMap().remove(key, existing);
+        }
+    }
+
+    @Override
+    public StoredResponse await(String key, Duration timeout) throws InterruptedException, TimeoutException {
+        Slot slot = inFlight.get(key);
+        if (slot == null) slot = slots.getIfPresent(key);
+        if (slot == null) return null;
+        try {
+            return slot.result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        Slot slot = inFlight.remove(key);
+        if (slot == null) return;
+        slot.result.complete(response);
+        // Réécrite pour que le weigher la compte désormais (1) dans la borne du cache
+        slots.asMap().replace(key, slot, slot);
+    }
+
+    @Override
+    public void release(String key) {
+        Slot slot = inFlight.remove(key);
+        if (slot == null) return;
+        slots.asMap().remove(key, slot);
+        slot.result.complete(null);
+    }
+
+    private static final class Slot {
+        final String fingerprint;
+        final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        Slot(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
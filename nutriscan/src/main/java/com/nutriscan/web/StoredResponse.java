@@ -0,0 +1,20 @@
+package com.nutriscan.web;
+
+import lombok.Getter;
+
+/**
+ * Réponse enregistrée pour une clé d'idempotence, rejouée telle quelle aux requêtes répétées.
+ */
+@Getter
+public class StoredResponse {
+
+    private final int status;
+    private final String contentType;
+    private final byte[] body;
+
+    public StoredResponse(int status, String contentType, byte[] body) {
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+    }
+}
@@ -0,0 +1,23 @@
+-- Migration V10: Change tracking for the mobile delta sync (/api/sync)
+-- updated_at on every synced table, indexed with user_id, plus tombstones for deleted rows.
+
+ALTER TABLE meals ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+ALTER TABLE weight_history ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+
+-- No backfill: existing rows keep NULL, every client starts with a full resync (no cursor yet)
+
+CREATE INDEX IF NOT EXISTS idx_meals_user_updated ON meals (user_id, updated_at);
+CREATE INDEX IF NOT EXISTS idx_weight_history_user_updated ON weight_history (user_id, updated_at);
+CREATE INDEX IF NOT EXISTS idx_meal_plans_user_updated ON meal_plans (user_id, updated_at);
+CREATE INDEX IF NOT EXISTS idx_grocery_lists_user_updated ON grocery_lists (user_id, updated_at);
+
+CREATE TABLE IF NOT EXISTS sync_tombstones (
+    id          BIGSERIAL PRIMARY KEY,
+    user_id     BIGINT      NOT NULL,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id   BIGINT      NOT NULL,
+    deleted_at  TIMESTAMP   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_sync_tombstones_user_deleted ON sync_tombstones (user_id, deleted_at);
+CREATE INDEX IF NOT EXISTS idx_sync_tombstones_deleted ON sync_tombstones (deleted_at);
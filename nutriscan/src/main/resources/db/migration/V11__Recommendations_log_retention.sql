@@ -0,0 +1,27 @@
+-- Migration V11: recommendations_log retention and compaction
+-- Composite indexes for the repository lookups (latest rows of a user/type, optionally for one date)
+-- and for the retention job, which ranks rows per (user, type, date) and compacts the older ones
+-- into recommendations_daily_aggregates.
+-- The indexes and the aggregates table are also declared on the entities, so ddl-auto=update creates them
+-- without Flyway.
+
+CREATE INDEX IF NOT EXISTS idx_recommendations_log_user_type_created
+    ON recommendations_log (user_id, type, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_recommendations_log_user_type_date_created
+    ON recommendations_log (user_id, type, date, created_at DESC, id DESC);
+
+CREATE TABLE IF NOT EXISTS recommendations_daily_aggregates (
+    id               BIGSERIAL PRIMARY KEY,
+    user_id          BIGINT           NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    type             VARCHAR(30)      NOT NULL,
+    date             DATE             NOT NULL,
+    row_count        BIGINT           NOT NULL,
+    score_count      BIGINT,
+    score_sum        DOUBLE PRECISION,
+    min_score        DOUBLE PRECISION,
+    max_score        DOUBLE PRECISION,
+    first_created_at TIMESTAMP,
+    last_created_at  TIMESTAMP,
+    CONSTRAINT uk_recommendations_daily_aggregate UNIQUE (user_id, type, date)
+);
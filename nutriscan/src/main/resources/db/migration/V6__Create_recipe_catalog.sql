@@ -0,0 +1,52 @@
+-- Migration V6: Persistent recipe catalog + search cache
+-- Recipes returned by Edamam / Gemini are stored once (keyed by uri) with their ingredient lines as rows,
+-- and search results are cached by normalized query + filters.
+
+CREATE TABLE IF NOT EXISTS recipes (
+    id            BIGSERIAL PRIMARY KEY,
+    uri           VARCHAR(500)  NOT NULL UNIQUE,
+    label         VARCHAR(255)  NOT NULL,
+    image         VARCHAR(1000),
+    source        VARCHAR(255),
+    url           VARCHAR(1000),
+    servings      INTEGER,
+    calories      DOUBLE PRECISION,
+    total_time    DOUBLE PRECISION,
+    protein       DOUBLE PRECISION,
+    carbs         DOUBLE PRECISION,
+    fat           DOUBLE PRECISION,
+    meal_type     VARCHAR(20),
+    diet_labels   TEXT,
+    health_labels TEXT,
+    nutrition     TEXT,
+    created_at    TIMESTAMP     NOT NULL,
+    updated_at    TIMESTAMP     NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_recipes_meal_type_updated ON recipes (meal_type, updated_at DESC);
+
+CREATE TABLE IF NOT EXISTS recipe_ingredients (
+    id        BIGSERIAL PRIMARY KEY,
+    recipe_id BIGINT       NOT NULL REFERENCES recipes (id) ON DELETE CASCADE,
+    position  INTEGER      NOT NULL,
+    text      VARCHAR(500) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_recipe_ingredients_recipe ON recipe_ingredients (recipe_id, position);
+
+CREATE TABLE IF NOT EXISTS recipe_search_cache (
+    id               BIGSERIAL PRIMARY KEY,
+    cache_key        VARCHAR(64)   NOT NULL UNIQUE,
+    normalized_query VARCHAR(1000) NOT NULL,
+    created_at       TIMESTAMP     NOT NULL,
+    expires_at       TIMESTAMP     NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_recipe_search_cache_expires ON recipe_search_cache (expires_at);
+
+CREATE TABLE IF NOT EXISTS recipe_search_cache_results (
+    cache_id  BIGINT  NOT NULL REFERENCES recipe_search_cache (id) ON DELETE CASCADE,
+    recipe_id BIGINT  NOT NULL REFERENCES recipes (id) ON DELETE CASCADE,
+    position  INTEGER NOT NULL,
+    PRIMARY KEY (cache_id, position)
+);
@@ -0,0 +1,32 @@
+-- Migration V7: Nightly analytics batch
+-- PATTERN rows in recommendations_log, plus run/partition checkpoints so an interrupted batch can resume.
+
+ALTER TABLE recommendations_log DROP CONSTRAINT IF EXISTS recommendations_log_type_check;
+
+ALTER TABLE recommendations_log ADD CONSTRAINT recommendations_log_type_check
+CHECK (type IN ('DAILY_SUMMARY', 'MEAL', 'PATTERN'));
+
+CREATE TABLE IF NOT EXISTS analytics_batch_runs (
+    id              BIGSERIAL PRIMARY KEY,
+    run_date        DATE        NOT NULL UNIQUE,
+    status          VARCHAR(20) NOT NULL,
+    users_processed BIGINT,
+    started_at      TIMESTAMP   NOT NULL,
+    finished_at     TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS analytics_batch_partitions (
+    id              BIGSERIAL PRIMARY KEY,
+    run_id          BIGINT      NOT NULL REFERENCES analytics_batch_runs (id) ON DELETE CASCADE,
+    partition_index INTEGER     NOT NULL,
+    from_user_id    BIGINT      NOT NULL,
+    to_user_id      BIGINT      NOT NULL,
+    last_user_id    BIGINT,
+    status          VARCHAR(20) NOT NULL,
+    users_processed BIGINT      NOT NULL DEFAULT 0,
+    updated_at      TIMESTAMP,
+    CONSTRAINT uk_analytics_batch_partition UNIQUE (run_id, partition_index)
+);
+
+-- Keyset scan of the batch: meals by (user_id, id) restricted to a date window
+CREATE INDEX IF NOT EXISTS idx_meals_user_id_id_date ON meals (user_id, id, date);
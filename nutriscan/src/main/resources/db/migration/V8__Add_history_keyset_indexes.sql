@@ -0,0 +1,15 @@
+-- Migration V8: Composite indexes for history pagination
+-- Keyset pages (ORDER BY created_at DESC, id DESC / date, id) and "latest" lookups become index range scans.
+-- The same indexes are declared on the entities (@Table indexes), so ddl-auto=update creates them without Flyway.
+
+CREATE INDEX IF NOT EXISTS idx_meal_plans_user_created
+    ON meal_plans (user_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_grocery_lists_user_created
+    ON grocery_lists (user_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_weight_history_user_date
+    ON weight_history (user_id, date, id);
+
+CREATE INDEX IF NOT EXISTS idx_meals_user_date
+    ON meals (user_id, date);
@@ -0,0 +1,143 @@
+-- Migration V9: Monthly range partitioning of meals and meal_items
+-- meals is partitioned on date, meal_items on a copy of its meal's date (meal_date), month by month,
+-- so date-bounded queries only touch the relevant partitions and old months can be detached/archived.
+-- Requires PostgreSQL 15+ (foreign key to a partitioned table whose rows may move between partitions).
+
+ALTER TABLE meal_items RENAME TO meal_items_legacy;
+ALTER TABLE meals RENAME TO meals_legacy;
+
+CREATE SEQUENCE IF NOT EXISTS meals_partitioned_id_seq;
+CREATE SEQUENCE IF NOT EXISTS meal_items_partitioned_id_seq;
+
+-- Partitioned tables cannot use identity columns: ids come from a sequence default (Hibernate IDENTITY still works).
+-- The primary key must contain the partition key, so it is (id, date); id alone stays unique through the sequence,
+-- which is all the JPA @Id on Meal.id relies on.
+CREATE TABLE meals (
+    id              BIGINT           NOT NULL DEFAULT nextval('meals_partitioned_id_seq'),
+    user_id         BIGINT           NOT NULL,
+    date            DATE             NOT NULL,
+    time            TIME,
+    meal_type       VARCHAR(50),
+    source          VARCHAR(20),
+    total_calories  DOUBLE PRECISION,
+    total_protein   DOUBLE PRECISION,
+    total_carbs     DOUBLE PRECISION,
+    total_fat       DOUBLE PRECISION,
+    CONSTRAINT meals_partitioned_pkey PRIMARY KEY (id, date)
+) PARTITION BY RANGE (date);
+
+-- Same source check as the legacy table (V4/V5, kept in sync with MealSource), copied rather than retyped
+DO $$
+DECLARE
+    source_check TEXT;
+BEGIN
+    SELECT pg_get_constraintdef(oid) INTO source_check
+    FROM pg_constraint
+    WHERE conrelid = 'meals_legacy'::regclass AND conname = 'meals_source_check';
+
+    EXECUTE 'ALTER TABLE meals ADD CONSTRAINT meals_source_check ' || COALESCE(source_check,
+            'CHECK (source IN (''SCAN_PHOTO'', ''MANUAL'', ''BARCODE'', ''MEAL_PLAN'', ''API'', ''RECIPE_SEARCH''))');
+END;
+$$;
+
+-- Foreign keys and indexes are added at the end, after the legacy rows are copied
+CREATE TABLE meal_items (
+    id              BIGINT           NOT NULL DEFAULT nextval('meal_items_partitioned_id_seq'),
+    meal_id         BIGINT           NOT NULL,
+    meal_date       DATE             NOT NULL,
+    food_id         BIGINT,
+    food_name       VARCHAR(255),
+    quantity        DOUBLE PRECISION,
+    serving_unit    VARCHAR(255),
+    calories        DOUBLE PRECISION,
+    protein         DOUBLE PRECISION,
+    carbs           DOUBLE PRECISION,
+    fat             DOUBLE PRECISION,
+    CONSTRAINT meal_items_partitioned_pkey PRIMARY KEY (id, meal_date)
+) PARTITION BY RANGE (meal_date);
+
+ALTER SEQUENCE meals_partitioned_id_seq OWNED BY meals.id;
+ALTER SEQUENCE meal_items_partitioned_id_seq OWNED BY meal_items.id;
+
+-- Rows outside every monthly partition (far past/future dates) land here instead of failing
+CREATE TABLE IF NOT EXISTS meals_default PARTITION OF meals DEFAULT;
+CREATE TABLE IF NOT EXISTS meal_items_default PARTITION OF meal_items DEFAULT;
+
+-- Creates the monthly partitions of both tables for [from_month, from_month + months); returns how many were created.
+-- Called here for existing data and then by MealPartitionMaintenanceService to stay a few months ahead.
+CREATE OR REPLACE FUNCTION create_meal_partitions(from_month DATE, months INT) RETURNS INT AS $$
+DECLARE
+    month_start DATE;
+    month_end   DATE;
+    suffix      TEXT;
+    created     INT := 0;
+BEGIN
+    FOR i IN 0 .. months - 1 LOOP
+        month_start := (date_trunc('month', from_month) + make_interval(months => i))::date;
+        month_end   := (month_start + INTERVAL '1 month')::date;
+        suffix      := to_char(month_start, 'YYYYMM');
+
+        IF to_regclass('meals_p' || suffix) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF meals FOR VALUES FROM (%L) TO (%L)',
+                           'meals_p' || suffix, month_start, month_end);
+            created := created + 1;
+        END IF;
+        IF to_regclass('meal_items_p' || suffix) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF meal_items FOR VALUES FROM (%L) TO (%L)',
+                           'meal_items_p' || suffix, month_start, month_end);
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- One partition per month from the oldest meal to three months ahead
+DO $$
+DECLARE
+    first_month DATE := date_trunc('month', COALESCE((SELECT min(date) FROM meals_legacy), CURRENT_DATE))::date;
+BEGIN
+    PERFORM create_meal_partitions(first_month,
+            ((extract(YEAR FROM CURRENT_DATE) - extract(YEAR FROM first_month)) * 12
+             + extract(MONTH FROM CURRENT_DATE) - extract(MONTH FROM first_month))::int + 4);
+END;
+$$;
+
+-- Legacy rows without a date cannot be in any range: they go to the default partition under 1970-01-01
+INSERT INTO meals (id, user_id, date, time, meal_type, source, total_calories, total_protein, total_carbs, total_fat)
+SELECT id, user_id, COALESCE(date, DATE '1970-01-01'), time, meal_type, source,
+       total_calories, total_protein, total_carbs, total_fat
+FROM meals_legacy;
+
+INSERT INTO meal_items (id, meal_id, meal_date, food_id, food_name, quantity, serving_unit, calories, protein, carbs, fat)
+SELECT i.id, i.meal_id, m.date, i.food_id, i.food_name, i.quantity, i.serving_unit, i.calories, i.protein, i.carbs, i.fat
+FROM meal_items_legacy i
+JOIN meals m ON m.id = i.meal_id;
+
+SELECT setval('meals_partitioned_id_seq', COALESCE((SELECT max(id) FROM meals), 0) + 1, false);
+SELECT setval('meal_items_partitioned_id_seq', COALESCE((SELECT max(id) FROM meal_items), 0) + 1, false);
+
+DROP TABLE meal_items_legacy;
+DROP TABLE meals_legacy;
+
+-- Every foreign key and index the legacy tables had (Hibernate schema, V1, V7, V8), recreated explicitly
+-- once the data is in: they are partitioned, so they also apply to partitions created later.
+ALTER TABLE meals
+    ADD CONSTRAINT fk_meals_user FOREIGN KEY (user_id) REFERENCES users (id);
+
+-- ON UPDATE CASCADE: changing a meal's date moves its items along with it.
+-- DEFERRABLE: on update, Hibernate inserts the new items before it updates the meal's date.
+ALTER TABLE meal_items
+    ADD CONSTRAINT fk_meal_items_meal FOREIGN KEY (meal_id, meal_date) REFERENCES meals (id, date)
+        ON UPDATE CASCADE ON DELETE CASCADE DEFERRABLE INITIALLY DEFERRED;
+
+-- V1: food_id is nullable (API foods have no local row)
+ALTER TABLE meal_items
+    ADD CONSTRAINT fk_meal_items_food FOREIGN KEY (food_id) REFERENCES foods (id);
+
+-- V7: keyset scan of the nightly batch
+CREATE INDEX IF NOT EXISTS idx_meals_user_id_id_date ON meals (user_id, id, date);
+-- V8: day / date-range lookups of a user
+CREATE INDEX IF NOT EXISTS idx_meals_user_date ON meals (user_id, date);
+-- Item loading by meal, and the FK lookups above (PostgreSQL does not index referencing columns by itself)
+CREATE INDEX IF NOT EXISTS idx_meal_items_meal ON meal_items (meal_id, meal_date);
+CREATE INDEX IF NOT EXISTS idx_meal_items_food ON meal_items (food_id);
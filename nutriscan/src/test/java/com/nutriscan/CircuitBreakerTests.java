@@ -0,0 +1,67 @@
+package com.nutriscan;
+
+import com.nutriscan.resilience.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTests {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void testOpensOnFailureRateThenRecoversThroughProbes() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 50, 100, 1000 * MS, 5000 * MS, 2);
+        long now = 0;
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire(now));
+            breaker.onResult(i == 0, 10 * MS, now);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());   // minimum d'appels pas encore atteint
+
+        assertTrue(breaker.tryAcquire(now));
+        breaker.onResult(true, 10 * MS, now);                        // 2 échecs sur 4
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire(now + 4999 * MS));
+
+        now += 5000 * MS;
+        assertTrue(breaker.tryAcquire(now));
+        assertTrue(breaker.tryAcquire(now));
+        assertFalse(breaker.tryAcquire(now));                        // 2 appels d'essai au plus
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        breaker.onResult(false, 10 * MS, now);
+        breaker.onResult(false, 10 * MS, now);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    public void testSlowCallsOpenAndFailedProbeReopens() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 100, 75, 1000 * MS, 5000 * MS, 1);
+        long now = 0;
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire(now));
+            breaker.onResult(false, (i == 0 ? 10 : 2000) * MS, now);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        now += 5000 * MS;
+        assertTrue(breaker.tryAcquire(now));
+        breaker.onResult(true, 10 * MS, now);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire(now + 10 * MS));
+    }
+
+    @Test
+    public void testReleasedProbeFreesItsSlot() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 50, 100, 1000 * MS, 100 * MS, 1);
+        breaker.onResult(true, 0, 0);
+        breaker.onResult(true, 0, 0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        assertTrue(breaker.tryAcquire(100 * MS));
+        assertFalse(breaker.tryAcquire(100 * MS));
+        breaker.release();
+        assertTrue(breaker.tryAcquire(100 * MS));
+    }
+}
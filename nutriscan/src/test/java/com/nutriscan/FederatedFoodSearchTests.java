@@ -0,0 +1,160 @@
+package com.nutriscan;
+
+import com.nutriscan.dto.response.FoodInfoResponse;
+import com.nutriscan.dto.response.FoodResponse;
+import com.nutriscan.dto.response.FoodSearchResponse;
+import com.nutriscan.dto.response.OffProductResponse;
+import com.nutriscan.resilience.Upstream;
+import com.nutriscan.resilience.UpstreamUnavailableException;
+import com.nutriscan.service.FederatedFoodSearchService;
+import com.nutriscan.service.FoodService;
+import com.nutriscan.service.NutritionDatabaseService;
+import com.nutriscan.service.OpenFoodFactsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FederatedFoodSearchTests {
+
+    private FederatedFoodSearchService service;
+
+    @AfterEach
+    public void tearDown() {
+        if (service != null) ReflectionTestUtils.invokeMethod(service, "shutdown");
+    }
+
+    @Test
+    public void testMergeDedupesAndRanksExactThenLocal() {
+        service = service(
+                () -> List.of(local(1L, "Crème fraîche"), local(2L, "Fromage blanc")),
+                () -> List.of(edamam("creme fraiche,"), edamam("Creme fraiche light"), edamam("Fresh cream")),
+                () -> List.of(off("123", "Organic crème fraîche"), off("123", "Same barcode, other name")),
+                1500);
+
+        FoodSearchResponse response = service.searchAll("Crème Fraîche", 10);
+
+        List<String> names = response.getItems().stream().map(FoodSearchResponse.Item::getName).toList();
+        // exacte (locale gagne le doublon), préfixe, contenue, puis le reste dans l'ordre des sources
+        assertEquals(List.of("Crème fraîche", "Creme fraiche light", "Organic crème fraîche",
+                "Fromage blanc", "Fresh cream"), names);
+        assertEquals("LOCAL", response.getItems().get(0).getSource());
+        assertEquals(1L, response.getItems().get(0).getFoodId());
+        assertEquals("123", response.getItems().get(2).getBarcode());
+        assertEquals(12.5, response.getItems().get(2).getProtein());
+
+        assertEquals(List.of("OK", "OK", "OK"), statuses(response));
+        assertEquals(2, response.getSources().get(2).getCount(), "Counts are taken before dedupe");
+    }
+
+    @Test
+    public void testLimitIsAppliedAfterRanking() {
+        service = service(
+                () -> List.of(local(1L, "Apple pie")),
+                () -> List.of(edamam("Apple"), edamam("Green apple")),
+                List::of,
+                1500);
+
+        List<String> names = service.searchAll("apple", 2).getItems().stream()
+                .map(FoodSearchResponse.Item::getName).toList();
+        assertEquals(List.of("Apple", "Apple pie"), names);
+    }
+
+    @Test
+    public void testUpstreamFailuresAreNotReportedAsOk() {
+        service = service(
+                () -> List.of(local(1L, "Rice")),
+                () -> { throw new ResourceAccessException("Connection refused"); },
+                () -> { throw new UpstreamUnavailableException(Upstream.OPEN_FOOD_FACTS, "circuit open"); },
+                1500);
+
+        FoodSearchResponse response = service.searchAll("rice", 10);
+
+        assertEquals(List.of("OK", "FAILED", "UNAVAILABLE"), statuses(response));
+        assertEquals(1, response.getItems().size());
+    }
+
+    @Test
+    public void testSlowSourceIsCancelledAtDeadline() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        service = service(
+                () -> List.of(local(1L, "Oats")),
+                () -> List.of(edamam("Oat milk")),
+                () -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return List.of(off("42", "Oat flakes"));
+                },
+                200);
+
+        FoodSearchResponse response = service.searchAll("oats", 10);
+
+        assertTrue(response.getTookMs() < 2_000, "Search should return at the deadline, took " + response.getTookMs());
+        assertEquals(List.of("OK", "OK", "TIMEOUT"), statuses(response));
+        assertNull(response.getSources().get(2).getTookMs());
+        assertEquals(List.of("Oats", "Oat milk"),
+                response.getItems().stream().map(FoodSearchResponse.Item::getName).toList());
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS), "Late source should be interrupted");
+    }
+
+    private static FederatedFoodSearchService service(Supplier<List<FoodResponse>> local,
+                                                      Supplier<List<FoodInfoResponse>> edamam,
+                                                      Supplier<List<OffProductResponse>> off,
+                                                      long deadlineMs) {
+        FederatedFoodSearchService service = new FederatedFoodSearchService(
+                new FoodService(null) {
+                    @Override
+                    public List<FoodResponse> searchByName(String query) {
+                        return local.get();
+                    }
+                },
+                new NutritionDatabaseService(null, null, null) {
+                    @Override
+                    public List<FoodInfoResponse> fetchFoods(String query, int limit) {
+                        return edamam.get();
+                    }
+                },
+                new OpenFoodFactsService(null, null, null) {
+                    @Override
+                    public List<OffProductResponse> fetchProducts(String query, int pageSize) {
+                        return off.get();
+                    }
+                });
+        ReflectionTestUtils.setField(service, "deadlineMs", deadlineMs);
+        ReflectionTestUtils.setField(service, "maxLimit", 50);
+        return service;
+    }
+
+    private static List<String> statuses(FoodSearchResponse response) {
+        return response.getSources().stream().map(FoodSearchResponse.SourceStatus::getStatus).toList();
+    }
+
+    private static FoodResponse local(Long id, String name) {
+        return FoodResponse.builder().id(id).name(name).servingSize(100.0).servingUnit("g").caloriesKcal(200.0).build();
+    }
+
+    private static FoodInfoResponse edamam(String name) {
+        return FoodInfoResponse.builder().name(name).calories(150.0).build();
+    }
+
+    private static OffProductResponse off(String code, String name) {
+        OffProductResponse.OffProduct product = new OffProductResponse.OffProduct();
+        product.setProductName(name);
+        product.setNutriments(Map.of("proteins_100g", 12.5, "energy-kcal_100g", "210"));
+        OffProductResponse response = new OffProductResponse();
+        response.setCode(code);
+        response.setProduct(product);
+        return response;
+    }
+}
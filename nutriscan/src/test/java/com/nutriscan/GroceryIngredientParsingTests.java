@@ -0,0 +1,95 @@
+package com.nutriscan;
+
+import com.nutriscan.service.IngredientCategorizer;
+import com.nutriscan.util.IngredientAggregator;
+import com.nutriscan.util.IngredientLineParser;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GroceryIngredientParsingTests {
+
+    private final IngredientCategorizer categorizer =
+            new IngredientCategorizer(new ClassPathResource("grocery/ingredient-categories.txt"));
+
+    @Test
+    public void testCategorizesEnglishAndFrenchIngredients() {
+        assertEquals("VEGETABLES", categorizer.categorize("2 tomatoes"));
+        assertEquals("VEGETABLES", categorizer.categorize("Pommes de terre"));
+        assertEquals("FRUITS", categorizer.categorize("pomme"));
+        assertEquals("PROTEIN", categorizer.categorize("Œufs"));
+        assertEquals("PROTEIN", categorizer.categorize("filet de volaille"));
+        assertEquals("VEGETABLES", categorizer.categorize("gousse d'ail"));
+        assertEquals("DAIRY", categorizer.categorize("crème fraîche"));
+        assertEquals("CONDIMENTS", categorizer.categorize("huile d'olive"));
+        assertEquals("CONDIMENTS", categorizer.categorize("black pepper"));
+        assertEquals("VEGETABLES", categorizer.categorize("red bell pepper"));
+        assertEquals("GRAINS", categorizer.categorize("Riz basmati"));
+        assertEquals(IngredientCategorizer.DEFAULT_CATEGORY, categorizer.categorize("eau gazeuse"));
+        assertEquals(IngredientCategorizer.DEFAULT_CATEGORY, categorizer.categorize(null));
+    }
+
+    @Test
+    public void testParsesQuantitiesUnitsAndNames() {
+        assertParsed("500g chicken breast", 500, "g", "chicken breast");
+        assertParsed("2 cups chopped fresh spinach", 2, "cup", "spinach");
+        assertParsed("1 1/2 cuillères à soupe d'huile d'olive, extra vierge", 1.5, "tbsp", "huile d'olive");
+        assertParsed("1,5 kg de pommes de terre", 1.5, "kg", "pommes de terre");
+        assertParsed("2-3 gousses d'ail émincées", 3, "clove", "ail");
+        assertParsed("½ c.c. de sel", 0.5, "tsp", "sel");
+        assertParsed("3 oeufs bio", 3, "item", "oeufs");
+        assertParsed("Sel et poivre (au goût)", 1, "item", "sel et poivre");
+    }
+
+    @Test
+    public void testAggregatesAcrossUnitsAndSpellings() {
+        IngredientAggregator aggregator = new IngredientAggregator();
+        aggregator.add("200 g poulet");
+        aggregator.add("0,5 kg de poulet");
+        aggregator.add("2 cups milk");
+        aggregator.add("500 ml milk");
+        aggregator.add("1 tomate");
+        aggregator.add("2 Tomates");
+        aggregator.add("2 gousses d'ail");
+        aggregator.add("1 ail");
+        aggregator.add("1 tbsp huile d'olive");
+        aggregator.add("2 tbsp huile d’olive");
+
+        List<IngredientAggregator.AggregatedIngredient> result = aggregator.result();
+        assertEquals(6, result.size());
+        assertAggregated(result.get(0), "poulet", 700, "g");
+        assertAggregated(result.get(1), "milk", 980, "ml");
+        assertAggregated(result.get(2), "tomate", 3, "item");
+        assertAggregated(result.get(3), "ail", 2, "clove");
+        assertAggregated(result.get(4), "ail", 1, "item");
+        assertAggregated(result.get(5), "huile d'olive", 3, "tbsp");
+    }
+
+    @Test
+    public void testConvertsVolumeToMassWhenDensityKnown() {
+        IngredientAggregator aggregator = new IngredientAggregator();
+        aggregator.add("1 kg de farine");
+        aggregator.add("1 tasse de farine");
+
+        List<IngredientAggregator.AggregatedIngredient> result = aggregator.result();
+        assertEquals(1, result.size());
+        assertAggregated(result.get(0), "farine", 1.13, "kg");
+    }
+
+    private static void assertAggregated(IngredientAggregator.AggregatedIngredient item,
+                                         String name, double quantity, String unit) {
+        assertEquals(name, item.getName());
+        assertEquals(quantity, item.getQuantity(), 0.01, name);
+        assertEquals(unit, item.getUnit(), name);
+    }
+
+    private static void assertParsed(String line, double quantity, String unit, String name) {
+        IngredientLineParser.ParsedIngredient parsed = IngredientLineParser.parse(line);
+        assertEquals(quantity, parsed.getQuantity(), 1e-9, line);
+        assertEquals(unit, parsed.getUnit(), line);
+        assertEquals(name, parsed.getName(), line);
+    }
+}
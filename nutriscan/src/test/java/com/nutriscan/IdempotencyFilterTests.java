@@ -0,0 +1,101 @@
+package com.nutriscan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutriscan.model.User;
+import com.nutriscan.security.CustomUserDetails;
+import com.nutriscan.web.IdempotencyFilter;
+import com.nutriscan.web.InMemoryIdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyFilterTests {
+
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        filter = new IdempotencyFilter(new InMemoryIdempotencyStore(100, 60),
+                new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "paths", List.of("/api/meals"));
+        ReflectionTestUtils.setField(filter, "waitTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(filter, "maxBodyBytes", 262144);
+
+        CustomUserDetails user = new CustomUserDetails(User.builder().id(7L).email("u@nutriscan.test").role("ROLE_USER").build());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testRateLimitedResponseIsNotReplayedOnRetry() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        FilterChain chain = (req, res) -> {
+            HttpServletResponse response = (HttpServletResponse) res;
+            if (calls.incrementAndGet() == 1) {
+                response.setStatus(429);
+                response.setHeader(HttpHeaders.RETRY_AFTER, "2");
+            } else {
+                response.setStatus(201);
+                response.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+            }
+        };
+
+        MockHttpServletResponse first = send(chain, "{\"mealType\":\"LUNCH\"}");
+        assertEquals(429, first.getStatus());
+
+        MockHttpServletResponse retry = send(chain, "{\"mealType\":\"LUNCH\"}");
+        assertEquals(201, retry.getStatus());
+        assertNull(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, calls.get());
+
+        MockHttpServletResponse replay = send(chain, "{\"mealType\":\"LUNCH\"}");
+        assertEquals(201, replay.getStatus());
+        assertEquals("true", replay.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testSameKeyWithDifferentBodyOfSameLengthIsRejected() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        FilterChain chain = (req, res) -> {
+            calls.incrementAndGet();
+            req.getInputStream().readAllBytes();   // le contrôleur doit toujours pouvoir lire le corps
+            ((HttpServletResponse) res).setStatus(201);
+        };
+
+        assertEquals(201, send(chain, "{\"mealType\":\"LUNCH\"}").getStatus());
+        assertEquals(422, send(chain, "{\"mealType\":\"SNACK\"}").getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    private MockHttpServletResponse send(FilterChain chain, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/meals");
+        request.addHeader(IdempotencyFilter.HEADER, "key-1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
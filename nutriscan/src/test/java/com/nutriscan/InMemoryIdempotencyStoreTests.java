@@ -0,0 +1,61 @@
+package com.nutriscan;
+
+import com.nutriscan.web.IdempotencyStore;
+import com.nutriscan.web.InMemoryIdempotencyStore;
+import com.nutriscan.web.StoredResponse;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryIdempotencyStoreTests {
+
+    @Test
+    public void testSecondClaimReplaysCompletedResponse() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(100, 60);
+        assertEquals(IdempotencyStore.Status.ACQUIRED, store.claim("k", "json|42").getStatus());
+        assertEquals(IdempotencyStore.Status.IN_FLIGHT, store.claim("k", "json|42").getStatus());
+        assertEquals(IdempotencyStore.Status.MISMATCH, store.claim("k", "json|43").getStatus());
+
+        store.complete("k", new StoredResponse(201, "application/json", "{}".getBytes(StandardCharsets.UTF_8)));
+        IdempotencyStore.Claim replay = store.claim("k", "json|42");
+        assertEquals(IdempotencyStore.Status.COMPLETED, replay.getStatus());
+        assertEquals(201, replay.getResponse().getStatus());
+    }
+
+    @Test
+    public void testWaiterIsReleasedAndKeyCanBeReclaimed() throws Exception {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(100, 60);
+        store.claim("k", "fp");
+        CompletableFuture<StoredResponse> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.await("k", Duration.ofSeconds(5));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        store.release("k");   // exécution en échec : pas de réponse à rejouer
+        assertNull(waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(IdempotencyStore.Status.ACQUIRED, store.claim("k", "fp").getStatus());
+    }
+
+    @Test
+    public void testInFlightKeySurvivesSizeEviction() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2, 60);
+        assertEquals(IdempotencyStore.Status.ACQUIRED, store.claim("running", "fp").getStatus());
+        for (int i = 0; i < 10; i++) {
+            store.claim("done-" + i, "fp");
+            store.complete("done-" + i, new StoredResponse(201, null, new byte[0]));
+        }
+
+        assertEquals(IdempotencyStore.Status.IN_FLIGHT, store.claim("running", "fp").getStatus());
+        assertEquals(IdempotencyStore.Status.MISMATCH, store.claim("running", "other").getStatus());
+        store.complete("running", new StoredResponse(200, null, new byte[0]));
+        assertEquals(IdempotencyStore.Status.COMPLETED, store.claim("running", "fp").getStatus());
+    }
+}
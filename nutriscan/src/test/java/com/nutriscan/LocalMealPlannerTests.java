@@ -0,0 +1,124 @@
+package com.nutriscan;
+
+import com.nutriscan.service.planner.DefaultRecipeCatalog;
+import com.nutriscan.service.planner.LocalMealPlanner;
+import com.nutriscan.service.planner.PlannerRecipe;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalMealPlannerTests {
+
+    private static final LocalMealPlanner.Targets TARGETS = new LocalMealPlanner.Targets(2200, 130, 250, 73);
+
+    @Test
+    public void testPlanHitsCalorieTargetWithCatalog() {
+        // Le catalogue intégré couvre environ 1400-2100 kcal/jour
+        LocalMealPlanner.Targets targets = new LocalMealPlanner.Targets(1800, 100, 200, 60);
+        LocalMealPlanner.Result result = LocalMealPlanner.solve(catalogBySlot(), 14, targets,
+                new LocalMealPlanner.Options(200_000_000L, 200_000, 42));
+
+        assertEquals(14, result.getPlan().length);
+        for (PlannerRecipe[] day : result.getPlan()) {
+            for (PlannerRecipe recipe : day) {
+                assertNotNull(recipe, "Every slot should be filled");
+            }
+        }
+        assertTrue(result.getMeanCalorieDeviation() < 0.10,
+                "Mean calorie deviation should stay under 10% but was " + result.getMeanCalorieDeviation());
+    }
+
+    @Test
+    public void testAvoidsSameRecipeOnConsecutiveDays() {
+        LocalMealPlanner.Result result = LocalMealPlanner.solve(syntheticPool(40, 7), 14, TARGETS,
+                new LocalMealPlanner.Options(200_000_000L, 200_000, 7));
+
+        PlannerRecipe[][] plan = result.getPlan();
+        for (int d = 1; d < plan.length; d++) {
+            for (int s = 0; s < LocalMealPlanner.SLOTS.length; s++) {
+                assertNotSame(plan[d - 1][s], plan[d][s], "Same recipe on consecutive days at slot " + s);
+            }
+        }
+    }
+
+    @Test
+    public void testEmptySlotIsLeftUnassigned() {
+        List<List<PlannerRecipe>> pool = catalogBySlot();
+        pool.set(3, List.of());
+
+        LocalMealPlanner.Result result = LocalMealPlanner.solve(pool, 3, TARGETS,
+                new LocalMealPlanner.Options(50_000_000L, 10_000, 1));
+
+        for (PlannerRecipe[] day : result.getPlan()) {
+            assertNotNull(day[0]);
+            assertNull(day[3]);
+        }
+    }
+
+    /**
+     * Qualité de solution vs budget : l'écart doit diminuer (ou rester stable) avec le nombre d'itérations.
+     * Les temps se mesurent dans benchmark/LocalMealPlannerBenchmark.
+     */
+    @Test
+    public void testSolutionQualityImprovesWithBudget() {
+        List<List<PlannerRecipe>> pool = syntheticPool(60, 11);
+        double previousCost = Double.MAX_VALUE;
+
+        for (int iterations : new int[]{0, 1_000, 10_000, 100_000}) {
+            LocalMealPlanner.Result result = LocalMealPlanner.solve(pool, 14, TARGETS,
+                    new LocalMealPlanner.Options(1_000_000_000L, iterations, 3));
+            assertTrue(result.getCost() <= previousCost + 1e-9, "More search should never return a worse plan");
+            previousCost = result.getCost();
+        }
+
+        LocalMealPlanner.Result fast = LocalMealPlanner.solve(pool, 14, TARGETS,
+                new LocalMealPlanner.Options(50_000_000L, 200_000, 3));
+        assertTrue(fast.getElapsedNanos() < 500_000_000L, "Planner should stay well under the time budget");
+        assertTrue(fast.getMeanCalorieDeviation() < 0.05,
+                "Synthetic pool allows <5% deviation but was " + fast.getMeanCalorieDeviation());
+    }
+
+    private static List<List<PlannerRecipe>> catalogBySlot() {
+        List<List<PlannerRecipe>> pool = new ArrayList<>();
+        for (String slot : LocalMealPlanner.SLOTS) {
+            pool.add(DefaultRecipeCatalog.forMealType(slot));
+        }
+        return pool;
+    }
+
+    private static List<List<PlannerRecipe>> syntheticPool(int perSlot, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] shares = {0.25, 0.35, 0.30, 0.10};
+        Map<Integer, List<PlannerRecipe>> bySlot = new HashMap<>();
+        for (int s = 0; s < shares.length; s++) {
+            List<PlannerRecipe> list = new ArrayList<>();
+            for (int i = 0; i < perSlot; i++) {
+                double calories = TARGETS.getCalories() * shares[s] * (0.6 + random.nextDouble() * 0.8);
+                double proteinShare = 0.1 + random.nextDouble() * 0.3;
+                double fatShare = 0.2 + random.nextDouble() * 0.2;
+                double carbsShare = 1.0 - proteinShare - fatShare;
+                list.add(PlannerRecipe.builder()
+                        .label(LocalMealPlanner.SLOTS[s] + " " + i)
+                        .mealType(LocalMealPlanner.SLOTS[s])
+                        .calories(calories)
+                        .protein(calories * proteinShare / 4)
+                        .carbs(calories * carbsShare / 4)
+                        .fat(calories * fatShare / 9)
+                        .ingredientLines(List.of())
+                        .build());
+            }
+            bySlot.put(s, list);
+        }
+        List<List<PlannerRecipe>> pool = new ArrayList<>();
+        for (int s = 0; s < shares.length; s++) {
+            pool.add(bySlot.get(s));
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,82 @@
+package com.nutriscan;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.nutriscan.service.export.CsvMealExportWriter;
+import com.nutriscan.service.export.MealExportRow;
+import com.nutriscan.service.export.MealExportWriter;
+import com.nutriscan.service.export.NdjsonMealExportWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MealExportWriterTests {
+
+    @Test
+    public void testCsvQuotesFieldsThatNeedIt() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MealExportRow row = new MealExportRow();
+
+        String csv = export(new CsvMealExportWriter(out), out, writer -> {
+            row.set(1, "2024-03-10", "12:30:00", "LUNCH", "MANUAL", 10L,
+                    "Riz, cuit", 150.0, "g", 195.0, 4.0, 42.0, 0.5);
+            writer.write(row);
+            row.set(1, "2024-03-10", "12:30:00", "LUNCH", "MANUAL", 11L,
+                    "Sauce \"maison\"\nau curry", 50.0, "ml", 80.0, 1.0, 5.0, 6.0);
+            writer.write(row);
+            row.set(2, "2024-03-11", null, "SNACK", "MANUAL", 12L,
+                    "Crème fraîche", 30.0, "g", 90.0, 1.0, 1.0, 9.0);
+            writer.write(row);
+        });
+
+        String[] lines = csv.split("\r\n", -1);
+        assertEquals("meal_id,date,time,meal_type,source,item_id,food_name,quantity,serving_unit,calories,protein,carbs,fat",
+                lines[0]);
+        assertEquals("1,2024-03-10,12:30:00,LUNCH,MANUAL,10,\"Riz, cuit\",150.0,g,195.0,4.0,42.0,0.5", lines[1]);
+        // Guillemets doublés, saut de ligne conservé dans le champ entre guillemets
+        assertEquals("1,2024-03-10,12:30:00,LUNCH,MANUAL,11,\"Sauce \"\"maison\"\"\nau curry\",50.0,ml,80.0,1.0,5.0,6.0",
+                lines[2]);
+        assertEquals("2,2024-03-11,,SNACK,MANUAL,12,Crème fraîche,30.0,g,90.0,1.0,1.0,9.0", lines[3]);
+        assertEquals("", lines[4]);
+    }
+
+    @Test
+    public void testMissingValuesAreEmptyNotZero() throws IOException {
+        ByteArrayOutputStream csvOut = new ByteArrayOutputStream();
+        ByteArrayOutputStream jsonOut = new ByteArrayOutputStream();
+        MealExportRow row = new MealExportRow();
+        row.set(3, "2024-03-12", "08:00:00", "BREAKFAST", "BARCODE", 20L,
+                "Yaourt", 125.0, "g", 70.0, null, null, 2.1);
+
+        String csv = export(new CsvMealExportWriter(csvOut), csvOut, writer -> writer.write(row));
+        String json = export(new NdjsonMealExportWriter(new JsonFactory(), jsonOut), jsonOut, writer -> writer.write(row));
+
+        assertTrue(csv.endsWith("\r\n3,2024-03-12,08:00:00,BREAKFAST,BARCODE,20,Yaourt,125.0,g,70.0,,,2.1\r\n"), csv);
+        assertTrue(json.contains("\"calories\":70.0,\"protein\":null,\"carbs\":null,\"fat\":2.1"), json);
+    }
+
+    @Test
+    public void testMealWithoutItemsLeavesItemColumnsEmpty() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MealExportRow row = new MealExportRow();
+        row.set(4, "2024-03-13", "19:00:00", "DINNER", "SCAN_PHOTO", null, null, null, null, null, null, null, null);
+
+        String csv = export(new CsvMealExportWriter(out), out, writer -> writer.write(row));
+
+        assertTrue(csv.endsWith("\r\n4,2024-03-13,19:00:00,DINNER,SCAN_PHOTO,,,,,,,,\r\n"), csv);
+    }
+
+    private static String export(MealExportWriter writer, ByteArrayOutputStream out, Rows rows) throws IOException {
+        writer.start();
+        rows.writeTo(writer);
+        writer.finish();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private interface Rows {
+        void writeTo(MealExportWriter writer) throws IOException;
+    }
+}
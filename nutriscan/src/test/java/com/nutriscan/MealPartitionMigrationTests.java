@@ -0,0 +1,133 @@
+package com.nutriscan;
+
+import com.nutriscan.model.enums.MealSource;
+import com.nutriscan.service.MealPartitionMaintenanceService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * V9 sur un vrai PostgreSQL : schéma d'avant la migration (tel que créé par Hibernate puis V1/V5/V7/V8),
+ * migration, puis écriture de chaque MealSource et création des partitions suivantes par le service d'entretien.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class MealPartitionMigrationTests {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbc;
+    private static DriverManagerDataSource dataSource;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbc = new JdbcTemplate(dataSource);
+
+        jdbc.execute("""
+                CREATE TABLE users (id BIGSERIAL PRIMARY KEY, email VARCHAR(255));
+                CREATE TABLE foods (id BIGSERIAL PRIMARY KEY, name VARCHAR(255));
+                CREATE TABLE meals (
+                    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    user_id BIGINT NOT NULL REFERENCES users (id),
+                    date DATE, time TIME, meal_type VARCHAR(50), source VARCHAR(20),
+                    total_calories DOUBLE PRECISION, total_protein DOUBLE PRECISION,
+                    total_carbs DOUBLE PRECISION, total_fat DOUBLE PRECISION,
+                    CONSTRAINT meals_source_check
+                        CHECK (source IN ('SCAN_PHOTO', 'MANUAL', 'BARCODE', 'MEAL_PLAN', 'API', 'RECIPE_SEARCH')));
+                CREATE TABLE meal_items (
+                    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    meal_id BIGINT NOT NULL REFERENCES meals (id),
+                    food_id BIGINT REFERENCES foods (id),
+                    food_name VARCHAR(255), quantity DOUBLE PRECISION, serving_unit VARCHAR(50),
+                    calories DOUBLE PRECISION, protein DOUBLE PRECISION, carbs DOUBLE PRECISION, fat DOUBLE PRECISION);
+                CREATE INDEX idx_meals_user_id_id_date ON meals (user_id, id, date);
+                CREATE INDEX idx_meals_user_date ON meals (user_id, date);
+                INSERT INTO users (email) VALUES ('legacy@nutriscan.test');
+                INSERT INTO foods (name) VALUES ('Pomme');
+                INSERT INTO meals (user_id, date, source) VALUES (1, CURRENT_DATE, 'RECIPE_SEARCH');
+                INSERT INTO meal_items (meal_id, food_id, food_name, quantity) VALUES (1, 1, 'Pomme', 150);
+                """);
+
+        // Exécuté d'un bloc : le driver découpe lui-même en respectant les corps $$ ... $$
+        String v9 = new ClassPathResource("db/migration/V9__Partition_meals_by_month.sql")
+                .getContentAsString(StandardCharsets.UTF_8);
+        jdbc.execute(v9);
+    }
+
+    @Test
+    public void testLegacyRowsAreCopiedWithTheirItems() {
+        assertEquals("RECIPE_SEARCH", jdbc.queryForObject("SELECT source FROM meals WHERE id = 1", String.class));
+        assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM meal_items WHERE meal_id = 1", Integer.class));
+        assertNull(jdbc.queryForObject("SELECT to_regclass('meals_legacy')", String.class));
+    }
+
+    @Test
+    public void testEveryMealSourceIsAccepted() {
+        for (MealSource source : MealSource.values()) {
+            Long id = jdbc.queryForObject(
+                    "INSERT INTO meals (user_id, date, source) VALUES (1, ?, ?) RETURNING id",
+                    Long.class, Date.valueOf(LocalDate.now()), source.name());
+            jdbc.update("INSERT INTO meal_items (meal_id, meal_date, food_name) VALUES (?, ?, 'Riz')",
+                    id, Date.valueOf(LocalDate.now()));
+        }
+        assertThrows(Exception.class, () -> jdbc.update(
+                "INSERT INTO meals (user_id, date, source) VALUES (1, CURRENT_DATE, 'UNKNOWN')"));
+    }
+
+    @Test
+    public void testForeignKeysAndIndexesAreRecreated() {
+        List<String> constraints = jdbc.queryForList("""
+                SELECT conname FROM pg_constraint
+                WHERE conrelid IN ('meals'::regclass, 'meal_items'::regclass) AND contype = 'f'
+                """, String.class);
+        assertTrue(constraints.containsAll(List.of("fk_meals_user", "fk_meal_items_meal", "fk_meal_items_food")),
+                constraints.toString());
+
+        List<String> indexes = jdbc.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE tablename IN ('meals', 'meal_items')", String.class);
+        assertTrue(indexes.containsAll(List.of("idx_meals_user_id_id_date", "idx_meals_user_date",
+                "idx_meal_items_meal", "idx_meal_items_food")), indexes.toString());
+
+        assertThrows(Exception.class, () -> jdbc.update(
+                "INSERT INTO meals (user_id, date, source) VALUES (999, CURRENT_DATE, 'MANUAL')"));
+    }
+
+    @Test
+    public void testMaintenanceCreatesTheNextMonthPartition() {
+        MealPartitionMaintenanceService service =
+                new MealPartitionMaintenanceService(jdbc, new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(service, "monthsAhead", 3);
+
+        // La migration couvre jusqu'à mois courant + 3 : décaler d'un mois doit créer exactement le mois suivant
+        YearMonth next = YearMonth.now().plusMonths(4);
+        assertNull(jdbc.queryForObject("SELECT to_regclass(?)", String.class, "meals_p" + next.format(SUFFIX)));
+
+        assertEquals(1, service.createUpcomingPartitions(YearMonth.now().plusMonths(1)));
+        assertNotNull(jdbc.queryForObject("SELECT to_regclass(?)", String.class, "meals_p" + next.format(SUFFIX)));
+        assertNotNull(jdbc.queryForObject("SELECT to_regclass(?)", String.class, "meal_items_p" + next.format(SUFFIX)));
+        assertEquals(0, service.createUpcomingPartitions(YearMonth.now().plusMonths(1)));
+
+        LocalDate inNextMonth = next.atDay(1);
+        jdbc.update("INSERT INTO meals (user_id, date, source) VALUES (1, ?, 'MEAL_PLAN')", Date.valueOf(inNextMonth));
+        assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM meals_p" + next.format(SUFFIX), Integer.class));
+    }
+}
@@ -0,0 +1,187 @@
+package com.nutriscan;
+
+import com.nutriscan.dto.request.GenerateMealPlanRequest;
+import com.nutriscan.dto.response.MealPlanProgressResponse;
+import com.nutriscan.dto.response.MealPlanResponse;
+import com.nutriscan.dto.response.RecipeResponse;
+import com.nutriscan.model.User;
+import com.nutriscan.model.enums.ActivityLevel;
+import com.nutriscan.model.enums.Gender;
+import com.nutriscan.model.enums.GoalType;
+import com.nutriscan.repository.MealPlanRepository;
+import com.nutriscan.repository.UserRepository;
+import com.nutriscan.service.GeminiAIService;
+import com.nutriscan.service.MealPlanService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Génération IA par segments avec un Gemini simulé : le premier segment répond, les suivants restent bloqués
+ * comme un appel HTTP sans réponse. Délai de génération réduit à 1 s.
+ */
+@SpringBootTest(properties = {
+        "mealplan.generation.timeout-seconds=1",
+        "mealplan.generation.chunk-days=2",
+        "mealplan.generation.parallelism=16",
+        "mealplan.default-strategy=AI"
+})
+@ActiveProfiles("test")
+public class MealPlanGenerationTests {
+
+    private static final LocalDate START = LocalDate.of(2025, 3, 3);
+
+    @Autowired
+    private MealPlanService mealPlanService;
+
+    @Autowired
+    private MealPlanRepository mealPlanRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StubGemini gemini;
+
+    private Long userId;
+
+    @BeforeEach
+    public void setUp() {
+        userId = userRepository.save(User.builder()
+                .email("plan-" + UUID.randomUUID() + "@nutriscan.test")
+                .password("hashed")
+                .fullName("Plan User")
+                .gender(Gender.FEMALE)
+                .age(34)
+                .heightCm(168)
+                .initialWeightKg(64.0)
+                .goalType(GoalType.MAINTAIN)
+                .activityLevel(ActivityLevel.MODERATE)
+                .role("ROLE_USER")
+                .build()).getId();
+        gemini.activeConnectionsWhileWaiting.clear();
+    }
+
+    @Test
+    public void testTimedOutChunksFallBackToLocalPlanner() {
+        long start = System.nanoTime();
+        MealPlanResponse plan = mealPlanService.generateMealPlan(userId, request(START, START.plusDays(5)));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 5_000, "Generation should stop waiting at the 1 s timeout, took " + elapsedMs + " ms");
+        assertEquals(6 * 4, plan.getMeals().size(), "Every slot should be filled despite the slow chunks");
+
+        // Segment 1 (2 jours) a répondu ; les segments 2 et 3 ont dépassé le délai
+        List<MealPlanResponse.PlannedMeal> fromGemini = plan.getMeals().stream()
+                .filter(m -> m.getRecipeName().startsWith("Gemini"))
+                .toList();
+        assertEquals(2 * 4, fromGemini.size());
+        assertTrue(fromGemini.stream().allMatch(m -> m.getDate().isBefore(START.plusDays(2))));
+
+        assertTrue(mealPlanRepository.findById(plan.getId()).isPresent());
+    }
+
+    @Test
+    public void testTimedOutChunksStillReportProgress() {
+        List<MealPlanProgressResponse> events = new CopyOnWriteArrayList<>();
+        mealPlanService.generateMealPlan(userId, request(START, START.plusDays(5)), events::add);
+
+        // Un événement par segment, y compris pour ceux abandonnés au délai
+        assertEquals(3, events.size());
+        assertEquals(6, events.get(events.size() - 1).getCompletedDays());
+        List<MealPlanProgressResponse> timedOut = events.stream()
+                .filter(e -> Boolean.TRUE.equals(e.getTimedOut()))
+                .toList();
+        assertEquals(List.of(START.plusDays(2), START.plusDays(4)),
+                timedOut.stream().map(MealPlanProgressResponse::getChunkStart).toList());
+        assertTrue(timedOut.stream().noneMatch(MealPlanProgressResponse::getAiGenerated));
+    }
+
+    @Test
+    public void testNoConnectionIsHeldWhileWaitingForGemini() {
+        mealPlanService.generateMealPlan(userId, request(START, START.plusDays(3)));
+
+        // Mesuré par le segment bloqué pendant que l'appelant attend : une transaction ouverte garderait sa connexion
+        assertFalse(gemini.activeConnectionsWhileWaiting.isEmpty());
+        assertTrue(gemini.activeConnectionsWhileWaiting.stream().allMatch(active -> active == 0),
+                "Active JDBC connections while waiting: " + gemini.activeConnectionsWhileWaiting);
+    }
+
+    private static GenerateMealPlanRequest request(LocalDate from, LocalDate to) {
+        GenerateMealPlanRequest request = new GenerateMealPlanRequest();
+        request.setStartDate(from);
+        request.setEndDate(to);
+        request.setTargetCalories(2000);
+        return request;
+    }
+
+    @TestConfiguration
+    static class StubGeminiConfig {
+        @Bean
+        @Primary
+        StubGemini stubGemini(DataSource dataSource) {
+            return new StubGemini(dataSource);
+        }
+    }
+
+    static class StubGemini extends GeminiAIService {
+        final List<Integer> activeConnectionsWhileWaiting = new CopyOnWriteArrayList<>();
+        private final DataSource dataSource;
+
+        StubGemini(DataSource dataSource) {
+            super(null, null, null);
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public Map<String, Map<String, RecipeResponse>> generateMealPlanChunk(
+                User user, LocalDate chunkStart, int firstDay, int days, int totalDays, int dailyCalories,
+                List<String> preferences, List<String> allergies) {
+            if (firstDay == 1) {
+                Map<String, Map<String, RecipeResponse>> plan = new LinkedHashMap<>();
+                for (int d = 0; d < days; d++) {
+                    Map<String, RecipeResponse> meals = new LinkedHashMap<>();
+                    for (String slot : List.of("BREAKFAST", "LUNCH", "DINNER", "SNACK")) {
+                        meals.put(slot, RecipeResponse.builder().label("Gemini " + slot).calories(500.0)
+                                .ingredientLines(List.of("1 cup oats")).build());
+                    }
+                    plan.put(chunkStart.plusDays(d).toString(), meals);
+                }
+                return plan;
+            }
+            try {
+                Thread.sleep(300);   // l'appelant est alors dans son attente
+                activeConnectionsWhileWaiting.add(activeConnections());
+                Thread.sleep(3_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Map.of();
+        }
+
+        private int activeConnections() {
+            try {
+                return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
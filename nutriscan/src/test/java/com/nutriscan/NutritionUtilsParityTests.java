@@ -0,0 +1,57 @@
+package com.nutriscan;
+
+import com.nutriscan.model.enums.ActivityLevel;
+import com.nutriscan.model.enums.Gender;
+import com.nutriscan.model.enums.GoalType;
+import com.nutriscan.util.NutritionUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NutritionUtilsParityTests {
+
+    @Test
+    public void testComputeTargetsMatchesUnitCalculationForEveryCombination() {
+        double[] out = new double[NutritionUtils.TARGET_FIELDS * 2];
+        int offset = NutritionUtils.TARGET_FIELDS;
+        int checked = 0;
+
+        for (Gender gender : Gender.values()) {
+            for (ActivityLevel activity : ActivityLevel.values()) {
+                for (GoalType goal : GoalType.values()) {
+                    for (double weight = 35; weight <= 180; weight += 7.3) {
+                        for (int height = 140; height <= 210; height += 9) {
+                            for (int age = 14; age <= 90; age += 11) {
+                                double tdee = NutritionUtils.calculateTdee(gender, weight, height, age, activity);
+                                double calories = NutritionUtils.adjustCaloriesForGoal(tdee, goal);
+                                NutritionUtils.MacroTargets macros = NutritionUtils.calculateMacroTargets(calories, weight, goal);
+
+                                NutritionUtils.computeTargets(gender.ordinal(), weight, height, age,
+                                        activity.ordinal(), goal.ordinal(), out, offset);
+
+                                // Égalité exacte : le recalcul en masse ne doit changer aucun arrondi
+                                assertEquals(tdee, out[offset + NutritionUtils.TDEE]);
+                                assertEquals(macros.getCalories(), out[offset + NutritionUtils.CALORIES]);
+                                assertEquals(macros.getProteinGr(), out[offset + NutritionUtils.PROTEIN]);
+                                assertEquals(macros.getCarbsGr(), out[offset + NutritionUtils.CARBS]);
+                                assertEquals(macros.getFatGr(), out[offset + NutritionUtils.FAT]);
+                                checked++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(checked > 10_000);
+        assertEquals(0.0, out[0]);   // rien d'écrit avant l'offset
+    }
+
+    @Test
+    public void testUnitCalculationKeepsNullDefaults() {
+        double tdee = NutritionUtils.calculateTdee(null, 70, 170, 30, null);
+        assertEquals((10 * 70 + 6.25 * 170 - 5 * 30 + 5) * 1.2, tdee, 1e-9);
+        assertEquals(tdee, NutritionUtils.adjustCaloriesForGoal(tdee, null));
+        assertEquals(1.6 * 70, NutritionUtils.calculateMacroTargets(2000, 70, null).getProteinGr(), 1e-9);
+        assertEquals(0, NutritionUtils.calculateMacroTargets(500, 120, GoalType.GAIN_WEIGHT).getCarbsGr());
+    }
+}
@@ -0,0 +1,159 @@
+package com.nutriscan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.nutriscan.dto.response.PatternDetectionResponse;
+import com.nutriscan.dto.response.RecommendationResponse;
+import com.nutriscan.model.DailyTargets;
+import com.nutriscan.model.Meal;
+import com.nutriscan.model.User;
+import com.nutriscan.model.enums.MealSource;
+import com.nutriscan.repository.DailyTargetsRepository;
+import com.nutriscan.repository.MealRepository;
+import com.nutriscan.repository.UserRepository;
+import com.nutriscan.service.NutritionPatternAnalysisService;
+import com.nutriscan.service.RecommendationService;
+import com.nutriscan.service.analysis.NightlyAnalyticsBatch;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class PrecomputedAnalysisTests {
+
+    @Autowired
+    private NightlyAnalyticsBatch batch;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private NutritionPatternAnalysisService analysisService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private DailyTargetsRepository dailyTargetsRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    public void testNightlyResultsAreServedUntilMealsChange() throws Exception {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        User user = user("precomputed");
+        dailyTargetsRepository.save(DailyTargets.builder().user(user)
+                .targetCalories(2000.0).proteinGr(100.0).carbsGr(250.0).fatGr(70.0)
+                .updatedAt(LocalDateTime.now().minusDays(2))
+                .build());
+        Meal lunch = mealRepository.save(meal(user, yesterday, 1800.0));
+        User withoutTargets = user("no-targets");
+        mealRepository.save(meal(withoutTargets, yesterday, 900.0));
+
+        batch.run(yesterday);
+
+        assertEquals(1, rows(user.getId(), "PATTERN", yesterday));
+        assertEquals(1, rows(user.getId(), "DAILY_SUMMARY", yesterday));
+        // Sans objectifs : pas de résumé, et le batch n'en crée pas
+        assertEquals(1, rows(withoutTargets.getId(), "PATTERN", yesterday));
+        assertEquals(0, rows(withoutTargets.getId(), "DAILY_SUMMARY", yesterday));
+        assertTrue(dailyTargetsRepository.findByUserId(withoutTargets.getId()).isEmpty());
+
+        // Marque les lignes pour reconnaître une réponse relue d'un recalcul
+        String summary = jdbc.queryForObject("SELECT details FROM recommendations_log WHERE user_id = ? " +
+                "AND type = 'DAILY_SUMMARY'", String.class, user.getId());
+        ObjectNode marked = (ObjectNode) objectMapper.readTree(summary);
+        marked.putArray("messages").add("precomputed");
+        jdbc.update("UPDATE recommendations_log SET details = ? WHERE user_id = ? AND type = 'DAILY_SUMMARY'",
+                objectMapper.writeValueAsString(marked), user.getId());
+        jdbc.update("UPDATE recommendations_log SET details = ? WHERE user_id = ? AND type = 'PATTERN'",
+                objectMapper.writeValueAsString(List.of(PatternDetectionResponse.builder()
+                        .patternType("PRECOMPUTED").severity(1).build())), user.getId());
+
+        RecommendationResponse served = recommendationService.getDailyRecommendation(user.getId(), yesterday);
+        assertEquals(List.of("precomputed"), served.getMessages());
+        assertEquals(1800.0, served.getTotalCalories());
+        assertEquals("PRECOMPUTED", analysisService.detectPatterns(user.getId()).get(0).getPatternType());
+
+        // Un repas aujourd'hui : la fenêtre des patterns change, pas le résumé d'hier
+        mealRepository.save(meal(user, LocalDate.now(), 300.0));
+        assertTrue(analysisService.detectPatterns(user.getId()).stream()
+                .noneMatch(p -> "PRECOMPUTED".equals(p.getPatternType())));
+        assertEquals(List.of("precomputed"),
+                recommendationService.getDailyRecommendation(user.getId(), yesterday).getMessages());
+
+        // Le repas d'hier modifié : résumé recalculé
+        lunch.setTotalCalories(2600.0);
+        mealRepository.save(lunch);
+        RecommendationResponse recomputed = recommendationService.getDailyRecommendation(user.getId(), yesterday);
+        assertNotEquals(List.of("precomputed"), recomputed.getMessages());
+        assertEquals(2600.0, recomputed.getTotalCalories());
+    }
+
+    @Test
+    public void testPlainTextRowIsRecomputed() {
+        LocalDate day = LocalDate.now().minusDays(3);
+        User user = user("plain-text");
+        dailyTargetsRepository.save(DailyTargets.builder().user(user)
+                .targetCalories(2000.0).proteinGr(100.0).carbsGr(250.0).fatGr(70.0)
+                .updatedAt(LocalDateTime.now().minusDays(5))
+                .build());
+        mealRepository.save(meal(user, day, 1900.0));
+        jdbc.update("INSERT INTO recommendations_log (user_id, date, type, score, details, created_at) " +
+                        "VALUES (?, ?, 'DAILY_SUMMARY', 50.0, 'Ancien format', ?)",
+                user.getId(), Date.valueOf(day), Timestamp.valueOf(LocalDateTime.now()));
+
+        RecommendationResponse response = recommendationService.getDailyRecommendation(user.getId(), day);
+
+        assertEquals(1900.0, response.getTotalCalories());
+        assertNotEquals(50.0, response.getScore());
+    }
+
+    private User user(String prefix) {
+        return userRepository.save(User.builder()
+                .email(prefix + "-" + UUID.randomUUID() + "@nutriscan.test")
+                .password("hashed")
+                .fullName("Analysis User")
+                .role("ROLE_USER")
+                .build());
+    }
+
+    private static Meal meal(User user, LocalDate date, double calories) {
+        return Meal.builder()
+                .user(user)
+                .date(date)
+                .time(LocalTime.of(12, 30))
+                .mealType("LUNCH")
+                .source(MealSource.MANUAL)
+                .totalCalories(calories)
+                .totalProtein(90.0)
+                .totalCarbs(200.0)
+                .totalFat(60.0)
+                .build();
+    }
+
+    private int rows(Long userId, String type, LocalDate date) {
+        return jdbc.queryForObject("SELECT count(*) FROM recommendations_log WHERE user_id = ? AND type = ? AND date = ?",
+                Integer.class, userId, type, Date.valueOf(date));
+    }
+}
@@ -0,0 +1,154 @@
+package com.nutriscan;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutriscan.dto.response.RecipeResponse;
+import com.nutriscan.model.Recipe;
+import com.nutriscan.repository.RecipeRepository;
+import com.nutriscan.repository.RecipeSearchCacheRepository;
+import com.nutriscan.service.EdamamRecipeService;
+import com.nutriscan.service.RecipeCatalogService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RecipeCatalogServiceTests {
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private RecipeSearchCacheRepository searchCacheRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testSecondSearchIsServedFromCatalog() {
+        String uri = RecipeCatalogService.EDAMAM_RECIPE_URI_PREFIX + UUID.randomUUID();
+        StubEdamam edamam = new StubEdamam(List.of(recipe(uri, "Chicken Curry")));
+        RecipeCatalogService catalog = catalog(recipeRepository, edamam);
+        String query = "curry " + UUID.randomUUID();
+
+        List<RecipeResponse> first = catalog.searchRecipes(query, null, List.of("Vegan", "dairy-free"),
+                null, "Dinner", null, 10);
+        List<RecipeResponse> second = catalog.searchRecipes("  " + query.toUpperCase() + " ", null,
+                List.of("dairy-free", "vegan"), null, "Dinner", null, 10);
+
+        assertEquals(1, edamam.calls.get(), "Equivalent search should be a cache hit");
+        assertEquals(1, first.size());
+        assertEquals("Chicken Curry", second.get(0).getLabel());
+        assertEquals(List.of("1 cup rice", "200 g chicken"), second.get(0).getIngredientLines());
+        assertEquals("DINNER", recipeRepository.findByUri(uri).orElseThrow().getMealType());
+    }
+
+    @Test
+    public void testDifferentSearchIsAMiss() {
+        StubEdamam edamam = new StubEdamam(List.of(
+                recipe(RecipeCatalogService.EDAMAM_RECIPE_URI_PREFIX + UUID.randomUUID(), "Salad")));
+        RecipeCatalogService catalog = catalog(recipeRepository, edamam);
+
+        catalog.searchRecipes("salad " + UUID.randomUUID(), null, null, null, null, null, 10);
+        catalog.searchRecipes("salad " + UUID.randomUUID(), null, null, null, null, null, 10);
+
+        assertEquals(2, edamam.calls.get());
+    }
+
+    @Test
+    public void testRecipeInsertedConcurrentlyIsLinkedOnRetry() {
+        String uri = RecipeCatalogService.EDAMAM_RECIPE_URI_PREFIX + UUID.randomUUID();
+        StubEdamam edamam = new StubEdamam(List.of(recipe(uri, "Lentil Soup")));
+        RecipeCatalogService catalog = catalog(concurrentWriterOnFirstLookup(uri), edamam);
+        String query = "soup " + UUID.randomUUID();
+
+        List<RecipeResponse> fetched = catalog.searchRecipes(query, null, null, null, null, null, 10);
+        assertEquals(1, fetched.size());
+
+        // Une seule ligne pour l'uri, mise à jour par la seconde tentative et rattachée à la recherche
+        assertEquals("Lentil Soup", recipeRepository.findByUri(uri).orElseThrow().getLabel());
+        List<RecipeResponse> cached = catalog.searchRecipes(query, null, null, null, null, null, 10);
+        assertEquals(1, edamam.calls.get(), "Search should have been cached after the retry");
+        assertEquals(uri, cached.get(0).getUri());
+    }
+
+    private RecipeCatalogService catalog(RecipeRepository repository, EdamamRecipeService edamam) {
+        RecipeCatalogService catalog = new RecipeCatalogService(repository, searchCacheRepository, edamam,
+                objectMapper, transactionManager);
+        ReflectionTestUtils.setField(catalog, "cacheTtlHours", 168L);
+        ReflectionTestUtils.setField(catalog, "fallbackCacheTtlHours", 6L);
+        return catalog;
+    }
+
+    /**
+     * Simule une autre requête qui enregistre la même recette entre la lecture par uri et l'insertion :
+     * la première lecture rend l'état d'avant, puis la recette est commitée dans une transaction séparée.
+     */
+    private RecipeRepository concurrentWriterOnFirstLookup(String uri) {
+        TransactionTemplate otherRequest = new TransactionTemplate(transactionManager);
+        otherRequest.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicBoolean inserted = new AtomicBoolean();
+
+        return (RecipeRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RecipeRepository.class}, (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(recipeRepository, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (method.getName().equals("findByUriIn") && inserted.compareAndSet(false, true)) {
+                        otherRequest.executeWithoutResult(status -> recipeRepository.save(
+                                Recipe.builder().uri(uri).label("Inserted elsewhere").build()));
+                    }
+                    return result;
+                });
+    }
+
+    private static RecipeResponse recipe(String uri, String label) {
+        return RecipeResponse.builder()
+                .uri(uri)
+                .label(label)
+                .calories(650.0)
+                .dietLabels(List.of("Balanced"))
+                .healthLabels(List.of())
+                .ingredientLines(List.of("1 cup rice", "200 g chicken"))
+                .nutrition(RecipeResponse.NutritionInfo.builder().protein(40.0).build())
+                .build();
+    }
+
+    private static class StubEdamam extends EdamamRecipeService {
+        final AtomicInteger calls = new AtomicInteger();
+        final List<RecipeResponse> results;
+
+        StubEdamam(List<RecipeResponse> results) {
+            super(null, null, null);
+            this.results = results;
+        }
+
+        @Override
+        public List<RecipeResponse> searchRecipes(String query, List<String> diet, List<String> health,
+                                                  String cuisineType, String mealType, Integer calories,
+                                                  Integer maxResults) {
+            calls.incrementAndGet();
+            return results;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.nutriscan;
+
+import com.nutriscan.model.User;
+import com.nutriscan.model.enums.RecommendationType;
+import com.nutriscan.repository.UserRepository;
+import com.nutriscan.service.RecommendationLogWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RecommendationLogWriterTests {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry registry;
+    private RecommendationLogWriter writer;
+    private Long userId;
+
+    @BeforeEach
+    public void setUp() {
+        userId = userRepository.save(User.builder()
+                .email("log-" + UUID.randomUUID() + "@nutriscan.test")
+                .password("hashed")
+                .fullName("Log User")
+                .role("ROLE_USER")
+                .build()).getId();
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (writer != null) ReflectionTestUtils.invokeMethod(writer, "shutdown");
+    }
+
+    @Test
+    public void testFullBatchIsWrittenBeforeTheFlushInterval() throws InterruptedException {
+        writer = start(3, 60_000);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(writer.write(userId, LocalDate.now(), RecommendationType.MEAL, 80.0 + i, "{}"));
+        }
+
+        // Le lot de 3 part dès qu'il est plein ; le 4e attend l'intervalle (60 s) ou l'arrêt
+        long until = System.currentTimeMillis() + 5_000;
+        while (rows() < 3 && System.currentTimeMillis() < until) {
+            Thread.sleep(20);
+        }
+        assertEquals(3, rows());
+        Thread.sleep(200);
+        assertEquals(3, rows());
+
+        ReflectionTestUtils.invokeMethod(writer, "shutdown");
+        assertEquals(4, rows(), "Shutdown should drain the pending row");
+        assertEquals(4, count("written"));
+        assertFalse(writer.write(userId, LocalDate.now(), RecommendationType.MEAL, 1.0, null),
+                "Rows offered after shutdown are dropped");
+        assertEquals(1, count("dropped"));
+    }
+
+    @Test
+    public void testBadRowFallsBackToRowByRowInserts() {
+        writer = start(10, 60_000);
+
+        writer.write(userId, LocalDate.now(), RecommendationType.DAILY_SUMMARY, 72.0, "{}");
+        writer.write(-1L, LocalDate.now(), RecommendationType.DAILY_SUMMARY, 50.0, "{}");   // utilisateur inexistant
+        writer.write(userId, LocalDate.now(), RecommendationType.PATTERN, null, null);
+
+        ReflectionTestUtils.invokeMethod(writer, "shutdown");
+
+        assertEquals(2, rows(), "Only the bad row should be lost");
+        assertEquals(2, count("written"));
+        assertEquals(1, count("failed"));
+    }
+
+    private RecommendationLogWriter start(int batchSize, long flushIntervalMs) {
+        RecommendationLogWriter writer = new RecommendationLogWriter(jdbc, transactionManager, registry, 100);
+        ReflectionTestUtils.setField(writer, "batchSize", batchSize);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", flushIntervalMs);
+        ReflectionTestUtils.setField(writer, "offerTimeoutMs", 5L);
+        ReflectionTestUtils.setField(writer, "shutdownTimeoutMs", 10_000L);
+        ReflectionTestUtils.invokeMethod(writer, "start");
+        return writer;
+    }
+
+    private int rows() {
+        return jdbc.queryForObject("SELECT count(*) FROM recommendations_log WHERE user_id = ?", Integer.class, userId);
+    }
+
+    private double count(String result) {
+        return registry.counter("recommendations.log.rows", "result", result).count();
+    }
+}
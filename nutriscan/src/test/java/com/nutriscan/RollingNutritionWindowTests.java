@@ -0,0 +1,66 @@
+package com.nutriscan;
+
+import com.nutriscan.service.analysis.MealContribution;
+import com.nutriscan.service.analysis.RollingNutritionWindow;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RollingNutritionWindowTests {
+
+    private static final long TODAY = 20_000;
+
+    @Test
+    public void testUpsertReplacesPreviousContribution() {
+        RollingNutritionWindow window = new RollingNutritionWindow(7);
+        window.upsert(1L, meal(TODAY, 900, true, false), TODAY);
+        window.upsert(1L, meal(TODAY, 600, false, false), TODAY);   // modification du même repas
+        window.upsert(2L, meal(TODAY - 1, 500, false, true), TODAY);
+
+        RollingNutritionWindow.Stats stats = window.stats(TODAY);
+        assertEquals(2, stats.getTotalMeals());
+        assertEquals(0, stats.getEveningHighCarbMeals());
+        assertEquals(1, stats.getLateMeals());
+        assertEquals(2, stats.getActiveDays());
+        assertEquals(550, stats.getMeanDailyCalories(), 1e-9);
+
+        window.remove(2L, TODAY);
+        assertEquals(1, window.stats(TODAY).getTotalMeals());
+        assertEquals(0, window.stats(TODAY).getLateMeals());
+    }
+
+    @Test
+    public void testOldDaysExpireAsWindowSlides() {
+        RollingNutritionWindow window = new RollingNutritionWindow(7);
+        window.upsert(1L, meal(TODAY - 6, 2000, false, false), TODAY);
+        window.upsert(2L, meal(TODAY, 1000, false, false), TODAY);
+        window.upsert(3L, meal(TODAY + 1, 1500, false, false), TODAY);   // saisi à l'avance : hors fenêtre
+
+        assertEquals(2, window.stats(TODAY).getTotalMeals());
+
+        RollingNutritionWindow.Stats tomorrow = window.stats(TODAY + 1);
+        assertEquals(2, tomorrow.getTotalMeals());
+        assertEquals(1250, tomorrow.getMeanDailyCalories(), 1e-9);
+        assertEquals(2, window.trackedMeals());
+
+        // Suppression d'un repas déjà sorti de la fenêtre : sans effet
+        window.remove(1L, TODAY + 1);
+        assertEquals(2, window.stats(TODAY + 1).getTotalMeals());
+    }
+
+    @Test
+    public void testCalorieDeviationAcrossDays() {
+        RollingNutritionWindow window = new RollingNutritionWindow(7);
+        window.upsert(1L, meal(TODAY - 2, 1000, false, false), TODAY);
+        window.upsert(2L, meal(TODAY - 1, 2000, false, false), TODAY);
+        window.upsert(3L, meal(TODAY, 3000, false, false), TODAY);
+
+        RollingNutritionWindow.Stats stats = window.stats(TODAY);
+        assertEquals(3, stats.getActiveDays());
+        assertEquals(0.5, stats.getMaxDailyDeviation(), 1e-9);
+    }
+
+    private static MealContribution meal(long day, double calories, boolean eveningHighCarbs, boolean late) {
+        return new MealContribution(day, calories, 20, eveningHighCarbs ? 90 : 30, eveningHighCarbs, false, late);
+    }
+}
@@ -0,0 +1,49 @@
+package com.nutriscan;
+
+import com.nutriscan.util.RotatingBloomFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RotatingBloomFilterTests {
+
+    @Test
+    public void testNoFalseNegativesAndFalsePositiveRateNearTarget() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 9_999; i++) {
+            filter.put("3017620" + i);
+        }
+        for (int i = 0; i < 9_999; i++) {
+            assertTrue(filter.mightContain("3017620" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("5449000" + i)) falsePositives++;
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);   // cible 1 %, marge x2
+        assertEquals(0.01, filter.estimatedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    public void testKeysAreForgottenAfterTwoRotations() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(1_000, 0.01);
+        filter.put("0000000000000");
+
+        filter.rotate();
+        assertTrue(filter.mightContain("0000000000000"));
+        filter.rotate();
+        assertFalse(filter.mightContain("0000000000000"));
+        assertEquals(0, filter.insertions());
+    }
+
+    @Test
+    public void testRotatesItselfWhenFull() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(100, 0.01);
+        for (int i = 0; i < 100; i++) {
+            filter.put("barcode-" + i);
+        }
+        assertEquals(1, filter.rotations());
+        assertTrue(filter.mightContain("barcode-42"));
+    }
+}
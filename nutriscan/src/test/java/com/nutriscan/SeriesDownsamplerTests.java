@@ -0,0 +1,62 @@
+package com.nutriscan;
+
+import com.nutriscan.util.SeriesDownsampler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SeriesDownsamplerTests {
+
+    @Test
+    public void testLttbKeepsEndpointsAndRequestedCount() {
+        double[] x = new double[1000];
+        double[] y = new double[1000];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = i;
+            y[i] = 80 + Math.sin(i / 50.0) * 3;
+        }
+        y[437] = 95;   // pesée aberrante : LTTB doit la garder
+
+        int[] kept = SeriesDownsampler.lttb(x, y, 50);
+        assertEquals(50, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(999, kept[49]);
+        for (int i = 1; i < kept.length; i++) {
+            assertTrue(kept[i] > kept[i - 1]);
+        }
+        assertTrue(contains(kept, 437));
+    }
+
+    @Test
+    public void testMinMaxKeepsExtremesAndPassesThroughShortSeries() {
+        double[] y = {80, 81, 79, 85, 80, 80, 76, 80, 81, 80, 80, 82};
+        int[] kept = SeriesDownsampler.minMax(y, 6);
+        assertTrue(kept.length <= 6);
+        assertTrue(contains(kept, 3));    // maximum
+        assertTrue(contains(kept, 6));    // minimum
+        assertEquals(0, kept[0]);
+        assertEquals(11, kept[kept.length - 1]);
+
+        assertEquals(3, SeriesDownsampler.minMax(new double[]{1, 2, 3}, 10).length);
+    }
+
+    @Test
+    public void testEmaFollowsStepAccordingToElapsedDays() {
+        double[] x = {0, 1, 2, 5};
+        double[] y = {80, 80, 78, 78};
+        double[] trend = SeriesDownsampler.ema(x, y, 3);   // alpha = 0.5 par jour
+
+        assertEquals(80, trend[0], 1e-9);
+        assertEquals(80, trend[1], 1e-9);
+        assertEquals(79, trend[2], 1e-9);
+        // 3 jours d'écart : 1 - 0.5^3 = 87.5 % de l'écart restant
+        assertEquals(79 - 0.875, trend[3], 1e-9);
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) return true;
+        }
+        return false;
+    }
+}
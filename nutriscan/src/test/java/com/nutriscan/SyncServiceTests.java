@@ -0,0 +1,125 @@
+package com.nutriscan;
+
+import com.nutriscan.dto.response.SyncResponse;
+import com.nutriscan.exception.BadRequestException;
+import com.nutriscan.model.GroceryItem;
+import com.nutriscan.model.GroceryList;
+import com.nutriscan.model.User;
+import com.nutriscan.model.enums.SyncEntityType;
+import com.nutriscan.repository.GroceryListRepository;
+import com.nutriscan.repository.UserRepository;
+import com.nutriscan.service.GroceryListService;
+import com.nutriscan.service.SyncService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SyncServiceTests {
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private GroceryListService groceryListService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroceryListRepository groceryListRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Long userId;
+    private Long listId;
+    private Long itemId;
+
+    @BeforeEach
+    public void setUp() {
+        User user = userRepository.save(User.builder()
+                .email("sync-" + UUID.randomUUID() + "@nutriscan.test")
+                .password("hashed")
+                .fullName("Sync User")
+                .role("ROLE_USER")
+                .build());
+        userId = user.getId();
+
+        GroceryList list = GroceryList.builder().user(user).build();
+        list.getItems().add(GroceryItem.builder().groceryList(list).name("Riz").quantity(500.0).unit("g").build());
+        list = groceryListRepository.save(list);
+        listId = list.getId();
+        itemId = list.getItems().get(0).getId();
+
+        // La liste date d'avant le curseur utilisé par les tests, marge de recouvrement comprise
+        jdbc.update("UPDATE grocery_lists SET updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)), listId);
+    }
+
+    @Test
+    public void testMissingCursorAsksForFullResync() {
+        SyncResponse response = syncService.changesSince(userId, null);
+
+        assertTrue(response.isFullResync());
+        assertNotNull(response.getCursor());
+        assertTrue(response.getGroceryLists().isEmpty());
+    }
+
+    @Test
+    public void testCursorOlderThanTombstoneRetentionAsksForFullResync() {
+        assertTrue(syncService.changesSince(userId, cursor(LocalDateTime.now().minusDays(31))).isFullResync());
+    }
+
+    @Test
+    public void testInvalidCursorIsRejected() {
+        assertThrows(BadRequestException.class, () -> syncService.changesSince(userId, "not-a-cursor!"));
+        assertThrows(BadRequestException.class, () -> syncService.changesSince(userId,
+                Base64.getUrlEncoder().encodeToString("yesterday".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void testItemToggleIsReportedThroughItsList() {
+        String cursor = cursor(LocalDateTime.now().minusMinutes(10));
+        SyncResponse before = syncService.changesSince(userId, cursor);
+        assertFalse(before.isFullResync());
+        assertTrue(before.getGroceryLists().isEmpty());
+
+        groceryListService.updateItemStatus(userId, listId, itemId, true);
+
+        SyncResponse after = syncService.changesSince(userId, cursor);
+        assertEquals(1, after.getGroceryLists().size());
+        assertEquals(listId, after.getGroceryLists().get(0).getId());
+        assertNotEquals(cursor, after.getCursor());
+    }
+
+    @Test
+    public void testDeletedListComesBackAsTombstone() {
+        String cursor = cursor(LocalDateTime.now().minusMinutes(10));
+
+        groceryListService.deleteGroceryList(userId, listId);
+
+        SyncResponse response = syncService.changesSince(userId, cursor);
+        assertFalse(response.isFullResync());
+        assertTrue(response.getGroceryLists().isEmpty());
+        assertEquals(1, response.getDeleted().size());
+        assertEquals(SyncEntityType.GROCERY_LIST, response.getDeleted().get(0).getType());
+        assertEquals(listId, response.getDeleted().get(0).getId());
+    }
+
+    private static String cursor(LocalDateTime time) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(time.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,54 @@
+package com.nutriscan;
+
+import com.nutriscan.resilience.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testBurstThenRefillAtConfiguredRate() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(3, 60, now);   // 1 jeton par seconde
+
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(SECOND, bucket.tryAcquire(now));        // vide : prochain jeton dans 1 s
+
+        assertEquals(0, bucket.tryAcquire(now + SECOND));
+        assertTrue(bucket.tryAcquire(now + SECOND) > 0);
+        assertTrue(bucket.isFull(now + 10 * SECOND));
+    }
+
+    @Test
+    public void testConcurrentAcquireNeverExceedsCapacity() throws Exception {
+        long now = System.nanoTime();
+        TokenBucket bucket = new TokenBucket(100, 0.001, now);   // pas de recharge pendant le test
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire(now) == 0) granted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(100, granted.get());
+    }
+}
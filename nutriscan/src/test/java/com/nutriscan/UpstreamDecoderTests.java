@@ -0,0 +1,128 @@
+package com.nutriscan;
+
+import com.nutriscan.dto.response.FoodInfoResponse;
+import com.nutriscan.dto.response.OffProductResponse;
+import com.nutriscan.dto.response.RecipeResponse;
+import com.nutriscan.service.upstream.EdamamFoodDecoder;
+import com.nutriscan.service.upstream.EdamamRecipeDecoder;
+import com.nutriscan.service.upstream.GeminiResponseDecoder;
+import com.nutriscan.service.upstream.OffSearchDecoder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UpstreamDecoderTests {
+
+    @Test
+    public void testEdamamRecipeDecoderReadsUsedFieldsAndSkipsTheRest() throws IOException {
+        String json = """
+                {"from":1,"to":2,"count":2,"_links":{"next":{"href":"x"}},"hits":[
+                  {"recipe":{"uri":"http://www.edamam.com/ontologies/edamam.owl#recipe_1","label":"Chicken Salad",
+                    "images":{"THUMBNAIL":{"url":"t","width":100}},"image":"img.jpg","source":"Blog","url":"http://r/1",
+                    "yield":4.0,"dietLabels":["Low-Carb"],"healthLabels":["Gluten-Free","Dairy-Free"],
+                    "ingredientLines":["2 cups lettuce","200 g chicken"],
+                    "ingredients":[{"text":"2 cups lettuce","weight":94.0}],
+                    "calories":812.5,"totalTime":15,
+                    "totalNutrients":{"ENERC_KCAL":{"label":"Energy","quantity":812.5,"unit":"kcal"},
+                                      "PROCNT":{"label":"Protein","quantity":61.2,"unit":"g"},
+                                      "ZZZ":{"label":"Unknown","quantity":1,"unit":"g"}},
+                    "totalDaily":{"ENERC_KCAL":{"label":"Energy","quantity":40.6,"unit":"%"}},
+                    "digest":[{"label":"Fat","sub":[{"label":"Saturated"}]}]},
+                   "_links":{"self":{"href":"y"}}},
+                  {"_links":{}}
+                ]}
+                """;
+
+        List<RecipeResponse> recipes = EdamamRecipeDecoder.decode(stream(json));
+
+        assertEquals(1, recipes.size());
+        RecipeResponse recipe = recipes.get(0);
+        assertEquals("Chicken Salad", recipe.getLabel());
+        assertEquals("img.jpg", recipe.getImage());
+        assertEquals(4, recipe.getServings());
+        assertEquals(812.5, recipe.getCalories());
+        assertEquals(15.0, recipe.getTotalTime());
+        assertEquals(List.of("Gluten-Free", "Dairy-Free"), recipe.getHealthLabels());
+        assertEquals(List.of("2 cups lettuce", "200 g chicken"), recipe.getIngredientLines());
+        assertEquals(812.5, recipe.getNutrition().getCalories());
+        assertEquals(61.2, recipe.getNutrition().getProtein());
+        assertNull(recipe.getNutrition().getFat());
+    }
+
+    @Test
+    public void testEdamamFoodDecoderStopsAtMaxResultsAndReportsErrors() throws IOException {
+        String json = """
+                {"text":"apple","parsed":[{"food":{"label":"Apple"}}],"hints":[
+                  {"food":{"foodId":"a","label":"Apple","nutrients":{"ENERC_KCAL":52,"PROCNT":0.26,"CHOCDF":13.81,"FAT":0.17},
+                   "image":"apple.jpg"},"measures":[{"label":"Whole","weight":182}]},
+                  {"food":{"label":"Apple juice","nutrients":{"ENERC_KCAL":46}}},
+                  {"food":{"label":"Apple pie"}}
+                ]}
+                """;
+
+        List<FoodInfoResponse> foods = EdamamFoodDecoder.decode(stream(json), 2);
+
+        assertEquals(2, foods.size());
+        FoodInfoResponse apple = foods.get(0);
+        assertEquals("Apple", apple.getName());
+        assertEquals("apple.jpg", apple.getImageUrl());
+        assertEquals(52.0, apple.getCalories());
+        assertEquals(13.81, apple.getCarbs());
+        assertEquals("EDAMAM_NATURAL_FOODS", apple.getSource());
+        assertNull(foods.get(1).getFat());
+
+        assertTrue(EdamamFoodDecoder.decode(stream("{\"hints\":[],\"message\":\"Unauthorized app_id\"}"), 10).isEmpty());
+    }
+
+    @Test
+    public void testOffSearchDecoderKeepsScalarNutrimentsAndFallbacks() throws IOException {
+        String json = """
+                {"count":2,"page":1,"products":[
+                  {"code":"3017620422003","product_name":"Nutella","brands":"Ferrero","nutrition_grade":"e",
+                   "nutriments":{"energy-kcal_100g":539,"proteins_100g":6.3,"sugars_unit":"g","nested":{"x":1}},
+                   "ingredients":[{"id":"en:sugar"}]},
+                  {"code":"123","product_name":"Old product","proteins_value":"3.2","fat_value":1}
+                ]}
+                """;
+
+        List<OffProductResponse> products = OffSearchDecoder.decode(stream(json));
+
+        assertEquals(2, products.size());
+        OffProductResponse.OffProduct nutella = products.get(0).getProduct();
+        assertEquals("3017620422003", products.get(0).getCode());
+        assertEquals(1, products.get(0).getStatus());
+        assertEquals("e", nutella.getNutritionGrades());
+        assertEquals(539, ((Number) nutella.getNutriments().get("energy-kcal_100g")).intValue());
+        assertEquals("g", nutella.getNutriments().get("sugars_unit"));
+        assertFalse(nutella.getNutriments().containsKey("nested"));
+
+        OffProductResponse.OffProduct old = products.get(1).getProduct();
+        assertEquals("3.2", old.getNutriments().get("protein"));
+        assertEquals(1, old.getNutriments().get("fat"));
+
+        assertTrue(OffSearchDecoder.decode(stream("{\"products\":[{\"code\":\"1\"}],\"error\":\"boom\"}")).isEmpty());
+    }
+
+    @Test
+    public void testGeminiDecoderReturnsFirstCandidateText() throws IOException {
+        String json = """
+                {"candidates":[{"content":{"parts":[{"text":"{\\"score\\": 80}"},{"text":"second"}],"role":"model"},
+                                "finishReason":"STOP","safetyRatings":[{"category":"HARM","probability":"NEGLIGIBLE"}]},
+                               {"content":{"parts":[{"text":"other candidate"}]}}],
+                 "usageMetadata":{"promptTokenCount":12,"candidatesTokenCount":5}}
+                """;
+
+        assertEquals("{\"score\": 80}", GeminiResponseDecoder.decodeText(stream(json)));
+        assertNull(GeminiResponseDecoder.decodeText(stream("{\"promptFeedback\":{\"blockReason\":\"SAFETY\"}}")));
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,119 @@
+package com.nutriscan.benchmark;
+
+import com.nutriscan.service.IngredientCategorizer;
+import com.nutriscan.util.IngredientLineParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catégorisation + découpage de 10 000 lignes d'ingrédients : ancienne implémentation à base de regex
+ * (recopiée de GroceryListService) contre automate Aho-Corasick + parseur en un passage.
+ *
+ * Lancement : {@code main()} depuis l'IDE, ou après {@code mvn test-compile} :
+ * {@code java -cp target/test-classes:target/classes:<classpath test> org.openjdk.jmh.Main GroceryCategorizationBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroceryCategorizationBenchmark {
+
+    private static final String[] SAMPLE_LINES = {
+            "2 cups chopped fresh spinach", "500g chicken breast", "1 1/2 cuillères à soupe d'huile d'olive",
+            "3 oeufs", "1,5 kg de pommes de terre", "2-3 gousses d'ail émincées", "½ c.c. de sel",
+            "200 g de riz basmati", "1 tbsp olive oil", "4 tomatoes, diced", "1 verre de lait",
+            "100 g de parmesan râpé", "1 red bell pepper", "2 bananes", "1 pincée de poivre noir",
+            "250 ml crème fraîche", "1 oignon haché", "3 tranches de jambon", "1 cup quinoa",
+            "Sel et poivre (au goût)", "2 c.s. de miel", "150 g de saumon frais", "1 courgette",
+            "6 sardines", "80 g de flocons d'avoine", "1 yaourt nature", "2 carrots, sliced"
+    };
+
+    private String[] lines;
+    private IngredientCategorizer categorizer;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        lines = new String[10_000];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = SAMPLE_LINES[random.nextInt(SAMPLE_LINES.length)];
+        }
+        categorizer = new IngredientCategorizer(new ClassPathResource("grocery/ingredient-categories.txt"));
+    }
+
+    @Benchmark
+    public void legacyRegex(Blackhole bh) {
+        for (String line : lines) {
+            String name = legacyParseName(line);
+            bh.consume(legacyCategorize(name));
+        }
+    }
+
+    @Benchmark
+    public void automaton(Blackhole bh) {
+        for (String line : lines) {
+            IngredientLineParser.ParsedIngredient parsed = IngredientLineParser.parse(line);
+            bh.consume(categorizer.categorize(parsed.getName()));
+        }
+    }
+
+    @Benchmark
+    public void automatonCategorizeOnly(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(categorizer.categorize(line));
+        }
+    }
+
+    /** Copie de l'ancien GroceryListService.parseAndAggregateIngredient (sans l'agrégation). */
+    private static String legacyParseName(String ingredientLine) {
+        String cleaned = ingredientLine.toLowerCase().trim();
+        String name = cleaned;
+        String[] parts = cleaned.split("\\s+");
+        if (parts.length >= 2) {
+            try {
+                Double.parseDouble(parts[0].replaceAll("[^0-9.]", ""));
+                name = String.join(" ", Arrays.copyOfRange(parts, 2, parts.length));
+            } catch (NumberFormatException e) {
+                name = cleaned;
+            }
+        }
+        return name.replaceAll("\\b(fresh|organic|chopped|diced|sliced|raw)\\b", "").trim();
+    }
+
+    /** Copie de l'ancien GroceryListService.categorizeIngredient. */
+    private static String legacyCategorize(String ingredient) {
+        String lower = ingredient.toLowerCase();
+
+        if (lower.matches(".*(tomato|carrot|onion|pepper|lettuce|spinach|broccoli|cucumber|celery).*")) {
+            return "VEGETABLES";
+        } else if (lower.matches(".*(apple|banana|orange|berry|grape|lemon|lime|mango).*")) {
+            return "FRUITS";
+        } else if (lower.matches(".*(chicken|beef|pork|fish|salmon|turkey|egg|tofu).*")) {
+            return "PROTEIN";
+        } else if (lower.matches(".*(milk|cheese|yogurt|butter|cream).*")) {
+            return "DAIRY";
+        } else if (lower.matches(".*(rice|bread|pasta|flour|oat|quinoa|wheat).*")) {
+            return "GRAINS";
+        } else if (lower.matches(".*(oil|vinegar|salt|pepper|spice|herb|sauce).*")) {
+            return "CONDIMENTS";
+        } else {
+            return "OTHER";
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GroceryCategorizationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.nutriscan.benchmark;
+
+import com.nutriscan.service.planner.LocalMealPlanner;
+import com.nutriscan.service.planner.PlannerRecipe;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temps de calcul d'un plan de 14 jours par le planificateur local selon le nombre d'itérations de recherche,
+ * sur un pool synthétique de 60 recettes par créneau. La qualité (coût, écart calorique) est vérifiée
+ * par LocalMealPlannerTests ; ici seul le temps compte.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalMealPlannerBenchmark {
+
+    private static final LocalMealPlanner.Targets TARGETS = new LocalMealPlanner.Targets(2200, 130, 250, 73);
+
+    @Param({"0", "1000", "10000", "100000"})
+    private int iterations;
+
+    private List<List<PlannerRecipe>> pool;
+
+    @Setup
+    public void setUp() {
+        pool = syntheticPool(60, 11);
+    }
+
+    @Benchmark
+    public void solveFourteenDays(Blackhole bh) {
+        LocalMealPlanner.Result result = LocalMealPlanner.solve(pool, 14, TARGETS,
+                new LocalMealPlanner.Options(1_000_000_000L, iterations, 3));
+        bh.consume(result.getCost());
+        bh.consume(result.getPlan());
+    }
+
+    private static List<List<PlannerRecipe>> syntheticPool(int perSlot, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] shares = {0.25, 0.35, 0.30, 0.10};
+        List<List<PlannerRecipe>> pool = new ArrayList<>();
+        for (int s = 0; s < shares.length; s++) {
+            List<PlannerRecipe> list = new ArrayList<>();
+            for (int i = 0; i < perSlot; i++) {
+                double calories = TARGETS.getCalories() * shares[s] * (0.6 + random.nextDouble() * 0.8);
+                double proteinShare = 0.1 + random.nextDouble() * 0.3;
+                double fatShare = 0.2 + random.nextDouble() * 0.2;
+                double carbsShare = 1.0 - proteinShare - fatShare;
+                list.add(PlannerRecipe.builder()
+                        .label(LocalMealPlanner.SLOTS[s] + " " + i)
+                        .mealType(LocalMealPlanner.SLOTS[s])
+                        .calories(calories)
+                        .protein(calories * proteinShare / 4)
+                        .carbs(calories * carbsShare / 4)
+                        .fat(calories * fatShare / 9)
+                        .ingredientLines(List.of())
+                        .build());
+            }
+            pool.add(list);
+        }
+        return pool;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LocalMealPlannerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
